@@ -0,0 +1,149 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.ExampleClient;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of one caller thread using blocking ExampleClient calls with the same thread using
+ * getAsync/putAsync at several in-flight limits. Half of the operations are puts. The client talks to a
+ * LocalGrid with a simulated round trip, so no grid is needed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncClientBenchmark {
+    private static final int BATCH = 1024;
+    private static final int KEYS = 1000;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void blocking(Blocking state) throws Exception {
+        for(int i = 0; i < BATCH; i++) {
+            int op = state.next++;
+            if((op & 1) == 0) {
+                state.client.put(state.keys[op % KEYS], state.values[op % KEYS]);
+            } else {
+                state.client.get(state.keys[op % KEYS]);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void async(Async state) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[BATCH];
+        for(int i = 0; i < BATCH; i++) {
+            int op = state.next++;
+            if((op & 1) == 0) {
+                futures[i] = state.client.putAsync(state.keys[op % KEYS], state.values[op % KEYS]);
+            } else {
+                futures[i] = state.client.getAsync(state.keys[op % KEYS]);
+            }
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * A client whose calls block for the whole round trip.
+     */
+    @State(Scope.Thread)
+    public static class Blocking {
+        @Param({"500"})
+        public long roundTripMicros;
+
+        ExampleClient client;
+        String[] keys;
+        String[] values;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            client = new LocalGrid(roundTripMicros).client();
+            keys = keys();
+            values = values();
+        }
+    }
+
+    /**
+     * A client that keeps up to maxInFlight calls outstanding.
+     */
+    @State(Scope.Thread)
+    public static class Async {
+        @Param({"500"})
+        public long roundTripMicros;
+
+        @Param({"4", "16", "64", "256"})
+        public int maxInFlight;
+
+        ExampleClient client;
+        String[] keys;
+        String[] values;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            client = new LocalGrid(roundTripMicros).client(maxInFlight);
+            keys = keys();
+            values = values();
+        }
+    }
+
+    private static String[] keys() {
+        String[] keys = new String[KEYS];
+        for(int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+        }
+        return keys;
+    }
+
+    private static String[] values() {
+        String[] values = new String[KEYS];
+        for(int i = 0; i < KEYS; i++) {
+            values[i] = "value-" + i;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.BulkLoadProgress;
+import com.scaleoutsoftware.samples.client.BulkLoader;
+import com.scaleoutsoftware.samples.client.ShardedMapClient;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares seeding a sharded map with one put per entry against BulkLoader reading a CSV and a binary file
+ * of entries with 16-byte keys and 100-byte values. The clients talk to a LocalGrid with a simulated round
+ * trip, so no grid is needed. "putPerEntry" reports entries per second; "bulkLoad" reports the time to
+ * load the whole file once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkLoadBenchmark {
+    @Benchmark
+    public boolean putPerEntry(Seeded state) throws Exception {
+        int i = state.next++;
+        return state.map.put(key(i), value(i));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public BulkLoadProgress bulkLoad(Loaded state) throws Exception {
+        BulkLoader loader = new BulkLoader(state.map);
+        loader.setParallelism(state.parallelism);
+        return loader.load(state.file, state.format);
+    }
+
+    /**
+     * A sharded map that is written one entry at a time.
+     */
+    @State(Scope.Thread)
+    public static class Seeded {
+        @Param({"500"})
+        public long roundTripMicros;
+
+        @Param({"8"})
+        public int shards;
+
+        ShardedMapClient map;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            map = new ShardedMapClient(new LocalGrid(roundTripMicros).client(), "seeded", shards);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            map.close();
+        }
+    }
+
+    /**
+     * A file of entries in the given format, and an empty sharded map for each load of it.
+     */
+    @State(Scope.Thread)
+    public static class Loaded {
+        @Param({"500"})
+        public long roundTripMicros;
+
+        @Param({"1000000"})
+        public int entries;
+
+        @Param({"8"})
+        public int shards;
+
+        @Param({"CSV", "BINARY"})
+        public BulkLoader.Format format;
+
+        @Param({"1", "8"})
+        public int parallelism;
+
+        Path file;
+        ShardedMapClient map;
+
+        @Setup(Level.Trial)
+        public void writeFile() throws IOException {
+            file = Files.createTempFile("bulk", format == BulkLoader.Format.CSV ? ".csv" : ".bin");
+            if(format == BulkLoader.Format.CSV) {
+                try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for(int i = 0; i < entries; i++) {
+                        writer.write(key(i));
+                        writer.write(',');
+                        writer.write(value(i));
+                        writer.write('\n');
+                    }
+                }
+            } else {
+                try(OutputStream out = Files.newOutputStream(file)) {
+                    for(int i = 0; i < entries; i++) {
+                        BulkLoader.writeRecord(out, key(i), value(i));
+                    }
+                }
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void createMap() {
+            map = new ShardedMapClient(new LocalGrid(roundTripMicros).client(), "loaded", shards);
+        }
+
+        @TearDown(Level.Iteration)
+        public void closeMap() {
+            map.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteFile() throws IOException {
+            Files.delete(file);
+        }
+    }
+
+    private static String key(int i) {
+        return String.format("device:%09d", i);
+    }
+
+    private static String value(int i) {
+        StringBuilder value = new StringBuilder("{\"id\":").append(i).append(",\"status\":\"active\",\"firmware\":\"4.2.1\",\"region\":\"us-west\"");
+        while(value.length() < 99) {
+            value.append(' ');
+        }
+        return value.append('}').toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.server.SossHashMap;
+import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the client side of the wire format: building requests and reading responses in ExampleClient,
+ * including value compression above the client's threshold. The client's invoke answers with response
+ * frames recorded from the real handlers once, so neither the handlers nor a grid are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientCodecBenchmark {
+    private static final int MGET_BATCH_SIZE = 16;
+
+    @Param({"16", "64"})
+    public int keySize;
+
+    @Param({"64", "1024", "16384"})
+    public int valueSize;
+
+    private CannedClient _client;
+    private String _key;
+    private String _value;
+    private List<String> _keys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        _client = new CannedClient();
+        _key = MapFixture.key(0, keySize);
+        _value = MapFixture.value(new Random(1), valueSize);
+        Map<String, String> entries = new HashMap<>();
+        _keys = new ArrayList<>();
+        for(int i = 0; i < MGET_BATCH_SIZE; i++) {
+            _keys.add(MapFixture.key(i, keySize));
+            entries.put(MapFixture.key(i, keySize), _value);
+        }
+        // run every operation once against the handlers and keep the responses
+        _client.put(_key, _value);
+        _client.mput(entries);
+        _client.get(_key);
+        _client.mget(_keys);
+        _client.recording = false;
+    }
+
+    @Benchmark
+    public String get() throws Exception {
+        return _client.get(_key);
+    }
+
+    @Benchmark
+    public boolean put() throws Exception {
+        return _client.put(_key, _value);
+    }
+
+    @Benchmark
+    public Map<String, String> mget() throws Exception {
+        return _client.mget(_keys);
+    }
+
+    /**
+     * Answers each operation with the response the handlers gave it while recording. The grid connection
+     * is never used.
+     */
+    private static class CannedClient extends ExampleClient {
+        private final SossHashMapApiProcessor _processor = new SossHashMapApiProcessor();
+        private final SossHashMap _map = _processor.createObject("SossHashMap", DEFAULT_OBJECT_ID);
+        private final Map<String, byte[]> _responses = new HashMap<>();
+        boolean recording = true;
+
+        CannedClient() {
+            super(null, "SossHashMap");
+        }
+
+        @Override
+        public byte[] invoke(String objectId, String operationId, byte[] payload) {
+            if(!recording)
+                return _responses.get(operationId);
+            byte[] response;
+            switch(operationId) {
+                case "get": response = _processor.getHandler(null, _map, payload).getResult(); break;
+                case "put": response = _processor.putHandler(null, _map, payload).getResult(); break;
+                case "mget": response = _processor.mgetHandler(null, _map, payload).getResult(); break;
+                case "mput": response = _processor.mputHandler(null, _map, payload).getResult(); break;
+                default: throw new IllegalArgumentException(operationId);
+            }
+            _responses.put(operationId, response);
+            return response;
+        }
+    }
+}
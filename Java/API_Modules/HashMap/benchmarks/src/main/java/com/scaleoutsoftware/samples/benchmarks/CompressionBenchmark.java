@@ -0,0 +1,218 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.server.Lz4;
+import com.scaleoutsoftware.samples.server.SossHashMapSerializer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what value compression costs in CPU and saves in bytes, for JSON documents of several sizes:
+ * a put followed by a get through ExampleClient and the module's handlers with and without compression,
+ * the raw Lz4 speeds, and the serialization of an object holding 500 documents. The "wireBytes" and
+ * "serializedBytes" secondary results are rates; divide them by the score for the bytes per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+    private static final String[] NAMES = {"sensor", "gateway", "meter", "camera", "valve", "pump"};
+    private static final String[] STATES = {"active", "idle", "fault", "maintenance"};
+    private static final int STORED_DOCUMENTS = 500;
+    private static final int STORED_DOCUMENT_SIZE = 16384;
+
+    @Benchmark
+    public String putGet(Client state, WireBytes bytes) throws Exception {
+        state.client.put("doc", state.document);
+        String value = state.client.get("doc");
+        bytes.wireBytes += state.client.bytes;
+        state.client.bytes = 0;
+        return value;
+    }
+
+    @Benchmark
+    public byte[] compress(Codec state) {
+        return Lz4.compressValue(state.document, 0, state.document.length);
+    }
+
+    @Benchmark
+    public byte[] decompress(Codec state) {
+        return Lz4.decompressValue(state.compressed, 0, state.compressed.length);
+    }
+
+    @Benchmark
+    public byte[] serialize(StoredMap state, SerializedBytes bytes) {
+        byte[] serialized = state.serializer.serialize(state.client.grid.object(ExampleClient.DEFAULT_OBJECT_ID));
+        bytes.serializedBytes += serialized.length;
+        return serialized;
+    }
+
+    /**
+     * A client with the given compression threshold and a document of valueSize characters. A threshold of
+     * 0 turns compression off and 1 compresses every value.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        @Param({"1024", "4096", "16384", "65536", "204800"})
+        public int valueSize;
+
+        @Param({"0", "1"})
+        public int compressionThreshold;
+
+        CountingClient client;
+        String document;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            client = new CountingClient(compressionThreshold);
+            document = document(valueSize, new Random(valueSize));
+        }
+    }
+
+    /**
+     * A document of valueSize characters, as UTF-8 and compressed.
+     */
+    @State(Scope.Thread)
+    public static class Codec {
+        @Param({"1024", "4096", "16384", "65536", "204800"})
+        public int valueSize;
+
+        byte[] document;
+        byte[] compressed;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            document = document(valueSize, new Random(valueSize)).getBytes(StandardCharsets.UTF_8);
+            compressed = Lz4.compressValue(document, 0, document.length);
+        }
+    }
+
+    /**
+     * An object holding 500 documents of 16 KB, put by a client with the given compression threshold.
+     */
+    @State(Scope.Thread)
+    public static class StoredMap {
+        @Param({"0", "4096"})
+        public int compressionThreshold;
+
+        final SossHashMapSerializer serializer = new SossHashMapSerializer();
+        CountingClient client;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            client = new CountingClient(compressionThreshold);
+            for(int i = 0; i < STORED_DOCUMENTS; i++) {
+                client.put("doc:" + i, document(STORED_DOCUMENT_SIZE, new Random(i)));
+            }
+        }
+    }
+
+    /**
+     * Reports the request and response bytes per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class WireBytes {
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wireBytes = 0;
+        }
+    }
+
+    /**
+     * Reports the bytes serialized per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SerializedBytes {
+        public long serializedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            serializedBytes = 0;
+        }
+    }
+
+    /**
+     * Builds a JSON array of device records of about the given length, with repeated field names and
+     * vocabulary but random ids, readings and timestamps.
+     */
+    private static String document(int length, Random random) {
+        StringBuilder json = new StringBuilder(length + 256).append('[');
+        while(json.length() < length) {
+            json.append("{\"id\":\"").append(Long.toHexString(random.nextLong()))
+                    .append("\",\"name\":\"").append(NAMES[random.nextInt(NAMES.length)]).append('-').append(random.nextInt(1000))
+                    .append("\",\"state\":\"").append(STATES[random.nextInt(STATES.length)])
+                    .append("\",\"reading\":").append(random.nextInt(100000) / 100.0)
+                    .append(",\"updated\":").append(1700000000000L + random.nextInt(1000000000))
+                    .append(",\"tags\":[\"site-").append(random.nextInt(20)).append("\",\"floor-").append(random.nextInt(8)).append("\"]},");
+        }
+        json.setCharAt(json.length() - 1, ']');
+        return json.toString();
+    }
+
+    /**
+     * Talks to a LocalGrid with no round trip and counts the request and response bytes.
+     */
+    private static class CountingClient extends ExampleClient {
+        final LocalGrid grid = new LocalGrid(0);
+        long bytes;
+
+        CountingClient(int compressionThreshold) {
+            super(null, "SossHashMap");
+            setCompressionThreshold(compressionThreshold);
+        }
+
+        @Override
+        public byte[] invoke(String objectId, String operationId, byte[] payload) {
+            byte[] result = grid.invoke(objectId, operationId, payload);
+            bytes += payload.length + result.length;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.modules.abstractions.InvokeResult;
+import com.scaleoutsoftware.samples.server.SossHashMap;
+import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the "get", "put" and "mget" handlers of SossHashMapApiProcessor directly, with a stub processing
+ * context, so the map engine and the wire format are measured without a grid. Gets and batched gets find
+ * their keys with the probability hitRatio; puts replace the values of existing keys, so the map keeps
+ * its size. Run with "-prof gc" to add the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+    private static final int MGET_BATCH_SIZE = 16;
+
+    @Param({"16", "64"})
+    public int keySize;
+
+    @Param({"64", "1024"})
+    public int valueSize;
+
+    @Param({"1000", "100000"})
+    public int mapSize;
+
+    @Param({"1.0", "0.5"})
+    public double hitRatio;
+
+    private final SossHashMapApiProcessor _processor = new SossHashMapApiProcessor();
+    private final StubProcessingContext _context = new StubProcessingContext(MapFixture.OBJECT_ID);
+    private SossHashMap _map;
+    private byte[][] _getRequests;
+    private byte[][] _putRequests;
+    private byte[][] _mgetRequests;
+    private int _next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _map = MapFixture.createMap(_processor, mapSize, keySize, valueSize);
+        _getRequests = MapFixture.getRequests(mapSize, keySize, hitRatio);
+        _putRequests = MapFixture.putRequests(mapSize, keySize, valueSize);
+        _mgetRequests = MapFixture.mgetRequests(mapSize, keySize, hitRatio, MGET_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public InvokeResult get() {
+        return _processor.getHandler(_context, _map, _getRequests[next()]);
+    }
+
+    @Benchmark
+    public InvokeResult put() {
+        return _processor.putHandler(_context, _map, _putRequests[next()]);
+    }
+
+    @Benchmark
+    public InvokeResult mget() {
+        return _processor.mgetHandler(_context, _map, _mgetRequests[next()]);
+    }
+
+    private int next() {
+        return _next = (_next + 1) & (MapFixture.REQUEST_RING - 1);
+    }
+}
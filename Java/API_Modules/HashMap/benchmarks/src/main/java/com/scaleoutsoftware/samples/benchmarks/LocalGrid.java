@@ -0,0 +1,134 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.modules.abstractions.ApiProcessorLockingMode;
+import com.scaleoutsoftware.modules.abstractions.InvokeResult;
+import com.scaleoutsoftware.modules.abstractions.SossApiMethod;
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.server.SossHashMap;
+import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stand-in for the grid that the client benchmarks talk to. It creates SossHashMap objects on first use and
+ * answers each invoke after a simulated network round trip, with the processor's handler for the operationId
+ * found through its @SossApiMethod annotations. Handlers that take a lock run while holding the object's
+ * monitor. The grid connection of its clients is never used.
+ */
+final class LocalGrid {
+    private final SossHashMapApiProcessor _processor = new SossHashMapApiProcessor();
+    private final Map<String, Method> _handlers = new HashMap<>();
+    private final Map<String, SossHashMap> _objects = new ConcurrentHashMap<>();
+    private final long _roundTripNanos;
+    private final AtomicLong _roundTrips = new AtomicLong();
+
+    LocalGrid(long roundTripMicros) {
+        _roundTripNanos = roundTripMicros * 1000;
+        for(Method method : SossHashMapApiProcessor.class.getMethods()) {
+            SossApiMethod api = method.getAnnotation(SossApiMethod.class);
+            if(api != null)
+                _handlers.put(api.operationId(), method);
+        }
+    }
+
+    /**
+     * Returns the object with the given ID, creating it if it does not exist.
+     */
+    SossHashMap object(String objectId) {
+        return _objects.computeIfAbsent(objectId, id -> _processor.createObject("SossHashMap", id));
+    }
+
+    /**
+     * Returns the number of invokes answered so far.
+     */
+    long roundTrips() {
+        return _roundTrips.get();
+    }
+
+    /**
+     * Runs the handler for operationId on the object and returns its result, including whether the grid
+     * would store the object again.
+     */
+    InvokeResult invokeResult(String objectId, String operationId, byte[] payload) {
+        Method handler = _handlers.get(operationId);
+        if(handler == null)
+            throw new IllegalArgumentException(operationId);
+        if(_roundTripNanos > 0)
+            LockSupport.parkNanos(_roundTripNanos);
+        _roundTrips.incrementAndGet();
+        SossHashMap map = object(objectId);
+        if(handler.getAnnotation(SossApiMethod.class).lockingMode() == ApiProcessorLockingMode.None)
+            return call(handler, map, payload);
+        synchronized (map) {
+            return call(handler, map, payload);
+        }
+    }
+
+    byte[] invoke(String objectId, String operationId, byte[] payload) {
+        return invokeResult(objectId, operationId, payload).getResult();
+    }
+
+    /**
+     * Returns a client whose invokes are answered by this grid.
+     */
+    ExampleClient client() {
+        return client(ExampleClient.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Returns a client whose invokes are answered by this grid, with at most maxInFlight async calls outstanding.
+     */
+    ExampleClient client(int maxInFlight) {
+        return new ExampleClient(null, "SossHashMap", null, maxInFlight) {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                return LocalGrid.this.invoke(objectId, operationId, payload);
+            }
+        };
+    }
+
+    private InvokeResult call(Method handler, SossHashMap map, byte[] payload) {
+        try {
+            return (InvokeResult)handler.invoke(_processor, null, map, payload);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            if(e.getCause() instanceof Error)
+                throw (Error)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
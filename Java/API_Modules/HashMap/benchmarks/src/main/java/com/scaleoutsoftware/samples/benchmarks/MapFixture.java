@@ -0,0 +1,148 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.server.SossHashMap;
+import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+import com.scaleoutsoftware.samples.server.WireProtocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Builds the maps and request payloads the benchmarks run against. Keys and values are ASCII, so their
+ * UTF-8 lengths are the sizes asked for, and every run with the same parameters uses the same data.
+ */
+final class MapFixture {
+    static final String OBJECT_ID = "BenchmarkMap";
+    // requests are drawn from a fixed ring so the measured loop does no setup work
+    static final int REQUEST_RING = 4096;
+
+    private MapFixture() {
+    }
+
+    /**
+     * Returns the key of entry i, padded to keySize characters.
+     */
+    static String key(int i, int keySize) {
+        StringBuilder key = new StringBuilder(keySize).append("key:").append(i);
+        while(key.length() < keySize) {
+            key.append('#');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns a key of keySize characters that is not in any map.
+     */
+    static String missingKey(int i, int keySize) {
+        return "miss:" + key(i, Math.max(keySize - 5, 0));
+    }
+
+    /**
+     * Returns a value of valueSize characters that looks like a small JSON document.
+     */
+    static String value(Random random, int valueSize) {
+        StringBuilder value = new StringBuilder(valueSize + 32).append('{');
+        while(value.length() < valueSize - 1) {
+            value.append("\"f").append(random.nextInt(100)).append("\":").append(random.nextInt(100000)).append(',');
+        }
+        value.setLength(Math.max(valueSize - 1, 1));
+        return value.append('}').toString();
+    }
+
+    /**
+     * Creates a map with mapSize entries through the processor, as the grid would.
+     */
+    static SossHashMap createMap(SossHashMapApiProcessor processor, int mapSize, int keySize, int valueSize) {
+        SossHashMap map = processor.createObject("SossHashMap", OBJECT_ID);
+        Random random = new Random(mapSize);
+        for(int i = 0; i < mapSize; i++) {
+            map.put(key(i, keySize), value(random, valueSize));
+        }
+        return map;
+    }
+
+    /**
+     * Returns a ring of "get" requests of which about hitRatio find their key in a map of mapSize entries.
+     */
+    static byte[][] getRequests(int mapSize, int keySize, double hitRatio) {
+        Random random = new Random(42);
+        byte[][] requests = new byte[REQUEST_RING][];
+        for(int i = 0; i < requests.length; i++) {
+            String key = random.nextDouble() < hitRatio ? key(random.nextInt(mapSize), keySize) : missingKey(i, keySize);
+            requests[i] = keyRequest(key);
+        }
+        return requests;
+    }
+
+    /**
+     * Returns a ring of "put" requests that replace the values of existing keys.
+     */
+    static byte[][] putRequests(int mapSize, int keySize, int valueSize) {
+        Random random = new Random(43);
+        byte[][] requests = new byte[REQUEST_RING][];
+        for(int i = 0; i < requests.length; i++) {
+            byte[] key = key(random.nextInt(mapSize), keySize).getBytes(StandardCharsets.UTF_8);
+            byte[] value = value(random, valueSize).getBytes(StandardCharsets.UTF_8);
+            requests[i] = WireProtocol.writeRequest(0, WireProtocol.varintSize(key.length) + key.length + value.length)
+                    .putVarint(key.length).putBytes(key)
+                    .putBytes(value)
+                    .array();
+        }
+        return requests;
+    }
+
+    /**
+     * Returns a ring of "mget" requests for batchSize keys each, of which about hitRatio are in the map.
+     */
+    static byte[][] mgetRequests(int mapSize, int keySize, double hitRatio, int batchSize) {
+        Random random = new Random(44);
+        byte[][] requests = new byte[REQUEST_RING][];
+        for(int i = 0; i < requests.length; i++) {
+            byte[][] keys = new byte[batchSize][];
+            int len = WireProtocol.varintSize(batchSize);
+            for(int k = 0; k < batchSize; k++) {
+                String key = random.nextDouble() < hitRatio ? key(random.nextInt(mapSize), keySize) : missingKey(i * batchSize + k, keySize);
+                keys[k] = key.getBytes(StandardCharsets.UTF_8);
+                len += WireProtocol.varintSize(keys[k].length) + keys[k].length;
+            }
+            WireProtocol.Writer request = WireProtocol.writeRequest(0, len).putVarint(batchSize);
+            for(byte[] key : keys) {
+                request.putVarint(key.length).putBytes(key);
+            }
+            requests[i] = request.array();
+        }
+        return requests;
+    }
+
+    private static byte[] keyRequest(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(0, WireProtocol.varintSize(keyBytes.length) + keyBytes.length)
+                .putVarint(keyBytes.length).putBytes(keyBytes)
+                .array();
+    }
+}
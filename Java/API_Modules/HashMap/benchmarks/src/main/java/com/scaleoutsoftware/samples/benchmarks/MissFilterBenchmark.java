@@ -0,0 +1,148 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.BulkLoader;
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.client.MissFilter;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trips a MissFilter saves for a read mix in which 40% of the keys are missing, while
+ * another client adds a key once per readsPerWrite reads. The clients talk to a LocalGrid with a simulated
+ * round trip, so no grid is needed. missFilter is "none" or "falsePositiveRate/refreshMillis". The reader's
+ * round trips, filter refreshes included, are reported as the "roundTrips" secondary result, a rate; divide
+ * it by the score for the round trips per read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MissFilterBenchmark {
+    private static final String MAP_NAME = "map";
+
+    @Param({"500"})
+    public long roundTripMicros;
+
+    @Param({"100000"})
+    public int entries;
+
+    @Param({"20"})
+    public int readsPerWrite;
+
+    @Param({"none", "0.01/1000", "0.01/100", "0.001/1000", "0.01/0"})
+    public String missFilter;
+
+    private final Random _random = new Random(42);
+    private ExampleClient _writer;
+    private CountingClient _reader;
+    private int _next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        LocalGrid grid = new LocalGrid(roundTripMicros);
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for(int i = 0; i < entries; i++) {
+            BulkLoader.writeRecord(records, "key:" + i, "value " + i);
+        }
+        _writer = grid.client();
+        _writer.bulkPut(MAP_NAME, records.toByteArray(), 0, records.size());
+        _reader = new CountingClient(grid);
+        if(!missFilter.equals("none")) {
+            String[] settings = missFilter.split("/");
+            _reader.setMissFilter(new MissFilter(Double.parseDouble(settings[0]), Duration.ofMillis(Long.parseLong(settings[1]))));
+        }
+    }
+
+    @Benchmark
+    public String read(RoundTrips roundTrips) throws Exception {
+        int next = _next++;
+        if(next % readsPerWrite == 0)
+            _writer.put(MAP_NAME, "new:" + next, "value");
+        String value;
+        if(_random.nextInt(100) < 40) {
+            value = _reader.get(MAP_NAME, "missing:" + _random.nextInt());
+        } else {
+            value = _reader.get(MAP_NAME, "key:" + _random.nextInt(entries));
+        }
+        roundTrips.roundTrips += _reader.roundTrips;
+        _reader.roundTrips = 0;
+        return value;
+    }
+
+    /**
+     * Reports the reader's round trips per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RoundTrips {
+        public long roundTrips;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            roundTrips = 0;
+        }
+    }
+
+    /**
+     * Talks to a LocalGrid and counts its own round trips.
+     */
+    private static class CountingClient extends ExampleClient {
+        private final LocalGrid _grid;
+        long roundTrips;
+
+        CountingClient(LocalGrid grid) {
+            super(null, "SossHashMap");
+            _grid = grid;
+        }
+
+        @Override
+        public byte[] invoke(String objectId, String operationId, byte[] payload) {
+            roundTrips++;
+            return _grid.invoke(objectId, operationId, payload);
+        }
+    }
+}
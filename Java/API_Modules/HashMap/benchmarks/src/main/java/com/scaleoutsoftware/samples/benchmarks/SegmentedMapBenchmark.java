@@ -0,0 +1,163 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.modules.abstractions.InvokeResult;
+import com.scaleoutsoftware.modules.abstractions.ProcessingResult;
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.client.SegmentedMapClient;
+import com.scaleoutsoftware.samples.server.SossHashMapSerializer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a single-key put costs when the grid writes back the object it changed, for one whole
+ * SossHashMap and for a map of the same size stored as segments by SegmentedMapClient. The cost of a put
+ * is the handler's time plus the time to serialize every object it returned DoUpdate for. The bytes
+ * serialized are reported as the "persistedBytes" secondary result, a rate; divide it by the score for
+ * the bytes per put.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SegmentedMapBenchmark {
+    private static final String MAP_NAME = "map";
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"whole", "segmented"})
+    public String layout;
+
+    @Param({"1024"})
+    public int maxSegmentEntries;
+
+    private PersistingClient _client;
+    private SegmentedMapClient _segmented;
+    private String[] _keys;
+    private String[] _values;
+    private int _next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        _client = new PersistingClient();
+        if(layout.equals("segmented"))
+            _segmented = new SegmentedMapClient(_client, MAP_NAME, maxSegmentEntries);
+        for(int i = 0; i < entries; i++) {
+            put("key:" + i, value(i));
+        }
+        // updates go to random existing keys
+        Random random = new Random(entries);
+        _keys = new String[MapFixture.REQUEST_RING];
+        _values = new String[MapFixture.REQUEST_RING];
+        for(int i = 0; i < _keys.length; i++) {
+            _keys[i] = "key:" + random.nextInt(entries);
+            _values[i] = value(random.nextInt());
+        }
+        _client.persist = true;
+    }
+
+    @Benchmark
+    public void put(Persisted persisted) throws Exception {
+        int next = _next = (_next + 1) & (MapFixture.REQUEST_RING - 1);
+        put(_keys[next], _values[next]);
+        persisted.persistedBytes += _client.persistedBytes;
+        _client.persistedBytes = 0;
+    }
+
+    private void put(String key, String value) throws Exception {
+        if(_segmented != null) {
+            _segmented.put(key, value);
+        } else {
+            _client.put(MAP_NAME, key, value);
+        }
+    }
+
+    private static String value(int seed) {
+        StringBuilder value = new StringBuilder("{\"state\":\"");
+        value.append(Integer.toHexString(seed)).append("\",\"count\":").append(seed & 0xffff);
+        while(value.length() < 39) {
+            value.append(' ');
+        }
+        return value.append('}').toString();
+    }
+
+    /**
+     * Reports the bytes serialized per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Persisted {
+        public long persistedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            persistedBytes = 0;
+        }
+    }
+
+    /**
+     * Talks to a LocalGrid with no round trip and, once persist is set, serializes each object an operation
+     * returned DoUpdate for, as the grid does when it stores the object.
+     */
+    private static class PersistingClient extends ExampleClient {
+        private final LocalGrid _grid = new LocalGrid(0);
+        private final SossHashMapSerializer _serializer = new SossHashMapSerializer();
+        boolean persist;
+        long persistedBytes;
+
+        PersistingClient() {
+            super(null, "SossHashMap");
+        }
+
+        @Override
+        public byte[] invoke(String objectId, String operationId, byte[] payload) {
+            InvokeResult result = _grid.invokeResult(objectId, operationId, payload);
+            if(persist && result.getProcessingResult() == ProcessingResult.DoUpdate) {
+                persistedBytes += _serializer.serialize(_grid.object(objectId)).length;
+            }
+            return result.getResult();
+        }
+    }
+}
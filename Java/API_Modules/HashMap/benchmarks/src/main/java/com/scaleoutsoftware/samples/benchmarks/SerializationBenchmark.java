@@ -0,0 +1,101 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.server.SossHashMap;
+import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+import com.scaleoutsoftware.samples.server.SossHashMapDeserializer;
+import com.scaleoutsoftware.samples.server.SossHashMapSerializer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a SossHashMap is serialized and deserialized with the module's binary codec, the work
+ * the grid does for every update, and reports the serialized size in bytes as the "serializedBytes"
+ * secondary result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"16", "64"})
+    public int keySize;
+
+    @Param({"64", "1024"})
+    public int valueSize;
+
+    @Param({"1000", "100000"})
+    public int mapSize;
+
+    private final SossHashMapSerializer _serializer = new SossHashMapSerializer();
+    private final SossHashMapDeserializer _deserializer = new SossHashMapDeserializer();
+    private SossHashMap _map;
+    private byte[] _serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _map = MapFixture.createMap(new SossHashMapApiProcessor(), mapSize, keySize, valueSize);
+        _serialized = _serializer.serialize(_map);
+    }
+
+    @Benchmark
+    public byte[] serialize(SizeCounter size) {
+        byte[] serialized = _serializer.serialize(_map);
+        size.serializedBytes = serialized.length;
+        return serialized;
+    }
+
+    @Benchmark
+    public SossHashMap deserialize() {
+        return _deserializer.deserialize(_serialized);
+    }
+
+    /**
+     * Reports the size of the last serialized object with the results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SizeCounter {
+        public long serializedBytes;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.samples.client.BulkLoadProgress;
+import com.scaleoutsoftware.samples.client.BulkLoader;
+import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.client.MapExporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a map of entries with 16-byte keys and 40-byte values from one object to another through a snapshot
+ * file: "export" writes the file with MapExporter and "restore" loads it into an empty object with BulkLoader.
+ * The clients talk to a LocalGrid with a simulated round trip, so no grid is needed. Each reports the time
+ * of one pass over the whole map; 10 million entries need a heap of about 4.5 GB ("-jvmArgsAppend -Xmx4500m").
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final String SOURCE = "source";
+    private static final String RESTORED = "restored";
+
+    @Param({"500"})
+    public long roundTripMicros;
+
+    @Param({"1000000"})
+    public int entries;
+
+    @Param({"4"})
+    public int pageMegabytes;
+
+    private ExampleClient _source;
+    private ExampleClient _target;
+    private Path _snapshot;
+    private Path _export;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        _source = new LocalGrid(roundTripMicros).client();
+        Path seed = Files.createTempFile("seed", ".bin");
+        try {
+            try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(seed), 1 << 16)) {
+                for(int i = 0; i < entries; i++) {
+                    BulkLoader.writeRecord(out, key(i), value(i));
+                }
+            }
+            new BulkLoader(_source, SOURCE).load(seed, BulkLoader.Format.BINARY);
+        } finally {
+            Files.delete(seed);
+        }
+        _snapshot = Files.createTempFile("snapshot", ".bin");
+        _export = Files.createTempFile("export", ".bin");
+        exporter().export(_snapshot);
+    }
+
+    @Setup(Level.Iteration)
+    public void createTarget() {
+        _target = new LocalGrid(roundTripMicros).client();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(_snapshot);
+        Files.delete(_export);
+    }
+
+    @Benchmark
+    public long export() throws Exception {
+        return exporter().export(_export);
+    }
+
+    @Benchmark
+    public BulkLoadProgress restore() throws Exception {
+        BulkLoader loader = new BulkLoader(_target, RESTORED);
+        loader.setChunkBytes(pageMegabytes << 20);
+        BulkLoadProgress progress = loader.load(_snapshot, BulkLoader.Format.SNAPSHOT);
+        if(progress.getRecords() != entries)
+            throw new IllegalStateException("The restored map has " + progress.getRecords() + " entries.");
+        return progress;
+    }
+
+    private MapExporter exporter() {
+        MapExporter exporter = new MapExporter(_source, SOURCE);
+        exporter.setPageBytes(pageMegabytes << 20);
+        return exporter;
+    }
+
+    private static String key(int i) {
+        return String.format("device:%09d", i);
+    }
+
+    private static String value(int i) {
+        StringBuilder value = new StringBuilder("{\"id\":").append(i).append(",\"status\":\"active\"");
+        while(value.length() < 39) {
+            value.append(' ');
+        }
+        return value.append('}').toString();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.modules.abstractions.AlertSeverity;
+import com.scaleoutsoftware.modules.abstractions.ApiProcessingContext;
+import com.scaleoutsoftware.samples.server.SossHashMap;
+
+/**
+ * An ApiProcessingContext for calling the handlers outside of a grid. UI alerts are counted, not sent.
+ */
+public class StubProcessingContext implements ApiProcessingContext<SossHashMap> {
+    private final String _objectId;
+    private long _alerts;
+
+    public StubProcessingContext(String objectId) {
+        _objectId = objectId;
+    }
+
+    @Override
+    public String getObjectId() {
+        return _objectId;
+    }
+
+    @Override
+    public void sendUiAlert(AlertSeverity severity, String message) {
+        _alerts++;
+    }
+
+    /**
+     * @return the number of UI alerts the handlers sent
+     */
+    public long getAlertCount() {
+        return _alerts;
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a codec for each @ApiMessage class and a typed client for each ApiProcessor with
+ * @ApiOperation handlers. Mistakes in a message or operation are reported as compile errors on the
+ * element, so a request type that cannot be encoded never reaches the grid.
+ */
+@SupportedAnnotationTypes({"com.scaleoutsoftware.samples.codegen.ApiMessage", "com.scaleoutsoftware.samples.codegen.ApiOperation"})
+public class ApiCodecProcessor extends AbstractProcessor {
+    private static final String SOSS_API_METHOD = "com.scaleoutsoftware.modules.abstractions.SossApiMethod";
+    private static final String API_OPERATION = "com.scaleoutsoftware.samples.codegen.ApiOperation";
+    private static final String CODECS = "MessageCodecs";
+    // local names used by the generated methods
+    private static final Set<String> RESERVED = new HashSet<>();
+    static {
+        for(String name : new String[]{"message", "frame", "offset", "length", "end", "position", "response"})
+            RESERVED.add(name);
+    }
+
+    // types already generated in an earlier round
+    private final Set<String> _generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for(Element element : round.getElementsAnnotatedWith(ApiMessage.class)) {
+            if(element.getKind() != ElementKind.CLASS) {
+                error(element, "@ApiMessage can only be used on a class.");
+                continue;
+            }
+            MessageModel model = messageModel((TypeElement)element);
+            if(model != null)
+                writeCodec(model);
+        }
+        Map<TypeElement, List<OperationModel>> clients = new LinkedHashMap<>();
+        for(ExecutableElement method : ElementFilter.methodsIn(round.getElementsAnnotatedWith(ApiOperation.class))) {
+            OperationModel operation = operationModel(method);
+            if(operation != null)
+                clients.computeIfAbsent((TypeElement)method.getEnclosingElement(), k -> new ArrayList<>()).add(operation);
+        }
+        for(Map.Entry<TypeElement, List<OperationModel>> client : clients.entrySet())
+            writeClient(client.getKey(), client.getValue());
+        return true;
+    }
+
+    // ---- messages ----
+
+    private enum FieldKind {
+        BOOLEAN("Boolean", 1), BYTE("Byte", 1), SHORT("Short", 2), INT("Int", 4), LONG("Long", 8),
+        DOUBLE("Double", 8), STRING("String", -1), BYTES("Bytes", -1), ENUM("Ordinal", 1);
+
+        final String codec;
+        final int size;
+
+        FieldKind(String codec, int size) {
+            this.codec = codec;
+            this.size = size;
+        }
+    }
+
+    private static final class FieldModel {
+        String local;
+        String accessor;
+        FieldKind kind;
+        String enumType;
+    }
+
+    private static final class MessageModel {
+        TypeElement type;
+        String packageName;
+        String codecName;
+        final List<FieldModel> fields = new ArrayList<>();
+    }
+
+    private MessageModel messageModel(TypeElement type) {
+        if(type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+                || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))) {
+            error(type, "An @ApiMessage must be a top-level or static nested class.");
+            return null;
+        }
+        MessageModel model = new MessageModel();
+        model.type = type;
+        model.packageName = packageOf(type);
+        model.codecName = flatName(type) + "Codec";
+        List<TypeMirror> fieldTypes = new ArrayList<>();
+        Set<String> locals = new HashSet<>();
+        boolean valid = true;
+        for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if(modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT))
+                continue;
+            FieldModel fieldModel = new FieldModel();
+            fieldModel.kind = fieldKind(field.asType());
+            if(fieldModel.kind == null) {
+                error(field, "Unsupported @ApiMessage field type " + field.asType() + "; use a primitive, String, byte[] or an enum.");
+                valid = false;
+                continue;
+            }
+            if(fieldModel.kind == FieldKind.ENUM) {
+                TypeElement enumType = (TypeElement)((DeclaredType)field.asType()).asElement();
+                long constants = enumType.getEnclosedElements().stream().filter(e -> e.getKind() == ElementKind.ENUM_CONSTANT).count();
+                if(constants > 256) {
+                    error(field, "An enum field is written as one byte and can have at most 256 constants.");
+                    valid = false;
+                }
+                fieldModel.enumType = enumType.getQualifiedName().toString();
+            }
+            String name = field.getSimpleName().toString();
+            String bare = stripUnderscores(name);
+            fieldModel.local = RESERVED.contains(bare) || !locals.add(bare) || !SourceVersion.isName(bare) ? bare + "Value" : bare;
+            locals.add(fieldModel.local);
+            if(!modifiers.contains(Modifier.PRIVATE)) {
+                fieldModel.accessor = "message." + name;
+            } else {
+                String getter = getter(type, field, bare);
+                if(getter == null) {
+                    error(field, "A private @ApiMessage field needs a getter named get" + capitalize(bare) + " or is" + capitalize(bare) + ".");
+                    valid = false;
+                    continue;
+                }
+                fieldModel.accessor = "message." + getter + "()";
+            }
+            fieldTypes.add(field.asType());
+            model.fields.add(fieldModel);
+        }
+        if(valid && !hasConstructor(type, fieldTypes)) {
+            error(type, "An @ApiMessage needs a constructor that takes its fields in declaration order: " + fieldTypes + ".");
+            valid = false;
+        }
+        return valid ? model : null;
+    }
+
+    private FieldKind fieldKind(TypeMirror type) {
+        switch(type.getKind()) {
+            case BOOLEAN: return FieldKind.BOOLEAN;
+            case BYTE: return FieldKind.BYTE;
+            case SHORT: return FieldKind.SHORT;
+            case INT: return FieldKind.INT;
+            case LONG: return FieldKind.LONG;
+            case DOUBLE: return FieldKind.DOUBLE;
+            case ARRAY:
+                TypeMirror component = processingEnv.getTypeUtils().getArrayType(processingEnv.getTypeUtils().getPrimitiveType(TypeKind.BYTE));
+                return processingEnv.getTypeUtils().isSameType(type, component) ? FieldKind.BYTES : null;
+            case DECLARED:
+                Element element = ((DeclaredType)type).asElement();
+                if(element.getKind() == ElementKind.ENUM)
+                    return FieldKind.ENUM;
+                if(((TypeElement)element).getQualifiedName().contentEquals("java.lang.String"))
+                    return FieldKind.STRING;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private String getter(TypeElement type, VariableElement field, String bare) {
+        String[] names = {"get" + capitalize(bare), "is" + capitalize(bare)};
+        for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if(method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC) || !method.getParameters().isEmpty())
+                continue;
+            if(!processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType()))
+                continue;
+            for(String name : names) {
+                if(method.getSimpleName().contentEquals(name))
+                    return name;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasConstructor(TypeElement type, List<TypeMirror> fieldTypes) {
+        for(ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if(constructor.getModifiers().contains(Modifier.PRIVATE) || constructor.getParameters().size() != fieldTypes.size())
+                continue;
+            boolean matches = true;
+            for(int i = 0; i < fieldTypes.size() && matches; i++)
+                matches = processingEnv.getTypeUtils().isSameType(constructor.getParameters().get(i).asType(), fieldTypes.get(i));
+            if(matches)
+                return true;
+        }
+        return false;
+    }
+
+    private void writeCodec(MessageModel model) {
+        String typeName = typeReference(model.type.getQualifiedName().toString(), model.packageName);
+        StringBuilder source = new StringBuilder();
+        if(!model.packageName.isEmpty())
+            source.append("package ").append(model.packageName).append(";\n\n");
+        source.append("import ").append(MessageCodecs.class.getName()).append(";\n\n");
+        source.append("/**\n * Encodes and decodes ").append(model.type.getSimpleName())
+                .append(". Generated by ApiCodecProcessor from its fields; do not edit.\n */\n");
+        source.append("public final class ").append(model.codecName).append(" {\n");
+        Set<String> enums = new HashSet<>();
+        for(FieldModel field : model.fields) {
+            // Enum.values() copies the array on every call
+            if(field.kind == FieldKind.ENUM && enums.add(field.enumType))
+                source.append("    private static final ").append(field.enumType).append("[] ").append(enumConstant(field.enumType))
+                        .append(" = ").append(field.enumType).append(".values();\n");
+        }
+        if(!enums.isEmpty())
+            source.append('\n');
+        source.append("    private ").append(model.codecName).append("() {\n    }\n\n");
+
+        // encode: size the frame, allocate it once and write the fields in place
+        source.append("    public static byte[] encode(").append(typeName).append(" message) {\n");
+        int fixed = 0;
+        StringBuilder size = new StringBuilder();
+        for(FieldModel field : model.fields) {
+            String javaType = javaType(field);
+            source.append("        ").append(javaType).append(' ').append(field.local).append(" = ").append(field.accessor).append(";\n");
+            if(field.kind == FieldKind.STRING) {
+                source.append("        int ").append(field.local).append("Length = ").append(CODECS).append(".utf8Length(").append(field.local).append(");\n");
+                size.append(" + ").append(CODECS).append(".fieldSize(").append(field.local).append("Length)");
+            } else if(field.kind == FieldKind.BYTES) {
+                size.append(" + ").append(CODECS).append(".fieldSize(").append(field.local).append(" == null ? -1 : ").append(field.local).append(".length)");
+            } else {
+                fixed += field.kind.size;
+            }
+        }
+        source.append("        byte[] frame = new byte[").append(fixed).append(size).append("];\n");
+        source.append("        int position = 0;\n");
+        for(FieldModel field : model.fields) {
+            source.append("        position = ").append(CODECS).append('.');
+            switch(field.kind) {
+                case STRING:
+                    source.append("putString(frame, position, ").append(field.local).append(", ").append(field.local).append("Length);\n");
+                    break;
+                case ENUM:
+                    source.append("putByte(frame, position, (byte)").append(field.local).append(".ordinal());\n");
+                    break;
+                default:
+                    source.append("put").append(field.kind.codec).append("(frame, position, ").append(field.local).append(");\n");
+            }
+        }
+        source.append("        return frame;\n    }\n\n");
+
+        source.append("    public static ").append(typeName).append(" decode(byte[] frame) {\n");
+        source.append("        return decode(frame, 0, frame.length);\n    }\n\n");
+
+        // decode: read the fields straight out of the frame; bytes after the last field are ignored
+        source.append("    public static ").append(typeName).append(" decode(byte[] frame, int offset, int length) {\n");
+        source.append("        int end = offset + length;\n");
+        source.append("        int position = offset;\n");
+        for(int i = 0; i < model.fields.size(); i++) {
+            FieldModel field = model.fields.get(i);
+            boolean last = i == model.fields.size() - 1;
+            String javaType = javaType(field);
+            switch(field.kind) {
+                case STRING:
+                case BYTES:
+                    source.append("        int ").append(field.local).append("Length = ").append(CODECS).append(".getLength(frame, position, end);\n");
+                    source.append("        position += ").append(CODECS).append(".lengthSize(").append(field.local).append("Length);\n");
+                    source.append("        ").append(javaType).append(' ').append(field.local).append(" = ").append(CODECS)
+                            .append(field.kind == FieldKind.STRING ? ".getString" : ".getBytes").append("(frame, position, ").append(field.local).append("Length);\n");
+                    if(!last)
+                        source.append("        position += Math.max(").append(field.local).append("Length, 0);\n");
+                    continue;
+                case ENUM:
+                    String values = enumConstant(field.enumType);
+                    source.append("        ").append(javaType).append(' ').append(field.local).append(" = ").append(values).append('[').append(CODECS)
+                            .append(".getOrdinal(frame, position, end, ").append(values).append(".length)];\n");
+                    break;
+                default:
+                    source.append("        ").append(javaType).append(' ').append(field.local).append(" = ").append(CODECS)
+                            .append(".get").append(field.kind.codec).append("(frame, position, end);\n");
+            }
+            if(!last)
+                source.append("        position += ").append(field.kind.size).append(";\n");
+        }
+        source.append("        return new ").append(typeName).append('(');
+        for(int i = 0; i < model.fields.size(); i++)
+            source.append(i == 0 ? "" : ", ").append(model.fields.get(i).local);
+        source.append(");\n    }\n}\n");
+        write(model.packageName, model.codecName, source, model.type);
+    }
+
+    private static String javaType(FieldModel field) {
+        switch(field.kind) {
+            case BOOLEAN: return "boolean";
+            case BYTE: return "byte";
+            case SHORT: return "short";
+            case INT: return "int";
+            case LONG: return "long";
+            case DOUBLE: return "double";
+            case STRING: return "String";
+            case BYTES: return "byte[]";
+            default: return field.enumType;
+        }
+    }
+
+    private static String enumConstant(String enumType) {
+        String simple = enumType.substring(enumType.lastIndexOf('.') + 1);
+        return simple.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase() + "_VALUES";
+    }
+
+    // ---- operations ----
+
+    private enum BodyKind {
+        NONE, MESSAGE, BOOLEAN, BYTE, SHORT, INT, LONG, DOUBLE
+    }
+
+    private static final class BodyModel {
+        BodyKind kind;
+        String typeName;
+        String codecName;
+        String packageName;
+    }
+
+    private static final class OperationModel {
+        String operationId;
+        BodyModel request;
+        BodyModel response;
+    }
+
+    private OperationModel operationModel(ExecutableElement method) {
+        String operationId = null;
+        AnnotationMirror operation = null;
+        for(AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            String name = ((TypeElement)mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if(name.equals(SOSS_API_METHOD))
+                operationId = (String)annotationValue(mirror, "operationId");
+            else if(name.equals(API_OPERATION))
+                operation = mirror;
+        }
+        if(operationId == null) {
+            error(method, "@ApiOperation can only be used on an @SossApiMethod handler.");
+            return null;
+        }
+        if(!SourceVersion.isName(operationId)) {
+            error(method, "The operationId \"" + operationId + "\" is not a Java identifier, so no client method can be named after it.");
+            return null;
+        }
+        OperationModel model = new OperationModel();
+        model.operationId = operationId;
+        model.request = bodyModel(method, (TypeMirror)annotationValue(operation, "request"));
+        model.response = bodyModel(method, (TypeMirror)annotationValue(operation, "response"));
+        return model.request == null || model.response == null ? null : model;
+    }
+
+    private BodyModel bodyModel(ExecutableElement method, TypeMirror type) {
+        BodyModel body = new BodyModel();
+        if(type == null) {
+            body.kind = BodyKind.NONE;
+            return body;
+        }
+        TypeElement element = (TypeElement)processingEnv.getTypeUtils().asElement(type);
+        String name = element.getQualifiedName().toString();
+        switch(name) {
+            case "java.lang.Void": body.kind = BodyKind.NONE; break;
+            case "java.lang.Boolean": body.kind = BodyKind.BOOLEAN; break;
+            case "java.lang.Byte": body.kind = BodyKind.BYTE; break;
+            case "java.lang.Short": body.kind = BodyKind.SHORT; break;
+            case "java.lang.Integer": body.kind = BodyKind.INT; break;
+            case "java.lang.Long": body.kind = BodyKind.LONG; break;
+            case "java.lang.Double": body.kind = BodyKind.DOUBLE; break;
+            default:
+                if(element.getAnnotation(ApiMessage.class) == null) {
+                    error(method, name + " is not an @ApiMessage, a boxed primitive or Void.");
+                    return null;
+                }
+                body.kind = BodyKind.MESSAGE;
+                String packageName = packageOf(element);
+                body.codecName = (packageName.isEmpty() ? "" : packageName + ".") + flatName(element) + "Codec";
+        }
+        body.typeName = body.kind == BodyKind.MESSAGE ? name : body.kind.name().toLowerCase();
+        body.packageName = body.kind == BodyKind.MESSAGE ? packageOf(element) : "";
+        return body;
+    }
+
+    private void writeClient(TypeElement processor, List<OperationModel> operations) {
+        String packageName = packageOf(processor);
+        String simpleName = processor.getSimpleName().toString();
+        String clientName = (simpleName.endsWith("ApiProcessor") ? simpleName.substring(0, simpleName.length() - "ApiProcessor".length()) : simpleName) + "TypedClient";
+        StringBuilder source = new StringBuilder();
+        if(!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("import com.scaleoutsoftware.modules.client.ApiModuleClient;\n");
+        source.append("import com.scaleoutsoftware.modules.client.ApiModuleException;\n");
+        source.append("import ").append(MessageCodecs.class.getName()).append(";\n\n");
+        source.append("/**\n * Invokes the typed operations of ").append(simpleName)
+                .append(". Generated by ApiCodecProcessor from its @ApiOperation handlers; do not edit.\n */\n");
+        source.append("public final class ").append(clientName).append(" {\n");
+        source.append("    private final ApiModuleClient _client;\n\n");
+        source.append("    public ").append(clientName).append("(ApiModuleClient client) {\n        _client = client;\n    }\n");
+        for(OperationModel operation : operations) {
+            String returnType = operation.response.kind == BodyKind.NONE ? "void" : typeReference(operation.response.typeName, packageName);
+            source.append("\n    /**\n     * Invokes the \"").append(operation.operationId).append("\" operation on the SOSS object with the ID objectId.\n     */\n");
+            source.append("    public ").append(returnType).append(' ').append(operation.operationId).append("(String objectId");
+            if(operation.request.kind != BodyKind.NONE)
+                source.append(", ").append(typeReference(operation.request.typeName, packageName)).append(" request");
+            source.append(") throws ApiModuleException {\n");
+            String invoke = "_client.invoke(objectId, \"" + operation.operationId + "\", " + encode(operation.request, packageName) + ")";
+            if(operation.response.kind == BodyKind.NONE) {
+                source.append("        ").append(invoke).append(";\n");
+            } else {
+                source.append("        byte[] response = ").append(invoke).append(";\n");
+                source.append("        return ").append(decode(operation.response, packageName)).append(";\n");
+            }
+            source.append("    }\n");
+        }
+        source.append("}\n");
+        write(packageName, clientName, source, processor);
+    }
+
+    private static String encode(BodyModel body, String packageName) {
+        switch(body.kind) {
+            case NONE: return CODECS + ".EMPTY";
+            case MESSAGE: return typeReference(body.codecName, packageName) + ".encode(request)";
+            default: return CODECS + ".encode" + scalarName(body.kind) + "(request)";
+        }
+    }
+
+    private static String decode(BodyModel body, String packageName) {
+        if(body.kind == BodyKind.MESSAGE)
+            return typeReference(body.codecName, packageName) + ".decode(response)";
+        return CODECS + ".decode" + scalarName(body.kind) + "(response)";
+    }
+
+    private static String scalarName(BodyKind kind) {
+        return capitalize(kind.name().toLowerCase());
+    }
+
+    // ---- helpers ----
+
+    private static Object annotationValue(AnnotationMirror mirror, String name) {
+        for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if(entry.getKey().getSimpleName().contentEquals(name))
+                return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    // the simple name of a top-level type in the package of the generated file, otherwise the qualified name
+    private static String typeReference(String qualifiedName, String packageName) {
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        return qualifiedName.equals(packageName.isEmpty() ? simpleName : packageName + "." + simpleName) ? simpleName : qualifiedName;
+    }
+
+    private String packageOf(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private static String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for(Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement())
+            name.insert(0, outer.getSimpleName());
+        return name.toString();
+    }
+
+    private static String stripUnderscores(String name) {
+        int start = 0;
+        while(start < name.length() - 1 && name.charAt(start) == '_')
+            start++;
+        return name.substring(start);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void write(String packageName, String simpleName, CharSequence source, Element origin) {
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        if(!_generated.add(qualifiedName))
+            return;
+        try(Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, origin).openWriter()) {
+            writer.append(source);
+        } catch(IOException e) {
+            error(origin, "Could not write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
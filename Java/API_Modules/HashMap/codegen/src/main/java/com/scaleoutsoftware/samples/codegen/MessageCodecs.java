@@ -0,0 +1,312 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.codegen;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the fields of an @ApiMessage in place. The generated codecs size a message before
+ * writing it, so encoding allocates only the frame itself, and decoding allocates only the message and
+ * its String and byte[] fields.
+ * <p>
+ * Writers take the position to write at and return the position after the field. Readers take the end
+ * of the message and throw IllegalArgumentException if a field would run past it. A String or byte[]
+ * length of -1 stands for null.
+ */
+public final class MessageCodecs {
+    /** The frame of an empty message. */
+    public static final byte[] EMPTY = new byte[0];
+
+    private MessageCodecs() {
+    }
+
+    public static int putBoolean(byte[] frame, int position, boolean value) {
+        frame[position] = value ? (byte)0x01 : (byte)0x00;
+        return position + 1;
+    }
+
+    public static int putByte(byte[] frame, int position, byte value) {
+        frame[position] = value;
+        return position + 1;
+    }
+
+    public static int putShort(byte[] frame, int position, short value) {
+        frame[position] = (byte)(value >>> 8);
+        frame[position + 1] = (byte)value;
+        return position + 2;
+    }
+
+    public static int putInt(byte[] frame, int position, int value) {
+        frame[position] = (byte)(value >>> 24);
+        frame[position + 1] = (byte)(value >>> 16);
+        frame[position + 2] = (byte)(value >>> 8);
+        frame[position + 3] = (byte)value;
+        return position + 4;
+    }
+
+    public static int putLong(byte[] frame, int position, long value) {
+        putInt(frame, position, (int)(value >>> 32));
+        return putInt(frame, position + 4, (int)value);
+    }
+
+    public static int putDouble(byte[] frame, int position, double value) {
+        return putLong(frame, position, Double.doubleToRawLongBits(value));
+    }
+
+    public static boolean getBoolean(byte[] frame, int position, int end) {
+        check(position, 1, end);
+        return frame[position] != 0x00;
+    }
+
+    public static byte getByte(byte[] frame, int position, int end) {
+        check(position, 1, end);
+        return frame[position];
+    }
+
+    public static short getShort(byte[] frame, int position, int end) {
+        check(position, 2, end);
+        return (short)((frame[position] & 0xff) << 8 | frame[position + 1] & 0xff);
+    }
+
+    public static int getInt(byte[] frame, int position, int end) {
+        check(position, 4, end);
+        return (frame[position] & 0xff) << 24 | (frame[position + 1] & 0xff) << 16
+                | (frame[position + 2] & 0xff) << 8 | frame[position + 3] & 0xff;
+    }
+
+    public static long getLong(byte[] frame, int position, int end) {
+        return (long)getInt(frame, position, end) << 32 | getInt(frame, position + 4, end) & 0xffffffffL;
+    }
+
+    public static double getDouble(byte[] frame, int position, int end) {
+        return Double.longBitsToDouble(getLong(frame, position, end));
+    }
+
+    /**
+     * @return the ordinal of an enum field, checked against the number of constants
+     */
+    public static int getOrdinal(byte[] frame, int position, int end, int constants) {
+        int ordinal = getByte(frame, position, end) & 0xff;
+        if(ordinal >= constants)
+            throw new IllegalArgumentException("Unknown enum ordinal " + ordinal + ".");
+        return ordinal;
+    }
+
+    /**
+     * @return the number of bytes taken by a String or byte[] field of the given length, -1 for null
+     */
+    public static int fieldSize(int length) {
+        return varintSize(length + 1) + Math.max(length, 0);
+    }
+
+    public static int putLength(byte[] frame, int position, int length) {
+        int value = length + 1;
+        while((value & ~0x7f) != 0) {
+            frame[position++] = (byte)(value & 0x7f | 0x80);
+            value >>>= 7;
+        }
+        frame[position++] = (byte)value;
+        return position;
+    }
+
+    /**
+     * @return the length of the String or byte[] field at position, -1 for null
+     */
+    public static int getLength(byte[] frame, int position, int end) {
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte b = getByte(frame, position++, end);
+            value |= (b & 0x7f) << shift;
+            if(b >= 0) {
+                if(value < 0 || value - 1 > end - position)
+                    throw new IllegalArgumentException("The message is truncated.");
+                return value - 1;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint length.");
+    }
+
+    /**
+     * @return the number of bytes taken by the length prefix of a field
+     */
+    public static int lengthSize(int length) {
+        return varintSize(length + 1);
+    }
+
+    /**
+     * @return the number of UTF-8 bytes in value, -1 for null. Unpaired surrogates count as '?'.
+     */
+    public static int utf8Length(String value) {
+        if(value == null)
+            return -1;
+        int length = value.length();
+        int bytes = length;
+        for(int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if(c < 0x80)
+                continue;
+            if(c < 0x800) {
+                bytes += 1;
+            } else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if(!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes a String field; utf8Length is the value returned by utf8Length(value).
+     */
+    public static int putString(byte[] frame, int position, String value, int utf8Length) {
+        position = putLength(frame, position, utf8Length);
+        if(value == null)
+            return position;
+        int length = value.length();
+        for(int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if(c < 0x80) {
+                frame[position++] = (byte)c;
+            } else if(c < 0x800) {
+                frame[position++] = (byte)(0xc0 | c >> 6);
+                frame[position++] = (byte)(0x80 | c & 0x3f);
+            } else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                frame[position++] = (byte)(0xf0 | codePoint >> 18);
+                frame[position++] = (byte)(0x80 | codePoint >> 12 & 0x3f);
+                frame[position++] = (byte)(0x80 | codePoint >> 6 & 0x3f);
+                frame[position++] = (byte)(0x80 | codePoint & 0x3f);
+            } else if(Character.isSurrogate(c)) {
+                frame[position++] = '?';
+            } else {
+                frame[position++] = (byte)(0xe0 | c >> 12);
+                frame[position++] = (byte)(0x80 | c >> 6 & 0x3f);
+                frame[position++] = (byte)(0x80 | c & 0x3f);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return the String of the given length at position, read after its length with getLength
+     */
+    public static String getString(byte[] frame, int position, int length) {
+        return length < 0 ? null : new String(frame, position, length, StandardCharsets.UTF_8);
+    }
+
+    public static int putBytes(byte[] frame, int position, byte[] value) {
+        position = putLength(frame, position, value == null ? -1 : value.length);
+        if(value == null)
+            return position;
+        System.arraycopy(value, 0, frame, position, value.length);
+        return position + value.length;
+    }
+
+    /**
+     * @return a copy of the byte[] of the given length at position, read after its length with getLength
+     */
+    public static byte[] getBytes(byte[] frame, int position, int length) {
+        if(length < 0)
+            return null;
+        byte[] value = new byte[length];
+        System.arraycopy(frame, position, value, 0, length);
+        return value;
+    }
+
+    // single-value bodies of typed operations
+
+    public static byte[] encodeBoolean(boolean value) {
+        return new byte[]{value ? (byte)0x01 : (byte)0x00};
+    }
+
+    public static boolean decodeBoolean(byte[] frame) {
+        return getBoolean(frame, 0, frame.length);
+    }
+
+    public static byte[] encodeByte(byte value) {
+        return new byte[]{value};
+    }
+
+    public static byte decodeByte(byte[] frame) {
+        return getByte(frame, 0, frame.length);
+    }
+
+    public static byte[] encodeShort(short value) {
+        byte[] frame = new byte[2];
+        putShort(frame, 0, value);
+        return frame;
+    }
+
+    public static short decodeShort(byte[] frame) {
+        return getShort(frame, 0, frame.length);
+    }
+
+    public static byte[] encodeInt(int value) {
+        byte[] frame = new byte[4];
+        putInt(frame, 0, value);
+        return frame;
+    }
+
+    public static int decodeInt(byte[] frame) {
+        return getInt(frame, 0, frame.length);
+    }
+
+    public static byte[] encodeLong(long value) {
+        byte[] frame = new byte[8];
+        putLong(frame, 0, value);
+        return frame;
+    }
+
+    public static long decodeLong(byte[] frame) {
+        return getLong(frame, 0, frame.length);
+    }
+
+    public static byte[] encodeDouble(double value) {
+        byte[] frame = new byte[8];
+        putDouble(frame, 0, value);
+        return frame;
+    }
+
+    public static double decodeDouble(byte[] frame) {
+        return getDouble(frame, 0, frame.length);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while((value & ~0x7f) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private static void check(int position, int size, int end) {
+        if(position < 0 || position > end - size)
+            throw new IllegalArgumentException("The message is truncated.");
+    }
+}
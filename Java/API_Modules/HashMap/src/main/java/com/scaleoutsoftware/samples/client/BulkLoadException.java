@@ -0,0 +1,55 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+/**
+ * Thrown when a BulkLoader load stops before the end of the file. Every record before the resume offset
+ * has been applied; pass the offset to BulkLoader.load to continue.
+ */
+public class BulkLoadException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final BulkLoadProgress _progress;
+
+    BulkLoadException(String message, BulkLoadProgress progress, Throwable cause) {
+        super(message + " Resume at offset " + progress.getResumeOffset() + ".", cause);
+        _progress = progress;
+    }
+
+    /**
+     * @return the file offset to restart the load at
+     */
+    public long getResumeOffset() {
+        return _progress.getResumeOffset();
+    }
+
+    /**
+     * @return the progress of the load when it stopped
+     */
+    public BulkLoadProgress getProgress() {
+        return _progress;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * A snapshot of the progress of a BulkLoader load.
+ */
+public class BulkLoadProgress implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long _startOffset;
+    private final long _resumeOffset;
+    private final long _records;
+    private final long _rejected;
+    private final long _chunks;
+    private final long _elapsedNanos;
+
+    BulkLoadProgress(long startOffset, long resumeOffset, long records, long rejected, long chunks, long elapsedNanos) {
+        _startOffset = startOffset;
+        _resumeOffset = resumeOffset;
+        _records = records;
+        _rejected = rejected;
+        _chunks = chunks;
+        _elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the file offset the load started at
+     */
+    public long getStartOffset() {
+        return _startOffset;
+    }
+
+    /**
+     * @return the file offset to restart the load at: every record before it has been applied
+     */
+    public long getResumeOffset() {
+        return _resumeOffset;
+    }
+
+    /**
+     * @return the number of file bytes applied since the start offset
+     */
+    public long getBytesLoaded() {
+        return _resumeOffset - _startOffset;
+    }
+
+    /**
+     * @return the number of records applied, including rejected ones
+     */
+    public long getRecords() {
+        return _records;
+    }
+
+    /**
+     * @return the number of records the admission filter of a bounded map rejected
+     */
+    public long getRejected() {
+        return _rejected;
+    }
+
+    /**
+     * @return the number of chunks applied
+     */
+    public long getChunks() {
+        return _chunks;
+    }
+
+    /**
+     * @return the time since the load started
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(_elapsedNanos);
+    }
+
+    /**
+     * @return the records applied per second
+     */
+    public double getRecordsPerSecond() {
+        return _elapsedNanos == 0 ? 0 : _records * 1e9 / _elapsedNanos;
+    }
+
+    /**
+     * @return the file megabytes (10^6 bytes) applied per second
+     */
+    public double getMegabytesPerSecond() {
+        return _elapsedNanos == 0 ? 0 : getBytesLoaded() * 1e3 / _elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("offset=%d records=%d rejected=%d chunks=%d elapsed=%.1fs records/s=%.0f MB/s=%.1f",
+                _resumeOffset, _records, _rejected, _chunks, _elapsedNanos / 1e9, getRecordsPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.modules.client.ApiModuleException;
+import com.scaleoutsoftware.samples.server.WireProtocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Loads a file of key/value records into one SossHashMap object, or into the shards of a ShardedMapClient,
+ * with the "bulkPut" operation. The file is read in chunks of about chunkBytes. The records of a chunk are
+ * split by shard, and each shard's part is applied with one bulkPut, i.e. under one lock and with one update
+ * of the shard. Up to parallelism bulkPut calls are in flight at a time, so several shards load in parallel.
+ * <p>
+ * A load that stops early throws BulkLoadException with a resume offset. Every record before that offset
+ * has been applied, so the load continues with load(path, format, resumeOffset). Chunks after the offset that
+ * had already been applied are applied again, which writes the same values a second time.
+ */
+public class BulkLoader {
+    /**
+     * The layout of a bulk load file.
+     */
+    public enum Format {
+        /**
+         * UTF-8 lines of "key,value". A field that starts with a double quote ends at the next single quote,
+         * and "" stands for a quote inside it, so a quoted value can hold commas and line breaks. An unquoted
+         * value runs to the end of the line. Empty lines are skipped.
+         */
+        CSV,
+        /**
+         * Records in the layout of the bulkPut request: varint keyLen, UTF-8 string[keyLen], byte flags,
+         * [FLAG_TTL: varint ttlMillis], varint valLen, UTF-8 string[valLen]. See writeRecord(OutputStream, String, String).
+         */
+        BINARY,
+        /**
+         * A snapshot file written by MapExporter. Every frame is checked against its CRC32 before its records
+         * are loaded, and a load from the start of the file checks the record count at its end. A load resumed
+         * at a later offset must start at a frame boundary, such as a resume offset.
+         */
+        SNAPSHOT
+    }
+
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final ExampleClient _client;
+    private final ShardedMapClient _map;
+    private final String _objectId;
+    private int _chunkBytes = DEFAULT_CHUNK_BYTES;
+    private int _parallelism = DEFAULT_PARALLELISM;
+    private Consumer<BulkLoadProgress> _progressListener;
+    private long _progressIntervalNanos;
+
+    /**
+     * Creates a loader for one SOSS object.
+     * @param client the API module client
+     * @param objectId the ID of the SOSS object
+     */
+    public BulkLoader(ExampleClient client, String objectId) {
+        _client = client;
+        _map = null;
+        _objectId = objectId;
+    }
+
+    /**
+     * Creates a loader for a sharded map. Each record goes to the shard that owns its key.
+     * @param map the sharded map
+     */
+    public BulkLoader(ShardedMapClient map) {
+        _client = map.client();
+        _map = map;
+        _objectId = null;
+    }
+
+    /**
+     * Sets the number of file bytes read per chunk. A record longer than a chunk is read whole.
+     * @param chunkBytes the chunk size, DEFAULT_CHUNK_BYTES by default
+     */
+    public void setChunkBytes(int chunkBytes) {
+        if(chunkBytes < 1)
+            throw new IllegalArgumentException("chunkBytes must be positive.");
+        _chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Sets the number of bulkPut calls in flight at a time.
+     * @param parallelism the number of calls, DEFAULT_PARALLELISM by default
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive.");
+        _parallelism = parallelism;
+    }
+
+    /**
+     * Reports the progress of a load to a listener, on the loading thread, at most once per interval and
+     * once when the load completes.
+     * @param listener the listener, or null for no reports
+     * @param interval the time between reports
+     */
+    public void setProgressListener(Consumer<BulkLoadProgress> listener, Duration interval) {
+        _progressListener = listener;
+        _progressIntervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Loads a file from its start.
+     * @param path the file to load
+     * @param format the file's layout
+     * @return the progress at the end of the load
+     * @throws BulkLoadException if the file could not be read, holds an incomplete record, a bulkPut call failed or
+     * the thread was interrupted. getResumeOffset() tells where to restart.
+     */
+    public BulkLoadProgress load(Path path, Format format) throws BulkLoadException {
+        return load(path, format, 0);
+    }
+
+    /**
+     * Loads a file from an offset, such as the resume offset of a load that stopped early.
+     * @param path the file to load
+     * @param format the file's layout
+     * @param startOffset the offset of the first record to load
+     * @return the progress at the end of the load
+     * @throws BulkLoadException if the file could not be read, holds an incomplete record, a bulkPut call failed or
+     * the thread was interrupted. getResumeOffset() tells where to restart.
+     */
+    public BulkLoadProgress load(Path path, Format format, long startOffset) throws BulkLoadException {
+        Load load = new Load(startOffset);
+        int parallelism = _parallelism;
+        Semaphore inFlight = new Semaphore(parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "BulkLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        long reportedAt = System.nanoTime();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(startOffset);
+            byte[] buffer = new byte[_chunkBytes];
+            int filled = 0;
+            long bufferOffset = startOffset;
+            boolean eof = false;
+            while(load.failure() == null) {
+                while(filled < buffer.length && !eof) {
+                    int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                    if(read < 0) {
+                        eof = true;
+                    } else {
+                        filled += read;
+                    }
+                }
+                if(filled == 0)
+                    break;
+                Chunk chunk = new Chunk(bufferOffset, shardCount());
+                int consumed;
+                if(format == Format.CSV) {
+                    consumed = splitCsv(buffer, filled, eof, chunk);
+                } else if(format == Format.SNAPSHOT) {
+                    consumed = splitSnapshot(buffer, filled, chunk, load);
+                } else {
+                    consumed = splitBinary(buffer, 0, filled, chunk);
+                }
+                if(consumed == 0) {
+                    if(eof)
+                        throw new IOException("The file ends inside a record at offset " + bufferOffset + ".");
+                    // a record longer than the buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+                chunk.end = bufferOffset + consumed;
+                submit(load, chunk, executor, inFlight);
+                System.arraycopy(buffer, consumed, buffer, 0, filled - consumed);
+                filled -= consumed;
+                bufferOffset += consumed;
+                if(_progressListener != null && System.nanoTime() - reportedAt >= _progressIntervalNanos) {
+                    _progressListener.accept(load.progress());
+                    reportedAt = System.nanoTime();
+                }
+            }
+            if(format == Format.SNAPSHOT && load.failure() == null && load.snapshotRecords < 0)
+                throw new IOException("The snapshot has no end marker; the file was cut short.");
+        } catch (IOException | RuntimeException e) {
+            load.fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            load.fail(e);
+        } finally {
+            // let the calls in flight finish so the resume offset is exact
+            inFlight.acquireUninterruptibly(parallelism);
+            executor.shutdown();
+        }
+        if(format == Format.SNAPSHOT && startOffset == 0 && load.failure() == null && load.snapshotRecords != load.progress().getRecords()) {
+            load.fail(new IOException("The snapshot holds " + load.snapshotRecords + " records but " + load.progress().getRecords() + " were loaded."));
+        }
+        BulkLoadProgress progress = load.progress();
+        if(load.failure() != null)
+            throw new BulkLoadException("The bulk load of " + path + " stopped.", progress, load.failure());
+        if(_progressListener != null) {
+            _progressListener.accept(progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Writes a record in the BINARY format.
+     * @param out the stream to write to
+     * @param key the key
+     * @param value the value
+     * @throws IOException if the stream failed
+     */
+    public static void writeRecord(OutputStream out, String key, String value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        RecordBuffer record = new RecordBuffer(keyBytes.length + valBytes.length + 11);
+        record.putRecord(keyBytes, 0, keyBytes.length, 0, valBytes, 0, valBytes.length);
+        out.write(record.data, 0, record.length);
+    }
+
+    private int shardCount() {
+        return _map != null ? _map.getShardCount() : 1;
+    }
+
+    private int shardFor(byte[] key, int offset, int length) {
+        return _map != null ? _map.shardIndexFor(key, offset, length) : 0;
+    }
+
+    private String objectId(int shard) {
+        return _map != null ? _map.shardId(shard) : _objectId;
+    }
+
+    /**
+     * Sends the parts of a chunk, waiting while parallelism calls are in flight.
+     */
+    private void submit(Load load, Chunk chunk, ExecutorService executor, Semaphore inFlight) throws InterruptedException {
+        load.started(chunk);
+        for(int shard = 0; shard < chunk.parts.length; shard++) {
+            RecordBuffer part = chunk.parts[shard];
+            if(part == null)
+                continue;
+            String objectId = objectId(shard);
+            byte[] request = WireProtocol.writeRequest(0, part.length).putBytes(part.data, 0, part.length).array();
+            int records = part.records;
+            chunk.parts[shard] = null;
+            inFlight.acquire();
+            try {
+                executor.execute(() -> {
+                    try {
+                        int stored = _client.bulkPut(objectId, request);
+                        load.applied(chunk, records, records - stored);
+                    } catch (ApiModuleException | RuntimeException e) {
+                        load.fail(e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Adds the complete frames at the start of the buffer to a chunk, after checking their checksums. The header
+     * is checked when the chunk starts the file, and the end marker is kept in the load.
+     * @return the length of the frames
+     */
+    private int splitSnapshot(byte[] buffer, int limit, Chunk chunk, Load load) throws IOException {
+        int pos = 0;
+        if(chunk.start == 0) {
+            if(limit < MapExporter.HEADER_LENGTH)
+                return 0;
+            ByteBuffer header = ByteBuffer.wrap(buffer, 0, MapExporter.HEADER_LENGTH);
+            byte[] magic = new byte[MapExporter.MAGIC.length];
+            header.get(magic);
+            if(!Arrays.equals(magic, MapExporter.MAGIC))
+                throw new IOException("The file is not a snapshot.");
+            int version = header.getInt();
+            if(version != MapExporter.FORMAT_VERSION)
+                throw new IOException("The snapshot has the unsupported version " + version + ".");
+            pos = MapExporter.HEADER_LENGTH;
+        }
+        CRC32 crc = new CRC32();
+        while(limit - pos >= 4) {
+            if(load.snapshotRecords >= 0)
+                throw new IOException("The snapshot has data after its end marker at offset " + (chunk.start + pos) + ".");
+            ByteBuffer frame = ByteBuffer.wrap(buffer, pos, limit - pos);
+            int recordsLen = frame.getInt();
+            if(recordsLen == 0) {
+                if(limit - pos < MapExporter.TRAILER_LENGTH)
+                    return pos;
+                load.snapshotRecords = frame.getLong();
+                pos += MapExporter.TRAILER_LENGTH;
+                continue;
+            }
+            if(recordsLen < 0)
+                throw new IOException("The snapshot frame at offset " + (chunk.start + pos) + " is malformed.");
+            if(limit - pos < MapExporter.FRAME_HEADER_LENGTH + recordsLen)
+                return pos;
+            int checksum = frame.getInt();
+            int start = pos + MapExporter.FRAME_HEADER_LENGTH;
+            crc.reset();
+            crc.update(buffer, start, recordsLen);
+            if((int)crc.getValue() != checksum)
+                throw new IOException("The snapshot frame at offset " + (chunk.start + pos) + " fails its checksum.");
+            if(splitBinary(buffer, start, start + recordsLen, chunk) != start + recordsLen)
+                throw new IOException("The snapshot frame at offset " + (chunk.start + pos) + " ends inside a record.");
+            pos = start + recordsLen;
+        }
+        return pos;
+    }
+
+    /**
+     * Adds the complete BINARY records at the start of a range of the buffer to a chunk.
+     * @return the end of the records
+     */
+    private int splitBinary(byte[] buffer, int from, int limit, Chunk chunk) {
+        int pos = from;
+        int[] cursor = new int[1];
+        while(true) {
+            cursor[0] = pos;
+            long keyLen = readVarint(buffer, cursor, limit);
+            if(keyLen < 0 || cursor[0] + keyLen + 1 > limit)
+                return pos;
+            int keyOffset = cursor[0];
+            cursor[0] += (int)keyLen;
+            if((buffer[cursor[0]++] & WireProtocol.FLAG_TTL) != 0 && readVarlong(buffer, cursor, limit) < 0)
+                return pos;
+            long valLen = readVarint(buffer, cursor, limit);
+            if(valLen < 0 || cursor[0] + valLen > limit)
+                return pos;
+            int end = cursor[0] + (int)valLen;
+            // the record is copied as it is
+            chunk.part(shardFor(buffer, keyOffset, (int)keyLen), end - pos).putBytes(buffer, pos, end - pos);
+            pos = end;
+        }
+    }
+
+    /**
+     * Adds the complete CSV lines at the start of the buffer to a chunk.
+     * @return the length of the lines
+     */
+    private int splitCsv(byte[] buffer, int limit, boolean eof, Chunk chunk) {
+        RecordBuffer key = new RecordBuffer(64);
+        RecordBuffer value = new RecordBuffer(256);
+        int pos = 0;
+        while(pos < limit) {
+            if(buffer[pos] == '\n' || buffer[pos] == '\r') {
+                pos++;
+                continue;
+            }
+            int valueStart = csvField(buffer, pos, limit, eof, true, key);
+            if(valueStart < 0)
+                return pos;
+            int end = csvField(buffer, valueStart, limit, eof, false, value);
+            if(end < 0)
+                return pos;
+            byte[] valBytes = value.data;
+            int valLen = value.length;
+            int flags = 0;
+            int threshold = _client.getCompressionThreshold();
+            byte[] compressed = threshold > 0 && valLen > threshold ? _client.compress(Arrays.copyOf(value.data, valLen)) : null;
+            if(compressed != null) {
+                valBytes = compressed;
+                valLen = compressed.length;
+                flags = WireProtocol.FLAG_COMPRESSED;
+            }
+            chunk.part(shardFor(key.data, 0, key.length), key.length + valLen + 11)
+                    .putRecord(key.data, 0, key.length, flags, valBytes, 0, valLen);
+            pos = end;
+        }
+        return pos;
+    }
+
+    /**
+     * Reads a CSV field into a buffer. A key ends at a comma, a value at the end of the line.
+     * @return the position after the field and its terminator, or -1 if the buffer ends first
+     */
+    private static int csvField(byte[] buffer, int pos, int limit, boolean eof, boolean key, RecordBuffer field) {
+        field.length = 0;
+        int i = pos;
+        if(i < limit && buffer[i] == '"') {
+            i++;
+            while(true) {
+                if(i >= limit)
+                    return -1;
+                if(buffer[i] == '"') {
+                    if(i + 1 >= limit && !eof)
+                        return -1;
+                    if(i + 1 < limit && buffer[i + 1] == '"') {
+                        field.putByte('"');
+                        i += 2;
+                        continue;
+                    }
+                    i++;
+                    break;
+                }
+                field.putByte(buffer[i++]);
+            }
+            // anything between the closing quote and the terminator is ignored
+            while(i < limit && buffer[i] != '\n' && (!key || buffer[i] != ',')) {
+                i++;
+            }
+        } else {
+            while(i < limit && buffer[i] != '\n' && (!key || buffer[i] != ',')) {
+                i++;
+            }
+            int end = i > pos && buffer[i - 1] == '\r' ? i - 1 : i;
+            field.putBytes(buffer, pos, end - pos);
+        }
+        if(i >= limit)
+            return eof && !key ? i : -1;
+        if(key && buffer[i] != ',')
+            throw new IllegalArgumentException("A CSV line has no value.");
+        return i + 1;
+    }
+
+    /**
+     * Reads a varint, advancing cursor[0].
+     * @return the value, or -1 if the buffer ends first
+     */
+    private static long readVarint(byte[] buffer, int[] cursor, int limit) {
+        long value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            if(cursor[0] >= limit)
+                return -1;
+            byte b = buffer[cursor[0]++];
+            value |= (long)(b & 0x7f) << shift;
+            if(b >= 0) {
+                if(value > Integer.MAX_VALUE)
+                    break;
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("A record length is malformed.");
+    }
+
+    /**
+     * Reads a varlong, advancing cursor[0].
+     * @return the value, or -1 if the buffer ends first
+     */
+    private static long readVarlong(byte[] buffer, int[] cursor, int limit) {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            if(cursor[0] >= limit)
+                return -1;
+            byte b = buffer[cursor[0]++];
+            value |= (long)(b & 0x7f) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("A record TTL is malformed.");
+    }
+
+    /**
+     * The records of one chunk of the file, by shard.
+     */
+    private static final class Chunk {
+        final long start;
+        long end;
+        final RecordBuffer[] parts;
+        int pending;
+        boolean applied;
+
+        Chunk(long start, int shardCount) {
+            this.start = start;
+            parts = new RecordBuffer[shardCount];
+        }
+
+        RecordBuffer part(int shard, int recordLength) {
+            RecordBuffer part = parts[shard];
+            if(part == null) {
+                part = parts[shard] = new RecordBuffer(Math.max(recordLength, 1024));
+            }
+            part.records++;
+            return part;
+        }
+    }
+
+    /**
+     * The state of one load. Chunks are applied out of order; the resume offset is the start of the first
+     * chunk that is not applied yet.
+     */
+    private static final class Load {
+        private final long _startOffset;
+        private final long _startNanos = System.nanoTime();
+        private final ArrayDeque<Chunk> _started = new ArrayDeque<>();
+        private long _resumeOffset;
+        private long _records;
+        private long _rejected;
+        private long _chunks;
+        private Exception _failure;
+        // the record count at the end of a snapshot, or -1 until it is read; only the reading thread uses it
+        long snapshotRecords = -1;
+
+        Load(long startOffset) {
+            _startOffset = startOffset;
+            _resumeOffset = startOffset;
+        }
+
+        synchronized void started(Chunk chunk) {
+            for(RecordBuffer part : chunk.parts) {
+                if(part != null) {
+                    chunk.pending++;
+                }
+            }
+            _started.add(chunk);
+            if(chunk.pending == 0) {
+                chunk.applied = true;
+                advance();
+            }
+        }
+
+        synchronized void applied(Chunk chunk, int records, int rejected) {
+            _records += records;
+            _rejected += rejected;
+            if(--chunk.pending == 0) {
+                chunk.applied = true;
+                advance();
+            }
+        }
+
+        private void advance() {
+            while(!_started.isEmpty() && _started.peekFirst().applied) {
+                _resumeOffset = _started.pollFirst().end;
+                _chunks++;
+            }
+        }
+
+        synchronized void fail(Exception e) {
+            if(_failure == null) {
+                _failure = e;
+            }
+        }
+
+        synchronized Exception failure() {
+            return _failure;
+        }
+
+        synchronized BulkLoadProgress progress() {
+            return new BulkLoadProgress(_startOffset, _resumeOffset, _records, _rejected, _chunks, System.nanoTime() - _startNanos);
+        }
+    }
+
+    /**
+     * A growable byte buffer that collects records in the bulkPut layout.
+     */
+    private static final class RecordBuffer {
+        byte[] data;
+        int length;
+        int records;
+
+        RecordBuffer(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void putRecord(byte[] key, int keyOffset, int keyLen, int flags, byte[] value, int valOffset, int valLen) {
+            putVarint(keyLen);
+            putBytes(key, keyOffset, keyLen);
+            putByte(flags);
+            putVarint(valLen);
+            putBytes(value, valOffset, valLen);
+        }
+
+        void putVarint(int value) {
+            while((value & ~0x7f) != 0) {
+                putByte((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            putByte(value);
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            data[length++] = (byte)value;
+        }
+
+        void putBytes(byte[] src, int offset, int len) {
+            ensure(len);
+            System.arraycopy(src, offset, data, length, len);
+            length += len;
+        }
+
+        private void ensure(int extra) {
+            if(length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+}
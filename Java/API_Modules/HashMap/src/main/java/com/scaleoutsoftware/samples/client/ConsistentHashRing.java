@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A consistent hash ring that maps keys to shard indexes. Each shard is placed on the ring at
+ * several virtual points so that keys spread evenly, and changing the shard count only moves
+ * the keys owned by the added or removed shards (roughly 1/shardCount of the keys).
+ */
+public class ConsistentHashRing {
+    private final long[] _points;
+    private final int[] _shards;
+    private final int _shardCount;
+
+    /**
+     * Builds a ring for the given number of shards.
+     * @param shardCount the number of shards, must be at least 1
+     * @param virtualNodesPerShard the number of points each shard occupies on the ring
+     */
+    public ConsistentHashRing(int shardCount, int virtualNodesPerShard) {
+        if(shardCount < 1 || virtualNodesPerShard < 1)
+            throw new IllegalArgumentException("shardCount and virtualNodesPerShard must be positive.");
+        _shardCount = shardCount;
+        int size = shardCount * virtualNodesPerShard;
+        long[] points = new long[size];
+        int[] shards = new int[size];
+        // sort (point, shard) pairs by point; ties are broken by shard index so every client builds the same ring
+        long[][] pairs = new long[size][];
+        int idx = 0;
+        for(int shard = 0; shard < shardCount; shard++) {
+            for(int vnode = 0; vnode < virtualNodesPerShard; vnode++) {
+                byte[] name = ("shard-" + shard + "-vnode-" + vnode).getBytes(StandardCharsets.UTF_8);
+                pairs[idx++] = new long[] {hash(name, 0, name.length), shard};
+            }
+        }
+        Arrays.sort(pairs, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for(int i = 0; i < size; i++) {
+            points[i] = pairs[i][0];
+            shards[i] = (int)pairs[i][1];
+        }
+        _points = points;
+        _shards = shards;
+    }
+
+    /**
+     * Returns the number of shards on the ring.
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return _shardCount;
+    }
+
+    /**
+     * Returns the shard that owns the key: the first ring point at or after the key's hash.
+     * @param key the key to locate
+     * @return the owning shard index in the range [0, shardCount)
+     */
+    public int shardFor(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return shardFor(hash(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Returns the shard that owns the hash.
+     * @param hash a hash computed with {@link #hash(byte[], int, int)}
+     * @return the owning shard index in the range [0, shardCount)
+     */
+    public int shardFor(long hash) {
+        int idx = Arrays.binarySearch(_points, hash);
+        if(idx < 0) {
+            idx = -idx - 1;
+        }
+        if(idx == _points.length) {
+            // wrap around the ring
+            idx = 0;
+        }
+        return _shards[idx];
+    }
+
+    /**
+     * 64-bit FNV-1a hash with a final avalanche mix. The hash is stable across JVMs and processes so
+     * every client routes a key to the same shard.
+     * @param bytes the bytes to hash
+     * @param offset the offset of the first byte
+     * @param length the number of bytes to hash
+     * @return the hash value
+     */
+    public static long hash(byte[] bytes, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        for(int i = offset; i < offset + length; i++) {
+            h ^= bytes[i] & 0xff;
+            h *= 0x100000001b3L;
+        }
+        // murmur3 fmix64 finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53fc06bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
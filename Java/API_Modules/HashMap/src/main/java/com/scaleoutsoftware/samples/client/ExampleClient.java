@@ -28,52 +28,985 @@ package com.scaleoutsoftware.samples.client;
 import com.scaleoutsoftware.modules.client.ApiModuleClient;
 import com.scaleoutsoftware.modules.client.ApiModuleException;
 import com.scaleout.client.GridConnection;
+import com.scaleoutsoftware.samples.server.BloomFilter;
+import com.scaleoutsoftware.samples.server.ByteHashTable;
+import com.scaleoutsoftware.samples.server.EvictionPolicy;
+import com.scaleoutsoftware.samples.server.Lz4;
+import com.scaleoutsoftware.samples.server.SossHashMapTypedClient;
+import com.scaleoutsoftware.samples.server.WireProtocol;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ExampleClient extends ApiModuleClient {
+    // the SOSS object used by the single-object convenience methods
+    public static final String DEFAULT_OBJECT_ID = "ExampleObjectId";
+    // the default limit on async calls in flight
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    // values longer than this are sent and stored compressed by default
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 4096;
+    private final NearCache _nearCache;
+    private final InvokePipeline _pipeline;
+    // generated from the @ApiOperation handlers; encodes the typed control operations
+    private final SossHashMapTypedClient _operations = new SossHashMapTypedClient(this);
+    private volatile int _compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private volatile MissFilter _missFilter;
 
     public ExampleClient(GridConnection connection, String moduleName) {
+        this(connection, moduleName, null);
+    }
+
+    /**
+     * Creates a client that answers "get" calls from a near cache when the cached value is still current.
+     * @param connection the grid connection
+     * @param moduleName the name of the API module
+     * @param nearCache the near cache, or null to always read from the server
+     */
+    public ExampleClient(GridConnection connection, String moduleName, NearCache nearCache) {
+        this(connection, moduleName, nearCache, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates a client whose async calls keep up to maxInFlight invokes outstanding. Once the limit is
+     * reached, getAsync and putAsync block the caller until a call completes.
+     * @param connection the grid connection
+     * @param moduleName the name of the API module
+     * @param nearCache the near cache, or null to always read from the server
+     * @param maxInFlight the maximum number of async calls in flight
+     */
+    public ExampleClient(GridConnection connection, String moduleName, NearCache nearCache, int maxInFlight) {
         super(connection, moduleName);
+        _nearCache = nearCache;
+        _pipeline = new InvokePipeline(maxInFlight);
+    }
+
+    /**
+     * Sets the value length above which put calls compress values before sending them. The module stores
+     * compressed values as they are, and the client decompresses them when it reads them. A value is only
+     * sent compressed if compressing makes it smaller.
+     * @param thresholdBytes the length in UTF-8 bytes above which values are compressed, or 0 to send every value uncompressed
+     */
+    public void setCompressionThreshold(int thresholdBytes) {
+        _compressionThreshold = thresholdBytes;
+    }
+
+    /**
+     * Returns the value length above which put calls compress values.
+     * @return the threshold in UTF-8 bytes, or 0 if compression is off
+     */
+    public int getCompressionThreshold() {
+        return _compressionThreshold;
+    }
+
+    /**
+     * Sets a filter that answers "get" calls for keys that are certainly missing without a round trip. Writes
+     * through this client add their keys to it, so they are found at once.
+     * @param missFilter the filter, or null to send every "get" to the server
+     */
+    public void setMissFilter(MissFilter missFilter) {
+        _missFilter = missFilter;
+    }
+
+    /**
+     * Returns the filter used by "get" calls for missing keys.
+     * @return the filter, or null if none is set
+     */
+    public MissFilter getMissFilter() {
+        return _missFilter;
+    }
+
+    /**
+     * Returns the near cache used by "get" calls.
+     * @return the near cache, or null if none is configured
+     */
+    public NearCache getNearCache() {
+        return _nearCache;
     }
 
     /**
      * Invoke the "get" operation ID on a SOSS object with the ID "ExampleObjectId"
      * @param key the key to find in the SOSS object
-     * @return the value associated with "key", or "Not Found" in the SOSS object.
+     * @return the value associated with "key", or null if "key" is not in the SOSS object.
      * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
      * threw an exception, or the handler threw an unhandled exception.
      */
     public String get(String key) throws ApiModuleException {
-        byte[] result = invoke("ExampleObjectId", "get", key.getBytes(StandardCharsets.UTF_8));
-        if(result != null)
-            return new String(result, StandardCharsets.UTF_8);
-        else
-            return "Not Found";
+        return get(DEFAULT_OBJECT_ID, key);
+    }
+
+    /**
+     * Invoke the "get" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @param key the key to find in the SOSS object
+     * @return the value associated with "key", or null if "key" is not in the SOSS object.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String get(String objectId, String key) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        MissFilter missFilter = _missFilter;
+        if(missFilter != null && !mightContain(missFilter, objectId, keyBytes))
+            return null;
+        if(_nearCache != null)
+            return getCached(objectId, key, keyBytes);
+        WireProtocol.Reader response = readResponse(invoke(objectId, "get", keyRequest(0, keyBytes, 0).array()));
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND) {
+            if(missFilter != null) {
+                missFilter.notFound(objectId, ByteHashTable.hash(keyBytes, 0, keyBytes.length));
+            }
+            return null;
+        }
+        if(response.hasFlag(WireProtocol.FLAG_TTL))
+            response.readVarlong();
+        return value(response, response.remaining());
+    }
+
+    /**
+     * Asynchronously invoke the "get" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to find in the SOSS object
+     * @return a future for the value associated with "key", or null if "key" is not in the SOSS object.
+     */
+    public CompletableFuture<String> getAsync(String key) {
+        return getAsync(DEFAULT_OBJECT_ID, key);
+    }
+
+    /**
+     * Asynchronously invoke the "get" operation ID on a SOSS object with the ID "objectId". The call runs on
+     * a pipeline thread, so one caller can keep many requests in flight; the near cache is used as in get.
+     * Blocks while the in-flight limit is reached.
+     * @param objectId the ID of the SOSS object
+     * @param key the key to find in the SOSS object
+     * @return a future for the value associated with "key", or null if "key" is not in the SOSS object. The future completes
+     * exceptionally with ApiModuleException if the invoke fails.
+     */
+    public CompletableFuture<String> getAsync(String objectId, String key) {
+        return _pipeline.submit(() -> get(objectId, key));
+    }
+
+    /**
+     * Returns the number of async calls that have been started and not yet completed.
+     * @return the calls in flight
+     */
+    public int getInFlight() {
+        return _pipeline.getInFlight();
+    }
+
+    /**
+     * Returns the limit on async calls in flight.
+     * @return the in-flight limit
+     */
+    public int getMaxInFlight() {
+        return _pipeline.getMaxInFlight();
+    }
+
+    /**
+     * Invoke the "version" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @return the version stamp of the SOSS object, which changes after every write.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public long version(String objectId) throws ApiModuleException {
+        byte[] result = invoke(objectId, "version", new byte[0]);
+        return ByteBuffer.wrap(result).getLong();
+    }
+
+    /**
+     * Reads a key through the near cache. A value whose object was checked within the validation interval
+     * costs no round trip, checking the object costs one small "version" call, and only values that are
+     * missing or whose key changed are transferred with a versioned "get".
+     */
+    private String getCached(String objectId, String key, byte[] keyBytes) throws ApiModuleException {
+        NearCache.CachedValue cached = _nearCache.lookup(objectId, key);
+        long generation = _nearCache.generation();
+        if(cached != null) {
+            if(_nearCache.needsValidation(objectId)) {
+                validate(objectId, generation);
+            }
+            if(_nearCache.isCurrent(objectId, cached)) {
+                _nearCache.recordHit();
+                return cached.value;
+            }
+            _nearCache.recordStale();
+        } else {
+            _nearCache.recordMiss();
+        }
+        WireProtocol.Reader response = readResponse(invoke(objectId, "get", keyRequest(WireProtocol.FLAG_VERSION, keyBytes, 0).array()));
+        long version = response.readLong();
+        long remainingMillis = response.hasFlag(WireProtocol.FLAG_TTL) ? response.readVarlong() : -1;
+        String value = response.status() == WireProtocol.STATUS_OK ? value(response, response.remaining()) : null;
+        int keyHash = ByteHashTable.hash(keyBytes, 0, keyBytes.length);
+        MissFilter missFilter = _missFilter;
+        if(value == null && missFilter != null) {
+            missFilter.notFound(objectId, keyHash);
+        }
+        _nearCache.store(objectId, key, keyHash, value, version, remainingMillis, generation);
+        if(_nearCache.knownVersion(objectId) < 0) {
+            _nearCache.validated(objectId, -1, version, null, generation);
+        }
+        return value;
+    }
+
+    /**
+     * Sends the last seen version stamp of an object and records the keys changed since.
+     */
+    private void validate(String objectId, long generation) throws ApiModuleException {
+        long known = _nearCache.knownVersion(objectId);
+        if(known < 0) {
+            _nearCache.validated(objectId, -1, version(objectId), null, generation);
+        } else {
+            // long version, byte complete, int count, count * int keyHash
+            ByteBuffer result = ByteBuffer.wrap(invoke(objectId, "version", ByteBuffer.allocate(8).putLong(known).array()));
+            long version = result.getLong();
+            int[] changes = null;
+            if(result.get() == 0x01) {
+                changes = new int[result.getInt()];
+                for(int i = 0; i < changes.length; i++) {
+                    changes[i] = result.getInt();
+                }
+            }
+            _nearCache.validated(objectId, known, version, changes, generation);
+        }
+        _nearCache.recordVersionCheck();
+    }
+
+    /**
+     * Checks a key against the miss filter, first refreshing the object's filter if it is due.
+     */
+    private boolean mightContain(MissFilter missFilter, String objectId, byte[] keyBytes) throws ApiModuleException {
+        if(missFilter.claimRefresh(objectId)) {
+            boolean refreshed = false;
+            try {
+                refreshFilter(missFilter, objectId);
+                refreshed = true;
+            } finally {
+                if(!refreshed) {
+                    missFilter.refreshFailed(objectId);
+                }
+            }
+        }
+        return missFilter.mightContain(objectId, ByteHashTable.hash(keyBytes, 0, keyBytes.length));
+    }
+
+    /**
+     * Sends the version of the object's filter and adds the keys changed since, or fetches a new filter.
+     */
+    private void refreshFilter(MissFilter missFilter, String objectId) throws ApiModuleException {
+        // varint falsePositiveRate in millionths, long knownVersion
+        long known = missFilter.knownVersion(objectId);
+        int millionths = missFilter.falsePositiveMillionths();
+        WireProtocol.Writer request = WireProtocol.writeRequest(0, WireProtocol.varintSize(millionths) + 8);
+        request.putVarint(millionths).putLong(known);
+        // long version, byte kind, then varint count, count * varint keyHash, or a BloomFilter
+        byte[] frame = invoke(objectId, "filter", request.array());
+        WireProtocol.Reader response = readResponse(frame);
+        long version = response.readLong();
+        if(response.readByte() == 0x01) {
+            missFilter.replaced(objectId, version, BloomFilter.read(response), frame.length);
+        } else {
+            int[] changes = new int[response.readVarint()];
+            for(int i = 0; i < changes.length; i++) {
+                changes[i] = (int)response.readVarlong();
+            }
+            missFilter.advanced(objectId, known, version, changes, frame.length);
+        }
+    }
+
+    /**
+     * Adds a written key to the miss filter, if one is set.
+     */
+    private void added(String objectId, byte[] keyBytes) {
+        MissFilter missFilter = _missFilter;
+        if(missFilter != null) {
+            missFilter.added(objectId, ByteHashTable.hash(keyBytes, 0, keyBytes.length));
+        }
     }
 
     /**
      * Invoke the "put" operation ID on a SOSS object with the ID "ExampleObjectId"
      * @param key the key to put in the SOSS object
      * @param value the value to associate with "key" in the SOSS object
-     * @return the value associated with "key", or "Not Found" in the SOSS object.
+     * @return true if the value was stored, false if the admission filter of a bounded SOSS object rejected the key.
      * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
      * threw an exception, or the handler threw an unhandled exception.
      */
     public boolean put(String key, String value) throws ApiModuleException {
-        // define a simple "put" wire protocol
-        // int keyLen, UTF-8 string[keyLen]
-        // int valLen, UTF-8 string[valLen]
+        return put(DEFAULT_OBJECT_ID, key, value);
+    }
+
+    /**
+     * Invoke the "put" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" in the SOSS object
+     * @return true if the value was stored, false if the admission filter of a bounded SOSS object rejected the key.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean put(String objectId, String key, String value) throws ApiModuleException {
+        return put(objectId, key, value, Duration.ZERO);
+    }
+
+    /**
+     * Asynchronously invoke the "put" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" in the SOSS object
+     * @return a future for true if the value was stored, otherwise false.
+     */
+    public CompletableFuture<Boolean> putAsync(String key, String value) {
+        return putAsync(DEFAULT_OBJECT_ID, key, value);
+    }
+
+    /**
+     * Asynchronously invoke the "put" operation ID on a SOSS object with the ID "objectId". Blocks while the
+     * in-flight limit is reached. Puts of the same key that are in flight together may complete in any order.
+     * @param objectId the ID of the SOSS object
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" in the SOSS object
+     * @return a future for true if the value was stored, otherwise false. The future completes
+     * exceptionally with ApiModuleException if the invoke fails.
+     */
+    public CompletableFuture<Boolean> putAsync(String objectId, String key, String value) {
+        return _pipeline.submit(() -> put(objectId, key, value));
+    }
+
+    /**
+     * Invoke the "put" operation ID with a TTL on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" in the SOSS object
+     * @param ttl how long the entry lives; Duration.ZERO stores the entry without an expiry
+     * @return true if the entry was stored, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean put(String key, String value, Duration ttl) throws ApiModuleException {
+        return put(DEFAULT_OBJECT_ID, key, value, ttl);
+    }
+
+    /**
+     * Invoke the "put" operation ID with a TTL on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" in the SOSS object
+     * @param ttl how long the entry lives; Duration.ZERO stores the entry without an expiry
+     * @return true if the entry was stored, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean put(String objectId, String key, String value, Duration ttl) throws ApiModuleException {
+        // varint keyLen, UTF-8 string[keyLen], [varint ttlMillis], UTF-8 value to the end of the frame
         byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
         byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
-        ByteBuffer buffer = ByteBuffer.allocate(keyBytes.length + valBytes.length + 8);
-        buffer.putInt(keyBytes.length);
-        buffer.put(keyBytes);
-        buffer.putInt(valBytes.length);
-        buffer.put(valBytes);
-        byte[] result = invoke("ExampleObjectId", "put", buffer.array());
-        return result[0] == 0x01;
+        byte[] compressed = compress(valBytes);
+        int flags = 0;
+        if(compressed != null) {
+            valBytes = compressed;
+            flags |= WireProtocol.FLAG_COMPRESSED;
+        }
+        long ttlMillis = ttl.toMillis();
+        WireProtocol.Writer request;
+        if(ttlMillis > 0) {
+            request = keyRequest(flags | WireProtocol.FLAG_TTL, keyBytes, WireProtocol.varintSize(ttlMillis) + valBytes.length).putVarint(ttlMillis);
+        } else {
+            request = keyRequest(flags, keyBytes, valBytes.length);
+        }
+        WireProtocol.Reader response = readResponse(invoke(objectId, "put", request.putBytes(valBytes).array()));
+        added(objectId, keyBytes);
+        if(_nearCache != null)
+            _nearCache.invalidate(objectId, key);
+        return response.status() == WireProtocol.STATUS_OK;
     }
 
-}
\ No newline at end of file
+    /**
+     * Invoke the "expired" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @return the number of entries removed from the SOSS object because their TTL had passed.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public long expiredCount(String objectId) throws ApiModuleException {
+        return _operations.expired(objectId);
+    }
+
+    /**
+     * Invoke the "configure" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @param policy the size limits of the SOSS object
+     * @return the number of entries evicted to meet the new limits.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public int configure(String objectId, EvictionPolicy policy) throws ApiModuleException {
+        int evicted = _operations.configure(objectId, policy);
+        if(_nearCache != null)
+            _nearCache.invalidateObject(objectId);
+        return evicted;
+    }
+
+    /**
+     * Invoke the "evicted" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @return the number of entries evicted from the SOSS object to stay within its size limits.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public long evictedCount(String objectId) throws ApiModuleException {
+        return _operations.evicted(objectId);
+    }
+
+    /**
+     * Invoke the "stats" operation ID on a SOSS object with the ID "objectId".
+     * @param objectId the ID of the SOSS object
+     * @return a JSON document with the handler latencies and payload sizes recorded by the worker process that holds
+     * the object, its hottest objects, and the size and lock metrics of the SOSS object.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String stats(String objectId) throws ApiModuleException {
+        return new String(invoke(objectId, "stats", new byte[0]), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Invoke the "get" operation ID with a version stamp on a SOSS object with the ID "objectId". The version can be passed to
+     * compareAndSet(String, String, long, String) to replace the value only if the key has not changed since.
+     * @param objectId the ID of the SOSS object
+     * @param key the key to find in the SOSS object
+     * @return the value associated with "key" (null if not found) and the version stamp of the SOSS object.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public VersionedValue getVersioned(String objectId, String key) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        WireProtocol.Reader response = readResponse(invoke(objectId, "get", keyRequest(WireProtocol.FLAG_VERSION, keyBytes, 0).array()));
+        long version = response.readLong();
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND)
+            return new VersionedValue(null, version);
+        if(response.hasFlag(WireProtocol.FLAG_TTL))
+            response.readVarlong();
+        return new VersionedValue(value(response, response.remaining()), version);
+    }
+
+    /**
+     * Invoke the "putIfAbsent" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" if it is not present
+     * @return the current value if "key" was present, otherwise null.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String putIfAbsent(String key, String value) throws ApiModuleException {
+        return putIfAbsent(DEFAULT_OBJECT_ID, key, value);
+    }
+
+    /**
+     * Invoke the "putIfAbsent" operation ID on a SOSS object with the ID "objectId". The check and the put
+     * are made under the object's exclusive lock in a single round trip.
+     * @param objectId the ID of the SOSS object
+     * @param key the key to put in the SOSS object
+     * @param value the value to associate with "key" if it is not present
+     * @return the current value if "key" was present, otherwise null. Null is also returned if the admission
+     * filter of a bounded SOSS object rejected the key.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String putIfAbsent(String objectId, String key, String value) throws ApiModuleException {
+        // varint keyLen, UTF-8 string[keyLen], UTF-8 value to the end of the frame
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compress(valBytes);
+        int flags = compressed != null ? WireProtocol.FLAG_COMPRESSED : 0;
+        if(compressed != null) {
+            valBytes = compressed;
+        }
+        byte[] request = keyRequest(flags, keyBytes, valBytes.length).putBytes(valBytes).array();
+        WireProtocol.Reader response = readResponse(invoke(objectId, "putIfAbsent", request));
+        added(objectId, keyBytes);
+        if(_nearCache != null)
+            _nearCache.invalidate(objectId, key);
+        if(response.status() != WireProtocol.STATUS_CONDITION_FAILED)
+            return null;
+        return value(response, response.remaining());
+    }
+
+    /**
+     * Invoke the "compareAndSet" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to update in the SOSS object
+     * @param expected the value "key" must currently have
+     * @param value the new value
+     * @return true if the value was replaced, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean compareAndSet(String key, String expected, String value) throws ApiModuleException {
+        return compareAndSet(DEFAULT_OBJECT_ID, key, expected, value);
+    }
+
+    /**
+     * Invoke the "compareAndSet" operation ID on a SOSS object with the ID "objectId". The value is replaced
+     * only if it still equals "expected".
+     * @param objectId the ID of the SOSS object
+     * @param key the key to update in the SOSS object
+     * @param expected the value "key" must currently have
+     * @param value the new value
+     * @return true if the value was replaced, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean compareAndSet(String objectId, String key, String expected, String value) throws ApiModuleException {
+        // varint keyLen, UTF-8 string[keyLen], varint expLen, UTF-8 string[expLen], UTF-8 value to the end of the frame;
+        // only the new value is compressed
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] expBytes = expected.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compress(valBytes);
+        int flags = compressed != null ? WireProtocol.FLAG_COMPRESSED : 0;
+        if(compressed != null) {
+            valBytes = compressed;
+        }
+        WireProtocol.Writer request = keyRequest(flags, keyBytes, WireProtocol.varintSize(expBytes.length) + expBytes.length + valBytes.length);
+        request.putVarint(expBytes.length).putBytes(expBytes).putBytes(valBytes);
+        return compareAndSet(objectId, key, request.array());
+    }
+
+    /**
+     * Invoke the "compareAndSet" operation ID on a SOSS object with the ID "objectId". The value is replaced
+     * only if "key" has not changed since the version returned by getVersioned. The SOSS object records the
+     * keys changed by its last 1023 writes, so the operation also fails if the version is older than that;
+     * read the value again and retry.
+     * @param objectId the ID of the SOSS object
+     * @param key the key to update in the SOSS object
+     * @param version a version stamp returned by getVersioned
+     * @param value the new value
+     * @return true if the value was replaced, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean compareAndSet(String objectId, String key, long version, String value) throws ApiModuleException {
+        // varint keyLen, UTF-8 string[keyLen], long version, UTF-8 value to the end of the frame
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compress(valBytes);
+        int flags = WireProtocol.FLAG_VERSION | (compressed != null ? WireProtocol.FLAG_COMPRESSED : 0);
+        if(compressed != null) {
+            valBytes = compressed;
+        }
+        WireProtocol.Writer request = keyRequest(flags, keyBytes, 8 + valBytes.length);
+        request.putLong(version).putBytes(valBytes);
+        return compareAndSet(objectId, key, request.array());
+    }
+
+    private boolean compareAndSet(String objectId, String key, byte[] payload) throws ApiModuleException {
+        WireProtocol.Reader response = readResponse(invoke(objectId, "compareAndSet", payload));
+        added(objectId, key.getBytes(StandardCharsets.UTF_8));
+        if(_nearCache != null)
+            _nearCache.invalidate(objectId, key);
+        return response.status() == WireProtocol.STATUS_OK;
+    }
+
+    /**
+     * Invoke the "remove" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the key to remove from the SOSS object
+     * @return the removed value, or null if "key" was not present.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String remove(String key) throws ApiModuleException {
+        return remove(DEFAULT_OBJECT_ID, key);
+    }
+
+    /**
+     * Invoke the "remove" operation ID on a SOSS object with the ID "objectId"
+     * @param objectId the ID of the SOSS object
+     * @param key the key to remove from the SOSS object
+     * @return the removed value, or null if "key" was not present.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public String remove(String objectId, String key) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        WireProtocol.Reader response = readResponse(invoke(objectId, "remove", keyRequest(0, keyBytes, 0).array()));
+        if(_nearCache != null)
+            _nearCache.invalidate(objectId, key);
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND)
+            return null;
+        return value(response, response.remaining());
+    }
+
+    /**
+     * Invoke the "incrementBy" operation ID on a SOSS object with the ID "ExampleObjectId"
+     * @param key the counter's key in the SOSS object
+     * @param delta the amount to add
+     * @return the counter after the increment.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     * @throws IllegalStateException if "key" holds a value that is not a counter, or if the admission filter of a
+     * bounded SOSS object rejected a new counter key.
+     */
+    public long incrementBy(String key, long delta) throws ApiModuleException {
+        return incrementBy(DEFAULT_OBJECT_ID, key, delta);
+    }
+
+    /**
+     * Invoke the "incrementBy" operation ID on a SOSS object with the ID "objectId". The counter is stored
+     * as an 8-byte big-endian long, so read it with incrementBy(objectId, key, 0) rather than get.
+     * @param objectId the ID of the SOSS object
+     * @param key the counter's key in the SOSS object; a missing key counts from 0
+     * @param delta the amount to add
+     * @return the counter after the increment.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     * @throws IllegalStateException if "key" holds a value that is not a counter, or if the admission filter of a
+     * bounded SOSS object rejected a new counter key; nothing is stored.
+     */
+    public long incrementBy(String objectId, String key, long delta) throws ApiModuleException {
+        // varint keyLen, UTF-8 string[keyLen], long delta
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] request = keyRequest(0, keyBytes, 8).putLong(delta).array();
+        WireProtocol.Reader response = readResponse(invoke(objectId, "incrementBy", request));
+        // a rejected increment changed nothing
+        if(response.status() == WireProtocol.STATUS_INVALID_STATE)
+            throw new IllegalStateException("The value of key " + key + " is not a counter.");
+        if(response.status() == WireProtocol.STATUS_REJECTED)
+            throw new IllegalStateException("The admission filter of " + objectId + " rejected key " + key + ".");
+        added(objectId, keyBytes);
+        if(_nearCache != null)
+            _nearCache.invalidate(objectId, key);
+        return response.readLong();
+    }
+
+    /**
+     * Invoke the "sorted" operation ID on a SOSS object with the ID "objectId". Sorted mode keeps the keys
+     * in order so they can be read with scan and scanPrefix.
+     * @param objectId the ID of the SOSS object
+     * @param sorted true to turn sorted mode on, false to turn it off
+     * @return true if sorted mode was on before the call.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean setSorted(String objectId, boolean sorted) throws ApiModuleException {
+        return _operations.sorted(objectId, sorted);
+    }
+
+    /**
+     * Invoke the "scan" operation ID on a SOSS object with the ID "objectId" to read one page of a key range.
+     * Read the whole range by passing each page's continuation token to the next call until hasMore()
+     * returns false:
+     * <pre>
+     * byte[] token = null;
+     * do {
+     *     ScanPage page = client.scan(objectId, "a", "m", 1000, token);
+     *     // use page.getEntries()
+     *     token = page.getContinuationToken();
+     * } while(token != null);
+     * </pre>
+     * @param objectId the ID of the SOSS object, which must be in sorted mode
+     * @param startKey the first key of the range
+     * @param endKey the key after the range, or null to scan to the end of the SOSS object
+     * @param pageSize the maximum number of entries in the page
+     * @param token the continuation token of the previous page, or null for the first page
+     * @return the page of entries in UTF-8 key order.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     * @throws IllegalStateException if the object is not in sorted mode.
+     */
+    public ScanPage scan(String objectId, String startKey, String endKey, int pageSize, byte[] token) throws ApiModuleException {
+        byte[] bound = endKey != null ? endKey.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return scan(objectId, startKey.getBytes(StandardCharsets.UTF_8), endKey != null ? (byte)0x01 : (byte)0x00, bound, pageSize, token);
+    }
+
+    /**
+     * Invoke the "scan" operation ID on a SOSS object with the ID "objectId" to read one page of the keys
+     * that start with a prefix. See scan(String, String, String, int, byte[]) for paging.
+     * @param objectId the ID of the SOSS object, which must be in sorted mode
+     * @param prefix the prefix of the keys to return
+     * @param pageSize the maximum number of entries in the page
+     * @param token the continuation token of the previous page, or null for the first page
+     * @return the page of entries in UTF-8 key order.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     * @throws IllegalStateException if the object is not in sorted mode.
+     */
+    public ScanPage scanPrefix(String objectId, String prefix, int pageSize, byte[] token) throws ApiModuleException {
+        return scan(objectId, new byte[0], (byte)0x02, prefix.getBytes(StandardCharsets.UTF_8), pageSize, token);
+    }
+
+    private ScanPage scan(String objectId, byte[] start, byte boundType, byte[] bound, int pageSize, byte[] token) throws ApiModuleException {
+        // varint startLen, UTF-8 string[startLen], byte boundType, varint boundLen, UTF-8 string[boundLen]
+        // varint pageSize, varint tokenLen, byte[tokenLen]
+        if(token == null)
+            token = new byte[0];
+        int len = WireProtocol.varintSize(start.length) + start.length + 1 + WireProtocol.varintSize(bound.length) + bound.length
+                + WireProtocol.varintSize(pageSize) + WireProtocol.varintSize(token.length) + token.length;
+        WireProtocol.Writer request = WireProtocol.writeRequest(0, len);
+        request.putVarint(start.length).putBytes(start);
+        request.putByte(boundType).putVarint(bound.length).putBytes(bound);
+        request.putVarint(pageSize).putVarint(token.length).putBytes(token);
+        // varint count, count * (varint keyLen, UTF-8 string[keyLen], byte flags, varint valLen, UTF-8 string[valLen]),
+        // varint tokenLen, byte[tokenLen]
+        WireProtocol.Reader response = readResponse(invoke(objectId, "scan", request.array()));
+        if(response.status() == WireProtocol.STATUS_INVALID_STATE)
+            throw new IllegalStateException("Sorted mode is off for " + objectId + ".");
+        int count = response.readVarint();
+        Map<String, String> entries = new LinkedHashMap<>();
+        for(int i = 0; i < count; i++) {
+            String key = utf8(response, response.readVarint());
+            boolean compressed = (response.readByte() & WireProtocol.FLAG_COMPRESSED) != 0;
+            entries.put(key, value(response, compressed, response.readVarint()));
+        }
+        int tokenLen = response.readVarint();
+        byte[] next = Arrays.copyOfRange(response.frame(), response.slice(tokenLen), response.position());
+        return new ScanPage(entries, next.length > 0 ? next : null);
+    }
+
+    /**
+     * Invoke the "mget" operation ID on a SOSS object with the ID "ExampleObjectId". All keys are read
+     * with a single round trip.
+     * @param keys the keys to find in the SOSS object
+     * @return a map of each key found to its value. Keys that were not found are absent from the map.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public Map<String, String> mget(Collection<String> keys) throws ApiModuleException {
+        return mget(DEFAULT_OBJECT_ID, keys);
+    }
+
+    /**
+     * Invoke the "mget" operation ID on a SOSS object with the ID "objectId". All keys are read
+     * with a single round trip.
+     * @param objectId the ID of the SOSS object
+     * @param keys the keys to find in the SOSS object
+     * @return a map of each key found to its value. Keys that were not found are absent from the map.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public Map<String, String> mget(String objectId, Collection<String> keys) throws ApiModuleException {
+        String[] keyStrings = keys.toArray(new String[0]);
+        WireProtocol.Reader response = readResponse(invoke(objectId, "mget", keysRequest(0, keyStrings)));
+        Map<String, String> values = new HashMap<>(keyStrings.length * 2);
+        readValues(response, keyStrings, values);
+        return values;
+    }
+
+    /**
+     * Invoke the "mput" operation ID on a SOSS object with the ID "ExampleObjectId". All entries are written
+     * with a single round trip and a single update of the SOSS object.
+     * @param entries the key/value pairs to put in the SOSS object
+     * @return true if the entries were stored, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean mput(Map<String, String> entries) throws ApiModuleException {
+        return mput(DEFAULT_OBJECT_ID, entries);
+    }
+
+    /**
+     * Invoke the "mput" operation ID on a SOSS object with the ID "objectId". All entries are written
+     * with a single round trip and a single update of the SOSS object.
+     * @param objectId the ID of the SOSS object
+     * @param entries the key/value pairs to put in the SOSS object
+     * @return true if the entries were stored, otherwise false.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public boolean mput(String objectId, Map<String, String> entries) throws ApiModuleException {
+        WireProtocol.Reader response = readResponse(invoke(objectId, "mput", mputRequest(0, entries)));
+        if(_missFilter != null) {
+            for(String key : entries.keySet()) {
+                added(objectId, key.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if(_nearCache != null) {
+            for(String key : entries.keySet()) {
+                _nearCache.invalidate(objectId, key);
+            }
+        }
+        return response.status() == WireProtocol.STATUS_OK;
+    }
+
+    /**
+     * Builds an "mput" request, compressing values longer than the compression threshold.
+     */
+    byte[] mputRequest(int flags, Map<String, String> entries) {
+        // varint count, count * (varint keyLen, UTF-8 string[keyLen], byte flags, varint valLen, UTF-8 string[valLen])
+        byte[][] pairBytes = new byte[entries.size() * 2][];
+        byte[] pairFlags = new byte[entries.size()];
+        int len = WireProtocol.varintSize(entries.size());
+        int idx = 0;
+        for(Map.Entry<String, String> entry : entries.entrySet()) {
+            pairBytes[idx] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            pairBytes[idx + 1] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = compress(pairBytes[idx + 1]);
+            if(compressed != null) {
+                pairBytes[idx + 1] = compressed;
+                pairFlags[idx / 2] = WireProtocol.FLAG_COMPRESSED;
+            }
+            len += WireProtocol.varintSize(pairBytes[idx].length) + pairBytes[idx].length + 1
+                    + WireProtocol.varintSize(pairBytes[idx + 1].length) + pairBytes[idx + 1].length;
+            idx += 2;
+        }
+        WireProtocol.Writer request = WireProtocol.writeRequest(flags, len).putVarint(entries.size());
+        for(int i = 0; i < pairFlags.length; i++) {
+            request.putVarint(pairBytes[2 * i].length).putBytes(pairBytes[2 * i]);
+            request.putByte(pairFlags[i]).putVarint(pairBytes[2 * i + 1].length).putBytes(pairBytes[2 * i + 1]);
+        }
+        return request.array();
+    }
+
+    /**
+     * Invoke the "bulkPut" operation ID on a SOSS object with the ID "objectId". All records are written
+     * with a single round trip and a single update of the SOSS object. BulkLoader uses it to load files.
+     * @param objectId the ID of the SOSS object
+     * @param records records in the bulkPut layout, see BulkLoader.writeRecord(OutputStream, String, String)
+     * @param offset the offset of the first record
+     * @param length the length of the records
+     * @return the number of records stored. Records are missing if the admission filter of a bounded map rejected them.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public int bulkPut(String objectId, byte[] records, int offset, int length) throws ApiModuleException {
+        return bulkPut(objectId, WireProtocol.writeRequest(0, length).putBytes(records, offset, length).array());
+    }
+
+    /**
+     * Sends a "bulkPut" request frame.
+     */
+    int bulkPut(String objectId, byte[] request) throws ApiModuleException {
+        WireProtocol.Reader response = readResponse(invoke(objectId, "bulkPut", request));
+        MissFilter missFilter = _missFilter;
+        if(missFilter != null) {
+            missFilter.invalidateObject(objectId);
+        }
+        if(_nearCache != null) {
+            _nearCache.invalidateObject(objectId);
+        }
+        return response.readVarint();
+    }
+
+    /**
+     * Sends an "export" request for one page of a SOSS object's entries.
+     * @return the response, positioned at the record count
+     */
+    WireProtocol.Reader exportPage(String objectId, int pageBytes, byte[] token) throws ApiModuleException {
+        // varint pageBytes, varint tokenLen, byte[tokenLen]
+        WireProtocol.Writer request = WireProtocol.writeRequest(0, WireProtocol.varintSize(pageBytes) + WireProtocol.varintSize(token.length) + token.length);
+        request.putVarint(pageBytes).putVarint(token.length).putBytes(token);
+        return readResponse(invoke(objectId, "export", request.array()));
+    }
+
+    /**
+     * Invoke the "mremove" operation ID on a SOSS object with the ID "ExampleObjectId". All keys are removed
+     * with a single round trip and a single update of the SOSS object.
+     * @param keys the keys to remove from the SOSS object
+     * @return the number of keys that were present and have been removed.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public int mremove(Collection<String> keys) throws ApiModuleException {
+        return mremove(DEFAULT_OBJECT_ID, keys);
+    }
+
+    /**
+     * Invoke the "mremove" operation ID on a SOSS object with the ID "objectId". All keys are removed
+     * with a single round trip and a single update of the SOSS object.
+     * @param objectId the ID of the SOSS object
+     * @param keys the keys to remove from the SOSS object
+     * @return the number of keys that were present and have been removed.
+     * @throws ApiModuleException if the handler does not exist, the object did not exist and the CreateResult operation
+     * threw an exception, or the handler threw an unhandled exception.
+     */
+    public int mremove(String objectId, Collection<String> keys) throws ApiModuleException {
+        WireProtocol.Reader response = readResponse(invoke(objectId, "mremove", keysRequest(0, keys.toArray(new String[0]))));
+        if(_nearCache != null) {
+            for(String key : keys) {
+                _nearCache.invalidate(objectId, key);
+            }
+        }
+        return response.readVarint();
+    }
+
+    /**
+     * Builds an "mget" or "mremove" request.
+     */
+    static byte[] keysRequest(int flags, String[] keys) {
+        // varint count, count * (varint keyLen, UTF-8 string[keyLen])
+        byte[][] keyBytes = new byte[keys.length][];
+        int len = WireProtocol.varintSize(keys.length);
+        for(int i = 0; i < keys.length; i++) {
+            keyBytes[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+            len += WireProtocol.varintSize(keyBytes[i].length) + keyBytes[i].length;
+        }
+        WireProtocol.Writer request = WireProtocol.writeRequest(flags, len).putVarint(keyBytes.length);
+        for(byte[] key : keyBytes) {
+            request.putVarint(key.length).putBytes(key);
+        }
+        return request.array();
+    }
+
+    /**
+     * Reads the values of an "mget" response into a map, by the keys in request order.
+     */
+    static void readValues(WireProtocol.Reader response, String[] keys, Map<String, String> values) {
+        // varint count, count * (byte status, byte flags, varint valLen, UTF-8 string[valLen])
+        int count = response.readVarint();
+        for(int i = 0; i < count; i++) {
+            if(response.readByte() == WireProtocol.STATUS_OK) {
+                boolean compressed = (response.readByte() & WireProtocol.FLAG_COMPRESSED) != 0;
+                values.put(keys[i], value(response, compressed, response.readVarint()));
+            }
+        }
+    }
+
+    /**
+     * Starts a request whose body begins with a varint length-prefixed UTF-8 key.
+     */
+    static WireProtocol.Writer keyRequest(int flags, byte[] keyBytes, int extraLength) {
+        return WireProtocol.writeRequest(flags, WireProtocol.varintSize(keyBytes.length) + keyBytes.length + extraLength)
+                .putVarint(keyBytes.length)
+                .putBytes(keyBytes);
+    }
+
+    /**
+     * Reads a response, throwing if the module could not process the request.
+     */
+    static WireProtocol.Reader readResponse(byte[] frame) {
+        WireProtocol.Reader response = WireProtocol.readResponse(frame);
+        if(response.status() == WireProtocol.STATUS_UNSUPPORTED_VERSION || response.status() == WireProtocol.STATUS_BAD_REQUEST)
+            throw new IllegalStateException("The SossHashMap module rejected the request with status " + response.status() + ".");
+        return response;
+    }
+
+    /**
+     * Compresses a value longer than the compression threshold, or returns null to send it as it is.
+     */
+    byte[] compress(byte[] value) {
+        int threshold = _compressionThreshold;
+        if(threshold <= 0 || value.length <= threshold)
+            return null;
+        return Lz4.compressValue(value, 0, value.length);
+    }
+
+    /**
+     * Reads a value that ends a response, decompressing it if the response has FLAG_COMPRESSED.
+     */
+    static String value(WireProtocol.Reader response, int length) {
+        return value(response, response.hasFlag(WireProtocol.FLAG_COMPRESSED), length);
+    }
+
+    static String value(WireProtocol.Reader response, boolean compressed, int length) {
+        if(!compressed)
+            return utf8(response, length);
+        byte[] value = Lz4.decompressValue(response.frame(), response.slice(length), length);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static String utf8(WireProtocol.Reader response, int length) {
+        return new String(response.frame(), response.slice(length), length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.modules.client.ApiModuleException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking invokes on a pool of threads so that many requests can be outstanding over the grid
+ * connection at once. A semaphore bounds the requests in flight: submit blocks the caller while the limit
+ * is reached, so a fast producer cannot queue unbounded work.
+ */
+final class InvokePipeline {
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+    private final int _maxInFlight;
+    private final Semaphore _permits;
+    private final ThreadPoolExecutor _executor;
+
+    /**
+     * A blocking call made on a pipeline thread.
+     */
+    interface Invocation<T> {
+        T call() throws ApiModuleException;
+    }
+
+    InvokePipeline(int maxInFlight) {
+        if(maxInFlight < 1)
+            throw new IllegalArgumentException("maxInFlight must be at least 1.");
+        _maxInFlight = maxInFlight;
+        _permits = new Semaphore(maxInFlight);
+        String prefix = "ExampleClient-pipeline-" + POOL_COUNT.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        // one thread per permit, so a submitted call never waits in the queue; idle threads exit
+        _executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    int getMaxInFlight() {
+        return _maxInFlight;
+    }
+
+    int getInFlight() {
+        return _maxInFlight - _permits.availablePermits();
+    }
+
+    /**
+     * Starts a call, waiting first while the in-flight limit is reached. The permit is released before
+     * the future completes, so dependent stages may submit more calls without deadlocking.
+     */
+    <T> CompletableFuture<T> submit(Invocation<T> invocation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            _permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        try {
+            _executor.execute(() -> {
+                T result;
+                try {
+                    result = invocation.call();
+                } catch (Throwable t) {
+                    _permits.release();
+                    future.completeExceptionally(t);
+                    return;
+                }
+                _permits.release();
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            _permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.modules.client.ApiModuleException;
+import com.scaleoutsoftware.samples.server.WireProtocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the entries of one SossHashMap object, or of the shards of a ShardedMapClient, to a snapshot file
+ * with the "export" operation. BulkLoader restores the file with Format.SNAPSHOT.
+ * <p>
+ * The file starts with a 16-byte header: the ASCII magic "SOSSSNAP", int version and int 0. Each page of the
+ * export follows as a frame of int recordsLen, int CRC32 of the records, and the records in the bulkPut layout,
+ * copied from the response as they are. An int 0 and the long number of records end the file, so a file that
+ * was cut short is detected. Integers are big-endian. Compressed values stay compressed, and an entry with a
+ * TTL keeps the lifetime it had left when it was exported.
+ * <p>
+ * Pages are read without locking, so the file holds each key that stays in the map for the whole export, and
+ * may or may not hold keys changed while it runs. A key can appear twice; the later record wins on import.
+ */
+public class MapExporter {
+    public static final int DEFAULT_PAGE_BYTES = 4 << 20;
+    static final byte[] MAGIC = "SOSSSNAP".getBytes(StandardCharsets.US_ASCII);
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_LENGTH = 16;
+    static final int FRAME_HEADER_LENGTH = 8;
+    static final int TRAILER_LENGTH = 12;
+
+    private final ExampleClient _client;
+    private final ShardedMapClient _map;
+    private final String _objectId;
+    private int _pageBytes = DEFAULT_PAGE_BYTES;
+
+    /**
+     * Creates an exporter for one SOSS object.
+     * @param client the API module client
+     * @param objectId the ID of the SOSS object
+     */
+    public MapExporter(ExampleClient client, String objectId) {
+        _client = client;
+        _map = null;
+        _objectId = objectId;
+    }
+
+    /**
+     * Creates an exporter for a sharded map. The shards are written one after the other.
+     * @param map the sharded map
+     */
+    public MapExporter(ShardedMapClient map) {
+        _client = map.client();
+        _map = map;
+        _objectId = null;
+    }
+
+    /**
+     * Sets the number of record bytes requested per page, which is also the size of a frame in the file.
+     * @param pageBytes the page size, DEFAULT_PAGE_BYTES by default
+     */
+    public void setPageBytes(int pageBytes) {
+        if(pageBytes < 1)
+            throw new IllegalArgumentException("pageBytes must be positive.");
+        _pageBytes = pageBytes;
+    }
+
+    /**
+     * Writes a snapshot file, replacing any file at the path.
+     * @param path the file to write
+     * @return the number of records written
+     * @throws IOException if the file could not be written
+     * @throws ApiModuleException if an export call failed
+     */
+    public long export(Path path) throws IOException, ApiModuleException {
+        CRC32 crc = new CRC32();
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_LENGTH);
+        long records = 0;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.put(MAGIC).putInt(FORMAT_VERSION).putInt(0).flip();
+            writeFully(channel, header);
+            int shards = _map != null ? _map.getShardCount() : 1;
+            for(int shard = 0; shard < shards; shard++) {
+                String objectId = _map != null ? _map.shardId(shard) : _objectId;
+                byte[] token = new byte[0];
+                do {
+                    WireProtocol.Reader page = _client.exportPage(objectId, _pageBytes, token);
+                    int count = page.readVarint();
+                    int recordsLen = page.readVarint();
+                    int recordsOffset = page.slice(recordsLen);
+                    if(count > 0) {
+                        crc.reset();
+                        crc.update(page.frame(), recordsOffset, recordsLen);
+                        frameHeader.clear();
+                        frameHeader.putInt(recordsLen).putInt((int)crc.getValue()).flip();
+                        // the records go from the response to the file without another copy
+                        writeFully(channel, frameHeader, ByteBuffer.wrap(page.frame(), recordsOffset, recordsLen));
+                        records += count;
+                    }
+                    int tokenLen = page.readVarint();
+                    token = Arrays.copyOfRange(page.frame(), page.slice(tokenLen), page.position());
+                } while(token.length > 0);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH);
+            trailer.putInt(0).putLong(records).flip();
+            writeFully(channel, trailer);
+            channel.force(false);
+        }
+        return records;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while(last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+}
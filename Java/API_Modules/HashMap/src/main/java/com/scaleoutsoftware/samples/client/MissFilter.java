@@ -0,0 +1,286 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.samples.server.BloomFilter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers "get" calls for keys that are certainly not in a SossHashMap object without a round trip, using a
+ * Bloom filter of the object's keys fetched with the "filter" operation.
+ * <p>
+ * A filter holds every key the object had at the version stamp it was fetched at. Once per refreshInterval
+ * and object, the next lookup sends that stamp and adds the hashes of the keys changed since to the filter,
+ * so a refresh costs a few bytes per write. The whole filter is only fetched again if the module no longer
+ * has the changes or the filter has taken more keys than it was sized for. Keys written through the same
+ * client are added at once. A key added by another client can be reported missing until the next refresh,
+ * so refreshInterval bounds the staleness like NearCache's validationInterval.
+ * <p>
+ * See ExampleClient.setMissFilter(MissFilter) for how the filter is used.
+ */
+public class MissFilter {
+    private final double _falsePositiveRate;
+    private final long _refreshNanos;
+    private final ConcurrentHashMap<String, ObjectFilter> _objects = new ConcurrentHashMap<>();
+
+    private final LongAdder _lookups = new LongAdder();
+    private final LongAdder _savedRoundTrips = new LongAdder();
+    private final LongAdder _falsePositives = new LongAdder();
+    private final LongAdder _fullRefreshes = new LongAdder();
+    private final LongAdder _deltaRefreshes = new LongAdder();
+    private final LongAdder _refreshBytes = new LongAdder();
+
+    /**
+     * The filter of an object and the version it is complete up to. While a refresh is in flight, the hashes
+     * of local writes are also kept, to be added to a filter that replaces this one. Guarded by its own monitor.
+     */
+    private static final class ObjectFilter {
+        BloomFilter filter;
+        long version = -1;
+        long refreshedAt;
+        boolean refreshing;
+        // set when the object is invalidated during a refresh, whose result is then dropped
+        boolean invalidated;
+        int[] localHashes = new int[16];
+        int localCount;
+
+        ObjectFilter(long refreshedAt) {
+            this.refreshedAt = refreshedAt;
+        }
+    }
+
+    /**
+     * Creates a miss filter.
+     * @param falsePositiveRate the rate at which filters let lookups of missing keys through, from 0.000001 to 0.5
+     * @param refreshInterval how long a filter is trusted before the changes since are fetched
+     */
+    public MissFilter(double falsePositiveRate, Duration refreshInterval) {
+        if(!(falsePositiveRate >= 1e-6 && falsePositiveRate <= 0.5))
+            throw new IllegalArgumentException("falsePositiveRate must be between 0.000001 and 0.5.");
+        _falsePositiveRate = falsePositiveRate;
+        _refreshNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Returns the false-positive rate filters are fetched with.
+     * @return the rate
+     */
+    public double getFalsePositiveRate() {
+        return _falsePositiveRate;
+    }
+
+    /**
+     * Returns the false-positive rate in millionths, as sent in a "filter" request.
+     */
+    int falsePositiveMillionths() {
+        return (int)Math.round(_falsePositiveRate * 1e6);
+    }
+
+    /**
+     * Claims the refresh of an object's filter if it is due and no other thread is refreshing it.
+     * @return true if the caller must refresh the filter and then call refreshed or refreshFailed
+     */
+    boolean claimRefresh(String objectId) {
+        long now = System.nanoTime();
+        ObjectFilter state = _objects.computeIfAbsent(objectId, id -> new ObjectFilter(now - _refreshNanos));
+        synchronized(state) {
+            if(state.refreshing || now - state.refreshedAt < _refreshNanos)
+                return false;
+            state.refreshing = true;
+            state.invalidated = false;
+            state.localCount = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Returns the version stamp to send in a "filter" call, or -1 to fetch a new filter.
+     */
+    long knownVersion(String objectId) {
+        ObjectFilter state = _objects.get(objectId);
+        if(state == null)
+            return -1;
+        synchronized(state) {
+            return state.filter == null || state.filter.isSaturated() ? -1 : state.version;
+        }
+    }
+
+    /**
+     * Installs a filter fetched in a claimed refresh, adding the keys written locally while it was in flight.
+     */
+    void replaced(String objectId, long version, BloomFilter filter, int bytes) {
+        ObjectFilter state = _objects.get(objectId);
+        synchronized(state) {
+            if(state.invalidated) {
+                finish(state, false);
+            } else {
+                for(int i = 0; i < state.localCount; i++) {
+                    filter.add(state.localHashes[i]);
+                }
+                state.filter = filter;
+                state.version = version;
+                finish(state, true);
+            }
+        }
+        _fullRefreshes.increment();
+        _refreshBytes.add(bytes);
+    }
+
+    /**
+     * Adds the keys changed between fromVersion and version to the filter of a claimed refresh.
+     */
+    void advanced(String objectId, long fromVersion, long version, int[] changes, int bytes) {
+        ObjectFilter state = _objects.get(objectId);
+        synchronized(state) {
+            if(state.invalidated || state.filter == null || state.version != fromVersion) {
+                finish(state, false);
+            } else {
+                for(int hash : changes) {
+                    state.filter.add(hash);
+                }
+                state.version = version;
+                finish(state, true);
+            }
+        }
+        _deltaRefreshes.increment();
+        _refreshBytes.add(bytes);
+    }
+
+    /**
+     * Ends a claimed refresh that failed, so the next lookup tries again.
+     */
+    void refreshFailed(String objectId) {
+        ObjectFilter state = _objects.get(objectId);
+        synchronized(state) {
+            finish(state, false);
+        }
+    }
+
+    /**
+     * Ends a refresh. A refresh that did not succeed leaves the filter due, so the next lookup tries again.
+     */
+    private void finish(ObjectFilter state, boolean succeeded) {
+        state.refreshing = false;
+        state.refreshedAt = succeeded ? System.nanoTime() : System.nanoTime() - _refreshNanos;
+        state.localCount = 0;
+        if(state.localHashes.length > 16) {
+            state.localHashes = new int[16];
+        }
+    }
+
+    /**
+     * Returns false if the key is certainly not in the object, which saves the round trip of the lookup.
+     * Returns true if the object has no filter yet.
+     */
+    boolean mightContain(String objectId, int keyHash) {
+        ObjectFilter state = _objects.get(objectId);
+        if(state == null)
+            return true;
+        synchronized(state) {
+            if(state.filter == null)
+                return true;
+            _lookups.increment();
+            if(state.filter.mightContain(keyHash))
+                return true;
+        }
+        _savedRoundTrips.increment();
+        return false;
+    }
+
+    /**
+     * Counts a false positive if the filter let through a lookup of a key the module did not have.
+     */
+    void notFound(String objectId, int keyHash) {
+        ObjectFilter state = _objects.get(objectId);
+        if(state == null)
+            return;
+        synchronized(state) {
+            if(state.filter != null && state.filter.mightContain(keyHash)) {
+                _falsePositives.increment();
+            }
+        }
+    }
+
+    /**
+     * Adds a key after a local write, so reads through the same client find it at once.
+     * @param objectId the ID of the SOSS object
+     * @param keyHash the ByteHashTable.hash of the UTF-8 key
+     */
+    void added(String objectId, int keyHash) {
+        ObjectFilter state = _objects.get(objectId);
+        if(state == null)
+            return;
+        synchronized(state) {
+            if(state.filter != null) {
+                state.filter.add(keyHash);
+            }
+            if(state.refreshing) {
+                if(state.localCount == state.localHashes.length) {
+                    state.localHashes = Arrays.copyOf(state.localHashes, state.localCount * 2);
+                }
+                state.localHashes[state.localCount++] = keyHash;
+            }
+        }
+    }
+
+    /**
+     * Drops the filter of an object after a write whose keys are not known, such as a bulk load. Lookups go
+     * to the module until the next lookup has fetched a new filter.
+     * @param objectId the ID of the SOSS object
+     */
+    public void invalidateObject(String objectId) {
+        ObjectFilter state = _objects.get(objectId);
+        if(state == null)
+            return;
+        synchronized(state) {
+            state.filter = null;
+            state.version = -1;
+            state.invalidated = state.refreshing;
+            state.refreshedAt = System.nanoTime() - _refreshNanos;
+        }
+    }
+
+    /**
+     * Drops every filter.
+     */
+    public void clear() {
+        for(String objectId : _objects.keySet()) {
+            invalidateObject(objectId);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the filter metrics.
+     * @return the metrics
+     */
+    public MissFilterStats getStats() {
+        return new MissFilterStats(_lookups.sum(), _savedRoundTrips.sum(), _falsePositives.sum(), _fullRefreshes.sum(), _deltaRefreshes.sum(), _refreshBytes.sum());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+/**
+ * A snapshot of MissFilter metrics.
+ */
+public class MissFilterStats {
+    private final long _lookups;
+    private final long _savedRoundTrips;
+    private final long _falsePositives;
+    private final long _fullRefreshes;
+    private final long _deltaRefreshes;
+    private final long _refreshBytes;
+
+    MissFilterStats(long lookups, long savedRoundTrips, long falsePositives, long fullRefreshes, long deltaRefreshes, long refreshBytes) {
+        _lookups = lookups;
+        _savedRoundTrips = savedRoundTrips;
+        _falsePositives = falsePositives;
+        _fullRefreshes = fullRefreshes;
+        _deltaRefreshes = deltaRefreshes;
+        _refreshBytes = refreshBytes;
+    }
+
+    /**
+     * @return reads checked against a filter
+     */
+    public long getLookups() {
+        return _lookups;
+    }
+
+    /**
+     * @return reads answered as missing without a round trip
+     */
+    public long getSavedRoundTrips() {
+        return _savedRoundTrips;
+    }
+
+    /**
+     * @return reads the filter let through for keys the module did not have
+     */
+    public long getFalsePositives() {
+        return _falsePositives;
+    }
+
+    /**
+     * @return "filter" round trips that fetched a whole filter
+     */
+    public long getFullRefreshes() {
+        return _fullRefreshes;
+    }
+
+    /**
+     * @return "filter" round trips that fetched the keys changed since the last refresh
+     */
+    public long getDeltaRefreshes() {
+        return _deltaRefreshes;
+    }
+
+    /**
+     * @return response bytes of all "filter" round trips
+     */
+    public long getRefreshBytes() {
+        return _refreshBytes;
+    }
+
+    /**
+     * @return the round trips saved minus the round trips spent on refreshes
+     */
+    public long getNetSavedRoundTrips() {
+        return _savedRoundTrips - _fullRefreshes - _deltaRefreshes;
+    }
+
+    /**
+     * @return the fraction of reads of missing keys that the filter let through
+     */
+    public double getFalsePositiveRate() {
+        long missing = _savedRoundTrips + _falsePositives;
+        return missing == 0 ? 0 : (double)_falsePositives / missing;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lookups=%d savedRoundTrips=%d falsePositives=%d fullRefreshes=%d deltaRefreshes=%d refreshBytes=%d netSaved=%d falsePositiveRate=%.4f",
+                _lookups, _savedRoundTrips, _falsePositives, _fullRefreshes, _deltaRefreshes, _refreshBytes, getNetSavedRoundTrips(), getFalsePositiveRate());
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A client-side cache of values read from SossHashMap objects. Entries are evicted least recently used
+ * first once the cache holds maxEntries values, and expire ttl after they were read from the server, or
+ * earlier if the entry's own TTL on the server runs out first.
+ * <p>
+ * Coherence uses the version stamp of each SossHashMap object. Every cached value carries the stamp it
+ * was read at. Once per validationInterval and object, the client sends the last stamp it saw in a
+ * "version" call and gets back the current stamp plus the hashes of the keys changed since; only values
+ * whose key changed after they were read are transferred again. If the server no longer has the changes
+ * (too many writes, or the object was reloaded), every value cached for the object is re-read. Within
+ * the interval values are served without a round trip, so validationInterval bounds how stale a value
+ * written by another client can be; a validationInterval of zero checks the stamp on every hit.
+ * <p>
+ * See ExampleClient.get(String objectId, String key) for how the cache is used.
+ */
+public class NearCache {
+    // windows that collect more changed keys than this start over, re-reading the older values
+    private static final int MAX_TRACKED_CHANGES = 4096;
+
+    private final int _maxEntries;
+    private final long _ttlNanos;
+    private final long _validationNanos;
+    private final LinkedHashMap<CacheKey, CachedValue> _entries;
+    private final ConcurrentHashMap<String, ObjectState> _objects = new ConcurrentHashMap<>();
+    // bumped by every local write so a read that overlapped the write does not cache what it read
+    private final AtomicLong _generation = new AtomicLong();
+
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _stale = new LongAdder();
+    private final LongAdder _versionChecks = new LongAdder();
+    private final LongAdder _expirations = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    /**
+     * A cached value, the hash of its key and the version stamp of the object it was read at.
+     */
+    static final class CachedValue {
+        final String value;
+        final int keyHash;
+        final long version;
+        final long expiresAt;
+
+        CachedValue(String value, int keyHash, long version, long expiresAt) {
+            this.value = value;
+            this.keyHash = keyHash;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * What the client knows about an object: its version at the last check, and the version each key
+     * hash last changed at since windowStart. Values read before windowStart cannot be checked.
+     * Guarded by its own monitor.
+     */
+    private static final class ObjectState {
+        long version;
+        long validatedAt;
+        long windowStart;
+        final HashMap<Integer, Long> lastChanged = new HashMap<>();
+
+        ObjectState(long version, long validatedAt) {
+            this.version = version;
+            this.validatedAt = validatedAt;
+            this.windowStart = version;
+        }
+    }
+
+    private static final class CacheKey {
+        final String objectId;
+        final String key;
+        final int hash;
+
+        CacheKey(String objectId, String key) {
+            this.objectId = objectId;
+            this.key = key;
+            this.hash = 31 * objectId.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey)o;
+            return hash == other.hash && key.equals(other.key) && objectId.equals(other.objectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Creates a near cache.
+     * @param maxEntries the maximum number of cached values
+     * @param ttl how long a value may be cached after it was read from the server
+     * @param validationInterval how long an object's version stamp is trusted before it is checked again
+     */
+    public NearCache(int maxEntries, Duration ttl, Duration validationInterval) {
+        if(maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        _maxEntries = maxEntries;
+        _ttlNanos = ttl.toNanos();
+        _validationNanos = validationInterval.toNanos();
+        _entries = new LinkedHashMap<CacheKey, CachedValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedValue> eldest) {
+                if(size() <= _maxEntries)
+                    return false;
+                _evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for a key, or null if it is not cached or its TTL has passed.
+     */
+    CachedValue lookup(String objectId, String key) {
+        CacheKey cacheKey = new CacheKey(objectId, key);
+        synchronized(_entries) {
+            CachedValue cached = _entries.get(cacheKey);
+            if(cached != null && System.nanoTime() - cached.expiresAt >= 0) {
+                _entries.remove(cacheKey);
+                _expirations.increment();
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Returns true if the object's version stamp has not been checked within the validation interval.
+     */
+    boolean needsValidation(String objectId) {
+        ObjectState state = _objects.get(objectId);
+        if(state == null)
+            return true;
+        synchronized(state) {
+            return System.nanoTime() - state.validatedAt >= _validationNanos;
+        }
+    }
+
+    /**
+     * Returns the version stamp to send in a "version" call, or -1 if the object was never checked.
+     */
+    long knownVersion(String objectId) {
+        ObjectState state = _objects.get(objectId);
+        if(state == null)
+            return -1;
+        synchronized(state) {
+            return state.version;
+        }
+    }
+
+    /**
+     * Returns true if no change to the value's key is known since the value was read.
+     */
+    boolean isCurrent(String objectId, CachedValue cached) {
+        ObjectState state = _objects.get(objectId);
+        if(state == null)
+            return false;
+        synchronized(state) {
+            if(cached.version < state.windowStart || cached.version > state.version)
+                return false;
+            Long changed = state.lastChanged.get(cached.keyHash);
+            return changed == null || changed <= cached.version;
+        }
+    }
+
+    /**
+     * Returns the generation to pass to {@link #validated} and {@link #store} after a server call.
+     */
+    long generation() {
+        return _generation.get();
+    }
+
+    /**
+     * Records the result of a "version" call.
+     * @param objectId the ID of the SOSS object
+     * @param fromVersion the version stamp that was sent, or -1
+     * @param version the current version stamp
+     * @param changes the hashes of the keys changed after fromVersion in version order, or null if unknown
+     * @param generation the generation read before the call
+     */
+    void validated(String objectId, long fromVersion, long version, int[] changes, long generation) {
+        if(generation != _generation.get())
+            return;
+        ObjectState state = _objects.computeIfAbsent(objectId, id -> new ObjectState(version, System.nanoTime()));
+        synchronized(state) {
+            if(generation != _generation.get())
+                return;
+            if(state.version == version) {
+                state.validatedAt = System.nanoTime();
+                return;
+            }
+            if(changes != null && state.version == fromVersion && state.lastChanged.size() + changes.length <= MAX_TRACKED_CHANGES) {
+                for(int i = 0; i < changes.length; i++) {
+                    state.lastChanged.put(changes[i], fromVersion + 1 + i);
+                }
+            } else {
+                // values read before this version cannot be checked any more
+                state.windowStart = version;
+                state.lastChanged.clear();
+            }
+            state.version = version;
+            state.validatedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Caches a value read at a version stamp. A null value caches "not found". The value expires after the
+     * cache TTL, or after the entry's remaining server-side TTL if that is shorter (remainingMillis &lt; 0 for none).
+     */
+    void store(String objectId, String key, int keyHash, String value, long version, long remainingMillis, long generation) {
+        long ttlNanos = remainingMillis >= 0 ? Math.min(_ttlNanos, remainingMillis * 1_000_000L) : _ttlNanos;
+        CachedValue cached = new CachedValue(value, keyHash, version, System.nanoTime() + ttlNanos);
+        synchronized(_entries) {
+            if(generation == _generation.get()) {
+                _entries.put(new CacheKey(objectId, key), cached);
+            }
+        }
+    }
+
+    /**
+     * Drops a key after a local write and makes the next read of the object check its version stamp.
+     * @param objectId the ID of the SOSS object
+     * @param key the key that was written
+     */
+    public void invalidate(String objectId, String key) {
+        synchronized(_entries) {
+            _generation.incrementAndGet();
+            _entries.remove(new CacheKey(objectId, key));
+        }
+        expireValidation(objectId);
+    }
+
+    /**
+     * Makes the next read of every cached key of an object check its version stamp.
+     * @param objectId the ID of the SOSS object
+     */
+    public void invalidateObject(String objectId) {
+        _generation.incrementAndGet();
+        expireValidation(objectId);
+    }
+
+    private void expireValidation(String objectId) {
+        ObjectState state = _objects.get(objectId);
+        if(state != null) {
+            // keep the change window, only force the next check
+            synchronized(state) {
+                state.validatedAt = System.nanoTime() - _validationNanos;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached value.
+     */
+    public void clear() {
+        synchronized(_entries) {
+            _generation.incrementAndGet();
+            _entries.clear();
+        }
+        _objects.clear();
+    }
+
+    /**
+     * Returns the number of cached values.
+     * @return the entry count
+     */
+    public int size() {
+        synchronized(_entries) {
+            return _entries.size();
+        }
+    }
+
+    void recordHit() {
+        _hits.increment();
+    }
+
+    void recordMiss() {
+        _misses.increment();
+    }
+
+    void recordStale() {
+        _stale.increment();
+    }
+
+    void recordVersionCheck() {
+        _versionChecks.increment();
+    }
+
+    /**
+     * Returns a snapshot of the cache metrics.
+     * @return the metrics
+     */
+    public NearCacheStats getStats() {
+        return new NearCacheStats(_hits.sum(), _misses.sum(), _stale.sum(), _versionChecks.sum(), _expirations.sum(), _evictions.sum());
+    }
+}
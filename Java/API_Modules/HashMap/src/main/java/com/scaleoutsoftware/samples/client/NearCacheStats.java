@@ -0,0 +1,111 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+/**
+ * A snapshot of NearCache metrics.
+ */
+public class NearCacheStats {
+    private final long _hits;
+    private final long _misses;
+    private final long _stale;
+    private final long _versionChecks;
+    private final long _expirations;
+    private final long _evictions;
+
+    NearCacheStats(long hits, long misses, long stale, long versionChecks, long expirations, long evictions) {
+        _hits = hits;
+        _misses = misses;
+        _stale = stale;
+        _versionChecks = versionChecks;
+        _expirations = expirations;
+        _evictions = evictions;
+    }
+
+    /**
+     * @return reads answered from the cache, with or without a version check
+     */
+    public long getHits() {
+        return _hits;
+    }
+
+    /**
+     * @return reads of keys that were not cached, or whose TTL had passed
+     */
+    public long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * @return reads of cached keys whose object had moved to a newer version, so the value was re-read
+     */
+    public long getStale() {
+        return _stale;
+    }
+
+    /**
+     * @return "version" round trips made to confirm cached values
+     */
+    public long getVersionChecks() {
+        return _versionChecks;
+    }
+
+    /**
+     * @return cached values dropped because their TTL had passed
+     */
+    public long getExpirations() {
+        return _expirations;
+    }
+
+    /**
+     * @return cached values evicted to stay within the maximum entry count
+     */
+    public long getEvictions() {
+        return _evictions;
+    }
+
+    /**
+     * @return the fraction of reads answered from the cache
+     */
+    public double getHitRate() {
+        long reads = _hits + _misses + _stale;
+        return reads == 0 ? 0 : (double)_hits / reads;
+    }
+
+    /**
+     * @return the fraction of cached values found stale when they were read
+     */
+    public double getStaleRate() {
+        long cached = _hits + _stale;
+        return cached == 0 ? 0 : (double)_stale / cached;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d stale=%d versionChecks=%d expirations=%d evictions=%d hitRate=%.3f staleRate=%.3f",
+                _hits, _misses, _stale, _versionChecks, _expirations, _evictions, getHitRate(), getStaleRate());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import java.util.Map;
+
+/**
+ * One page of entries returned by a "scan" operation, in key order.
+ */
+public class ScanPage {
+    private final Map<String, String> _entries;
+    private final byte[] _continuationToken;
+
+    ScanPage(Map<String, String> entries, byte[] continuationToken) {
+        _entries = entries;
+        _continuationToken = continuationToken;
+    }
+
+    /**
+     * @return the entries of the page in key order
+     */
+    public Map<String, String> getEntries() {
+        return _entries;
+    }
+
+    /**
+     * @return the token to pass to the next scan call, or null after the last page
+     */
+    public byte[] getContinuationToken() {
+        return _continuationToken;
+    }
+
+    /**
+     * @return true if more pages follow
+     */
+    public boolean hasMore() {
+        return _continuationToken != null;
+    }
+}
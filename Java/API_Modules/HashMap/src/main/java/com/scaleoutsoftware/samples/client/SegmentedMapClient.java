@@ -0,0 +1,395 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.modules.client.ApiModuleException;
+import com.scaleoutsoftware.samples.server.SegmentRouter;
+import com.scaleoutsoftware.samples.server.WireProtocol;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A client for one logical map that is stored as segments, SossHashMap objects of bounded size, so
+ * that a put only re-persists the segment it changes: the cost of a single-key update stays the same
+ * as the map grows. The grid hands a handler one object at a time, so the segments are routed by the
+ * client, with the linear hashing scheme of {@link SegmentRouter}.
+ * <p>
+ * Segment objects are named "mapName@segmentIndex". A small directory object, "mapName", holds the
+ * segment count, which clients read once and cache. When a put finds its segment holding more than
+ * maxSegmentEntries entries, the client adds a segment by splitting the next one in order: the segment
+ * copies out the keys that move ("splitSegment"), the new segment stores them ("adoptSegment"), the old
+ * one drops them ("pruneSegment"), and the segment count is raised with compareAndSet. Each step can be
+ * repeated, so a split interrupted by a failed client is finished by the next client that runs into it.
+ * A lease in the directory keeps clients from splitting at the same time.
+ * <p>
+ * Segments answer STATUS_MOVED for keys they no longer own, so clients with a stale segment count are
+ * redirected to the right segment instead of reading or writing the wrong one.
+ */
+public class SegmentedMapClient {
+    // the number of entries above which a segment is split
+    public static final int DEFAULT_MAX_SEGMENT_ENTRIES = 1024;
+    // directory keys
+    private static final String SEGMENT_COUNT_KEY = "segmentCount";
+    private static final String SPLIT_LEASE_KEY = "splitLease";
+    private static final long SPLIT_LEASE_MILLIS = 5000;
+    // a call waits up to about 9 seconds for a split to finish
+    private static final int MAX_ATTEMPTS = 200;
+    private static final int MAX_BACKOFF_MILLIS = 50;
+
+    private final ExampleClient _client;
+    private final String _mapName;
+    private final int _maxSegmentEntries;
+    // the cached segment count, or 0 if it has to be read from the directory
+    private volatile int _segmentCount;
+
+    /**
+     * Creates a segmented map client that splits segments holding more than DEFAULT_MAX_SEGMENT_ENTRIES entries.
+     * @param client the API module client used to invoke the segments and the directory
+     * @param mapName the name of the logical map
+     */
+    public SegmentedMapClient(ExampleClient client, String mapName) {
+        this(client, mapName, DEFAULT_MAX_SEGMENT_ENTRIES);
+    }
+
+    /**
+     * Creates a segmented map client.
+     * @param client the API module client used to invoke the segments and the directory
+     * @param mapName the name of the logical map
+     * @param maxSegmentEntries the number of entries above which a segment is split. All clients of a map
+     * should use the same limit.
+     */
+    public SegmentedMapClient(ExampleClient client, String mapName, int maxSegmentEntries) {
+        _client = client;
+        _mapName = mapName;
+        _maxSegmentEntries = maxSegmentEntries;
+    }
+
+    /**
+     * Returns the name of the logical map, which is also the ID of its directory object.
+     * @return the map name
+     */
+    public String getMapName() {
+        return _mapName;
+    }
+
+    /**
+     * Returns the number of entries above which a segment is split.
+     * @return the segment size limit
+     */
+    public int getMaxSegmentEntries() {
+        return _maxSegmentEntries;
+    }
+
+    /**
+     * Reads the number of segments from the directory, creating the first segment of a new map.
+     * @return the segment count
+     * @throws ApiModuleException if the directory's handler failed.
+     */
+    public int getSegmentCount() throws ApiModuleException {
+        String count = _client.getVersioned(_mapName, SEGMENT_COUNT_KEY).getValue();
+        if(count == null) {
+            // a new map starts with segment 0 owning every key
+            adopt(0, 0, new byte[0], 0, 0);
+            count = _client.putIfAbsent(_mapName, SEGMENT_COUNT_KEY, "1");
+            if(count == null)
+                count = "1";
+        }
+        int segmentCount = Integer.parseInt(count);
+        _segmentCount = segmentCount;
+        return segmentCount;
+    }
+
+    /**
+     * Returns the SOSS object ID of a segment.
+     * @param index the segment index
+     * @return the segment's object ID
+     */
+    public String segmentId(int index) {
+        return _mapName + "@" + index;
+    }
+
+    /**
+     * Returns the SOSS object ID of the segment that owns the key, by the cached segment count.
+     * @param key the key
+     * @return the segment's object ID
+     * @throws ApiModuleException if the directory's handler failed.
+     */
+    public String segmentIdFor(String key) throws ApiModuleException {
+        return segmentId(indexFor(key, cachedSegmentCount()));
+    }
+
+    /**
+     * Gets the value associated with a key from the segment that owns it.
+     * @param key the key to find
+     * @return the value associated with "key", or null if it is not present.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public String get(String key) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        WireProtocol.Reader response = invoke("get", keyBytes, ExampleClient.keyRequest(WireProtocol.FLAG_SEGMENT, keyBytes, 0).array());
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND)
+            return null;
+        if(response.hasFlag(WireProtocol.FLAG_TTL))
+            response.readVarlong();
+        return ExampleClient.value(response, response.remaining());
+    }
+
+    /**
+     * Puts a key/value pair in the segment that owns the key. Only that segment is updated.
+     * @param key the key to put
+     * @param value the value to associate with "key"
+     * @return true if the value was stored, false if the admission filter of a bounded segment rejected the key.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public boolean put(String key, String value) throws ApiModuleException {
+        return put(key, value, Duration.ZERO);
+    }
+
+    /**
+     * Puts a key/value pair with a TTL in the segment that owns the key. Only that segment is updated.
+     * @param key the key to put
+     * @param value the value to associate with "key"
+     * @param ttl how long the entry lives; Duration.ZERO stores the entry without an expiry
+     * @return true if the value was stored, false if the admission filter of a bounded segment rejected the key.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public boolean put(String key, String value, Duration ttl) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = _client.compress(valBytes);
+        int flags = WireProtocol.FLAG_SEGMENT;
+        if(compressed != null) {
+            valBytes = compressed;
+            flags |= WireProtocol.FLAG_COMPRESSED;
+        }
+        long ttlMillis = ttl.toMillis();
+        WireProtocol.Writer request;
+        if(ttlMillis > 0) {
+            request = ExampleClient.keyRequest(flags | WireProtocol.FLAG_TTL, keyBytes, WireProtocol.varintSize(ttlMillis) + valBytes.length).putVarint(ttlMillis);
+        } else {
+            request = ExampleClient.keyRequest(flags, keyBytes, valBytes.length);
+        }
+        WireProtocol.Reader response = invoke("put", keyBytes, request.putBytes(valBytes).array());
+        boolean stored = response.status() == WireProtocol.STATUS_OK;
+        splitIfFull(response);
+        return stored;
+    }
+
+    /**
+     * Removes a key from the segment that owns it.
+     * @param key the key to remove
+     * @return the removed value, or null if "key" was not present.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public String remove(String key) throws ApiModuleException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        WireProtocol.Reader response = invoke("remove", keyBytes, ExampleClient.keyRequest(WireProtocol.FLAG_SEGMENT, keyBytes, 0).array());
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND)
+            return null;
+        return ExampleClient.value(response, response.remaining());
+    }
+
+    /**
+     * Gets many keys, invoking "mget" once on every segment that owns at least one of the keys. Keys of a
+     * segment that is being split are read one at a time.
+     * @param keys the keys to find
+     * @return a map of each key found to its value. Keys that were not found are absent from the map.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public Map<String, String> mget(Collection<String> keys) throws ApiModuleException {
+        Map<String, String> values = new HashMap<>(keys.size() * 2);
+        for(Map.Entry<Integer, List<String>> segment : groupKeys(keys).entrySet()) {
+            String[] segmentKeys = segment.getValue().toArray(new String[0]);
+            WireProtocol.Reader response = ExampleClient.readResponse(_client.invoke(segmentId(segment.getKey()), "mget", ExampleClient.keysRequest(WireProtocol.FLAG_SEGMENT, segmentKeys)));
+            if(response.status() == WireProtocol.STATUS_MOVED) {
+                _segmentCount = 0;
+                for(String key : segmentKeys) {
+                    String value = get(key);
+                    if(value != null) {
+                        values.put(key, value);
+                    }
+                }
+                continue;
+            }
+            ExampleClient.readValues(response, segmentKeys, values);
+        }
+        return values;
+    }
+
+    /**
+     * Puts many key/value pairs, invoking "mput" once on every segment that owns at least one of the keys.
+     * Each segment applies its pairs with a single update. Pairs for a segment that is being split are put
+     * one at a time.
+     * @param entries the key/value pairs to put
+     * @return true if every pair was stored, otherwise false.
+     * @throws ApiModuleException if a handler failed.
+     */
+    public boolean mput(Map<String, String> entries) throws ApiModuleException {
+        Map<Integer, Map<String, String>> bySegment = new HashMap<>();
+        int segmentCount = cachedSegmentCount();
+        for(Map.Entry<String, String> entry : entries.entrySet()) {
+            bySegment.computeIfAbsent(indexFor(entry.getKey(), segmentCount), index -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+        }
+        boolean success = true;
+        for(Map.Entry<Integer, Map<String, String>> segment : bySegment.entrySet()) {
+            WireProtocol.Reader response = ExampleClient.readResponse(_client.invoke(segmentId(segment.getKey()), "mput", _client.mputRequest(WireProtocol.FLAG_SEGMENT, segment.getValue())));
+            if(response.status() == WireProtocol.STATUS_MOVED) {
+                _segmentCount = 0;
+                for(Map.Entry<String, String> entry : segment.getValue().entrySet()) {
+                    success &= put(entry.getKey(), entry.getValue());
+                }
+                continue;
+            }
+            success &= response.status() == WireProtocol.STATUS_OK;
+            splitIfFull(response);
+        }
+        return success;
+    }
+
+    /**
+     * Invokes a single-key operation on the segment that owns the key, following STATUS_MOVED answers.
+     */
+    private WireProtocol.Reader invoke(String operationId, byte[] keyBytes, byte[] request) throws ApiModuleException {
+        int hash = SegmentRouter.segmentHash(keyBytes, 0, keyBytes.length);
+        int index = SegmentRouter.indexFor(hash, cachedSegmentCount());
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            WireProtocol.Reader response = ExampleClient.readResponse(_client.invoke(segmentId(index), operationId, request));
+            if(response.status() != WireProtocol.STATUS_MOVED)
+                return response;
+            _segmentCount = 0;
+            if(response.remaining() > 0) {
+                // the segment was split after the segment count was read; its depth leads to the owner
+                index = SegmentRouter.indexAtDepth(hash, response.readVarint());
+                continue;
+            }
+            // the owner has not adopted its entries yet: wait for the split to finish, or finish it
+            // if the client that started it has stopped and its lease has expired
+            LockSupport.parkNanos(Math.min(attempt + 1, MAX_BACKOFF_MILLIS) * 1000000L);
+            int segmentCount = getSegmentCount();
+            if(index == segmentCount) {
+                split(segmentCount);
+                segmentCount = getSegmentCount();
+            }
+            index = SegmentRouter.indexFor(hash, segmentCount);
+        }
+        throw new IllegalStateException("Segment " + index + " of " + _mapName + " did not become available.");
+    }
+
+    /**
+     * Adds a segment if a FLAG_SEGMENT write response reports that its segment is over the limit.
+     */
+    private void splitIfFull(WireProtocol.Reader response) throws ApiModuleException {
+        if(response.hasFlag(WireProtocol.FLAG_SEGMENT) && response.readVarint() > _maxSegmentEntries) {
+            split(getSegmentCount());
+        }
+    }
+
+    /**
+     * Grows the map from segmentCount to segmentCount + 1 segments, unless another client holds the split
+     * lease or the map has already grown.
+     */
+    private void split(int segmentCount) throws ApiModuleException {
+        String lease = acquireLease();
+        if(lease == null)
+            return;
+        try {
+            if(getSegmentCount() != segmentCount)
+                return;
+            int index = SegmentRouter.nextSplit(segmentCount);
+            int depth = SegmentRouter.level(segmentCount) + 1;
+            // the segment stops answering for the keys that move and returns copies of them
+            byte[] request = WireProtocol.writeRequest(0, WireProtocol.varintSize(index) + WireProtocol.varintSize(depth)).putVarint(index).putVarint(depth).array();
+            WireProtocol.Reader moved = ExampleClient.readResponse(_client.invoke(segmentId(index), "splitSegment", request));
+            if(moved.status() != WireProtocol.STATUS_OK)
+                throw new IllegalStateException("Segment " + index + " of " + _mapName + " could not be split (status " + moved.status() + ").");
+            // the new segment stores them and starts answering for them
+            adopt(segmentCount, depth, moved.frame(), moved.position(), moved.remaining());
+            // then the copies are dropped and the new segment count is published
+            request = WireProtocol.writeRequest(0, WireProtocol.varintSize(index)).putVarint(index).array();
+            ExampleClient.readResponse(_client.invoke(segmentId(index), "pruneSegment", request));
+            if(_client.compareAndSet(_mapName, SEGMENT_COUNT_KEY, Integer.toString(segmentCount), Integer.toString(segmentCount + 1))) {
+                _segmentCount = segmentCount + 1;
+            }
+        } finally {
+            _client.compareAndSet(_mapName, SPLIT_LEASE_KEY, lease, "0");
+        }
+    }
+
+    private void adopt(int index, int depth, byte[] entries, int offset, int length) throws ApiModuleException {
+        WireProtocol.Writer request = WireProtocol.writeRequest(0, WireProtocol.varintSize(index) + WireProtocol.varintSize(depth) + length)
+                .putVarint(index)
+                .putVarint(depth)
+                .putBytes(entries, offset, length);
+        WireProtocol.Reader response = ExampleClient.readResponse(_client.invoke(segmentId(index), "adoptSegment", request.array()));
+        if(response.status() != WireProtocol.STATUS_OK)
+            throw new IllegalStateException("Object " + segmentId(index) + " is a segment of another map.");
+    }
+
+    /**
+     * Takes the split lease if it is free or has expired. The lease value is its expiry in epoch
+     * milliseconds and a random tag, so that only its holder releases it.
+     * @return the lease value, or null if another client holds the lease
+     */
+    private String acquireLease() throws ApiModuleException {
+        long now = System.currentTimeMillis();
+        String lease = (now + SPLIT_LEASE_MILLIS) + "/" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        String current = _client.putIfAbsent(_mapName, SPLIT_LEASE_KEY, lease);
+        if(current == null)
+            return lease;
+        int separator = current.indexOf('/');
+        long expiresAt = Long.parseLong(separator < 0 ? current : current.substring(0, separator));
+        if(expiresAt > now)
+            return null;
+        return _client.compareAndSet(_mapName, SPLIT_LEASE_KEY, current, lease) ? lease : null;
+    }
+
+    private int cachedSegmentCount() throws ApiModuleException {
+        int segmentCount = _segmentCount;
+        return segmentCount > 0 ? segmentCount : getSegmentCount();
+    }
+
+    private static int indexFor(String key, int segmentCount) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return SegmentRouter.indexFor(SegmentRouter.segmentHash(keyBytes, 0, keyBytes.length), segmentCount);
+    }
+
+    private Map<Integer, List<String>> groupKeys(Collection<String> keys) throws ApiModuleException {
+        int segmentCount = cachedSegmentCount();
+        Map<Integer, List<String>> bySegment = new HashMap<>();
+        for(String key : keys) {
+            bySegment.computeIfAbsent(indexFor(key, segmentCount), index -> new ArrayList<>()).add(key);
+        }
+        return bySegment;
+    }
+}
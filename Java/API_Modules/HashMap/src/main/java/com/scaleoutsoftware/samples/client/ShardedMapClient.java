@@ -0,0 +1,280 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.client;
+
+import com.scaleoutsoftware.modules.client.ApiModuleException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A client for one logical map that is spread across several SossHashMap objects ("shards").
+ * Keys are routed to shards with a {@link ConsistentHashRing}, so the shards land on different hosts
+ * in the ScaleOut StateServer cluster and writes to different shards do not contend for the same
+ * object lock. Batched calls are split by shard and sent to the shards in parallel.
+ * <p>
+ * Shard objects are named "mapName#shardIndex". Changing the shard count remaps roughly 1/shardCount
+ * of the keys; entries are not migrated automatically, so they should be re-put after a change.
+ */
+public class ShardedMapClient implements Closeable {
+    // the number of ring points for each shard
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final ExampleClient _client;
+    private final String _mapName;
+    private final String[] _shardIds;
+    private final ConsistentHashRing _ring;
+    private final ExecutorService _executor;
+    private final boolean _ownsExecutor;
+
+    /**
+     * Creates a sharded map client that fans out batched calls on its own thread pool (one thread per
+     * shard, up to 16 threads).
+     * @param client the API module client used to invoke the shards
+     * @param mapName the name of the logical map
+     * @param shardCount the number of SossHashMap objects to spread the map across
+     */
+    public ShardedMapClient(ExampleClient client, String mapName, int shardCount) {
+        this(client, mapName, shardCount, Executors.newFixedThreadPool(Math.min(shardCount, 16), r -> {
+            Thread t = new Thread(r, "ShardedMapClient-" + mapName);
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Creates a sharded map client that fans out batched calls on the supplied executor.
+     * @param client the API module client used to invoke the shards
+     * @param mapName the name of the logical map
+     * @param shardCount the number of SossHashMap objects to spread the map across
+     * @param executor the executor used to call the shards in parallel. It is not shut down by {@link #close()}.
+     */
+    public ShardedMapClient(ExampleClient client, String mapName, int shardCount, ExecutorService executor) {
+        this(client, mapName, shardCount, executor, false);
+    }
+
+    private ShardedMapClient(ExampleClient client, String mapName, int shardCount, ExecutorService executor, boolean ownsExecutor) {
+        _client = client;
+        _mapName = mapName;
+        _ring = new ConsistentHashRing(shardCount, DEFAULT_VIRTUAL_NODES);
+        _shardIds = new String[shardCount];
+        for(int i = 0; i < shardCount; i++) {
+            _shardIds[i] = mapName + "#" + i;
+        }
+        _executor = executor;
+        _ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Returns the name of the logical map.
+     * @return the map name
+     */
+    public String getMapName() {
+        return _mapName;
+    }
+
+    /**
+     * Returns the number of shards.
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return _shardIds.length;
+    }
+
+    /**
+     * Returns the SOSS object ID of the shard that owns the key.
+     * @param key the key
+     * @return the shard's object ID
+     */
+    public String shardIdFor(String key) {
+        return _shardIds[_ring.shardFor(key)];
+    }
+
+    /**
+     * Returns the index of the shard that owns UTF-8 key bytes.
+     */
+    int shardIndexFor(byte[] key, int offset, int length) {
+        return _ring.shardFor(ConsistentHashRing.hash(key, offset, length));
+    }
+
+    /**
+     * Returns the SOSS object ID of a shard.
+     */
+    String shardId(int shardIndex) {
+        return _shardIds[shardIndex];
+    }
+
+    /**
+     * Returns the API module client used to invoke the shards.
+     */
+    ExampleClient client() {
+        return _client;
+    }
+
+    /**
+     * Gets the value associated with a key from the owning shard.
+     * @param key the key to find
+     * @return the value associated with "key", or null if it is not present.
+     * @throws ApiModuleException if the shard's handler failed.
+     */
+    public String get(String key) throws ApiModuleException {
+        return _client.get(shardIdFor(key), key);
+    }
+
+    /**
+     * Puts a key/value pair in the owning shard.
+     * @param key the key to put
+     * @param value the value to associate with "key"
+     * @return true if the put operation was successful, otherwise false.
+     * @throws ApiModuleException if the shard's handler failed.
+     */
+    public boolean put(String key, String value) throws ApiModuleException {
+        return _client.put(shardIdFor(key), key, value);
+    }
+
+    /**
+     * Gets many keys, invoking "mget" once on every shard that owns at least one of the keys. The shards
+     * are called in parallel.
+     * @param keys the keys to find
+     * @return a map of each key found to its value. Keys that were not found are absent from the map.
+     * @throws ApiModuleException if a shard's handler failed.
+     */
+    public Map<String, String> mget(Collection<String> keys) throws ApiModuleException {
+        Map<String, List<String>> byShard = groupKeys(keys);
+        List<Callable<Map<String, String>>> calls = new ArrayList<>(byShard.size());
+        for(Map.Entry<String, List<String>> shard : byShard.entrySet()) {
+            calls.add(() -> _client.mget(shard.getKey(), shard.getValue()));
+        }
+        Map<String, String> values = new HashMap<>(keys.size() * 2);
+        for(Map<String, String> shardValues : fanOut(calls)) {
+            values.putAll(shardValues);
+        }
+        return values;
+    }
+
+    /**
+     * Puts many key/value pairs, invoking "mput" once on every shard that owns at least one of the keys.
+     * The shards are called in parallel.
+     * @param entries the key/value pairs to put
+     * @return true if every shard stored its entries, otherwise false.
+     * @throws ApiModuleException if a shard's handler failed.
+     */
+    public boolean mput(Map<String, String> entries) throws ApiModuleException {
+        Map<String, Map<String, String>> byShard = new HashMap<>();
+        for(Map.Entry<String, String> entry : entries.entrySet()) {
+            byShard.computeIfAbsent(shardIdFor(entry.getKey()), id -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+        }
+        List<Callable<Boolean>> calls = new ArrayList<>(byShard.size());
+        for(Map.Entry<String, Map<String, String>> shard : byShard.entrySet()) {
+            calls.add(() -> _client.mput(shard.getKey(), shard.getValue()));
+        }
+        boolean success = true;
+        for(Boolean shardSuccess : fanOut(calls)) {
+            success &= shardSuccess;
+        }
+        return success;
+    }
+
+    /**
+     * Removes many keys, invoking "mremove" once on every shard that owns at least one of the keys.
+     * The shards are called in parallel.
+     * @param keys the keys to remove
+     * @return the number of keys that were present and have been removed.
+     * @throws ApiModuleException if a shard's handler failed.
+     */
+    public int mremove(Collection<String> keys) throws ApiModuleException {
+        Map<String, List<String>> byShard = groupKeys(keys);
+        List<Callable<Integer>> calls = new ArrayList<>(byShard.size());
+        for(Map.Entry<String, List<String>> shard : byShard.entrySet()) {
+            calls.add(() -> _client.mremove(shard.getKey(), shard.getValue()));
+        }
+        int removed = 0;
+        for(Integer shardRemoved : fanOut(calls)) {
+            removed += shardRemoved;
+        }
+        return removed;
+    }
+
+    /**
+     * Shuts down the thread pool if this client created it.
+     */
+    @Override
+    public void close() {
+        if(_ownsExecutor) {
+            _executor.shutdown();
+        }
+    }
+
+    private Map<String, List<String>> groupKeys(Collection<String> keys) {
+        Map<String, List<String>> byShard = new HashMap<>();
+        for(String key : keys) {
+            byShard.computeIfAbsent(shardIdFor(key), id -> new ArrayList<>()).add(key);
+        }
+        return byShard;
+    }
+
+    /**
+     * Runs the per-shard calls in parallel and returns their results. A single call runs on the
+     * caller's thread.
+     */
+    private <T> List<T> fanOut(List<Callable<T>> calls) throws ApiModuleException {
+        List<T> results = new ArrayList<>(calls.size());
+        try {
+            if(calls.size() == 1) {
+                results.add(calls.get(0).call());
+                return results;
+            }
+            List<Future<T>> futures = new ArrayList<>(calls.size());
+            for(Callable<T> call : calls) {
+                futures.add(_executor.submit(call));
+            }
+            for(Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof ApiModuleException)
+                throw (ApiModuleException)e.getCause();
+            throw new RuntimeException(e.getCause());
+        } catch (ApiModuleException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+/**
+ * A Bloom filter over key hashes computed with ByteHashTable.hash, so a client can tell that a key is
+ * certainly not in a SossHashMap without asking the module. The module builds the filter from the hashes
+ * stored in the table, and clients add the hashes of the keys changed since, taken from the change log.
+ * <p>
+ * The filter is sized for a capacity and a false-positive rate. The k bit positions of a key are derived
+ * from its 32-bit hash by double hashing, so two keys with the same hash are indistinguishable; that adds
+ * about n / 2^32 to the false-positive rate of a filter of n keys. Not thread-safe.
+ */
+public final class BloomFilter {
+    private static final int MAX_HASH_COUNT = 16;
+    private static final long MAX_BITS = 1L << 31;
+
+    private final long[] _words;
+    private final long _bitCount;
+    private final int _hashCount;
+    private final int _capacity;
+    private int _inserted;
+
+    /**
+     * Creates an empty filter.
+     * @param capacity the number of keys the filter is sized for
+     * @param falsePositiveRate the rate of false positives once the filter holds capacity keys
+     */
+    public BloomFilter(int capacity, double falsePositiveRate) {
+        if(!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1.");
+        _capacity = Math.max(capacity, 1);
+        double bits = -_capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long words = Math.max(1, Math.min((long)Math.ceil(bits / 64), MAX_BITS / 64));
+        _words = new long[(int)words];
+        _bitCount = words * 64;
+        _hashCount = (int)Math.max(1, Math.min(MAX_HASH_COUNT, Math.round((double)_bitCount / _capacity * Math.log(2))));
+    }
+
+    private BloomFilter(long[] words, int hashCount, int capacity, int inserted) {
+        _words = words;
+        _bitCount = (long)words.length * 64;
+        _hashCount = hashCount;
+        _capacity = capacity;
+        _inserted = inserted;
+    }
+
+    /**
+     * Adds a key.
+     * @param keyHash the ByteHashTable.hash of the UTF-8 key
+     */
+    public void add(int keyHash) {
+        int step = step(keyHash);
+        int combined = keyHash;
+        for(int i = 0; i < _hashCount; i++, combined += step) {
+            long bit = bitIndex(combined);
+            _words[(int)(bit >>> 6)] |= 1L << bit;
+        }
+        _inserted++;
+    }
+
+    /**
+     * Returns false if a key was certainly never added.
+     * @param keyHash the ByteHashTable.hash of the UTF-8 key
+     * @return true if the key may have been added
+     */
+    public boolean mightContain(int keyHash) {
+        int step = step(keyHash);
+        int combined = keyHash;
+        for(int i = 0; i < _hashCount; i++, combined += step) {
+            long bit = bitIndex(combined);
+            if((_words[(int)(bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy that can be changed independently.
+     * @return the copy
+     */
+    public BloomFilter copy() {
+        return new BloomFilter(_words.clone(), _hashCount, _capacity, _inserted);
+    }
+
+    /**
+     * @return the number of keys the filter is sized for
+     */
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /**
+     * @return the number of add calls, including repeated keys
+     */
+    public int getInserted() {
+        return _inserted;
+    }
+
+    /**
+     * Returns true once more keys were added than the filter is sized for, after which the false-positive
+     * rate rises above the one it was created with.
+     * @return true if the filter is over capacity
+     */
+    public boolean isSaturated() {
+        return _inserted > _capacity;
+    }
+
+    /**
+     * @return the number of bit positions set per key
+     */
+    public int getHashCount() {
+        return _hashCount;
+    }
+
+    /**
+     * @return the size of the bit array
+     */
+    public long getBitCount() {
+        return _bitCount;
+    }
+
+    /**
+     * Returns the length of the filter written by {@link #write(WireProtocol.Writer)}.
+     * @return the length in bytes
+     */
+    public int encodedLength() {
+        return 1 + WireProtocol.varintSize(_capacity) + WireProtocol.varintSize(_inserted) + WireProtocol.varintSize(_words.length) + _words.length * 8;
+    }
+
+    /**
+     * Writes the filter as byte hashCount, varint capacity, varint inserted, varint wordCount, wordCount * long word.
+     * @param out the writer
+     */
+    public void write(WireProtocol.Writer out) {
+        out.putByte(_hashCount).putVarint(_capacity).putVarint(_inserted).putVarint(_words.length);
+        for(long word : _words) {
+            out.putLong(word);
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #write(WireProtocol.Writer)}.
+     * @param in the reader
+     * @return the filter
+     */
+    public static BloomFilter read(WireProtocol.Reader in) {
+        int hashCount = in.readByte();
+        int capacity = in.readVarint();
+        int inserted = in.readVarint();
+        int wordCount = in.readVarint();
+        if(hashCount < 1 || hashCount > MAX_HASH_COUNT || wordCount < 1 || wordCount > in.remaining() / 8)
+            throw new IllegalArgumentException("The Bloom filter is malformed.");
+        long[] words = new long[wordCount];
+        for(int i = 0; i < wordCount; i++) {
+            words[i] = in.readLong();
+        }
+        return new BloomFilter(words, hashCount, capacity, inserted);
+    }
+
+    /**
+     * Returns the fraction of bits that are set, from which the current false-positive rate is about fill^k.
+     * @return the fill ratio
+     */
+    public double fillRatio() {
+        long set = 0;
+        for(long word : _words) {
+            set += Long.bitCount(word);
+        }
+        return (double)set / _bitCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilter{bits=" + _bitCount + ", k=" + _hashCount + ", capacity=" + _capacity + ", inserted=" + _inserted + "}";
+    }
+
+    private static int step(int keyHash) {
+        // a second hash for double hashing; odd so the k positions differ
+        int h = keyHash * 0x9e3779b9;
+        return Integer.rotateLeft(h, 15) | 1;
+    }
+
+    private long bitIndex(int combined) {
+        // maps the 32-bit value onto [0, bitCount) without a division
+        return ((combined & 0xffffffffL) * _bitCount) >>> 32;
+    }
+}
@@ -0,0 +1,855 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * An open-addressing hash table that stores keys and values as raw bytes. Entries are appended to a
+ * single byte arena as (varint keyLen &lt;&lt; 2 | isCompressed &lt;&lt; 1 | hasExpiry, varint valLen,
+ * [long expiresAt], key bytes, value bytes); the slot arrays hold each entry's hash and arena offset. Lookups use linear probing and
+ * compare the cached hash before comparing key bytes.
+ * <p>
+ * The arena is append-only: replacing a value appends a new entry and removing a key leaves its bytes
+ * behind. The dead bytes are reclaimed by compacting the arena once they outweigh the live bytes.
+ * Compared to a HashMap&lt;String,String&gt;, an entry costs two int slots and a few header bytes instead
+ * of a map node, two Strings and their backing arrays.
+ * <p>
+ * Entries may carry an absolute expiry time in epoch milliseconds. Expired entries are invisible to
+ * lookups right away and are removed by {@link #expire(long, int, IntConsumer)}, which callers run for a
+ * few slots at a time so expiry never needs a full scan.
+ * <p>
+ * A value may be stored compressed with {@link Lz4#compressValue(byte[], int, int)}. The table only keeps
+ * the flag; it never compresses or decompresses values itself.
+ * <p>
+ * Concurrency: writers are serialized, readers never lock. The slot arrays and arena are published
+ * together as a {@link Snapshot}. A writer fully writes an entry's bytes before it publishes the entry's
+ * offset with a volatile store, so a reader that sees an offset also sees the bytes it points to. Entry
+ * bytes are never modified once published; growing or compacting the table builds new arrays and
+ * publishes a new snapshot, leaving the old one intact for readers that still hold it.
+ */
+public class ByteHashTable {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final float MAX_LOAD = 0.75f;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MIN_ARENA = 256;
+    private static final int MAX_ARENA = Integer.MAX_VALUE - 8;
+    /** The expiry of an entry that never expires. */
+    public static final long NO_EXPIRY = 0;
+
+    private volatile Snapshot _snapshot;
+    private volatile int _size;
+    // writer-only state
+    private int _arenaUsed;
+    private int _deadBytes;
+    private int _deleted;
+    private int _sweepCursor;
+    private int _expiring;
+    private int _clockHand;
+    // the most recently written entry, which eviction skips so a put never evicts its own key
+    private int _lastAppended = -1;
+    // keeps the keys in order when the table is sorted, otherwise null
+    private SortedKeyIndex _sortedIndex;
+
+    /**
+     * Visits the entries of a table. The key and value are ranges of the arena, which must not be modified
+     * or retained after the call returns. A compressed value is visited in its compressed form.
+     */
+    public interface EntryVisitor {
+        void visit(byte[] arena, int keyOffset, int keyLength, int valueOffset, int valueLength, long expiresAt, boolean compressed);
+    }
+
+    /**
+     * A consistent view of the table for readers. Lookups return an entry's arena offset, which stays
+     * valid for the lifetime of the snapshot even if the entry is later replaced or removed.
+     */
+    public static final class Snapshot {
+        final int[] hashes;
+        final AtomicIntegerArray offsets;
+        final byte[] arena;
+        // CLOCK reference bits, set by reads without locking
+        final byte[] referenced;
+        final FrequencySketch sketch;
+        // changes whenever entries move to other slots, so a slot cursor can tell it is stale
+        final int layout;
+
+        Snapshot(int[] hashes, AtomicIntegerArray offsets, byte[] arena, byte[] referenced, FrequencySketch sketch, int layout) {
+            this.hashes = hashes;
+            this.offsets = offsets;
+            this.arena = arena;
+            this.referenced = referenced;
+            this.sketch = sketch;
+            this.layout = layout;
+        }
+
+        /**
+         * Returns the number of slots, the exclusive bound of the slots passed to {@link #entryAt(int)}.
+         * @return the slot count
+         */
+        public int capacity() {
+            return offsets.length();
+        }
+
+        /**
+         * Returns a stamp of the slot layout. Entries stay in their slots while the stamp is unchanged, so a
+         * cursor over slots that was taken with the same stamp can continue where it stopped.
+         * @return the layout stamp
+         */
+        public int layout() {
+            return layout;
+        }
+
+        /**
+         * Returns the entry in a slot, without recording an access. Expired entries are not returned.
+         * @param slot the slot, from 0 to capacity() - 1
+         * @return the arena offset of the entry, or -1 if the slot holds no live entry
+         */
+        public int entryAt(int slot) {
+            int entry = offsets.get(slot);
+            if(entry < 0 || isExpired(arena, entry, System.currentTimeMillis()))
+                return -1;
+            return entry;
+        }
+
+        /**
+         * Returns the key length of an entry returned by {@link #entryAt(int)}.
+         * @param entry the entry's arena offset
+         * @return the key length
+         */
+        public int keyLength(int entry) {
+            return keyLengthOf(arena, entry);
+        }
+
+        /**
+         * Copies the key of an entry returned by {@link #entryAt(int)} into an array.
+         * @param entry the entry's arena offset
+         * @param dest the destination array
+         * @param destOffset the offset in the destination array
+         * @return the number of bytes copied
+         */
+        public int copyKey(int entry, byte[] dest, int destOffset) {
+            int keyLen = keyLengthOf(arena, entry);
+            System.arraycopy(arena, keyOffsetOf(arena, entry), dest, destOffset, keyLen);
+            return keyLen;
+        }
+
+        /**
+         * Finds the entry for a key and records the access for eviction. Expired entries are not found.
+         * @param key the array holding the key
+         * @param offset the offset of the key
+         * @param length the length of the key
+         * @return the arena offset of the entry, or -1 if the key is not in the table
+         */
+        public int findEntry(byte[] key, int offset, int length) {
+            int hash = hash(key, offset, length);
+            if(sketch != null) {
+                sketch.increment(hash);
+            }
+            long found = findSlot(hash, key, offset, length);
+            if(found < 0)
+                return -1;
+            int idx = (int)(found >>> 32);
+            int entry = (int)found;
+            if(isExpired(arena, entry, System.currentTimeMillis()))
+                return -1;
+            // only write the bit when it changes, so hot keys do not bounce the cache line between readers
+            if(referenced[idx] == 0) {
+                referenced[idx] = 1;
+            }
+            return entry;
+        }
+
+        /**
+         * Finds the entry for a key without recording an access, for scans that should not keep entries
+         * from being evicted. Expired entries are not found.
+         * @param key the array holding the key
+         * @param offset the offset of the key
+         * @param length the length of the key
+         * @return the arena offset of the entry, or -1 if the key is not in the table
+         */
+        public int peekEntry(byte[] key, int offset, int length) {
+            long found = findSlot(hash(key, offset, length), key, offset, length);
+            if(found < 0 || isExpired(arena, (int)found, System.currentTimeMillis()))
+                return -1;
+            return (int)found;
+        }
+
+        /**
+         * Returns the slot index in the high 32 bits and the entry offset in the low 32 bits, or -1.
+         */
+        long findSlot(int hash, byte[] key, int offset, int length) {
+            int capacity = offsets.length();
+            int mask = capacity - 1;
+            int idx = hash & mask;
+            for(int probes = 0; probes < capacity; probes++, idx = (idx + 1) & mask) {
+                // read the offset first: its volatile load makes the hash and entry bytes visible
+                int entry = offsets.get(idx);
+                if(entry == EMPTY)
+                    return -1;
+                if(entry != DELETED && hashes[idx] == hash && keyEquals(arena, entry, key, offset, length))
+                    return (long)idx << 32 | entry;
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the value length of an entry returned by {@link #findEntry(byte[], int, int)}.
+         * @param entry the entry's arena offset
+         * @return the value length
+         */
+        public int valueLength(int entry) {
+            return valueLengthAt(arena, entry);
+        }
+
+        /**
+         * Returns the expiry of an entry returned by {@link #findEntry(byte[], int, int)}.
+         * @param entry the entry's arena offset
+         * @return the expiry in epoch milliseconds, or NO_EXPIRY
+         */
+        public long expiresAt(int entry) {
+            return expiresAtOf(arena, entry);
+        }
+
+        /**
+         * Returns true if the value of an entry returned by {@link #findEntry(byte[], int, int)} is stored compressed.
+         * @param entry the entry's arena offset
+         * @return true if the value is compressed
+         */
+        public boolean isCompressed(int entry) {
+            return isCompressedAt(arena, entry);
+        }
+
+        /**
+         * Copies the value of an entry returned by {@link #findEntry(byte[], int, int)} into an array.
+         * @param entry the entry's arena offset
+         * @param dest the destination array
+         * @param destOffset the offset in the destination array
+         * @return the number of bytes copied
+         */
+        public int copyValue(int entry, byte[] dest, int destOffset) {
+            int valLen = valueLengthAt(arena, entry);
+            System.arraycopy(arena, keyOffsetOf(arena, entry) + keyLengthOf(arena, entry), dest, destOffset, valLen);
+            return valLen;
+        }
+
+        /**
+         * Returns true if the value of an entry returned by {@link #findEntry(byte[], int, int)} equals a byte range.
+         * @param entry the entry's arena offset
+         * @param value the array holding the range
+         * @param offset the offset of the range
+         * @param length the length of the range
+         * @return true if the bytes are equal
+         */
+        public boolean valueEquals(int entry, byte[] value, int offset, int length) {
+            if(valueLengthAt(arena, entry) != length)
+                return false;
+            int start = keyOffsetOf(arena, entry) + keyLengthOf(arena, entry);
+            for(int i = 0; i < length; i++) {
+                if(arena[start + i] != value[offset + i])
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Returns a copy of the value associated with a key.
+         * @param key the array holding the key
+         * @param offset the offset of the key
+         * @param length the length of the key
+         * @return a copy of the value bytes, or null if the key is not in the table
+         */
+        public byte[] get(byte[] key, int offset, int length) {
+            int entry = findEntry(key, offset, length);
+            if(entry < 0)
+                return null;
+            byte[] value = new byte[valueLength(entry)];
+            copyValue(entry, value, 0);
+            return value;
+        }
+
+        /**
+         * Visits every entry that has not expired, in slot order.
+         * @param visitor the visitor
+         */
+        public void forEach(EntryVisitor visitor) {
+            long now = System.currentTimeMillis();
+            for(int i = 0; i < offsets.length(); i++) {
+                int entry = offsets.get(i);
+                if(entry < 0)
+                    continue;
+                long expiresAt = expiresAtOf(arena, entry);
+                if(expiresAt != NO_EXPIRY && expiresAt <= now)
+                    continue;
+                int keyLen = keyLengthOf(arena, entry);
+                int keyOffset = keyOffsetOf(arena, entry);
+                visitor.visit(arena, keyOffset, keyLen, keyOffset + keyLen, valueLengthAt(arena, entry), expiresAt, isCompressedAt(arena, entry));
+            }
+        }
+    }
+
+    public ByteHashTable() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a table sized for the expected contents.
+     * @param expectedEntries the expected number of entries
+     * @param expectedBytes the expected total number of key and value bytes
+     */
+    public ByteHashTable(int expectedEntries, int expectedBytes) {
+        int capacity = capacityFor(expectedEntries);
+        _snapshot = new Snapshot(new int[capacity], emptyOffsets(capacity), new byte[Math.max(MIN_ARENA, expectedBytes + expectedEntries * 2)], new byte[capacity], null, ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Returns the current snapshot for lock-free reads.
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        return _snapshot;
+    }
+
+    /**
+     * Returns the number of entries, including expired entries that have not been removed yet.
+     * @return the entry count
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the number of arena bytes in use, including bytes of replaced or removed entries that have
+     * not been compacted yet.
+     * @return the used arena length
+     */
+    public synchronized int arenaBytes() {
+        return _arenaUsed;
+    }
+
+    /**
+     * Returns the number of arena bytes held by live entries.
+     * @return the live arena length
+     */
+    public synchronized int liveBytes() {
+        return _arenaUsed - _deadBytes;
+    }
+
+    /**
+     * Returns a copy of the value associated with a key. Never blocks.
+     * @param key the array holding the key
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return a copy of the value bytes, or null if the key is not in the table
+     */
+    public byte[] get(byte[] key, int offset, int length) {
+        return _snapshot.get(key, offset, length);
+    }
+
+    /**
+     * Visits every entry of the current snapshot that has not expired, in slot order. Never blocks.
+     * @param visitor the visitor
+     */
+    public void forEach(EntryVisitor visitor) {
+        _snapshot.forEach(visitor);
+    }
+
+    /**
+     * Associates a value with a key, replacing any existing value. The key and value bytes are copied.
+     * @param key the array holding the key
+     * @param keyOffset the offset of the key
+     * @param keyLength the length of the key
+     * @param value the array holding the value
+     * @param valueOffset the offset of the value
+     * @param valueLength the length of the value
+     * @return true if the key was added, false if an existing value was replaced
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength) {
+        return put(key, keyOffset, keyLength, value, valueOffset, valueLength, NO_EXPIRY);
+    }
+
+    /**
+     * Associates a value with a key, replacing any existing value. The key and value bytes are copied.
+     * @param key the array holding the key
+     * @param keyOffset the offset of the key
+     * @param keyLength the length of the key
+     * @param value the array holding the value
+     * @param valueOffset the offset of the value
+     * @param valueLength the length of the value
+     * @param expiresAt the expiry in epoch milliseconds, or NO_EXPIRY
+     * @return true if the key was added or its previous value had expired, false if a value was replaced
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength, long expiresAt) {
+        return put(key, keyOffset, keyLength, value, valueOffset, valueLength, expiresAt, false);
+    }
+
+    /**
+     * Associates a value with a key, replacing any existing value. The key and value bytes are copied.
+     * @param key the array holding the key
+     * @param keyOffset the offset of the key
+     * @param keyLength the length of the key
+     * @param value the array holding the value
+     * @param valueOffset the offset of the value
+     * @param valueLength the length of the value
+     * @param expiresAt the expiry in epoch milliseconds, or NO_EXPIRY
+     * @param compressed true if the value was compressed with Lz4.compressValue
+     * @return true if the key was added or its previous value had expired, false if a value was replaced
+     */
+    public synchronized boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength, long expiresAt, boolean compressed) {
+        int hash = hash(key, keyOffset, keyLength);
+        // appending first may publish a compacted snapshot; the probe below then uses the new arrays
+        ensureArena(entryLength(keyLength, valueLength, expiresAt));
+        Snapshot s = _snapshot;
+        int mask = s.offsets.length() - 1;
+        int firstDeleted = -1;
+        int idx = hash & mask;
+        for(; ; idx = (idx + 1) & mask) {
+            int entry = s.offsets.get(idx);
+            if(entry == EMPTY)
+                break;
+            if(entry == DELETED) {
+                if(firstDeleted < 0) {
+                    firstDeleted = idx;
+                }
+            } else if(s.hashes[idx] == hash && keyEquals(s.arena, entry, key, keyOffset, keyLength)) {
+                boolean expired = isExpired(s.arena, entry, System.currentTimeMillis());
+                _deadBytes += entryLength(s.arena, entry);
+                if(expiresAtOf(s.arena, entry) != NO_EXPIRY) {
+                    _expiring--;
+                }
+                s.offsets.set(idx, append(s.arena, key, keyOffset, keyLength, value, valueOffset, valueLength, expiresAt, compressed));
+                s.referenced[idx] = 1;
+                return expired;
+            }
+        }
+        if(firstDeleted >= 0) {
+            idx = firstDeleted;
+            _deleted--;
+        }
+        int newEntry = append(s.arena, key, keyOffset, keyLength, value, valueOffset, valueLength, expiresAt, compressed);
+        s.hashes[idx] = hash;
+        s.referenced[idx] = 1;
+        // the volatile store publishes the hash and entry bytes written above
+        s.offsets.set(idx, newEntry);
+        _size++;
+        if(_sortedIndex != null) {
+            _sortedIndex.add(key, keyOffset, keyLength);
+        }
+        int capacity = s.offsets.length();
+        if(_size + _deleted > capacity * MAX_LOAD) {
+            // grow if live entries fill the table, otherwise just clear the deleted markers
+            rehash(_size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a key.
+     * @param key the array holding the key
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return true if the key was in the table and had not expired
+     */
+    public synchronized boolean remove(byte[] key, int offset, int length) {
+        Snapshot s = _snapshot;
+        long found = s.findSlot(hash(key, offset, length), key, offset, length);
+        if(found < 0)
+            return false;
+        int entry = (int)found;
+        boolean expired = isExpired(s.arena, entry, System.currentTimeMillis());
+        removeSlot(s, (int)(found >>> 32), entry);
+        return !expired;
+    }
+
+    /**
+     * Removes expired entries from the next slots after the previous call, so repeated calls sweep the
+     * whole table a few slots at a time.
+     * @param now the current time in epoch milliseconds
+     * @param slots the number of slots to examine
+     * @param removedHashes receives the hash of each removed key, may be null
+     * @return the number of entries removed
+     */
+    public synchronized int expire(long now, int slots, IntConsumer removedHashes) {
+        if(_expiring == 0)
+            return 0;
+        int removed = 0;
+        for(int i = 0; i < slots; i++) {
+            // removing may compact and publish a new snapshot, so read it for every slot
+            Snapshot s = _snapshot;
+            int capacity = s.offsets.length();
+            int idx = _sweepCursor & (capacity - 1);
+            _sweepCursor = idx + 1;
+            int entry = s.offsets.get(idx);
+            if(entry >= 0 && isExpired(s.arena, entry, now)) {
+                int hash = s.hashes[idx];
+                removeSlot(s, idx, entry);
+                removed++;
+                if(removedHashes != null) {
+                    removedHashes.accept(hash);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns true if the table holds a key that has not expired, without recording an access.
+     * @param key the array holding the key
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return true if the key is in the table
+     */
+    public boolean containsKey(byte[] key, int offset, int length) {
+        Snapshot s = _snapshot;
+        long found = s.findSlot(hash(key, offset, length), key, offset, length);
+        return found >= 0 && !isExpired(s.arena, (int)found, System.currentTimeMillis());
+    }
+
+    /**
+     * Advances the CLOCK hand to the next eviction victim: the hand clears the reference bits of the
+     * entries it passes and stops at the first entry whose bit was already clear, or at an expired
+     * entry. The most recently written entry is never picked. Each bit is cleared once per read that
+     * set it, so the cost per eviction is amortized O(1).
+     * @return the slot of the victim, or -1 if there is no entry to evict
+     */
+    public synchronized int clockVictim() {
+        Snapshot s = _snapshot;
+        int capacity = s.offsets.length();
+        long now = System.currentTimeMillis();
+        // two turns are enough: the first clears every bit
+        for(int step = 0; step < capacity * 2; step++) {
+            int idx = _clockHand & (capacity - 1);
+            _clockHand = idx + 1;
+            int entry = s.offsets.get(idx);
+            if(entry < 0 || entry == _lastAppended)
+                continue;
+            if(s.referenced[idx] != 0 && !isExpired(s.arena, entry, now)) {
+                s.referenced[idx] = 0;
+                continue;
+            }
+            return idx;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key hash of a slot returned by {@link #clockVictim()}.
+     * @param slot the slot
+     * @return the key hash
+     */
+    public synchronized int slotHash(int slot) {
+        return _snapshot.hashes[slot];
+    }
+
+    /**
+     * Returns true if the entry in a slot returned by {@link #clockVictim()} has expired.
+     * @param slot the slot
+     * @param now the current time in epoch milliseconds
+     * @return true if the entry has expired
+     */
+    public synchronized boolean isExpiredSlot(int slot, long now) {
+        Snapshot s = _snapshot;
+        int entry = s.offsets.get(slot);
+        return entry >= 0 && isExpired(s.arena, entry, now);
+    }
+
+    /**
+     * Removes the entry in a slot returned by {@link #clockVictim()}.
+     * @param slot the slot
+     * @return the key hash of the removed entry
+     */
+    public synchronized int evictSlot(int slot) {
+        Snapshot s = _snapshot;
+        int hash = s.hashes[slot];
+        int entry = s.offsets.get(slot);
+        if(entry >= 0) {
+            removeSlot(s, slot, entry);
+        }
+        return hash;
+    }
+
+    /**
+     * Sets the sketch that reads update for TinyLFU admission, or null to stop counting.
+     * @param sketch the sketch
+     */
+    synchronized void setFrequencySketch(FrequencySketch sketch) {
+        Snapshot s = _snapshot;
+        _snapshot = new Snapshot(s.hashes, s.offsets, s.arena, s.referenced, sketch, s.layout);
+    }
+
+    /**
+     * Starts or stops keeping the keys in order. Starting indexes every key in the table, including
+     * expired keys that have not been swept yet.
+     * @param sortedIndex the index to maintain, or null to stop
+     */
+    synchronized void setSortedIndex(SortedKeyIndex sortedIndex) {
+        if(sortedIndex != null) {
+            Snapshot s = _snapshot;
+            for(int i = 0; i < s.offsets.length(); i++) {
+                int entry = s.offsets.get(i);
+                if(entry >= 0) {
+                    sortedIndex.add(s.arena, keyOffsetOf(s.arena, entry), keyLengthOf(s.arena, entry));
+                }
+            }
+        }
+        _sortedIndex = sortedIndex;
+    }
+
+    private void removeSlot(Snapshot s, int idx, int entry) {
+        _deadBytes += entryLength(s.arena, entry);
+        if(expiresAtOf(s.arena, entry) != NO_EXPIRY) {
+            _expiring--;
+        }
+        s.offsets.set(idx, DELETED);
+        _deleted++;
+        _size--;
+        if(_sortedIndex != null) {
+            _sortedIndex.remove(s.arena, keyOffsetOf(s.arena, entry), keyLengthOf(s.arena, entry));
+        }
+        int live = _arenaUsed - _deadBytes;
+        if(_deadBytes > MIN_ARENA && _deadBytes > live) {
+            // amortized: at least live bytes were removed since the last compaction
+            compact(Math.max(MIN_ARENA, live * 2));
+        }
+    }
+
+    /**
+     * Hashes a byte range with 32-bit FNV-1a followed by the murmur3 finalizer.
+     * @param bytes the array holding the range
+     * @param offset the offset of the range
+     * @param length the length of the range
+     * @return the hash
+     */
+    public static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811c9dc5;
+        for(int i = offset; i < offset + length; i++) {
+            h ^= bytes[i] & 0xff;
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean keyEquals(byte[] arena, int entry, byte[] key, int offset, int length) {
+        if(keyLengthOf(arena, entry) != length)
+            return false;
+        int start = keyOffsetOf(arena, entry);
+        for(int i = 0; i < length; i++) {
+            if(arena[start + i] != key[offset + i])
+                return false;
+        }
+        return true;
+    }
+
+    private static int keyLengthOf(byte[] arena, int entry) {
+        return readVarint(arena, entry) >>> 2;
+    }
+
+    private static boolean isCompressedAt(byte[] arena, int entry) {
+        return (readVarint(arena, entry) & 2) != 0;
+    }
+
+    private static int valueLengthAt(byte[] arena, int entry) {
+        return readVarint(arena, entry + varintSize(readVarint(arena, entry)));
+    }
+
+    private static int keyOffsetOf(byte[] arena, int entry) {
+        int header = readVarint(arena, entry);
+        int pos = entry + varintSize(header);
+        pos += varintSize(readVarint(arena, pos));
+        return (header & 1) != 0 ? pos + 8 : pos;
+    }
+
+    private static long expiresAtOf(byte[] arena, int entry) {
+        int header = readVarint(arena, entry);
+        if((header & 1) == 0)
+            return NO_EXPIRY;
+        int pos = entry + varintSize(header);
+        pos += varintSize(readVarint(arena, pos));
+        long expiresAt = 0;
+        for(int i = 0; i < 8; i++) {
+            expiresAt = (expiresAt << 8) | (arena[pos + i] & 0xff);
+        }
+        return expiresAt;
+    }
+
+    private static boolean isExpired(byte[] arena, int entry, long now) {
+        long expiresAt = expiresAtOf(arena, entry);
+        return expiresAt != NO_EXPIRY && expiresAt <= now;
+    }
+
+    private static int entryLength(byte[] arena, int entry) {
+        int keyLen = keyLengthOf(arena, entry);
+        return keyOffsetOf(arena, entry) - entry + keyLen + valueLengthAt(arena, entry);
+    }
+
+    private static int entryLength(int keyLength, int valueLength, long expiresAt) {
+        return varintSize(keyLength << 2) + varintSize(valueLength) + (expiresAt != NO_EXPIRY ? 8 : 0) + keyLength + valueLength;
+    }
+
+    /**
+     * Writes an entry past the used part of the arena. Readers never look there until the entry's
+     * offset is published.
+     */
+    private int append(byte[] arena, byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength, long expiresAt, boolean compressed) {
+        int entry = _arenaUsed;
+        int pos = writeVarint(arena, entry, keyLength << 2 | (compressed ? 2 : 0) | (expiresAt != NO_EXPIRY ? 1 : 0));
+        pos = writeVarint(arena, pos, valueLength);
+        if(expiresAt != NO_EXPIRY) {
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                arena[pos++] = (byte)(expiresAt >>> shift);
+            }
+        }
+        System.arraycopy(key, keyOffset, arena, pos, keyLength);
+        System.arraycopy(value, valueOffset, arena, pos + keyLength, valueLength);
+        _arenaUsed = pos + keyLength + valueLength;
+        if(expiresAt != NO_EXPIRY) {
+            _expiring++;
+        }
+        _lastAppended = entry;
+        return entry;
+    }
+
+    private void ensureArena(int needed) {
+        byte[] arena = _snapshot.arena;
+        if((long)_arenaUsed + needed <= arena.length)
+            return;
+        long live = (long)_arenaUsed - _deadBytes;
+        if(_deadBytes > live && live + needed <= arena.length) {
+            compact(arena.length);
+            return;
+        }
+        long newLength = Math.max(live + needed, Math.max(MIN_ARENA, live * 2));
+        if(newLength > MAX_ARENA)
+            throw new IllegalStateException("ByteHashTable arena exceeds " + MAX_ARENA + " bytes.");
+        compact((int)newLength);
+    }
+
+    /**
+     * Copies the live entries into a new arena of the given length and publishes a new snapshot.
+     */
+    private void compact(int arenaLength) {
+        Snapshot s = _snapshot;
+        int capacity = s.offsets.length();
+        byte[] arena = new byte[arenaLength];
+        AtomicIntegerArray offsets = new AtomicIntegerArray(capacity);
+        int used = 0;
+        for(int i = 0; i < capacity; i++) {
+            int entry = s.offsets.get(i);
+            if(entry < 0) {
+                offsets.lazySet(i, entry);
+                continue;
+            }
+            int len = entryLength(s.arena, entry);
+            System.arraycopy(s.arena, entry, arena, used, len);
+            offsets.lazySet(i, used);
+            if(entry == _lastAppended) {
+                _lastAppended = used;
+            }
+            used += len;
+        }
+        // slots do not move, so the reference bits stay valid
+        _snapshot = new Snapshot(s.hashes.clone(), offsets, arena, s.referenced, s.sketch, s.layout);
+        _arenaUsed = used;
+        _deadBytes = 0;
+    }
+
+    /**
+     * Rebuilds the slot arrays with the given capacity and publishes a new snapshot.
+     */
+    private void rehash(int capacity) {
+        Snapshot s = _snapshot;
+        int[] hashes = new int[capacity];
+        byte[] referenced = new byte[capacity];
+        AtomicIntegerArray offsets = emptyOffsets(capacity);
+        int mask = capacity - 1;
+        for(int i = 0; i < s.offsets.length(); i++) {
+            int entry = s.offsets.get(i);
+            if(entry < 0)
+                continue;
+            int idx = s.hashes[i] & mask;
+            while(offsets.get(idx) != EMPTY) {
+                idx = (idx + 1) & mask;
+            }
+            hashes[idx] = s.hashes[i];
+            referenced[idx] = s.referenced[i];
+            offsets.lazySet(idx, entry);
+        }
+        _snapshot = new Snapshot(hashes, offsets, s.arena, referenced, s.sketch, s.layout + 1);
+        _deleted = 0;
+    }
+
+    private static AtomicIntegerArray emptyOffsets(int capacity) {
+        int[] offsets = new int[capacity];
+        Arrays.fill(offsets, EMPTY);
+        return new AtomicIntegerArray(offsets);
+    }
+
+    private static int capacityFor(int expectedEntries) {
+        int capacity = MIN_CAPACITY;
+        while(capacity * MAX_LOAD < expectedEntries + 1) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        while((value & ~0x7f) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int writeVarint(byte[] out, int pos, int value) {
+        while((value & ~0x7f) != 0) {
+            out[pos++] = (byte)((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte)value;
+        return pos;
+    }
+
+    static int readVarint(byte[] in, int pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[pos++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
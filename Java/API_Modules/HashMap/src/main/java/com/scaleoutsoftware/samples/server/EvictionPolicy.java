@@ -0,0 +1,116 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import com.scaleoutsoftware.samples.codegen.ApiMessage;
+
+/**
+ * Limits on the size of a SossHashMap object. When a put takes the object over a limit, entries are
+ * evicted with the CLOCK algorithm, an approximation of least-recently-used eviction: every read sets a
+ * reference bit on the entry's slot, and a clock hand clears set bits and evicts the first entry whose
+ * bit was already clear. Each eviction costs amortized O(1).
+ * <p>
+ * With TinyLFU admission, a new key that would force an eviction is only stored if it has been accessed
+ * more often than the entry the clock hand picked, so a burst of one-off keys cannot flush popular ones.
+ * Rejected puts count as evictions.
+ * <p>
+ * It is also the request body of the "configure" operation, encoded by the generated EvictionPolicyCodec.
+ */
+@ApiMessage
+public class EvictionPolicy {
+    /** No limits. */
+    public static final EvictionPolicy UNBOUNDED = new EvictionPolicy(0, 0, false);
+
+    private final int _maxEntries;
+    private final long _maxBytes;
+    private final boolean _admissionFilter;
+
+    /**
+     * Creates an eviction policy.
+     * @param maxEntries the maximum number of entries, or 0 for no limit
+     * @param maxBytes the maximum number of key, value and entry header bytes, or 0 for no limit
+     * @param admissionFilter true to reject new keys that are accessed less often than the eviction victim
+     */
+    public EvictionPolicy(int maxEntries, long maxBytes, boolean admissionFilter) {
+        if(maxEntries < 0 || maxBytes < 0)
+            throw new IllegalArgumentException("maxEntries and maxBytes must not be negative.");
+        _maxEntries = maxEntries;
+        _maxBytes = maxBytes;
+        _admissionFilter = admissionFilter;
+    }
+
+    /**
+     * Reads a policy from the system properties SossHashMap.maxEntries, SossHashMap.maxBytes and
+     * SossHashMap.admissionFilter, e.g. -DSossHashMap.maxEntries=100000.
+     * @return the configured policy, or UNBOUNDED if no limit is set
+     */
+    public static EvictionPolicy fromSystemProperties() {
+        int maxEntries = Integer.getInteger("SossHashMap.maxEntries", 0);
+        long maxBytes = Long.getLong("SossHashMap.maxBytes", 0L);
+        boolean admissionFilter = Boolean.getBoolean("SossHashMap.admissionFilter");
+        if(maxEntries == 0 && maxBytes == 0)
+            return UNBOUNDED;
+        return new EvictionPolicy(maxEntries, maxBytes, admissionFilter);
+    }
+
+    /**
+     * @return the maximum number of entries, or 0 for no limit
+     */
+    public int getMaxEntries() {
+        return _maxEntries;
+    }
+
+    /**
+     * @return the maximum number of key, value and entry header bytes, or 0 for no limit
+     */
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * @return true if new keys pass a TinyLFU admission filter
+     */
+    public boolean isAdmissionFilter() {
+        return _admissionFilter;
+    }
+
+    /**
+     * @return true if either limit is set
+     */
+    public boolean isBounded() {
+        return _maxEntries > 0 || _maxBytes > 0;
+    }
+
+    /**
+     * Returns true if an object with the given entry count and byte size is over a limit.
+     * @param entries the entry count
+     * @param bytes the byte size
+     * @return true if a limit is exceeded
+     */
+    public boolean isExceeded(int entries, long bytes) {
+        return (_maxEntries > 0 && entries > _maxEntries) || (_maxBytes > 0 && bytes > _maxBytes);
+    }
+}
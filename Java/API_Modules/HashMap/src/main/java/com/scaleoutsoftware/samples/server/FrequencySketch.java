@@ -0,0 +1,106 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+/**
+ * Estimates how often keys are accessed with a count-min sketch of 4-bit counters, as used by TinyLFU
+ * admission: a new key only replaces an eviction victim if it was accessed more often. Each key hash
+ * increments one counter in each of four rows; its frequency is the smallest of the four. All counters
+ * are halved after 10 * maxEntries increments so old popularity fades.
+ * <p>
+ * Readers update the sketch without locking. Racing increments may be lost, which only makes the
+ * estimate slightly lower.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] _table;
+    private final int _tableMask;
+    private final int _sampleSize;
+    private int _additions;
+
+    FrequencySketch(int maxEntries) {
+        int length = 16;
+        while(length < maxEntries && length < (1 << 26)) {
+            length <<= 1;
+        }
+        _table = new long[length];
+        _tableMask = length - 1;
+        _sampleSize = (int)Math.min(10L * Math.max(maxEntries, 16), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Records an access to a key.
+     * @param hash the key hash
+     */
+    void increment(int hash) {
+        // each long holds 16 counters; the hash picks a group of 4, one per row
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for(int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long mask = 0xfL << offset;
+            long value = _table[index];
+            if((value & mask) != mask) {
+                _table[index] = value + (1L << offset);
+                added = true;
+            }
+        }
+        if(added && ++_additions >= _sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated access count of a key, at most 15.
+     * @param hash the key hash
+     * @return the estimate
+     */
+    int frequency(int hash) {
+        int start = (hash & 3) << 2;
+        int frequency = 15;
+        for(int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            frequency = Math.min(frequency, (int)((_table[indexOf(hash, i)] >>> offset) & 0xf));
+        }
+        return frequency;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int)h & _tableMask;
+    }
+
+    private void reset() {
+        for(int i = 0; i < _table.length; i++) {
+            _table[i] = (_table[i] >>> 1) & RESET_MASK;
+        }
+        _additions >>>= 1;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in log-linear buckets, like HdrHistogram with two significant binary digits: values
+ * below 64 ns have a bucket each, and every power of two above is split into 32 buckets, so a reported
+ * percentile is within about 3% of the recorded value. Values above 2^41 ns (about 36 minutes) are counted
+ * in the last bucket.
+ * <p>
+ * Recording is lock-free and never allocates; snapshots read the counters without stopping writers.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 40 - SUB_BUCKET_BITS;
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder _sum = new LongAdder();
+    private final LongAccumulator _max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one latency.
+     * @param nanos the latency in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        _counts.getAndIncrement(bucket(value));
+        _sum.add(value);
+        _max.accumulate(value);
+    }
+
+    /**
+     * Returns a copy of the counters.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = _counts.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, _sum.sum(), _max.get());
+    }
+
+    static int bucket(long value) {
+        if(value < 2 * SUB_BUCKETS)
+            return (int)value;
+        int shift = Math.min(63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS, MAX_SHIFT);
+        int top = (int)Math.min(value >>> shift, 2 * SUB_BUCKETS - 1);
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + top - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the largest value that is counted in a bucket.
+     */
+    static long highestValue(int bucket) {
+        if(bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        long top = (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * The counts of a LatencyHistogram at one point in time.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0, 0);
+
+        private final long[] _counts;
+        private final long _count;
+        private final long _sum;
+        private final long _max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            _counts = counts;
+            _count = count;
+            _sum = sum;
+            _max = max;
+        }
+
+        /**
+         * @return the number of recorded latencies
+         */
+        public long getCount() {
+            return _count;
+        }
+
+        /**
+         * @return the mean latency in nanoseconds, or 0 if none was recorded
+         */
+        public double getMean() {
+            return _count == 0 ? 0 : (double)_sum / _count;
+        }
+
+        /**
+         * @return the largest recorded latency in nanoseconds. For an interval, the largest since the histogram
+         * was created.
+         */
+        public long getMax() {
+            return _max;
+        }
+
+        /**
+         * Returns a latency percentile in nanoseconds.
+         * @param percentile the percentile, from 0 to 100
+         * @return the highest value in the bucket that holds the percentile, or 0 if none was recorded
+         */
+        public long getPercentile(double percentile) {
+            if(_count == 0)
+                return 0;
+            long rank = Math.max(1, (long)Math.ceil(_count * Math.min(percentile, 100) / 100));
+            long seen = 0;
+            for(int i = 0; i < BUCKETS; i++) {
+                seen += _counts[i];
+                if(seen >= rank)
+                    return Math.min(highestValue(i), _max);
+            }
+            return _max;
+        }
+
+        /**
+         * Returns the latencies recorded between an earlier snapshot of the same histogram and this one.
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] counts = new long[BUCKETS];
+            for(int i = 0; i < BUCKETS; i++) {
+                counts[i] = _counts[i] - earlier._counts[i];
+            }
+            return new Snapshot(counts, _count - earlier._count, _sum - earlier._sum, _max);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A pure-Java compressor for the LZ4 block format, used to store large values compressed. Compressed
+ * values are framed as (varint uncompressedLength, LZ4 block) so they can be decompressed into an exactly
+ * sized array.
+ * <p>
+ * The compressor is the single-pass LZ4 fast scheme: a 4096-entry hash table of recent positions finds
+ * 4-byte matches up to 64 KB back, and the search skips ahead faster the longer it finds no match, so
+ * incompressible input costs little. The decompressor checks every length and offset against its input
+ * and output, so a corrupt value fails with an IllegalArgumentException instead of reading out of bounds.
+ */
+public final class Lz4 {
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_LOG = 12;
+    // the last match must start at least 12 bytes before the end, and the last 5 bytes are always literals
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 0xffff;
+    private static final int SKIP_TRIGGER = 6;
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    private Lz4() {
+    }
+
+    /**
+     * Returns the largest block {@link #compress(byte[], int, int, byte[], int)} can produce.
+     * @param length the input length
+     * @return the maximum compressed length
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses a byte range into an LZ4 block.
+     * @param src the array holding the input
+     * @param srcOffset the offset of the input
+     * @param srcLength the length of the input
+     * @param dest the destination, with at least maxCompressedLength(srcLength) bytes after destOffset
+     * @param destOffset the offset in the destination
+     * @return the length of the block
+     */
+    public static int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) {
+        int srcEnd = srcOffset + srcLength;
+        int anchor = srcOffset;
+        int d = destOffset;
+        if(srcLength > MF_LIMIT) {
+            int[] table = HASH_TABLE.get();
+            // a little-endian view reads 4 and 8 bytes at a time
+            ByteBuffer in = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+            int matchLimit = srcEnd - LAST_LITERALS;
+            int mfLimit = srcEnd - MF_LIMIT;
+            // positions are stored relative to srcOffset + 1, so 0 marks an empty slot
+            Arrays.fill(table, 0);
+            int s = srcOffset;
+            int misses = 1 << SKIP_TRIGGER;
+            while(s < mfLimit) {
+                int sequence = in.getInt(s);
+                int h = hash(sequence);
+                int ref = table[h] - 1 + srcOffset;
+                table[h] = s - srcOffset + 1;
+                if(ref < srcOffset || s - ref > MAX_OFFSET || in.getInt(ref) != sequence) {
+                    s += misses++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                misses = 1 << SKIP_TRIGGER;
+                while(s > anchor && ref > srcOffset && src[s - 1] == src[ref - 1]) {
+                    s--;
+                    ref--;
+                }
+                // extend the match 8 bytes at a time, then byte by byte up to the limit
+                int matchLength = MIN_MATCH;
+                while(s + matchLength + 8 <= matchLimit) {
+                    long diff = in.getLong(s + matchLength) ^ in.getLong(ref + matchLength);
+                    if(diff != 0) {
+                        matchLength += Long.numberOfTrailingZeros(diff) >>> 3;
+                        break;
+                    }
+                    matchLength += 8;
+                }
+                if(s + matchLength + 8 > matchLimit) {
+                    while(s + matchLength < matchLimit && src[s + matchLength] == src[ref + matchLength]) {
+                        matchLength++;
+                    }
+                }
+                int extra = matchLength - MIN_MATCH;
+                d = writeSequence(src, anchor, s - anchor, extra, dest, d);
+                int offset = s - ref;
+                dest[d++] = (byte)offset;
+                dest[d++] = (byte)(offset >>> 8);
+                if(extra >= 15) {
+                    d = writeLength(dest, d, extra - 15);
+                }
+                s += matchLength;
+                anchor = s;
+                if(s - 2 < mfLimit) {
+                    table[hash(in.getInt(s - 2))] = s - 2 - srcOffset + 1;
+                }
+            }
+        }
+        d = writeSequence(src, anchor, srcEnd - anchor, 0, dest, d);
+        return d - destOffset;
+    }
+
+    /**
+     * Decompresses an LZ4 block.
+     * @param src the array holding the block
+     * @param srcOffset the offset of the block
+     * @param srcLength the length of the block
+     * @param dest the destination
+     * @param destOffset the offset in the destination
+     * @param destLength the exact decompressed length
+     * @throws IllegalArgumentException if the block is corrupt or does not decompress to destLength bytes
+     */
+    public static void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength) {
+        int s = srcOffset;
+        int srcEnd = srcOffset + srcLength;
+        int d = destOffset;
+        int destEnd = destOffset + destLength;
+        while(true) {
+            if(s >= srcEnd)
+                throw corrupt();
+            int token = src[s++] & 0xff;
+            int literals = token >>> 4;
+            if(literals == 15) {
+                int b;
+                do {
+                    if(s >= srcEnd || literals > destLength)
+                        throw corrupt();
+                    b = src[s++] & 0xff;
+                    literals += b;
+                } while(b == 255);
+            }
+            if(literals > srcEnd - s || literals > destEnd - d)
+                throw corrupt();
+            System.arraycopy(src, s, dest, d, literals);
+            s += literals;
+            d += literals;
+            if(s == srcEnd)
+                break;
+            if(srcEnd - s < 2)
+                throw corrupt();
+            int offset = (src[s] & 0xff) | (src[s + 1] & 0xff) << 8;
+            s += 2;
+            if(offset == 0 || offset > d - destOffset)
+                throw corrupt();
+            int matchLength = token & 0x0f;
+            if(matchLength == 15) {
+                int b;
+                do {
+                    if(s >= srcEnd || matchLength > destLength)
+                        throw corrupt();
+                    b = src[s++] & 0xff;
+                    matchLength += b;
+                } while(b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if(matchLength > destEnd - d)
+                throw corrupt();
+            int match = d - offset;
+            if(offset >= matchLength) {
+                System.arraycopy(dest, match, dest, d, matchLength);
+            } else {
+                // an overlapping match repeats the bytes it has just written
+                for(int i = 0; i < matchLength; i++) {
+                    dest[d + i] = dest[match + i];
+                }
+            }
+            d += matchLength;
+        }
+        if(d != destEnd)
+            throw corrupt();
+    }
+
+    /**
+     * Compresses a value into the (varint uncompressedLength, LZ4 block) framing.
+     * @param value the array holding the value
+     * @param offset the offset of the value
+     * @param length the length of the value
+     * @return the compressed value, or null if compressing does not make the value smaller
+     */
+    public static byte[] compressValue(byte[] value, int offset, int length) {
+        int header = ByteHashTable.varintSize(length);
+        byte[] out = new byte[header + maxCompressedLength(length)];
+        ByteHashTable.writeVarint(out, 0, length);
+        int compressed = header + compress(value, offset, length, out, header);
+        if(compressed >= length)
+            return null;
+        return Arrays.copyOf(out, compressed);
+    }
+
+    /**
+     * Returns the uncompressed length of a value written by {@link #compressValue(byte[], int, int)}.
+     * @param value the array holding the compressed value
+     * @param offset the offset of the compressed value
+     * @param length the length of the compressed value
+     * @return the uncompressed length
+     * @throws IllegalArgumentException if the value has no valid length header
+     */
+    public static int decompressedLength(byte[] value, int offset, int length) {
+        int size = 0;
+        int shift = 0;
+        for(int i = 0; i < 5 && i < length; i++) {
+            byte b = value[offset + i];
+            size |= (b & 0x7f) << shift;
+            if((b & 0x80) == 0) {
+                if(size < 0)
+                    break;
+                return size;
+            }
+            shift += 7;
+        }
+        throw corrupt();
+    }
+
+    /**
+     * Decompresses a value written by {@link #compressValue(byte[], int, int)}.
+     * @param value the array holding the compressed value
+     * @param offset the offset of the compressed value
+     * @param length the length of the compressed value
+     * @return the uncompressed value
+     * @throws IllegalArgumentException if the value is corrupt
+     */
+    public static byte[] decompressValue(byte[] value, int offset, int length) {
+        int size = decompressedLength(value, offset, length);
+        int header = ByteHashTable.varintSize(size);
+        byte[] out = new byte[size];
+        decompress(value, offset + header, length - header, out, 0, size);
+        return out;
+    }
+
+    /**
+     * Writes a sequence's token and literals; the caller writes the match offset and extra match length.
+     */
+    private static int writeSequence(byte[] src, int literalOffset, int literals, int matchExtra, byte[] dest, int d) {
+        dest[d++] = (byte)(Math.min(literals, 15) << 4 | Math.min(matchExtra, 15));
+        if(literals >= 15) {
+            d = writeLength(dest, d, literals - 15);
+        }
+        if(literals <= 16) {
+            // short runs are the common case between matches and are cheaper to copy by hand
+            for(int i = 0; i < literals; i++) {
+                dest[d + i] = src[literalOffset + i];
+            }
+        } else {
+            System.arraycopy(src, literalOffset, dest, d, literals);
+        }
+        return d + literals;
+    }
+
+    private static int writeLength(byte[] dest, int d, int length) {
+        while(length >= 255) {
+            dest[d++] = (byte)255;
+            length -= 255;
+        }
+        dest[d++] = (byte)length;
+        return d;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static IllegalArgumentException corrupt() {
+        return new IllegalArgumentException("Corrupt LZ4 compressed value.");
+    }
+}
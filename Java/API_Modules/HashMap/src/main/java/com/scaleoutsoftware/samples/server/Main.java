@@ -30,6 +30,8 @@ import com.scaleoutsoftware.modules.hosting.ApiModuleOptions;
 import com.scaleoutsoftware.modules.hosting.ApiModuleOptionsBuilder;
 import com.scaleoutsoftware.modules.hosting.ModuleRegistrationException;
 
+import java.time.Duration;
+
 /**
  * An API module's entry point. Run "mvn package" to build the deployable ZIP package.
  */
@@ -37,10 +39,21 @@ public class Main {
     public static void main(String[] args) {
         // instantiate the module package
         ModulePackage modulePackage = new ModulePackage();
-        // define the ApiModuleOptions
-        ApiModuleOptions<SossHashMap> apiModuleOptions = new ApiModuleOptionsBuilder<SossHashMap>(SossHashMap.class).build();
-        // add the API module to the package
-        modulePackage.addApiModule("SossHashMap", new SossHashMapApiProcessor(), apiModuleOptions);
+        // define the ApiModuleOptions, storing objects with the compact binary serializer
+        ApiModuleOptions<SossHashMap> apiModuleOptions = new ApiModuleOptionsBuilder<SossHashMap>(SossHashMap.class)
+                .setSerialization(new SossHashMapSerializer(), new SossHashMapDeserializer())
+                .build();
+        // add the API module to the package; -DSossHashMap.maxEntries and -DSossHashMap.maxBytes bound new objects,
+        // and -DSossHashMap.sorted=true creates them in sorted mode
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor(EvictionPolicy.fromSystemProperties(), Boolean.getBoolean("SossHashMap.sorted"));
+        modulePackage.addApiModule("SossHashMap", processor, apiModuleOptions);
+        // time one handler call in -DSossHashMap.statsSampleInterval (default 16), and log the handler metrics
+        // every -DSossHashMap.statsLogSeconds (default 60, 0 turns the log off)
+        processor.getStats().setSampleInterval(Integer.getInteger("SossHashMap.statsSampleInterval", 16));
+        long statsLogSeconds = Long.getLong("SossHashMap.statsLogSeconds", 60);
+        if(statsLogSeconds > 0) {
+            processor.getStats().startLogging(Duration.ofSeconds(statsLogSeconds));
+        }
         try {
             // wait for events
             modulePackage.waitForEvents();
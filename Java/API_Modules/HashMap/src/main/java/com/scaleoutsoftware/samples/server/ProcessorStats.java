@@ -0,0 +1,577 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import com.scaleoutsoftware.modules.abstractions.InvokeResult;
+import com.scaleoutsoftware.modules.abstractions.ProcessingResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Latency, payload and object size metrics of a SossHashMapApiProcessor in one worker process. Every
+ * operation has a call count, a latency histogram and request/response byte counters. Every object has a
+ * call count, entry and byte gauges that are refreshed by writes, and the time its exclusive lock was held.
+ * <p>
+ * Reading the clock twice costs about a third of a small get, so only one call in sampleInterval (16 by
+ * default) is timed, picked at random. The call and byte counts of operations are exact. The metrics of objects are
+ * only kept for timed calls and scaled up by the sample interval.
+ * <p>
+ * The grid takes an object's lock before calling a handler, so the time a call waited for it cannot be
+ * measured here. It is estimated from the lock's utilization u, the share of time handlers held it, and
+ * its mean hold time h as h * u / (1 - u), the mean wait of an M/M/1 queue.
+ */
+public final class ProcessorStats {
+    private static final Logger LOGGER = Logger.getLogger(ProcessorStats.class.getName());
+    static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    static final int MAX_OPERATIONS = 64;
+    // objects beyond this many are only counted in the operation metrics
+    static final int MAX_TRACKED_OBJECTS = 10000;
+    static final int HOTTEST_OBJECTS = 10;
+    // a utilization of 1 would estimate an infinite wait
+    private static final double MAX_UTILIZATION = 0.99;
+
+    private final ConcurrentHashMap<String, OperationStats> _operations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ObjectStats> _objects = new ConcurrentHashMap<>();
+    private volatile int _sampleMask = DEFAULT_SAMPLE_INTERVAL - 1;
+    // call, request byte and response byte counts of every operation, per thread, so that counting needs no
+    // atomic instruction; each array is only written by its thread
+    private final List<AtomicLongArray> _threadCounters = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<AtomicLongArray> _counters = ThreadLocal.withInitial(() -> {
+        AtomicLongArray counters = new AtomicLongArray(MAX_OPERATIONS * 3);
+        _threadCounters.add(counters);
+        return counters;
+    });
+    // state of the last log report
+    private final Map<String, OperationStats.Totals> _loggedOperations = new HashMap<>();
+    private final Map<String, ObjectStats.Totals> _loggedObjects = new HashMap<>();
+    private long _loggedAt = System.nanoTime();
+    private ScheduledExecutorService _logger;
+
+    /**
+     * Adds an operation to be measured. Calls of other operations are not recorded.
+     * @param operationId the operation ID
+     * @param exclusive true if the grid runs the operation under the object's exclusive lock
+     */
+    public synchronized void addOperation(String operationId, boolean exclusive) {
+        if(_operations.containsKey(operationId))
+            return;
+        if(_operations.size() == MAX_OPERATIONS)
+            throw new IllegalStateException("Cannot measure more than " + MAX_OPERATIONS + " operations.");
+        _operations.put(operationId, new OperationStats(this, _operations.size(), operationId, exclusive));
+    }
+
+    /**
+     * Sets how many calls share one latency sample.
+     * @param sampleInterval 1 to time every call; rounded up to a power of two
+     */
+    public void setSampleInterval(int sampleInterval) {
+        if(sampleInterval < 1 || sampleInterval > (1 << 30))
+            throw new IllegalArgumentException("sampleInterval must be between 1 and 2^30.");
+        _sampleMask = sampleInterval == 1 ? 0 : Integer.highestOneBit(sampleInterval - 1) * 2 - 1;
+    }
+
+    /**
+     * @return the number of calls that share one latency sample
+     */
+    public int getSampleInterval() {
+        return _sampleMask + 1;
+    }
+
+    /**
+     * Starts a handler call.
+     * @return System.nanoTime() if the call is timed, otherwise 0
+     */
+    public long start() {
+        return (ThreadLocalRandom.current().nextInt() & _sampleMask) == 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a handler call and passes its result through.
+     * @param operationId the operation ID
+     * @param map the object the handler ran on
+     * @param payload the request payload
+     * @param startNanos the value start() returned when the handler was called
+     * @param result the handler's result
+     * @return result
+     */
+    public InvokeResult record(String operationId, SossHashMap map, byte[] payload, long startNanos, InvokeResult result) {
+        long nanos = startNanos != 0 ? System.nanoTime() - startNanos : -1;
+        OperationStats operation = _operations.get(operationId);
+        if(operation == null)
+            return result;
+        byte[] response = result.getResult();
+        AtomicLongArray counters = _counters.get();
+        int counter = operation._index * 3;
+        counters.lazySet(counter, counters.get(counter) + 1);
+        counters.lazySet(counter + 1, counters.get(counter + 1) + (payload != null ? payload.length : 0));
+        counters.lazySet(counter + 2, counters.get(counter + 2) + (response != null ? response.length : 0));
+        if(nanos >= 0) {
+            operation._latency.record(nanos);
+            ObjectStats object = objectStats(map);
+            if(object != null) {
+                object.record(nanos, getSampleInterval(), operation.isExclusive());
+                // sizes only change on writes; reading them takes the table's lock
+                if(result.getProcessingResult() != ProcessingResult.NoUpdate) {
+                    object.refresh(map);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the metrics of an operation, or null if it was not added
+     */
+    public OperationStats getOperation(String operationId) {
+        return _operations.get(operationId);
+    }
+
+    /**
+     * @return the metrics of every added operation
+     */
+    public Collection<OperationStats> getOperations() {
+        return _operations.values();
+    }
+
+    /**
+     * @return the metrics of an object, or null if it has not been called or is not tracked
+     */
+    public ObjectStats getObject(String objectId) {
+        return _objects.get(objectId);
+    }
+
+    /**
+     * Returns the objects with the most calls.
+     * @param count the number of objects to return at most
+     */
+    public List<ObjectStats> getHottestObjects(int count) {
+        List<ObjectStats> objects = new ArrayList<>(_objects.values());
+        objects.sort(Comparator.comparingLong(ObjectStats::getCalls).reversed());
+        return objects.subList(0, Math.min(count, objects.size()));
+    }
+
+    /**
+     * Formats the metrics as a JSON document: the operations, the hottest objects and, if map is not null,
+     * that object. Latencies are in microseconds.
+     */
+    public String toJson(SossHashMap map) {
+        long now = System.nanoTime();
+        StringBuilder json = new StringBuilder("{\"sampleInterval\":").append(getSampleInterval()).append(',');
+        if(map != null) {
+            ObjectStats object = objectStats(map);
+            if(object != null) {
+                object.refresh(map);
+            }
+            json.append("\"object\":");
+            appendObject(json, map.getId(), object != null ? object.totals() : null, map.size(), map.liveBytes(),
+                    object != null ? now - object._firstSeen : 0);
+            json.append(',');
+        }
+        json.append("\"operations\":[");
+        List<OperationStats> operations = sortedOperations();
+        for(int i = 0; i < operations.size(); i++) {
+            OperationStats operation = operations.get(i);
+            if(i > 0) {
+                json.append(',');
+            }
+            LatencyHistogram.Snapshot latency = operation.getLatency().snapshot();
+            json.append("{\"id\":");
+            appendString(json, operation.getId());
+            json.append(",\"exclusive\":").append(operation.isExclusive())
+                    .append(",\"count\":").append(operation.getCalls())
+                    .append(",\"sampled\":").append(latency.getCount())
+                    .append(",\"requestBytes\":").append(operation.getRequestBytes())
+                    .append(",\"responseBytes\":").append(operation.getResponseBytes())
+                    .append(",\"meanMicros\":").append(micros(latency.getMean()))
+                    .append(",\"p50Micros\":").append(micros(latency.getPercentile(50)))
+                    .append(",\"p90Micros\":").append(micros(latency.getPercentile(90)))
+                    .append(",\"p99Micros\":").append(micros(latency.getPercentile(99)))
+                    .append(",\"p999Micros\":").append(micros(latency.getPercentile(99.9)))
+                    .append(",\"maxMicros\":").append(micros(latency.getMax()))
+                    .append('}');
+        }
+        json.append("],\"hottestObjects\":[");
+        List<ObjectStats> hottest = getHottestObjects(HOTTEST_OBJECTS);
+        for(int i = 0; i < hottest.size(); i++) {
+            ObjectStats object = hottest.get(i);
+            if(i > 0) {
+                json.append(',');
+            }
+            appendObject(json, object.getId(), object.totals(), object.getEntries(), object.getLiveBytes(), now - object._firstSeen);
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Logs the metrics of every interval on a daemon thread, until stopLogging() is called.
+     * @param interval the time between reports
+     */
+    public synchronized void startLogging(Duration interval) {
+        stopLogging();
+        _logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SossHashMap-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        _logger.scheduleAtFixedRate(() -> {
+            try {
+                LOGGER.info(logReport());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to report SossHashMap stats", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the reports started by startLogging(Duration).
+     */
+    public synchronized void stopLogging() {
+        if(_logger != null) {
+            _logger.shutdownNow();
+            _logger = null;
+        }
+    }
+
+    /**
+     * Formats the metrics recorded since the previous report: one line per called operation and one per
+     * hottest object of the interval, and starts the next interval. startLogging(Duration) logs these reports.
+     */
+    public synchronized String logReport() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(now - _loggedAt, 1);
+        _loggedAt = now;
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "SossHashMap stats for the last %.1f s", elapsed / 1e9));
+        for(OperationStats operation : sortedOperations()) {
+            OperationStats.Totals totals = operation.totals();
+            OperationStats.Totals last = _loggedOperations.put(operation.getId(), totals);
+            OperationStats.Totals interval = last != null ? totals.since(last) : totals;
+            LatencyHistogram.Snapshot latency = interval.latency;
+            if(interval.calls == 0)
+                continue;
+            report.append(String.format(Locale.ROOT, "%n  %-14s %10d calls %10.1f/s  mean %.1f us  p50 %.1f us  p99 %.1f us  p99.9 %.1f us  in %d B  out %d B",
+                    operation.getId(), interval.calls, interval.calls * 1e9 / elapsed, micros(latency.getMean()),
+                    micros(latency.getPercentile(50)), micros(latency.getPercentile(99)), micros(latency.getPercentile(99.9)),
+                    interval.requestBytes, interval.responseBytes));
+        }
+        List<ObjectStats.Totals> objects = new ArrayList<>();
+        for(ObjectStats object : _objects.values()) {
+            ObjectStats.Totals totals = object.totals();
+            ObjectStats.Totals last = _loggedObjects.put(object.getId(), totals);
+            ObjectStats.Totals interval = last != null ? totals.since(last) : totals;
+            if(interval.calls > 0) {
+                objects.add(interval);
+            }
+        }
+        objects.sort(Comparator.comparingLong((ObjectStats.Totals totals) -> totals.calls).reversed());
+        for(ObjectStats.Totals interval : objects.subList(0, Math.min(HOTTEST_OBJECTS, objects.size()))) {
+            ObjectStats object = _objects.get(interval.id);
+            report.append(String.format(Locale.ROOT, "%n  object %s: %d calls, %d entries, %d bytes, lock held %.1f%%, estimated lock wait %.1f us",
+                    interval.id, interval.calls, object.getEntries(), object.getLiveBytes(),
+                    100 * utilization(interval.lockHoldNanos, elapsed), micros(estimateLockWait(interval, elapsed))));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the share of elapsed time a lock was held, capped below 1.
+     */
+    static double utilization(long holdNanos, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : Math.min((double)holdNanos / elapsedNanos, MAX_UTILIZATION);
+    }
+
+    static double estimateLockWait(ObjectStats.Totals totals, long elapsedNanos) {
+        if(totals.exclusiveCalls == 0)
+            return 0;
+        double utilization = utilization(totals.lockHoldNanos, elapsedNanos);
+        return (double)totals.lockHoldNanos / totals.exclusiveCalls * utilization / (1 - utilization);
+    }
+
+    private ObjectStats objectStats(SossHashMap map) {
+        String id = map.getId();
+        if(id == null)
+            return null;
+        ObjectStats object = _objects.get(id);
+        if(object == null && _objects.size() < MAX_TRACKED_OBJECTS) {
+            ObjectStats created = new ObjectStats(id);
+            object = _objects.putIfAbsent(id, created);
+            if(object == null) {
+                object = created;
+                object.refresh(map);
+            }
+        }
+        return object;
+    }
+
+    private long sum(int counter) {
+        long sum = 0;
+        for(AtomicLongArray counters : _threadCounters) {
+            sum += counters.get(counter);
+        }
+        return sum;
+    }
+
+    private List<OperationStats> sortedOperations() {
+        List<OperationStats> operations = new ArrayList<>(_operations.values());
+        operations.sort(Comparator.comparing(OperationStats::getId));
+        return operations;
+    }
+
+    private static void appendObject(StringBuilder json, String id, ObjectStats.Totals totals, int entries, long liveBytes, long elapsedNanos) {
+        json.append("{\"id\":");
+        appendString(json, id);
+        json.append(",\"entries\":").append(entries)
+                .append(",\"liveBytes\":").append(liveBytes);
+        if(totals != null) {
+            json.append(",\"calls\":").append(totals.calls)
+                    .append(",\"exclusiveCalls\":").append(totals.exclusiveCalls)
+                    .append(",\"lockHoldMicros\":").append(micros(totals.lockHoldNanos))
+                    .append(",\"lockUtilization\":").append(String.format(Locale.ROOT, "%.4f", utilization(totals.lockHoldNanos, elapsedNanos)))
+                    .append(",\"estimatedLockWaitMicros\":").append(micros(estimateLockWait(totals, elapsedNanos)));
+        }
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if(c < 0x20) {
+                json.append(String.format("\\u%04x", (int)c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / 100) / 10.0;
+    }
+
+    /**
+     * Latency and payload metrics of one operation.
+     */
+    public static final class OperationStats {
+        private final ProcessorStats _owner;
+        private final int _index;
+        private final String _id;
+        private final boolean _exclusive;
+        private final LatencyHistogram _latency = new LatencyHistogram();
+
+        OperationStats(ProcessorStats owner, int index, String id, boolean exclusive) {
+            _owner = owner;
+            _index = index;
+            _id = id;
+            _exclusive = exclusive;
+        }
+
+        /**
+         * @return the operation ID
+         */
+        public String getId() {
+            return _id;
+        }
+
+        /**
+         * @return true if the operation runs under the object's exclusive lock
+         */
+        public boolean isExclusive() {
+            return _exclusive;
+        }
+
+        /**
+         * @return the number of recorded calls
+         */
+        public long getCalls() {
+            return _owner.sum(_index * 3);
+        }
+
+        /**
+         * @return the sampled handler latencies in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return _latency;
+        }
+
+        /**
+         * @return the total size of the request payloads
+         */
+        public long getRequestBytes() {
+            return _owner.sum(_index * 3 + 1);
+        }
+
+        /**
+         * @return the total size of the responses
+         */
+        public long getResponseBytes() {
+            return _owner.sum(_index * 3 + 2);
+        }
+
+        Totals totals() {
+            return new Totals(getCalls(), _latency.snapshot(), getRequestBytes(), getResponseBytes());
+        }
+
+        static final class Totals {
+            final long calls;
+            final LatencyHistogram.Snapshot latency;
+            final long requestBytes;
+            final long responseBytes;
+
+            Totals(long calls, LatencyHistogram.Snapshot latency, long requestBytes, long responseBytes) {
+                this.calls = calls;
+                this.latency = latency;
+                this.requestBytes = requestBytes;
+                this.responseBytes = responseBytes;
+            }
+
+            Totals since(Totals earlier) {
+                return new Totals(calls - earlier.calls, latency.since(earlier.latency), requestBytes - earlier.requestBytes, responseBytes - earlier.responseBytes);
+            }
+        }
+    }
+
+    /**
+     * Call, size and lock metrics of one object.
+     */
+    public static final class ObjectStats {
+        private final String _id;
+        private final long _firstSeen = System.nanoTime();
+        private final LongAdder _calls = new LongAdder();
+        private final LongAdder _exclusiveCalls = new LongAdder();
+        private final LongAdder _lockHoldNanos = new LongAdder();
+        private volatile int _entries;
+        private volatile long _liveBytes;
+
+        ObjectStats(String id) {
+            _id = id;
+        }
+
+        void record(long nanos, int sampleInterval, boolean exclusive) {
+            _calls.add(sampleInterval);
+            if(exclusive) {
+                _exclusiveCalls.add(sampleInterval);
+                _lockHoldNanos.add(nanos * sampleInterval);
+            }
+        }
+
+        void refresh(SossHashMap map) {
+            _entries = map.size();
+            _liveBytes = map.liveBytes();
+        }
+
+        /**
+         * @return the object ID
+         */
+        public String getId() {
+            return _id;
+        }
+
+        /**
+         * @return the estimated number of calls
+         */
+        public long getCalls() {
+            return _calls.sum();
+        }
+
+        /**
+         * @return the estimated number of calls that held the exclusive lock
+         */
+        public long getExclusiveCalls() {
+            return _exclusiveCalls.sum();
+        }
+
+        /**
+         * @return the total time handlers held the exclusive lock, in nanoseconds, estimated from the timed calls
+         */
+        public long getLockHoldNanos() {
+            return _lockHoldNanos.sum();
+        }
+
+        /**
+         * @return the number of entries after the last timed write
+         */
+        public int getEntries() {
+            return _entries;
+        }
+
+        /**
+         * @return the bytes held by keys and values after the last timed write
+         */
+        public long getLiveBytes() {
+            return _liveBytes;
+        }
+
+        /**
+         * @return the estimated mean time a call waited for the exclusive lock since the object was first
+         * called, in nanoseconds
+         */
+        public double getEstimatedLockWaitNanos() {
+            return estimateLockWait(totals(), System.nanoTime() - _firstSeen);
+        }
+
+        Totals totals() {
+            return new Totals(_id, getCalls(), getExclusiveCalls(), getLockHoldNanos());
+        }
+
+        static final class Totals {
+            final String id;
+            final long calls;
+            final long exclusiveCalls;
+            final long lockHoldNanos;
+
+            Totals(String id, long calls, long exclusiveCalls, long lockHoldNanos) {
+                this.id = id;
+                this.calls = calls;
+                this.exclusiveCalls = exclusiveCalls;
+                this.lockHoldNanos = lockHoldNanos;
+            }
+
+            Totals since(Totals earlier) {
+                return new Totals(id, calls - earlier.calls, exclusiveCalls - earlier.exclusiveCalls, lockHoldNanos - earlier.lockHoldNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+/**
+ * Routes keys to the segments of a segmented map with linear hashing. A map with n segments has split
+ * segment s, s + 1, ... in order, so only the segment count has to be shared: with L = floor(log2 n),
+ * a key goes to segment (hash mod 2^(L+1)) if that segment exists, otherwise to (hash mod 2^L).
+ * Growing the map from n to n + 1 segments splits segment n - 2^L into itself and segment n.
+ * <p>
+ * Every segment also knows its own index and depth, the number of hash bits it is addressed by, and
+ * owns the keys whose low depth bits equal its index. The bits are taken from the top of the key hash,
+ * so they do not correlate with the slots the keys use in a segment's ByteHashTable.
+ */
+public final class SegmentRouter {
+    private SegmentRouter() {
+    }
+
+    /**
+     * Returns the routing hash of UTF-8 key bytes.
+     */
+    public static int segmentHash(byte[] key, int offset, int length) {
+        return Integer.reverse(ByteHashTable.hash(key, offset, length));
+    }
+
+    /**
+     * Returns the index of the segment that owns a routing hash at a depth.
+     */
+    public static int indexAtDepth(int segmentHash, int depth) {
+        return depth == 0 ? 0 : segmentHash & ((1 << depth) - 1);
+    }
+
+    /**
+     * Returns the index of the segment that owns a routing hash in a map with segmentCount segments.
+     */
+    public static int indexFor(int segmentHash, int segmentCount) {
+        int level = level(segmentCount);
+        int index = indexAtDepth(segmentHash, level + 1);
+        return index < segmentCount ? index : indexAtDepth(segmentHash, level);
+    }
+
+    /**
+     * Returns the segment that is split when a map grows from segmentCount to segmentCount + 1 segments.
+     * Its new depth is level(segmentCount) + 1, and its keys that move go to segment segmentCount.
+     */
+    public static int nextSplit(int segmentCount) {
+        return segmentCount - (1 << level(segmentCount));
+    }
+
+    /**
+     * Returns floor(log2(segmentCount)), the depth of the segments that have not been split in this round.
+     */
+    public static int level(int segmentCount) {
+        return 31 - Integer.numberOfLeadingZeros(segmentCount);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The keys of a ByteHashTable in unsigned byte order, which for UTF-8 keys is code point order. The table
+ * adds and removes keys under its lock; readers iterate without locking and see a weakly consistent view.
+ * Values are not duplicated: a scan looks each key up in the table.
+ */
+final class SortedKeyIndex {
+    /** Orders byte arrays lexicographically as unsigned bytes; a prefix sorts before its extensions. */
+    static final Comparator<byte[]> ORDER = (a, b) -> compare(a, 0, a.length, b, 0, b.length);
+
+    private final ConcurrentSkipListSet<byte[]> keys = new ConcurrentSkipListSet<>(ORDER);
+
+    void add(byte[] key, int offset, int length) {
+        keys.add(Arrays.copyOfRange(key, offset, offset + length));
+    }
+
+    void remove(byte[] key, int offset, int length) {
+        keys.remove(Arrays.copyOfRange(key, offset, offset + length));
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the keys at or after a key in order. The arrays must not be modified.
+     */
+    Iterator<byte[]> from(byte[] key, boolean inclusive) {
+        return keys.tailSet(key, inclusive).iterator();
+    }
+
+    static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        int n = Math.min(aLength, bLength);
+        for(int i = 0; i < n; i++) {
+            int cmp = (a[aOffset + i] & 0xff) - (b[bOffset + i] & 0xff);
+            if(cmp != 0)
+                return cmp;
+        }
+        return aLength - bLength;
+    }
+}
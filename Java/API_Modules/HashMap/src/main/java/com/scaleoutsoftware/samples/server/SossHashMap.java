@@ -25,27 +25,470 @@
  */
 package com.scaleoutsoftware.samples.server;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
 // SOSS object definition for an ApiModule
 public class SossHashMap {
     // ...
     // Add class members.
     // ...
-    private HashMap<String,String> exampleHashMap;
+    // keys and values are kept as UTF-8 bytes in a compact open-addressing table
+    private ByteHashTable table;
     // For JSON serialized objects, an Id field is required to enable 
     // queries from the ActiveCaching UI. 
     private String Id;
+    // bumped after every change; starts at a random value so a recreated object does not repeat old stamps
+    private volatile long version;
+    // hashes of the keys changed by the most recent versions, indexed by version
+    private static final int CHANGE_LOG_SIZE = 1024;
+    private final int[] changeLog = new int[CHANGE_LOG_SIZE];
+    // the log only covers versions after the object was created or loaded
+    private final long changeLogStart;
+    // entries with a TTL are swept a few slots at a time by write operations
+    private static final int SWEEP_SLOTS = 32;
+    private static final int SWEEP_ROUNDS = 4;
+    private long expiredCount;
+    private EvictionPolicy evictionPolicy = EvictionPolicy.UNBOUNDED;
+    private FrequencySketch sketch;
+    private long evictedCount;
+    // the keys in order when sorted mode is on; scans read it without locking
+    private volatile SortedKeyIndex sortedIndex;
+    // the position of the object in a segmented map (see SegmentRouter); the index is -1 for a whole map
+    private volatile int segmentIndex = -1;
+    private volatile int segmentDepth;
+    // the last key filter built for "filter" calls; not persisted
+    private volatile KeyFilter keyFilter;
+    private static final int MIN_FILTER_CAPACITY = 1024;
 
     public SossHashMap(String id) {
-        exampleHashMap = new HashMap<String,String>();
+        this(id, new ByteHashTable(), ThreadLocalRandom.current().nextLong() >>> 1);
+    }
+
+    SossHashMap(String id, ByteHashTable entries, long version) {
+        table = entries;
         Id = id;
+        this.version = version;
+        changeLogStart = version;
+    }
+
+    public String getId() {
+        return Id;
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns the version stamp of the map. The stamp changes after every put or remove, so a client that
+     * read a value at one stamp knows the value is still current while the stamp is unchanged.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the hashes of the keys changed after fromVersion up to toVersion, in version order, so a client
+     * holding values read at fromVersion only has to drop the keys that changed. The hashes are computed
+     * with ByteHashTable.hash over the UTF-8 key bytes.
+     * @param fromVersion the version the client last saw
+     * @param toVersion a version returned by getVersion()
+     * @return the key hashes, or null if the changes are no longer (or were never) recorded
+     */
+    public int[] changesBetween(long fromVersion, long toVersion) {
+        if(fromVersion < changeLogStart || fromVersion > toVersion || toVersion - fromVersion >= CHANGE_LOG_SIZE)
+            return null;
+        int[] hashes = new int[(int)(toVersion - fromVersion)];
+        for(int i = 0; i < hashes.length; i++) {
+            hashes[i] = changeLog[(int)(fromVersion + 1 + i) & (CHANGE_LOG_SIZE - 1)];
+        }
+        // a concurrent writer may have reused the slots while they were copied. A writer logs its change
+        // before it publishes the version, so once the version is a full log ahead, the slot after
+        // fromVersion may already hold the next change
+        if(version - fromVersion >= CHANGE_LOG_SIZE)
+            return null;
+        return hashes;
     }
 
     public String get(String key) {
-        return exampleHashMap.get(key);
+        byte[] keyBytes = utf8(key);
+        return valueString(table.snapshot(), keyBytes);
     }
 
     public void put(String key, String value) {
-        exampleHashMap.put(key, value);
+        byte[] keyBytes = utf8(key);
+        byte[] valBytes = utf8(value);
+        put(keyBytes, 0, keyBytes.length, valBytes, 0, valBytes.length);
+    }
+
+    public String remove(String key) {
+        byte[] keyBytes = utf8(key);
+        String value = valueString(table.snapshot(), keyBytes);
+        if(value == null)
+            return null;
+        remove(keyBytes, 0, keyBytes.length);
+        return value;
+    }
+
+    /**
+     * Returns a copy of the value bytes, as stored, for the UTF-8 key bytes in key[offset, offset+length), or null.
+     * A compressed value is returned compressed.
+     */
+    public byte[] get(byte[] key, int offset, int length) {
+        return table.get(key, offset, length);
+    }
+
+    /**
+     * Returns the current snapshot of the entries. Reads through a snapshot never block and see a
+     * consistent set of entries while puts continue.
+     */
+    public ByteHashTable.Snapshot snapshot() {
+        return table.snapshot();
+    }
+
+    /**
+     * Copies the UTF-8 key and value bytes into the map. Returns false if the admission filter rejected a new key.
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength) {
+        return put(key, keyOffset, keyLength, value, valueOffset, valueLength, ByteHashTable.NO_EXPIRY);
+    }
+
+    /**
+     * Copies the UTF-8 key and value bytes into the map with an expiry in epoch milliseconds
+     * (ByteHashTable.NO_EXPIRY for none). Returns false if the admission filter rejected a new key.
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength, long expiresAt) {
+        return put(key, keyOffset, keyLength, value, valueOffset, valueLength, expiresAt, false);
+    }
+
+    /**
+     * Copies the key and value bytes into the map with an expiry in epoch milliseconds. A compressed value
+     * (written by Lz4.compressValue) is stored as it is and returned compressed by reads.
+     * Returns false if the admission filter rejected a new key.
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength, long expiresAt, boolean compressed) {
+        int hash = ByteHashTable.hash(key, keyOffset, keyLength);
+        if(sketch != null) {
+            sketch.increment(hash);
+            if(!admit(hash, key, keyOffset, keyLength, valueLength))
+                return false;
+        }
+        table.put(key, keyOffset, keyLength, value, valueOffset, valueLength, expiresAt, compressed);
+        changed(hash);
+        if(evictionPolicy.isBounded()) {
+            enforceLimits();
+        }
+        return true;
+    }
+
+    /**
+     * TinyLFU admission: if adding a new key would exceed a limit, the key is only admitted if it was
+     * accessed more often than the entry the clock hand picks, which is then evicted in its place.
+     */
+    private boolean admit(int hash, byte[] key, int keyOffset, int keyLength, int valueLength) {
+        if(table.containsKey(key, keyOffset, keyLength))
+            return true;
+        if(!evictionPolicy.isExceeded(table.size() + 1, (long)table.liveBytes() + keyLength + valueLength + 2))
+            return true;
+        int victim = table.clockVictim();
+        if(victim < 0 || table.isExpiredSlot(victim, System.currentTimeMillis()))
+            return true;
+        if(sketch.frequency(hash) <= sketch.frequency(table.slotHash(victim))) {
+            evictedCount++;
+            return false;
+        }
+        evict(victim);
+        return true;
+    }
+
+    /**
+     * Evicts entries with the CLOCK policy until the map is within its limits.
+     */
+    private int enforceLimits() {
+        int evicted = 0;
+        while(evictionPolicy.isExceeded(table.size(), table.liveBytes())) {
+            int victim = table.clockVictim();
+            if(victim < 0)
+                break;
+            evict(victim);
+            evicted++;
+        }
+        return evicted;
+    }
+
+    private void evict(int slot) {
+        if(table.isExpiredSlot(slot, System.currentTimeMillis())) {
+            expiredCount++;
+        } else {
+            evictedCount++;
+        }
+        changed(table.evictSlot(slot));
+    }
+
+    /**
+     * Applies size limits to the map and evicts entries until it is within them.
+     * Returns the number of entries evicted.
+     */
+    public int configure(EvictionPolicy policy) {
+        evictionPolicy = policy;
+        sketch = policy.isAdmissionFilter() && policy.isBounded() ? new FrequencySketch(Math.max(policy.getMaxEntries(), table.size())) : null;
+        table.setFrequencySketch(sketch);
+        return enforceLimits();
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the size limits, including new keys that the
+     * admission filter rejected.
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    void setEvictedCount(long evictedCount) {
+        this.evictedCount = evictedCount;
+    }
+
+    /**
+     * Turns sorted mode on or off. A sorted map keeps an ordered index of its keys, which costs a copy of
+     * each key and a skip list node per entry, so that keys can be scanned in order.
+     */
+    public void setSorted(boolean sorted) {
+        if(sorted == (sortedIndex != null))
+            return;
+        SortedKeyIndex index = sorted ? new SortedKeyIndex() : null;
+        table.setSortedIndex(index);
+        sortedIndex = index;
+    }
+
+    public boolean isSorted() {
+        return sortedIndex != null;
+    }
+
+    /**
+     * Returns the UTF-8 keys at or after a key in unsigned byte order. The iterator does not block puts;
+     * it may or may not see keys changed while it is used, and keys it returns may since have been removed.
+     * The arrays must not be modified.
+     * @throws IllegalStateException if sorted mode is off
+     */
+    public Iterator<byte[]> keysFrom(byte[] key, boolean inclusive) {
+        SortedKeyIndex index = sortedIndex;
+        if(index == null)
+            throw new IllegalStateException("Sorted mode is off for SossHashMap " + Id + ".");
+        return index.from(key, inclusive);
+    }
+
+    /**
+     * Returns true if the object is a segment of a segmented map.
+     */
+    public boolean isSegment() {
+        return segmentIndex >= 0;
+    }
+
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Returns the number of routing hash bits that address the segment.
+     */
+    public int getSegmentDepth() {
+        return segmentDepth;
+    }
+
+    /**
+     * Makes the object a segment of a segmented map, or a whole map again with an index of -1.
+     */
+    public void setSegment(int index, int depth) {
+        segmentDepth = depth;
+        segmentIndex = index;
+    }
+
+    /**
+     * Returns true if the object is a segment that owns the UTF-8 key bytes.
+     */
+    public boolean ownsKey(byte[] key, int offset, int length) {
+        int index = segmentIndex;
+        return index >= 0 && SegmentRouter.indexAtDepth(SegmentRouter.segmentHash(key, offset, length), segmentDepth) == index;
+    }
+
+    /**
+     * Returns a map with copies of the live entries that the segment no longer owns after its depth was
+     * raised, with their expiries and compression. The segment keeps them until removeForeignEntries() is called.
+     */
+    public SossHashMap foreignEntries() {
+        SossHashMap foreign = new SossHashMap(Id);
+        table.forEach((arena, keyOffset, keyLength, valueOffset, valueLength, expiresAt, compressed) -> {
+            if(!ownsKey(arena, keyOffset, keyLength)) {
+                foreign.table.put(arena, keyOffset, keyLength, arena, valueOffset, valueLength, expiresAt, compressed);
+            }
+        });
+        return foreign;
+    }
+
+    /**
+     * Removes the entries that the segment does not own. Returns the number of entries removed.
+     */
+    public int removeForeignEntries() {
+        SossHashMap foreign = foreignEntries();
+        int[] removed = new int[1];
+        foreign.forEach((arena, keyOffset, keyLength, valueOffset, valueLength, expiresAt, compressed) -> {
+            if(remove(arena, keyOffset, keyLength)) {
+                removed[0]++;
+            }
+        });
+        return removed[0];
+    }
+
+    /**
+     * Returns true if the key is known not to have changed after sinceVersion. Returns false if it changed,
+     * if another key with the same hash changed, or if the changes are no longer recorded.
+     */
+    public boolean unchangedSince(byte[] key, int offset, int length, long sinceVersion) {
+        int[] changes = changesBetween(sinceVersion, version);
+        if(changes == null)
+            return false;
+        int hash = ByteHashTable.hash(key, offset, length);
+        for(int changed : changes) {
+            if(changed == hash)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes expired entries from the next few slots of the table. Write operations call this so expired
+     * entries are dropped incrementally: each call examines 32 slots and continues for up to 4 rounds
+     * while at least a quarter of the examined slots held expired entries.
+     * Returns the number of entries removed.
+     */
+    public int expireSome() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for(int round = 0; round < SWEEP_ROUNDS; round++) {
+            int expired = table.expire(now, SWEEP_SLOTS, this::changed);
+            removed += expired;
+            if(expired * 4 < SWEEP_SLOTS)
+                break;
+        }
+        expiredCount += removed;
+        return removed;
+    }
+
+    /**
+     * Returns the number of entries removed because their TTL had passed.
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    void setExpiredCount(long expiredCount) {
+        this.expiredCount = expiredCount;
+    }
+
+    /**
+     * Removes the UTF-8 key bytes. Returns true if the key was present.
+     */
+    public boolean remove(byte[] key, int offset, int length) {
+        if(!table.remove(key, offset, length))
+            return false;
+        changed(ByteHashTable.hash(key, offset, length));
+        return true;
+    }
+
+    /**
+     * Logs a changed key and bumps the version. The version is bumped after the change, so a reader that
+     * sees the new version also sees the new value and the logged key.
+     */
+    private void changed(int keyHash) {
+        long next = version + 1;
+        changeLog[(int)next & (CHANGE_LOG_SIZE - 1)] = keyHash;
+        version = next;
+    }
+
+    /**
+     * Returns a Bloom filter that holds every key present at upToVersion. The filter is built from the key
+     * hashes stored in the table with room for a quarter more keys, and kept for later calls, which copy it
+     * and add the keys changed since from the change log. It is built again once the change log no longer
+     * covers it or it is full, which also drops the keys removed since. Safe to call without the object lock.
+     * @param falsePositiveRate the false-positive rate of the filter
+     * @param upToVersion a version returned by getVersion() before the call
+     * @return the filter, which must not be changed
+     */
+    public BloomFilter keyFilter(double falsePositiveRate, long upToVersion) {
+        KeyFilter cached = keyFilter;
+        if(cached != null && cached.falsePositiveRate == falsePositiveRate) {
+            if(cached.version == upToVersion)
+                return cached.filter;
+            int[] changes = changesBetween(cached.version, upToVersion);
+            if(changes != null && cached.filter.getInserted() + changes.length <= cached.filter.getCapacity()) {
+                BloomFilter filter = cached.filter.copy();
+                for(int hash : changes) {
+                    filter.add(hash);
+                }
+                keyFilter = new KeyFilter(filter, upToVersion, falsePositiveRate);
+                return filter;
+            }
+        }
+        // the snapshot is read after upToVersion, so it holds every key written up to it
+        ByteHashTable.Snapshot snapshot = table.snapshot();
+        int size = table.size();
+        BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, size + size / 4), falsePositiveRate);
+        for(int slot = 0; slot < snapshot.capacity(); slot++) {
+            // read the offset first: its volatile load makes the hash visible
+            if(snapshot.offsets.get(slot) >= 0) {
+                filter.add(snapshot.hashes[slot]);
+            }
+        }
+        keyFilter = new KeyFilter(filter, upToVersion, falsePositiveRate);
+        return filter;
+    }
+
+    /**
+     * A key filter and the version it is complete up to.
+     */
+    private static final class KeyFilter {
+        final BloomFilter filter;
+        final long version;
+        final double falsePositiveRate;
+
+        KeyFilter(BloomFilter filter, long version, double falsePositiveRate) {
+            this.filter = filter;
+            this.version = version;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+
+    /**
+     * Visits every entry's UTF-8 key and value bytes.
+     */
+    public void forEach(ByteHashTable.EntryVisitor visitor) {
+        table.forEach(visitor);
+    }
+
+    /**
+     * Returns the number of arena bytes held by live keys and values.
+     */
+    public int liveBytes() {
+        return table.liveBytes();
+    }
+
+    private static String valueString(ByteHashTable.Snapshot snapshot, byte[] key) {
+        int entry = snapshot.findEntry(key, 0, key.length);
+        if(entry < 0)
+            return null;
+        byte[] value = new byte[snapshot.valueLength(entry)];
+        snapshot.copyValue(entry, value, 0);
+        if(snapshot.isCompressed(entry))
+            value = Lz4.decompressValue(value, 0, value.length);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
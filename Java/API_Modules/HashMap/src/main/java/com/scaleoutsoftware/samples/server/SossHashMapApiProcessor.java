@@ -35,72 +35,1137 @@ import com.scaleoutsoftware.modules.abstractions.AlertSeverity;
 import com.scaleoutsoftware.modules.abstractions.SossApiMethod;
 import com.scaleoutsoftware.modules.abstractions.InvokeResult;
 import com.scaleoutsoftware.modules.abstractions.ObjNotFoundBehavior;
+import com.scaleoutsoftware.samples.codegen.ApiOperation;
+import com.scaleoutsoftware.samples.codegen.MessageCodecs;
 
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
 public class SossHashMapApiProcessor extends ApiProcessor<SossHashMap> {
+    // a scan page stops at whichever limit it reaches first
+    private static final int MAX_SCAN_PAGE_SIZE = 10000;
+    private static final int MAX_SCAN_PAGE_BYTES = 1 << 20;
+    private static final int MAX_EXPORT_PAGE_BYTES = 16 << 20;
+    // an odd stride visits every slot of a power-of-two table once, in an order unrelated to the hashes
+    private static final int EXPORT_SLOT_STRIDE = 0x9e3779b1;
+    // size limits applied to new objects
+    private final EvictionPolicy _defaultPolicy;
+    private final boolean _defaultSorted;
+    private final ProcessorStats _stats = new ProcessorStats();
+
+    public SossHashMapApiProcessor() {
+        this(EvictionPolicy.UNBOUNDED);
+    }
+
+    /**
+     * Creates a processor that applies size limits to every new object. Objects can change their limits
+     * with the "configure" operation.
+     * @param defaultPolicy the limits for new objects
+     */
+    public SossHashMapApiProcessor(EvictionPolicy defaultPolicy) {
+        this(defaultPolicy, false);
+    }
+
+    /**
+     * Creates a processor that applies size limits and sorted mode to every new object. Objects can change
+     * them with the "configure" and "sorted" operations.
+     * @param defaultPolicy the limits for new objects
+     * @param defaultSorted true to create objects in sorted mode
+     */
+    public SossHashMapApiProcessor(EvictionPolicy defaultPolicy, boolean defaultSorted) {
+        _defaultPolicy = defaultPolicy;
+        _defaultSorted = defaultSorted;
+        // every handler except "stats" is measured, with the locking mode it declares
+        for(Method method : SossHashMapApiProcessor.class.getMethods()) {
+            SossApiMethod api = method.getAnnotation(SossApiMethod.class);
+            if(api != null && !api.operationId().equals("stats")) {
+                _stats.addOperation(api.operationId(), api.lockingMode() == ApiProcessorLockingMode.ExclusiveLock);
+            }
+        }
+    }
+
+    /**
+     * @return the latency, payload and object metrics of this processor
+     */
+    public ProcessorStats getStats() {
+        return _stats;
+    }
 
     /**
-     * Example "get" operation. Invoke through ApiModuleClient.invoke("objectId", "get", byte[] payloadKey).
+     * "get" operation. Invoke through ApiModuleClient.invoke("objectId", "get", byte[] request).
      * See example in: ExampleClient.get(String key)
-     * @return A UTF-8 String key or a UTF-8 String with contents "Not Found".
+     * The request body is: varint keyLen, UTF-8 string[keyLen]. With FLAG_VERSION the response carries the
+     * version stamp of the object, read before the value, so the value is at least as new as the stamp.
+     * @return STATUS_OK with [FLAG_VERSION: long version], [FLAG_TTL: varint remainingMillis] and the UTF-8
+     * value, or STATUS_NOT_FOUND with [FLAG_VERSION: long version]. FLAG_COMPRESSED is set if the value is
+     * returned as it was stored by a compressed put; the module never decompresses it. With FLAG_SEGMENT,
+     * STATUS_MOVED if the object is not a segment that owns the key.
      */
     @SossApiMethod(operationId = "get", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
     public InvokeResult getHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
-        String key = new String(payload, StandardCharsets.UTF_8);
-        String value = myObject.get(key);
-        if(value != null) {
-            return new InvokeResult() {
-                @Override
-                public byte[] getResult() {
-                    return value.getBytes(StandardCharsets.UTF_8);
-                }
+        long start = _stats.start();
+        return _stats.record("get", myObject, payload, start, get(myObject, payload));
+    }
+
+    private InvokeResult get(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~(WireProtocol.FLAG_VERSION | WireProtocol.FLAG_SEGMENT)) != 0)
+            return rejectRequest(request);
+        boolean withVersion = request.hasFlag(WireProtocol.FLAG_VERSION);
+        long version = withVersion ? myObject.getVersion() : 0;
+        int keyLen;
+        int keyOffset;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(misrouted(request, myObject, payload, keyOffset, keyLen))
+            return movedResult(myObject);
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int entry = snapshot.findEntry(payload, keyOffset, keyLen);
+        int versionLen = withVersion ? 8 : 0;
+        if(entry < 0) {
+            WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_NOT_FOUND, request.flags(), versionLen);
+            if(withVersion) {
+                response.putLong(version);
+            }
+            return invokeResult(response.array(), ProcessingResult.NoUpdate);
+        }
+        long expiresAt = snapshot.expiresAt(entry);
+        long remaining = expiresAt != ByteHashTable.NO_EXPIRY ? Math.max(0, expiresAt - System.currentTimeMillis()) : -1;
+        int valLen = snapshot.valueLength(entry);
+        int flags = request.flags() | (remaining >= 0 ? WireProtocol.FLAG_TTL : 0) | compressedFlag(snapshot, entry);
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, flags,
+                versionLen + (remaining >= 0 ? WireProtocol.varintSize(remaining) : 0) + valLen);
+        if(withVersion) {
+            response.putLong(version);
+        }
+        if(remaining >= 0) {
+            response.putVarint(remaining);
+        }
+        // the stored UTF-8 bytes are copied straight into the response
+        snapshot.copyValue(entry, response.array(), response.position());
+        return invokeResult(response.array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "put" operation. Invoke through ApiModuleClient.invoke("objectId", "put", byte[] request).
+     * With FLAG_TTL the entry stops being visible once the TTL has passed and is removed by the expiry sweep
+     * that runs in every write operation.
+     * See example in: ExampleClient.put(String key, String value)
+     * The request body is: varint keyLen, UTF-8 string[keyLen], [FLAG_TTL: varint ttlMillis], and the UTF-8
+     * value to the end of the frame. A TTL of 0 stores the entry without an expiry. With FLAG_COMPRESSED the
+     * value was compressed with Lz4.compressValue and is stored compressed.
+     * @return STATUS_OK, or STATUS_REJECTED if the admission filter of a bounded map rejected a new key. With
+     * FLAG_SEGMENT, either status is followed by the varint number of entries in the segment, and
+     * STATUS_MOVED is returned if the object is not a segment that owns the key.
+     */
+    @SossApiMethod(operationId = "put", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult putHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("put", myObject, payload, start, put(myObject, payload));
+    }
 
-                @Override
-                public ProcessingResult getProcessingResult() {
-                    return ProcessingResult.NoUpdate;
+    private InvokeResult put(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~(WireProtocol.FLAG_TTL | WireProtocol.FLAG_COMPRESSED | WireProtocol.FLAG_SEGMENT)) != 0)
+            return rejectRequest(request);
+        // the key and value are copied straight from the payload into the map
+        int keyLen;
+        int keyOffset;
+        long ttlMillis;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+            ttlMillis = request.hasFlag(WireProtocol.FLAG_TTL) ? request.readVarlong() : 0;
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(misrouted(request, myObject, payload, keyOffset, keyLen))
+            return movedResult(myObject);
+        myObject.expireSome();
+        long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : ByteHashTable.NO_EXPIRY;
+        int valLen = request.remaining();
+        // a bounded map with admission filtering may reject a new key
+        boolean stored = myObject.put(payload, keyOffset, keyLen, payload, request.slice(valLen), valLen, expiresAt, request.hasFlag(WireProtocol.FLAG_COMPRESSED));
+        return writeResult(request, myObject, stored ? WireProtocol.STATUS_OK : WireProtocol.STATUS_REJECTED, ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * Batched "get" operation. Invoke through ApiModuleClient.invoke("objectId", "mget", byte[] request).
+     * See example in: ExampleClient.mget(Collection&lt;String&gt; keys)
+     * The request body is: varint count, count * (varint keyLen, UTF-8 string[keyLen]).
+     * @return STATUS_OK with varint count, followed by count * (byte status, byte flags, varint valLen,
+     * UTF-8 string[valLen]) in request order. The flags, length and value are omitted when the status is
+     * STATUS_NOT_FOUND. The flags hold FLAG_COMPRESSED for a value stored compressed. With FLAG_SEGMENT,
+     * STATUS_MOVED if the object is not a segment that owns every key. STATUS_BAD_REQUEST if the frame is
+     * truncated or its count is larger than the frame can hold.
+     */
+    @SossApiMethod(operationId = "mget", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult mgetHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("mget", myObject, payload, start, mget(myObject, payload));
+    }
+
+    private InvokeResult mget(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~WireProtocol.FLAG_SEGMENT) != 0)
+            return rejectRequest(request);
+        // the count is not trusted: every key takes at least its length byte, so a larger count cannot be
+        // backed by the frame
+        int count;
+        try {
+            count = request.readVarint();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(count > request.remaining())
+            return rejectRequest(request);
+        // look up every key once in a single snapshot, then copy the values straight into the result;
+        // concurrent puts cannot change the entries found in the snapshot
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int[] entries = new int[count];
+        long bodyLen = WireProtocol.varintSize(count);
+        try {
+            for(int i = 0; i < count; i++) {
+                int keyLen = request.readVarint();
+                int keyOffset = request.slice(keyLen);
+                if(misrouted(request, myObject, payload, keyOffset, keyLen))
+                    return movedResult(myObject);
+                entries[i] = snapshot.findEntry(payload, keyOffset, keyLen);
+                if(entries[i] >= 0) {
+                    int valLen = snapshot.valueLength(entries[i]);
+                    bodyLen += 2 + WireProtocol.varintSize(valLen) + valLen;
+                } else {
+                    bodyLen++;
                 }
-            };
+            }
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        // a key repeated many times could ask for more than one array can hold
+        if(bodyLen > Integer.MAX_VALUE - WireProtocol.RESPONSE_HEADER_LENGTH)
+            return rejectRequest(request);
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, (int)bodyLen);
+        response.putVarint(count);
+        for(int entry : entries) {
+            if(entry >= 0) {
+                int valLen = snapshot.valueLength(entry);
+                response.putByte(WireProtocol.STATUS_OK).putByte(compressedFlag(snapshot, entry)).putVarint(valLen);
+                snapshot.copyValue(entry, response.array(), response.position());
+                response.skip(valLen);
+            } else {
+                response.putByte(WireProtocol.STATUS_NOT_FOUND);
+            }
+        }
+        return invokeResult(response.array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * Batched "put" operation. Invoke through ApiModuleClient.invoke("objectId", "mput", byte[] request).
+     * All pairs are applied under a single lock and committed with a single update.
+     * See example in: ExampleClient.mput(Map&lt;String,String&gt; entries)
+     * The request body is: varint count, count * (varint keyLen, UTF-8 string[keyLen], byte flags, varint valLen,
+     * UTF-8 string[valLen]). FLAG_COMPRESSED in a pair's flags stores its value compressed.
+     * @return STATUS_OK if every pair was stored, or STATUS_REJECTED if the admission filter of a bounded map
+     * rejected a new key. With FLAG_SEGMENT, either status is followed by the varint number of entries in the
+     * segment, and STATUS_MOVED is returned, with no pair applied, if the object is not a segment that owns every key.
+     * STATUS_BAD_REQUEST, with no pair applied, if the frame is truncated or malformed.
+     */
+    @SossApiMethod(operationId = "mput", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult mputHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("mput", myObject, payload, start, mput(myObject, payload));
+    }
+
+    private InvokeResult mput(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~WireProtocol.FLAG_SEGMENT) != 0)
+            return rejectRequest(request);
+        // walk the whole frame, and with FLAG_SEGMENT check every key, before the first pair is applied, so a
+        // malformed request changes nothing
+        WireProtocol.Reader pairs = WireProtocol.readRequest(payload);
+        try {
+            int count = pairs.readVarint();
+            for(int i = 0; i < count; i++) {
+                int keyLen = pairs.readVarint();
+                if(misrouted(pairs, myObject, payload, pairs.slice(keyLen), keyLen))
+                    return movedResult(myObject);
+                pairs.readByte();
+                pairs.slice(pairs.readVarint());
+            }
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        int expired = myObject.expireSome();
+        int count = request.readVarint();
+        boolean stored = true;
+        for(int i = 0; i < count; i++) {
+            int keyLen = request.readVarint();
+            int keyOffset = request.slice(keyLen);
+            boolean compressed = (request.readByte() & WireProtocol.FLAG_COMPRESSED) != 0;
+            int valLen = request.readVarint();
+            stored &= myObject.put(payload, keyOffset, keyLen, payload, request.slice(valLen), valLen, ByteHashTable.NO_EXPIRY, compressed);
+        }
+        return writeResult(request, myObject, stored ? WireProtocol.STATUS_OK : WireProtocol.STATUS_REJECTED, count > 0 || expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "bulkPut" operation. Invoke through ApiModuleClient.invoke("objectId", "bulkPut", byte[] request).
+     * Applies one chunk of a bulk load under a single lock and commits it with a single update. The records
+     * are not counted up front, so a loader can copy them from a file straight into the request.
+     * See example in: BulkLoader.load(Path path, BulkLoader.Format format, long startOffset)
+     * The request body is: records to the end of the frame, each varint keyLen, UTF-8 string[keyLen], byte flags,
+     * [FLAG_TTL: varint ttlMillis], varint valLen, UTF-8 string[valLen], the pair layout of mput with an optional
+     * TTL. FLAG_COMPRESSED in a record's flags stores its value compressed, and FLAG_TTL stores the entry with
+     * the TTL that follows the flags.
+     * @return STATUS_OK if every record was stored, or STATUS_REJECTED if the admission filter of a bounded map
+     * rejected a new key, followed by varint stored, the number of records stored. STATUS_BAD_REQUEST, with no
+     * record applied, if the frame is truncated or malformed.
+     */
+    @SossApiMethod(operationId = "bulkPut", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult bulkPutHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("bulkPut", myObject, payload, start, bulkPut(myObject, payload));
+    }
+
+    private InvokeResult bulkPut(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0 || !recordsWellFormed(payload))
+            return rejectRequest(request);
+        int expired = myObject.expireSome();
+        long now = System.currentTimeMillis();
+        int count = 0;
+        int stored = 0;
+        while(request.remaining() > 0) {
+            int keyLen = request.readVarint();
+            int keyOffset = request.slice(keyLen);
+            byte flags = request.readByte();
+            long ttlMillis = (flags & WireProtocol.FLAG_TTL) != 0 ? request.readVarlong() : 0;
+            long expiresAt = ttlMillis > 0 ? now + ttlMillis : ByteHashTable.NO_EXPIRY;
+            int valLen = request.readVarint();
+            if(myObject.put(payload, keyOffset, keyLen, payload, request.slice(valLen), valLen, expiresAt, (flags & WireProtocol.FLAG_COMPRESSED) != 0)) {
+                stored++;
+            }
+            count++;
+        }
+        byte status = stored == count ? WireProtocol.STATUS_OK : WireProtocol.STATUS_REJECTED;
+        byte[] result = WireProtocol.writeResponse(status, 0, WireProtocol.varintSize(stored)).putVarint(stored).array();
+        return invokeResult(result, count > 0 || expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * Batched "remove" operation. Invoke through ApiModuleClient.invoke("objectId", "mremove", byte[] request).
+     * See example in: ExampleClient.mremove(Collection&lt;String&gt; keys)
+     * The request body is: varint count, count * (varint keyLen, UTF-8 string[keyLen]).
+     * @return STATUS_OK with varint removed, the number of keys that were present and have been removed, or
+     * STATUS_BAD_REQUEST, with no key removed, if the frame is truncated or malformed.
+     */
+    @SossApiMethod(operationId = "mremove", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult mremoveHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("mremove", myObject, payload, start, mremove(myObject, payload));
+    }
+
+    private InvokeResult mremove(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0 || !keysWellFormed(payload))
+            return rejectRequest(request);
+        int expired = myObject.expireSome();
+        int count = request.readVarint();
+        int removed = 0;
+        for(int i = 0; i < count; i++) {
+            int keyLen = request.readVarint();
+            if(myObject.remove(payload, request.slice(keyLen), keyLen)) {
+                removed++;
+            }
+        }
+        byte[] response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, WireProtocol.varintSize(removed)).putVarint(removed).array();
+        return invokeResult(response, removed > 0 || expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "expired" operation. Invoke through ApiModuleClient.invoke("objectId", "expired", byte[0]).
+     * See example in: ExampleClient.expiredCount(String objectId)
+     * @return long count, the number of entries removed because their TTL had passed.
+     */
+    @ApiOperation(response = Long.class)
+    @SossApiMethod(operationId = "expired", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult expiredHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("expired", myObject, payload, start, expired(myObject, payload));
+    }
+
+    private InvokeResult expired(SossHashMap myObject, byte[] payload) {
+        return invokeResult(MessageCodecs.encodeLong(myObject.getExpiredCount()), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "putIfAbsent" operation. Invoke through ApiModuleClient.invoke("objectId", "putIfAbsent", byte[] request).
+     * See example in: ExampleClient.putIfAbsent(String objectId, String key, String value)
+     * The request body is: varint keyLen, UTF-8 string[keyLen], and the UTF-8 value to the end of the frame.
+     * FLAG_COMPRESSED stores the value compressed.
+     * @return STATUS_OK if the value was stored, STATUS_CONDITION_FAILED with the UTF-8 current value (and
+     * FLAG_COMPRESSED if it is stored compressed) if the key was present, or STATUS_REJECTED if the admission
+     * filter of a bounded map rejected the key.
+     */
+    @SossApiMethod(operationId = "putIfAbsent", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult putIfAbsentHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("putIfAbsent", myObject, payload, start, putIfAbsent(myObject, payload));
+    }
+
+    private InvokeResult putIfAbsent(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~WireProtocol.FLAG_COMPRESSED) != 0)
+            return rejectRequest(request);
+        int keyLen;
+        int keyOffset;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        int expired = myObject.expireSome();
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int entry = snapshot.findEntry(payload, keyOffset, keyLen);
+        if(entry >= 0) {
+            WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_CONDITION_FAILED, compressedFlag(snapshot, entry), snapshot.valueLength(entry));
+            snapshot.copyValue(entry, response.array(), response.position());
+            return invokeResult(response.array(), expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+        }
+        int valLen = request.remaining();
+        boolean stored = myObject.put(payload, keyOffset, keyLen, payload, request.slice(valLen), valLen, ByteHashTable.NO_EXPIRY, request.hasFlag(WireProtocol.FLAG_COMPRESSED));
+        return statusResult(stored ? WireProtocol.STATUS_OK : WireProtocol.STATUS_REJECTED, ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "compareAndSet" operation. Invoke through ApiModuleClient.invoke("objectId", "compareAndSet", byte[] request).
+     * Replaces a value only if it still equals an expected value, or, with FLAG_VERSION, only if the key has not
+     * changed since an object version returned by "get" with FLAG_VERSION.
+     * See example in: ExampleClient.compareAndSet(String objectId, String key, String expected, String value)
+     * The request body is: varint keyLen, UTF-8 string[keyLen], then long version with FLAG_VERSION or
+     * varint expLen, UTF-8 string[expLen] without it, and the UTF-8 value to the end of the frame.
+     * A version is only accepted while the object still records the changes made since it; otherwise the
+     * operation fails and the caller should read again. FLAG_COMPRESSED stores the new value compressed. The
+     * expected value is always sent uncompressed; a stored value that is compressed is decompressed to compare it.
+     * @return STATUS_OK if the value was replaced, STATUS_CONDITION_FAILED if the comparison failed, or
+     * STATUS_REJECTED if the admission filter of a bounded map rejected the key.
+     */
+    @SossApiMethod(operationId = "compareAndSet", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult compareAndSetHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("compareAndSet", myObject, payload, start, compareAndSet(myObject, payload));
+    }
+
+    private InvokeResult compareAndSet(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~(WireProtocol.FLAG_VERSION | WireProtocol.FLAG_COMPRESSED)) != 0)
+            return rejectRequest(request);
+        boolean byVersion = request.hasFlag(WireProtocol.FLAG_VERSION);
+        int keyLen;
+        int keyOffset;
+        long version = 0;
+        int expLen = 0;
+        int expOffset = 0;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+            if(byVersion) {
+                version = request.readLong();
+            } else {
+                expLen = request.readVarint();
+                expOffset = request.slice(expLen);
+            }
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        int expired = myObject.expireSome();
+        boolean matches;
+        if(byVersion) {
+            matches = myObject.unchangedSince(payload, keyOffset, keyLen, version);
         } else {
-            return new InvokeResult() {
-                @Override
-                public byte[] getResult() {
-                    return "Not Found".getBytes(StandardCharsets.UTF_8);
-                }
+            ByteHashTable.Snapshot snapshot = myObject.snapshot();
+            int entry = snapshot.findEntry(payload, keyOffset, keyLen);
+            matches = entry >= 0 && valueEquals(snapshot, entry, payload, expOffset, expLen);
+        }
+        if(!matches)
+            return statusResult(WireProtocol.STATUS_CONDITION_FAILED, expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+        int valLen = request.remaining();
+        boolean stored = myObject.put(payload, keyOffset, keyLen, payload, request.slice(valLen), valLen, ByteHashTable.NO_EXPIRY, request.hasFlag(WireProtocol.FLAG_COMPRESSED));
+        return statusResult(stored ? WireProtocol.STATUS_OK : WireProtocol.STATUS_REJECTED, ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "remove" operation. Invoke through ApiModuleClient.invoke("objectId", "remove", byte[] request).
+     * See example in: ExampleClient.remove(String objectId, String key)
+     * The request body is: varint keyLen, UTF-8 string[keyLen].
+     * @return STATUS_OK with the UTF-8 removed value (and FLAG_COMPRESSED if it was stored compressed), or
+     * STATUS_NOT_FOUND if the key was not present. With FLAG_SEGMENT, STATUS_MOVED if the object is not a
+     * segment that owns the key.
+     */
+    @SossApiMethod(operationId = "remove", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult removeHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("remove", myObject, payload, start, remove(myObject, payload));
+    }
+
+    private InvokeResult remove(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || (request.flags() & ~WireProtocol.FLAG_SEGMENT) != 0)
+            return rejectRequest(request);
+        int keyLen;
+        int keyOffset;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(misrouted(request, myObject, payload, keyOffset, keyLen))
+            return movedResult(myObject);
+        int expired = myObject.expireSome();
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int entry = snapshot.findEntry(payload, keyOffset, keyLen);
+        if(entry < 0)
+            return statusResult(WireProtocol.STATUS_NOT_FOUND, expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+        // the entry stays readable in the snapshot after it is removed
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, compressedFlag(snapshot, entry), snapshot.valueLength(entry));
+        snapshot.copyValue(entry, response.array(), response.position());
+        myObject.remove(payload, keyOffset, keyLen);
+        return invokeResult(response.array(), ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "incrementBy" operation. Invoke through ApiModuleClient.invoke("objectId", "incrementBy", byte[] request).
+     * Adds to a counter stored as an 8-byte big-endian long; a missing key counts from 0. A TTL on the key is kept.
+     * See example in: ExampleClient.incrementBy(String objectId, String key, long delta)
+     * The request body is: varint keyLen, UTF-8 string[keyLen], long delta.
+     * @return STATUS_OK with long value, the counter after the increment, STATUS_INVALID_STATE if the
+     * existing value is not an 8-byte counter, or STATUS_REJECTED if the admission filter of a bounded map
+     * rejected a new counter key.
+     */
+    @SossApiMethod(operationId = "incrementBy", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult incrementByHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("incrementBy", myObject, payload, start, incrementBy(myObject, payload));
+    }
+
+    private InvokeResult incrementBy(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int keyLen;
+        int keyOffset;
+        long delta;
+        try {
+            keyLen = request.readVarint();
+            keyOffset = request.slice(keyLen);
+            delta = request.readLong();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        int expired = myObject.expireSome();
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int entry = snapshot.findEntry(payload, keyOffset, keyLen);
+        long value = 0;
+        long expiresAt = ByteHashTable.NO_EXPIRY;
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, 8);
+        if(entry >= 0) {
+            if(snapshot.valueLength(entry) != 8 || snapshot.isCompressed(entry))
+                return statusResult(WireProtocol.STATUS_INVALID_STATE, expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+            snapshot.copyValue(entry, response.array(), response.position());
+            value = ByteBuffer.wrap(response.array(), response.position(), 8).getLong();
+            expiresAt = snapshot.expiresAt(entry);
+        }
+        byte[] counter = response.putLong(value + delta).array();
+        // a bounded map with admission filtering may reject a new key
+        if(!myObject.put(payload, keyOffset, keyLen, counter, WireProtocol.RESPONSE_HEADER_LENGTH, 8, expiresAt))
+            return statusResult(WireProtocol.STATUS_REJECTED, expired > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+        return invokeResult(counter, ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "sorted" operation. Invoke through ApiModuleClient.invoke("objectId", "sorted", byte[] payload).
+     * Turns sorted mode on or off; "scan" needs sorted mode.
+     * See example in: ExampleClient.setSorted(String objectId, boolean sorted)
+     * The payload is framed as: byte sorted (0x01 on, 0x00 off).
+     * @return A single byte 0x01 if sorted mode was on before the call, otherwise 0x00.
+     */
+    @ApiOperation(request = Boolean.class, response = Boolean.class)
+    @SossApiMethod(operationId = "sorted", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult sortedHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("sorted", myObject, payload, start, sorted(myObject, payload));
+    }
+
+    private InvokeResult sorted(SossHashMap myObject, byte[] payload) {
+        boolean wasSorted = myObject.isSorted();
+        myObject.setSorted(MessageCodecs.decodeBoolean(payload));
+        return invokeResult(MessageCodecs.encodeBoolean(wasSorted), wasSorted != myObject.isSorted() ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "scan" operation. Invoke through ApiModuleClient.invoke("objectId", "scan", byte[] request).
+     * Returns one page of entries in UTF-8 key order from a map in sorted mode. Each page holds at most
+     * pageSize entries (capped at 10,000) and about 1 MB of keys and values; pass the returned token back
+     * to read the next page. Pages are read without locking, so a scan sees each key that stays in the
+     * map for its whole duration exactly once, and may or may not see keys changed while it runs.
+     * See example in: ExampleClient.scan(String objectId, String startKey, String endKey, int pageSize, byte[] token)
+     * The request body is: varint startLen, UTF-8 string[startLen], byte boundType, varint boundLen,
+     * UTF-8 string[boundLen], varint pageSize, varint tokenLen, byte[tokenLen]. boundType 0x00 scans to the
+     * end of the map, 0x01 stops before the end key in the bound, and 0x02 only returns keys that start with
+     * the prefix in the bound. An empty token starts the scan at the start key.
+     * @return STATUS_OK with varint count, count * (varint keyLen, UTF-8 string[keyLen], byte flags, varint valLen,
+     * UTF-8 string[valLen]), varint tokenLen, byte[tokenLen]. The flags hold FLAG_COMPRESSED for a value stored
+     * compressed. The token is empty after the last page.
+     * STATUS_INVALID_STATE if sorted mode is off.
+     */
+    @SossApiMethod(operationId = "scan", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult scanHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("scan", myObject, payload, start, scan(myObject, payload));
+    }
+
+    private InvokeResult scan(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        byte[] start;
+        byte boundType;
+        byte[] bound;
+        int pageSize;
+        byte[] token;
+        try {
+            int startLen = request.readVarint();
+            start = Arrays.copyOfRange(payload, request.slice(startLen), request.position());
+            boundType = request.readByte();
+            int boundLen = request.readVarint();
+            bound = Arrays.copyOfRange(payload, request.slice(boundLen), request.position());
+            pageSize = Math.max(1, Math.min(request.readVarint(), MAX_SCAN_PAGE_SIZE));
+            int tokenLen = request.readVarint();
+            token = Arrays.copyOfRange(payload, request.slice(tokenLen), request.position());
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(!myObject.isSorted())
+            return statusResult(WireProtocol.STATUS_INVALID_STATE, ProcessingResult.NoUpdate);
+
+        Iterator<byte[]> keys;
+        if(token.length > 0) {
+            // the token is the last key of the previous page
+            keys = myObject.keysFrom(token, false);
+        } else if(boundType == 0x02 && SortedKeyIndex.ORDER.compare(start, bound) < 0) {
+            keys = myObject.keysFrom(bound, true);
+        } else {
+            keys = myObject.keysFrom(start, true);
+        }
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        byte[][] pageKeys = new byte[Math.min(pageSize, Math.max(myObject.size(), 1))][];
+        int[] entries = new int[pageKeys.length];
+        int count = 0;
+        int bodyLen = 0;
+        boolean more = false;
+        while(keys.hasNext()) {
+            byte[] key = keys.next();
+            if(!inRange(key, boundType, bound))
+                break;
+            int entry = snapshot.peekEntry(key, 0, key.length);
+            if(entry < 0)
+                continue;
+            if(count == pageSize || count == pageKeys.length || (count > 0 && bodyLen > MAX_SCAN_PAGE_BYTES)) {
+                more = true;
+                break;
+            }
+            pageKeys[count] = key;
+            entries[count] = entry;
+            int valLen = snapshot.valueLength(entry);
+            bodyLen += WireProtocol.varintSize(key.length) + key.length + 1 + WireProtocol.varintSize(valLen) + valLen;
+            count++;
+        }
+        byte[] nextToken = more ? pageKeys[count - 1] : new byte[0];
+        bodyLen += WireProtocol.varintSize(count) + WireProtocol.varintSize(nextToken.length) + nextToken.length;
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, bodyLen);
+        response.putVarint(count);
+        for(int i = 0; i < count; i++) {
+            response.putVarint(pageKeys[i].length).putBytes(pageKeys[i]);
+            int valLen = snapshot.valueLength(entries[i]);
+            response.putByte(compressedFlag(snapshot, entries[i])).putVarint(valLen);
+            snapshot.copyValue(entries[i], response.array(), response.position());
+            response.skip(valLen);
+        }
+        response.putVarint(nextToken.length).putBytes(nextToken);
+        return invokeResult(response.array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "export" operation. Invoke through ApiModuleClient.invoke("objectId", "export", byte[] request).
+     * Returns one page of the entries of the map in a scrambled slot order, in any mode, for a snapshot of the whole map.
+     * A page holds about pageBytes of records (capped at 16 MB, and at least one record); pass the returned
+     * token back to read the next page. Pages are read without locking, so an export sees each key that stays
+     * in the map for its whole duration, and may or may not see keys changed while it runs. If the table is
+     * rehashed between pages the export starts over from the first slot, so a key can be returned twice.
+     * See example in: MapExporter.export(Path path)
+     * The request body is: varint pageBytes, varint tokenLen, byte[tokenLen]. An empty token starts the export.
+     * @return STATUS_OK with varint count, varint recordsLen, count records in recordsLen bytes, varint tokenLen,
+     * byte[tokenLen]. Each record is varint keyLen, UTF-8 string[keyLen], byte flags, [FLAG_TTL: varint ttlMillis],
+     * varint valLen, UTF-8 string[valLen], the record layout of bulkPut, so the records can be loaded again as
+     * they are. The flags hold FLAG_COMPRESSED for a value stored compressed and FLAG_TTL for an entry with a
+     * remaining lifetime. The token is empty after the last page.
+     */
+    @SossApiMethod(operationId = "export", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult exportHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("export", myObject, payload, start, export(myObject, payload));
+    }
+
+    private InvokeResult export(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int pageBytes;
+        int tokenLen;
+        int layout = 0;
+        int next = 0;
+        try {
+            pageBytes = Math.max(1, Math.min(request.readVarint(), MAX_EXPORT_PAGE_BYTES));
+            tokenLen = request.readVarint();
+            if(tokenLen > 0) {
+                layout = (int)request.readVarlong();
+                next = request.readVarint();
+            }
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        ByteHashTable.Snapshot snapshot = myObject.snapshot();
+        int position = 0;
+        // the token is the layout stamp and the next position; a stale layout starts over
+        if(tokenLen > 0 && layout == snapshot.layout() && next <= snapshot.capacity()) {
+            position = next;
+        }
+
+        long now = System.currentTimeMillis();
+        int capacity = snapshot.capacity();
+        int[] entries = new int[64];
+        long[] ttls = new long[64];
+        int count = 0;
+        int recordsLen = 0;
+        // a table filled in slot order would put runs of neighbouring hashes into neighbouring slots of the
+        // smaller table that an import starts with, and linear probing slows down on such clusters
+        for(; position < capacity && (count == 0 || recordsLen < pageBytes); position++) {
+            int entry = snapshot.entryAt((position * EXPORT_SLOT_STRIDE) & (capacity - 1));
+            if(entry < 0)
+                continue;
+            if(count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+                ttls = Arrays.copyOf(ttls, count * 2);
+            }
+            long expiresAt = snapshot.expiresAt(entry);
+            // an entry that expires between the check and now keeps the shortest TTL
+            long ttl = expiresAt != ByteHashTable.NO_EXPIRY ? Math.max(1, expiresAt - now) : 0;
+            int keyLen = snapshot.keyLength(entry);
+            int valLen = snapshot.valueLength(entry);
+            recordsLen += WireProtocol.varintSize(keyLen) + keyLen + 1 + (ttl > 0 ? WireProtocol.varintSize(ttl) : 0)
+                    + WireProtocol.varintSize(valLen) + valLen;
+            entries[count] = entry;
+            ttls[count] = ttl;
+            count++;
+        }
+        int nextLen = position < capacity ? WireProtocol.varintSize(snapshot.layout() & 0xffffffffL) + WireProtocol.varintSize(position) : 0;
+        int bodyLen = WireProtocol.varintSize(count) + WireProtocol.varintSize(recordsLen) + recordsLen
+                + WireProtocol.varintSize(nextLen) + nextLen;
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, bodyLen);
+        response.putVarint(count).putVarint(recordsLen);
+        for(int i = 0; i < count; i++) {
+            int entry = entries[i];
+            int keyLen = snapshot.keyLength(entry);
+            response.putVarint(keyLen);
+            snapshot.copyKey(entry, response.array(), response.position());
+            response.skip(keyLen);
+            response.putByte(compressedFlag(snapshot, entry) | (ttls[i] > 0 ? WireProtocol.FLAG_TTL : 0));
+            if(ttls[i] > 0) {
+                response.putVarint(ttls[i]);
+            }
+            int valLen = snapshot.valueLength(entry);
+            response.putVarint(valLen);
+            snapshot.copyValue(entry, response.array(), response.position());
+            response.skip(valLen);
+        }
+        response.putVarint(nextLen);
+        if(nextLen > 0) {
+            response.putVarint(snapshot.layout() & 0xffffffffL).putVarint(position);
+        }
+        return invokeResult(response.array(), ProcessingResult.NoUpdate);
+    }
+
+    private static boolean inRange(byte[] key, byte boundType, byte[] bound) {
+        if(boundType == 0x01)
+            return SortedKeyIndex.ORDER.compare(key, bound) < 0;
+        if(boundType == 0x02)
+            return key.length >= bound.length && SortedKeyIndex.compare(key, 0, bound.length, bound, 0, bound.length) == 0;
+        return true;
+    }
+
+    /**
+     * "configure" operation. Invoke through ApiModuleClient.invoke("objectId", "configure", byte[] payloadPolicy).
+     * Sets the size limits of the object and evicts entries until it is within them.
+     * See example in: ExampleClient.configure(String objectId, EvictionPolicy policy)
+     * The payload is an EvictionPolicy: int maxEntries, long maxBytes, byte admissionFilter. A limit of 0 means no limit.
+     * @return int evicted, the number of entries evicted to meet the new limits.
+     */
+    @ApiOperation(request = EvictionPolicy.class, response = Integer.class)
+    @SossApiMethod(operationId = "configure", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult configureHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("configure", myObject, payload, start, configure(myObject, payload));
+    }
+
+    private InvokeResult configure(SossHashMap myObject, byte[] payload) {
+        int evicted = myObject.configure(EvictionPolicyCodec.decode(payload));
+        return invokeResult(MessageCodecs.encodeInt(evicted), ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "evicted" operation. Invoke through ApiModuleClient.invoke("objectId", "evicted", byte[0]).
+     * See example in: ExampleClient.evictedCount(String objectId)
+     * @return long count, the number of entries evicted to stay within the size limits, including new keys
+     * rejected by the admission filter.
+     */
+    @ApiOperation(response = Long.class)
+    @SossApiMethod(operationId = "evicted", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult evictedHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("evicted", myObject, payload, start, evicted(myObject, payload));
+    }
+
+    private InvokeResult evicted(SossHashMap myObject, byte[] payload) {
+        return invokeResult(MessageCodecs.encodeLong(myObject.getEvictedCount()), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * Lightweight "version" operation. Invoke through ApiModuleClient.invoke("objectId", "version", byte[] payload).
+     * Near caches call it to check whether values read at an earlier version are still current.
+     * See example in: ExampleClient.version(String objectId)
+     * The payload is empty, or holds the long version the caller last saw.
+     * @return long version, the version stamp of the object. When a last seen version is sent, the version is
+     * followed by byte complete, int count, count * int keyHash: the hashes of the keys changed since the last
+     * seen version. complete is 0x00 (and count 0) if those changes are no longer recorded.
+     */
+    @SossApiMethod(operationId = "version", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult versionHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("version", myObject, payload, start, version(myObject, payload));
+    }
+
+    private InvokeResult version(SossHashMap myObject, byte[] payload) {
+        long version = myObject.getVersion();
+        if(payload.length < 8)
+            return invokeResult(ByteBuffer.allocate(8).putLong(version).array(), ProcessingResult.NoUpdate);
+        int[] changes = myObject.changesBetween(ByteBuffer.wrap(payload).getLong(), version);
+        ByteBuffer result = ByteBuffer.allocate(13 + (changes != null ? changes.length * 4 : 0));
+        result.putLong(version);
+        result.put(changes != null ? (byte)0x01 : (byte)0x00);
+        result.putInt(changes != null ? changes.length : 0);
+        if(changes != null) {
+            for(int hash : changes) {
+                result.putInt(hash);
+            }
+        }
+        return invokeResult(result.array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "filter" operation. Invoke through ApiModuleClient.invoke("objectId", "filter", byte[] request).
+     * Lets a client answer lookups of missing keys without a round trip. A client without a filter gets a
+     * Bloom filter of the keys, and a client that sends the version of the filter it holds gets the hashes of
+     * the keys changed since, to add to its filter. The filter is sent instead when the change log no longer
+     * covers the client's version. Keys are added by their ByteHashTable.hash, see BloomFilter.
+     * See example in: ExampleClient.get(String objectId, String key) with a MissFilter
+     * The request body is: varint falsePositiveRate in millionths, long knownVersion, or -1 for a new filter.
+     * @return STATUS_OK with long version and byte kind. Kind 0x00 is followed by varint count, count * varint
+     * keyHash, the keys changed after knownVersion; kind 0x01 by a BloomFilter, see BloomFilter.write. The
+     * filter or the filter with the changes added holds every key present at the version.
+     */
+    @SossApiMethod(operationId = "filter", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult filterHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("filter", myObject, payload, start, filter(myObject, payload));
+    }
+
+    private InvokeResult filter(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int millionths;
+        long knownVersion;
+        try {
+            millionths = request.readVarint();
+            knownVersion = request.readLong();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(millionths < 1 || millionths >= 1_000_000)
+            return rejectRequest(request);
+        long version = myObject.getVersion();
+        int[] changes = knownVersion >= 0 ? myObject.changesBetween(knownVersion, version) : null;
+        if(changes != null) {
+            int bodyLen = 9 + WireProtocol.varintSize(changes.length);
+            for(int hash : changes) {
+                bodyLen += WireProtocol.varintSize(hash & 0xffffffffL);
+            }
+            WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, bodyLen);
+            response.putLong(version).putByte(0x00).putVarint(changes.length);
+            for(int hash : changes) {
+                response.putVarint(hash & 0xffffffffL);
+            }
+            return invokeResult(response.array(), ProcessingResult.NoUpdate);
+        }
+        BloomFilter filter = myObject.keyFilter(millionths / 1e6, version);
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, 9 + filter.encodedLength());
+        response.putLong(version).putByte(0x01);
+        filter.write(response);
+        return invokeResult(response.array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "stats" operation. Invoke through ApiModuleClient.invoke("objectId", "stats", byte[0]).
+     * Reports the metrics this worker process recorded: latency percentiles and payload bytes per operation,
+     * the objects with the most calls, and the size, lock hold time and estimated lock wait of this object.
+     * Calls of "stats" itself are not recorded.
+     * See example in: ExampleClient.stats(String objectId)
+     * @return the metrics as a UTF-8 JSON document, see ProcessorStats.toJson(SossHashMap).
+     */
+    @SossApiMethod(operationId = "stats", lockingMode = ApiProcessorLockingMode.None, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult statsHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        return invokeResult(_stats.toJson(myObject).getBytes(StandardCharsets.UTF_8), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "splitSegment" operation. Invoke through ApiModuleClient.invoke("objectId", "splitSegment", byte[] request).
+     * First step of growing a segmented map: raises the depth of the segment, after which it answers
+     * STATUS_MOVED for the keys that now belong to its new sibling, and returns copies of those entries.
+     * The segment keeps them until "pruneSegment", so a split that was interrupted can be run again.
+     * See example in: SegmentedMapClient.split(int segmentCount)
+     * The request body is: varint index, varint depth, the segment's index and its depth after the split.
+     * @return STATUS_OK with the entries that moved, encoded with SossHashMapCodec, to the end of the frame. The
+     * body is empty if the segment has already been split further. STATUS_INVALID_STATE if the object is not
+     * the segment with that index, or its depth is below depth - 1.
+     */
+    @SossApiMethod(operationId = "splitSegment", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult splitSegmentHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("splitSegment", myObject, payload, start, splitSegment(myObject, payload));
+    }
+
+    private InvokeResult splitSegment(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int index;
+        int depth;
+        try {
+            index = request.readVarint();
+            depth = request.readVarint();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        int currentDepth = myObject.getSegmentDepth();
+        if(myObject.getSegmentIndex() != index || depth > currentDepth + 1)
+            return statusResult(WireProtocol.STATUS_INVALID_STATE, ProcessingResult.NoUpdate);
+        if(depth < currentDepth)
+            return statusResult(WireProtocol.STATUS_OK, ProcessingResult.NoUpdate);
+        if(depth > currentDepth) {
+            myObject.setSegment(index, depth);
+        }
+        byte[] moved = new SossHashMapCodec().encode(myObject.foreignEntries());
+        WireProtocol.Writer response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, moved.length).putBytes(moved);
+        return invokeResult(response.array(), depth > currentDepth ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * "adoptSegment" operation. Invoke through ApiModuleClient.invoke("objectId", "adoptSegment", byte[] request).
+     * Makes the object a segment and stores the entries moved to it by "splitSegment". An object that is
+     * already a segment keeps its entries, which are newer than the moved ones, so the operation can be repeated.
+     * See example in: SegmentedMapClient.split(int segmentCount)
+     * The request body is: varint index, varint depth, and the entries encoded with SossHashMapCodec to the
+     * end of the frame (none for the first segment of a map).
+     * @return STATUS_OK, or STATUS_INVALID_STATE if the object is already a segment with another index.
+     */
+    @SossApiMethod(operationId = "adoptSegment", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult adoptSegmentHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("adoptSegment", myObject, payload, start, adoptSegment(myObject, payload));
+    }
+
+    private InvokeResult adoptSegment(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int index;
+        int depth;
+        try {
+            index = request.readVarint();
+            depth = request.readVarint();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(myObject.isSegment())
+            return statusResult(myObject.getSegmentIndex() == index ? WireProtocol.STATUS_OK : WireProtocol.STATUS_INVALID_STATE, ProcessingResult.NoUpdate);
+        if(request.remaining() > 0) {
+            SossHashMap moved;
+            try {
+                moved = new SossHashMapCodec().decode(Arrays.copyOfRange(payload, request.position(), payload.length));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                // the entries are decoded in full before any of them is stored
+                return rejectRequest(request);
+            }
+            moved.forEach((arena, keyOffset, keyLength, valueOffset, valueLength, expiresAt, compressed) ->
+                    myObject.put(arena, keyOffset, keyLength, arena, valueOffset, valueLength, expiresAt, compressed));
+        }
+        // the entries are in place before the segment starts answering requests for them
+        myObject.setSegment(index, depth);
+        return statusResult(WireProtocol.STATUS_OK, ProcessingResult.DoUpdate);
+    }
+
+    /**
+     * "pruneSegment" operation. Invoke through ApiModuleClient.invoke("objectId", "pruneSegment", byte[] request).
+     * Last step of a split: removes the entries that "splitSegment" copied to the new sibling.
+     * See example in: SegmentedMapClient.split(int segmentCount)
+     * The request body is: varint index.
+     * @return STATUS_OK with varint removed, the number of entries removed, or STATUS_INVALID_STATE if the
+     * object is not the segment with that index.
+     */
+    @SossApiMethod(operationId = "pruneSegment", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
+    public InvokeResult pruneSegmentHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
+        long start = _stats.start();
+        return _stats.record("pruneSegment", myObject, payload, start, pruneSegment(myObject, payload));
+    }
+
+    private InvokeResult pruneSegment(SossHashMap myObject, byte[] payload) {
+        WireProtocol.Reader request = WireProtocol.readRequest(payload);
+        if(request == null || request.flags() != 0)
+            return rejectRequest(request);
+        int index;
+        try {
+            index = request.readVarint();
+        } catch (IllegalArgumentException e) {
+            return rejectRequest(request);
+        }
+        if(myObject.getSegmentIndex() != index)
+            return statusResult(WireProtocol.STATUS_INVALID_STATE, ProcessingResult.NoUpdate);
+        int removed = myObject.removeForeignEntries();
+        byte[] response = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, WireProtocol.varintSize(removed)).putVarint(removed).array();
+        return invokeResult(response, removed > 0 ? ProcessingResult.DoUpdate : ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * Returns true if a request body of varint count, count * (varint keyLen, UTF-8 string[keyLen]) is complete.
+     */
+    private static boolean keysWellFormed(byte[] payload) {
+        WireProtocol.Reader keys = WireProtocol.readRequest(payload);
+        try {
+            int count = keys.readVarint();
+            for(int i = 0; i < count; i++) {
+                keys.slice(keys.readVarint());
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 
-                @Override
-                public ProcessingResult getProcessingResult() {
-                    return ProcessingResult.NoUpdate;
+    /**
+     * Returns true if every record of a bulkPut request body is complete.
+     */
+    private static boolean recordsWellFormed(byte[] payload) {
+        WireProtocol.Reader records = WireProtocol.readRequest(payload);
+        try {
+            while(records.remaining() > 0) {
+                records.slice(records.readVarint());
+                if((records.readByte() & WireProtocol.FLAG_TTL) != 0) {
+                    records.readVarlong();
                 }
-            };
+                records.slice(records.readVarint());
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
         }
     }
 
+    private static boolean misrouted(WireProtocol.Reader request, SossHashMap myObject, byte[] payload, int keyOffset, int keyLen) {
+        return request.hasFlag(WireProtocol.FLAG_SEGMENT) && !myObject.ownsKey(payload, keyOffset, keyLen);
+    }
+
     /**
-     * Example "put" operation. Invoke through ApiModuleClient.invoke("objectId", "get", byte[] payloadKeyValue).
-     * See example in: ExampleClient.put(String key, String value)
-     * @return A single byte 0x01 if the put operation was successfull, 0x00 if the put operation failed.
+     * Answers a FLAG_SEGMENT request for a key the object does not own with the segment's depth, so the
+     * client can find the owner.
      */
-    @SossApiMethod(operationId = "put", lockingMode = ApiProcessorLockingMode.ExclusiveLock, objNotFoundBehavior = ObjNotFoundBehavior.Create)
-    public InvokeResult putHandler(ApiProcessingContext<SossHashMap> processingContext, SossHashMap myObject, byte[] payload) {
-        ByteBuffer buffer = ByteBuffer.wrap(payload);
-        int keyLen = buffer.getInt();
-        byte[] keyBytes = new byte[keyLen];
-        buffer.get(keyBytes, 0, keyLen);
-        int valLen = buffer.getInt();
-        byte[] valBytes = new byte[valLen];
-        buffer.get(valBytes, 0, valLen);
-        myObject.put(new String(keyBytes, StandardCharsets.UTF_8), new String(valBytes, StandardCharsets.UTF_8));
+    private static InvokeResult movedResult(SossHashMap myObject) {
+        if(!myObject.isSegment())
+            return statusResult(WireProtocol.STATUS_MOVED, ProcessingResult.NoUpdate);
+        int depth = myObject.getSegmentDepth();
+        return invokeResult(WireProtocol.writeResponse(WireProtocol.STATUS_MOVED, 0, WireProtocol.varintSize(depth)).putVarint(depth).array(), ProcessingResult.NoUpdate);
+    }
+
+    /**
+     * Answers a write with its status, followed by the size of the segment for a FLAG_SEGMENT request so
+     * the client knows when to split it.
+     */
+    private static InvokeResult writeResult(WireProtocol.Reader request, SossHashMap myObject, byte status, ProcessingResult processingResult) {
+        if(!request.hasFlag(WireProtocol.FLAG_SEGMENT))
+            return statusResult(status, processingResult);
+        int size = myObject.size();
+        return invokeResult(WireProtocol.writeResponse(status, WireProtocol.FLAG_SEGMENT, WireProtocol.varintSize(size)).putVarint(size).array(), processingResult);
+    }
+
+    private static int compressedFlag(ByteHashTable.Snapshot snapshot, int entry) {
+        return snapshot.isCompressed(entry) ? WireProtocol.FLAG_COMPRESSED : 0;
+    }
+
+    /**
+     * Compares a stored value with an uncompressed byte range, decompressing the stored value if needed.
+     */
+    private static boolean valueEquals(ByteHashTable.Snapshot snapshot, int entry, byte[] value, int offset, int length) {
+        if(!snapshot.isCompressed(entry))
+            return snapshot.valueEquals(entry, value, offset, length);
+        byte[] stored = new byte[snapshot.valueLength(entry)];
+        snapshot.copyValue(entry, stored, 0);
+        if(Lz4.decompressedLength(stored, 0, stored.length) != length)
+            return false;
+        return Arrays.equals(Lz4.decompressValue(stored, 0, stored.length), Arrays.copyOfRange(value, offset, offset + length));
+    }
+
+    /**
+     * Wraps a result payload and processing result in an InvokeResult.
+     */
+    private static InvokeResult statusResult(byte status, ProcessingResult processingResult) {
+        return invokeResult(WireProtocol.status(status), processingResult);
+    }
+
+    /**
+     * Answers a request with an unknown protocol version, or with flags the operation does not support.
+     */
+    private static InvokeResult rejectRequest(WireProtocol.Reader request) {
+        return statusResult(request == null ? WireProtocol.STATUS_UNSUPPORTED_VERSION : WireProtocol.STATUS_BAD_REQUEST, ProcessingResult.NoUpdate);
+    }
+
+    private static InvokeResult invokeResult(byte[] result, ProcessingResult processingResult) {
         return new InvokeResult() {
             @Override
             public byte[] getResult() {
-                return new byte[]{0x01};
+                return result;
             }
 
             @Override
             public ProcessingResult getProcessingResult() {
-                return ProcessingResult.DoUpdate;
+                return processingResult;
             }
         };
     }
@@ -110,7 +1175,12 @@ public class SossHashMapApiProcessor extends ApiProcessor<SossHashMap> {
     */
     @Override
     public SossHashMap createObject(String moduleName, String id) {
-        return new SossHashMap(id);
+        SossHashMap map = new SossHashMap(id);
+        if(_defaultPolicy.isBounded()) {
+            map.configure(_defaultPolicy);
+        }
+        map.setSorted(_defaultSorted);
+        return map;
     }
     
     /**
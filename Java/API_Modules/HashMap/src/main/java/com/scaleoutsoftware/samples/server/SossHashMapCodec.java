@@ -0,0 +1,548 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a SossHashMap. The layout is:
+ * <pre>
+ * byte 'S', byte 'H', byte version, byte flags (FLAG_SORTED marks a map in sorted mode)
+ * varint idLen, UTF-8 string[idLen]
+ * if (flags &amp; FLAG_OBJECT_VERSION): long version stamp
+ * if (flags &amp; FLAG_COUNTERS): varint counterCount, counterCount * long (expired entries, evicted entries)
+ * if (flags &amp; FLAG_EVICTION_POLICY): varint maxEntries, long maxBytes, byte admissionFilter
+ * if (flags &amp; FLAG_SEGMENT): varint segmentIndex, varint segmentDepth
+ * if (flags &amp; FLAG_KEY_DICTIONARY): varint prefixCount, prefixCount * (varint len, UTF-8 string[len])
+ * varint count
+ * count * ([if dictionary: varint prefixRef], varint keyLen, UTF-8 string[keyLen], varint valLen, UTF-8 string[valLen])
+ * </pre>
+ * With FLAG_ENTRY_EXPIRY, each keyLen is written as keyLen &lt;&lt; 1 | hasExpiry, and entries with an expiry
+ * have a long expiry in epoch milliseconds after the keyLen. Entries that have expired are not written.
+ * With FLAG_COMPRESSED_VALUES, each valLen is written as valLen &lt;&lt; 1 | isCompressed, and compressed values
+ * are copied as they are stored, without decompressing them.
+ * With the key dictionary, the part of each key up to and including its last separator (one of ":/.#|")
+ * is written once in the dictionary and referenced by index + 1; a reference of 0 means the key is
+ * written in full. The dictionary is only used when it makes the encoding smaller.
+ * <p>
+ * Objects written by the default JSON serialization start with '{' and are still decoded.
+ */
+public class SossHashMapCodec {
+    static final byte MAGIC_0 = 'S';
+    static final byte MAGIC_1 = 'H';
+    static final byte VERSION_1 = 1;
+    static final int HEADER_LEN = 4;
+    static final byte FLAG_KEY_DICTIONARY = 0x01;
+    static final byte FLAG_OBJECT_VERSION = 0x02;
+    static final byte FLAG_ENTRY_EXPIRY = 0x04;
+    static final byte FLAG_COUNTERS = 0x08;
+    static final byte FLAG_EVICTION_POLICY = 0x10;
+    static final byte FLAG_SORTED = 0x20;
+    static final byte FLAG_COMPRESSED_VALUES = 0x40;
+    static final byte FLAG_SEGMENT = (byte)0x80;
+    private static final String KEY_SEPARATORS = ":/.#|";
+
+    private final boolean _useKeyDictionary;
+
+    /**
+     * Creates a codec that dictionary-encodes key prefixes when it reduces the encoded size.
+     */
+    public SossHashMapCodec() {
+        this(true);
+    }
+
+    /**
+     * Creates a codec.
+     * @param useKeyDictionary true to dictionary-encode key prefixes when it reduces the encoded size
+     */
+    public SossHashMapCodec(boolean useKeyDictionary) {
+        _useKeyDictionary = useKeyDictionary;
+    }
+
+    /**
+     * Encodes the map.
+     * @param map the map to encode
+     * @return the encoded bytes
+     */
+    public byte[] encode(SossHashMap map) {
+        // collect the entry ranges of one snapshot; puts may run concurrently, so the count is not fixed up front
+        long version = map.getVersion();
+        EntryRanges ranges = new EntryRanges(map.size());
+        map.snapshot().forEach(ranges);
+        int count = ranges.count;
+        int[] keyOffsets = ranges.keyOffsets;
+        int[] keyLengths = ranges.keyLengths;
+        int[] valueOffsets = ranges.valueOffsets;
+        int[] valueLengths = ranges.valueLengths;
+        byte[] arena = ranges.arena;
+        long[] expiries = ranges.expiries;
+        boolean entryExpiry = ranges.hasExpiry;
+        boolean[] compressed = ranges.compressed;
+        boolean compressedValues = ranges.hasCompressed;
+        long[] counters = {map.getExpiredCount(), map.getEvictedCount()};
+        EvictionPolicy policy = map.getEvictionPolicy();
+        boolean bounded = policy.isBounded();
+        int segmentIndex = map.getSegmentIndex();
+        int segmentDepth = map.getSegmentDepth();
+
+        // find key prefixes that are shared by at least two keys
+        PrefixKey[] prefixes = null;
+        int[] prefixRefs = null;
+        if(_useKeyDictionary && count > 1) {
+            HashMap<PrefixKey, int[]> prefixCounts = new HashMap<>();
+            PrefixKey[] keyPrefixes = new PrefixKey[count];
+            for(int i = 0; i < count; i++) {
+                int sep = lastSeparator(arena, keyOffsets[i], keyLengths[i]);
+                if(sep > 0) {
+                    keyPrefixes[i] = new PrefixKey(arena, keyOffsets[i], sep + 1);
+                    // [uses, ref]
+                    prefixCounts.computeIfAbsent(keyPrefixes[i], p -> new int[2])[0]++;
+                }
+            }
+            int dictionarySize = 0;
+            long dictionaryLen = 0;
+            for(Map.Entry<PrefixKey, int[]> entry : prefixCounts.entrySet()) {
+                if(entry.getValue()[0] > 1) {
+                    entry.getValue()[1] = ++dictionarySize;
+                    dictionaryLen += varintSize(entry.getKey().length) + entry.getKey().length;
+                }
+            }
+            long saved = 0;
+            int[] refs = new int[count];
+            for(int i = 0; i < count; i++) {
+                int[] prefix = keyPrefixes[i] != null ? prefixCounts.get(keyPrefixes[i]) : null;
+                if(prefix != null && prefix[1] != 0) {
+                    refs[i] = prefix[1];
+                    saved += keyPrefixes[i].length - varintSize(prefix[1]);
+                } else {
+                    // an unreferenced key still pays one byte for its zero reference
+                    saved -= 1;
+                }
+            }
+            if(saved - dictionaryLen - varintSize(dictionarySize) > 0) {
+                prefixes = new PrefixKey[dictionarySize];
+                for(Map.Entry<PrefixKey, int[]> entry : prefixCounts.entrySet()) {
+                    if(entry.getValue()[1] != 0) {
+                        prefixes[entry.getValue()[1] - 1] = entry.getKey();
+                    }
+                }
+                prefixRefs = refs;
+            }
+        }
+
+        // compute the exact output length
+        byte[] idBytes = map.getId() == null ? new byte[0] : map.getId().getBytes(StandardCharsets.UTF_8);
+        long len = HEADER_LEN + varintSize(idBytes.length) + idBytes.length + 8 + varintSize(counters.length) + counters.length * 8L + varintSize(count);
+        if(bounded) {
+            len += varintSize(policy.getMaxEntries()) + 9;
+        }
+        if(segmentIndex >= 0) {
+            len += varintSize(segmentIndex) + varintSize(segmentDepth);
+        }
+        if(prefixes != null) {
+            len += varintSize(prefixes.length);
+            for(PrefixKey prefix : prefixes) {
+                len += varintSize(prefix.length) + prefix.length;
+            }
+        }
+        for(int i = 0; i < count; i++) {
+            int keyLength = keyLengths[i];
+            if(prefixRefs != null) {
+                if(prefixRefs[i] != 0) {
+                    keyLength -= prefixes[prefixRefs[i] - 1].length;
+                }
+                len += varintSize(prefixRefs[i]);
+            }
+            if(entryExpiry) {
+                len += varintSize(keyLength << 1) + (expiries[i] != ByteHashTable.NO_EXPIRY ? 8 : 0) - varintSize(keyLength);
+            }
+            if(compressedValues) {
+                len += varintSize(valueLengths[i] << 1) - varintSize(valueLengths[i]);
+            }
+            len += varintSize(keyLength) + keyLength + varintSize(valueLengths[i]) + valueLengths[i];
+        }
+        if(len > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("SossHashMap is too large to encode: " + len + " bytes.");
+
+        byte[] out = new byte[(int)len];
+        int pos = 0;
+        out[pos++] = MAGIC_0;
+        out[pos++] = MAGIC_1;
+        out[pos++] = VERSION_1;
+        out[pos++] = (byte)(FLAG_OBJECT_VERSION | FLAG_COUNTERS | (prefixes != null ? FLAG_KEY_DICTIONARY : 0) | (entryExpiry ? FLAG_ENTRY_EXPIRY : 0) | (bounded ? FLAG_EVICTION_POLICY : 0) | (map.isSorted() ? FLAG_SORTED : 0) | (compressedValues ? FLAG_COMPRESSED_VALUES : 0) | (segmentIndex >= 0 ? FLAG_SEGMENT : 0));
+        pos = writeBytes(out, pos, idBytes, 0, idBytes.length);
+        pos = writeLong(out, pos, version);
+        pos = writeVarint(out, pos, counters.length);
+        for(long counter : counters) {
+            pos = writeLong(out, pos, counter);
+        }
+        if(bounded) {
+            pos = writeVarint(out, pos, policy.getMaxEntries());
+            pos = writeLong(out, pos, policy.getMaxBytes());
+            out[pos++] = (byte)(policy.isAdmissionFilter() ? 1 : 0);
+        }
+        if(segmentIndex >= 0) {
+            pos = writeVarint(out, pos, segmentIndex);
+            pos = writeVarint(out, pos, segmentDepth);
+        }
+        if(prefixes != null) {
+            pos = writeVarint(out, pos, prefixes.length);
+            for(PrefixKey prefix : prefixes) {
+                pos = writeBytes(out, pos, prefix.bytes, prefix.offset, prefix.length);
+            }
+        }
+        pos = writeVarint(out, pos, count);
+        for(int i = 0; i < count; i++) {
+            int keyOffset = keyOffsets[i];
+            int keyLength = keyLengths[i];
+            if(prefixRefs != null) {
+                if(prefixRefs[i] != 0) {
+                    int prefixLength = prefixes[prefixRefs[i] - 1].length;
+                    keyOffset += prefixLength;
+                    keyLength -= prefixLength;
+                }
+                pos = writeVarint(out, pos, prefixRefs[i]);
+            }
+            if(entryExpiry) {
+                boolean expires = expiries[i] != ByteHashTable.NO_EXPIRY;
+                pos = writeVarint(out, pos, keyLength << 1 | (expires ? 1 : 0));
+                if(expires) {
+                    pos = writeLong(out, pos, expiries[i]);
+                }
+                System.arraycopy(arena, keyOffset, out, pos, keyLength);
+                pos += keyLength;
+            } else {
+                pos = writeBytes(out, pos, arena, keyOffset, keyLength);
+            }
+            if(compressedValues) {
+                pos = writeVarint(out, pos, valueLengths[i] << 1 | (compressed[i] ? 1 : 0));
+                System.arraycopy(arena, valueOffsets[i], out, pos, valueLengths[i]);
+                pos += valueLengths[i];
+            } else {
+                pos = writeBytes(out, pos, arena, valueOffsets[i], valueLengths[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Decodes a map written by {@link #encode(SossHashMap)} or by the default JSON serialization.
+     * @param bytes the encoded bytes
+     * @return the decoded map
+     * @throws IllegalArgumentException if the bytes are not a supported encoding
+     */
+    public SossHashMap decode(byte[] bytes) {
+        if(isLegacyJson(bytes)) {
+            return decodeJson(bytes);
+        }
+        if(bytes.length < HEADER_LEN || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1)
+            throw new IllegalArgumentException("Not a SossHashMap encoding.");
+        if(bytes[2] != VERSION_1)
+            throw new IllegalArgumentException("Unsupported SossHashMap encoding version " + bytes[2] + ".");
+        boolean dictionary = (bytes[3] & FLAG_KEY_DICTIONARY) != 0;
+        int pos = HEADER_LEN;
+        int idLen = readVarint(bytes, pos);
+        pos += varintSize(idLen);
+        String id = new String(bytes, pos, idLen, StandardCharsets.UTF_8);
+        pos += idLen;
+        long version = 0;
+        if((bytes[3] & FLAG_OBJECT_VERSION) != 0) {
+            version = readLong(bytes, pos);
+            pos += 8;
+        }
+        long expiredCount = 0;
+        long evictedCount = 0;
+        if((bytes[3] & FLAG_COUNTERS) != 0) {
+            int counterCount = readVarint(bytes, pos);
+            pos += varintSize(counterCount);
+            // counters added by later versions are skipped
+            if(counterCount > 0) {
+                expiredCount = readLong(bytes, pos);
+            }
+            if(counterCount > 1) {
+                evictedCount = readLong(bytes, pos + 8);
+            }
+            pos += counterCount * 8;
+        }
+        EvictionPolicy policy = EvictionPolicy.UNBOUNDED;
+        if((bytes[3] & FLAG_EVICTION_POLICY) != 0) {
+            int maxEntries = readVarint(bytes, pos);
+            pos += varintSize(maxEntries);
+            long maxBytes = readLong(bytes, pos);
+            pos += 8;
+            policy = new EvictionPolicy(maxEntries, maxBytes, bytes[pos++] != 0);
+        }
+        int segmentIndex = -1;
+        int segmentDepth = 0;
+        if((bytes[3] & FLAG_SEGMENT) != 0) {
+            segmentIndex = readVarint(bytes, pos);
+            pos += varintSize(segmentIndex);
+            segmentDepth = readVarint(bytes, pos);
+            pos += varintSize(segmentDepth);
+        }
+        boolean entryExpiry = (bytes[3] & FLAG_ENTRY_EXPIRY) != 0;
+        boolean compressedValues = (bytes[3] & FLAG_COMPRESSED_VALUES) != 0;
+        long now = System.currentTimeMillis();
+        int[] prefixOffsets = null;
+        int[] prefixLengths = null;
+        int maxPrefix = 0;
+        if(dictionary) {
+            int prefixCount = readVarint(bytes, pos);
+            pos += varintSize(prefixCount);
+            prefixOffsets = new int[prefixCount];
+            prefixLengths = new int[prefixCount];
+            for(int i = 0; i < prefixCount; i++) {
+                prefixLengths[i] = readVarint(bytes, pos);
+                pos += varintSize(prefixLengths[i]);
+                prefixOffsets[i] = pos;
+                pos += prefixLengths[i];
+                maxPrefix = Math.max(maxPrefix, prefixLengths[i]);
+            }
+        }
+        int count = readVarint(bytes, pos);
+        pos += varintSize(count);
+        ByteHashTable table = new ByteHashTable(count, bytes.length - pos);
+        // dictionary-coded keys are reassembled in a reusable scratch buffer
+        byte[] scratch = new byte[maxPrefix + 64];
+        for(int i = 0; i < count; i++) {
+            int ref = 0;
+            if(dictionary) {
+                ref = readVarint(bytes, pos);
+                pos += varintSize(ref);
+            }
+            int keyLength = readVarint(bytes, pos);
+            pos += varintSize(keyLength);
+            long expiresAt = ByteHashTable.NO_EXPIRY;
+            if(entryExpiry) {
+                if((keyLength & 1) != 0) {
+                    expiresAt = readLong(bytes, pos);
+                    pos += 8;
+                }
+                keyLength >>>= 1;
+            }
+            int keyOffset = pos;
+            pos += keyLength;
+            int valueLength = readVarint(bytes, pos);
+            pos += varintSize(valueLength);
+            boolean compressed = false;
+            if(compressedValues) {
+                compressed = (valueLength & 1) != 0;
+                valueLength >>>= 1;
+            }
+            if(expiresAt != ByteHashTable.NO_EXPIRY && expiresAt <= now) {
+                pos += valueLength;
+                continue;
+            }
+            if(ref != 0) {
+                int prefixLength = prefixLengths[ref - 1];
+                if(scratch.length < prefixLength + keyLength) {
+                    scratch = new byte[(prefixLength + keyLength) * 2];
+                }
+                System.arraycopy(bytes, prefixOffsets[ref - 1], scratch, 0, prefixLength);
+                System.arraycopy(bytes, keyOffset, scratch, prefixLength, keyLength);
+                table.put(scratch, 0, prefixLength + keyLength, bytes, pos, valueLength, expiresAt, compressed);
+            } else {
+                table.put(bytes, keyOffset, keyLength, bytes, pos, valueLength, expiresAt, compressed);
+            }
+            pos += valueLength;
+        }
+        SossHashMap map = new SossHashMap(id, table, version);
+        if(policy.isBounded()) {
+            map.configure(policy);
+        }
+        map.setSorted((bytes[3] & FLAG_SORTED) != 0);
+        map.setExpiredCount(expiredCount);
+        map.setEvictedCount(evictedCount);
+        map.setSegment(segmentIndex, segmentDepth);
+        return map;
+    }
+
+    /**
+     * Returns true if the bytes hold a JSON object, i.e. they were written by the default JSON serialization.
+     */
+    static boolean isLegacyJson(byte[] bytes) {
+        for(byte b : bytes) {
+            if(b == ' ' || b == '\t' || b == '\r' || b == '\n')
+                continue;
+            return b == '{';
+        }
+        return false;
+    }
+
+    private static SossHashMap decodeJson(byte[] bytes) {
+        LegacyJson legacy = new Gson().fromJson(new String(bytes, StandardCharsets.UTF_8), LegacyJson.class);
+        SossHashMap map = new SossHashMap(legacy.Id);
+        if(legacy.exampleHashMap != null) {
+            for(Map.Entry<String, String> entry : legacy.exampleHashMap.entrySet()) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The fields written by the default JSON serialization.
+     */
+    private static class LegacyJson {
+        HashMap<String, String> exampleHashMap;
+        String Id;
+    }
+
+    /**
+     * Collects the key and value ranges of a snapshot's entries.
+     */
+    private static final class EntryRanges implements ByteHashTable.EntryVisitor {
+        byte[] arena;
+        int count;
+        int[] keyOffsets;
+        int[] keyLengths;
+        int[] valueOffsets;
+        int[] valueLengths;
+        long[] expiries;
+        boolean hasExpiry;
+        boolean[] compressed;
+        boolean hasCompressed;
+
+        EntryRanges(int expected) {
+            int capacity = Math.max(16, expected);
+            keyOffsets = new int[capacity];
+            keyLengths = new int[capacity];
+            valueOffsets = new int[capacity];
+            valueLengths = new int[capacity];
+            expiries = new long[capacity];
+            compressed = new boolean[capacity];
+        }
+
+        @Override
+        public void visit(byte[] arena, int keyOffset, int keyLength, int valueOffset, int valueLength, long expiresAt, boolean compressed) {
+            if(count == keyOffsets.length) {
+                int capacity = count * 2;
+                keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+                keyLengths = Arrays.copyOf(keyLengths, capacity);
+                valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+                valueLengths = Arrays.copyOf(valueLengths, capacity);
+                expiries = Arrays.copyOf(expiries, capacity);
+                this.compressed = Arrays.copyOf(this.compressed, capacity);
+            }
+            this.arena = arena;
+            keyOffsets[count] = keyOffset;
+            keyLengths[count] = keyLength;
+            valueOffsets[count] = valueOffset;
+            valueLengths[count] = valueLength;
+            expiries[count] = expiresAt;
+            hasExpiry |= expiresAt != ByteHashTable.NO_EXPIRY;
+            this.compressed[count] = compressed;
+            hasCompressed |= compressed;
+            count++;
+        }
+    }
+
+    /**
+     * A range of bytes used as a dictionary key.
+     */
+    private static final class PrefixKey {
+        final byte[] bytes;
+        final int offset;
+        final int length;
+        final int hash;
+
+        PrefixKey(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+            this.hash = ByteHashTable.hash(bytes, offset, length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof PrefixKey))
+                return false;
+            PrefixKey that = (PrefixKey)o;
+            if(length != that.length)
+                return false;
+            for(int i = 0; i < length; i++) {
+                if(bytes[offset + i] != that.bytes[that.offset + i])
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Returns the index of the last separator relative to offset, or -1. Separators are ASCII, so they
+     * never occur inside a multi-byte UTF-8 sequence.
+     */
+    private static int lastSeparator(byte[] key, int offset, int length) {
+        for(int i = length - 1; i >= 0; i--) {
+            if(KEY_SEPARATORS.indexOf(key[offset + i]) >= 0)
+                return i;
+        }
+        return -1;
+    }
+
+    static int varintSize(int value) {
+        return ByteHashTable.varintSize(value);
+    }
+
+    static int writeVarint(byte[] out, int pos, int value) {
+        return ByteHashTable.writeVarint(out, pos, value);
+    }
+
+    static int readVarint(byte[] in, int pos) {
+        return ByteHashTable.readVarint(in, pos);
+    }
+
+    private static int writeBytes(byte[] out, int pos, byte[] bytes, int offset, int length) {
+        pos = writeVarint(out, pos, length);
+        System.arraycopy(bytes, offset, out, pos, length);
+        return pos + length;
+    }
+
+    private static int writeLong(byte[] out, int pos, long value) {
+        for(int shift = 56; shift >= 0; shift -= 8) {
+            out[pos++] = (byte)(value >>> shift);
+        }
+        return pos;
+    }
+
+    private static long readLong(byte[] in, int pos) {
+        long value = 0;
+        for(int i = 0; i < 8; i++) {
+            value = (value << 8) | (in[pos + i] & 0xff);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.server;
+
+/**
+ * The framed binary protocol of the SossHashMap data operations. Every request and response starts
+ * with a protocol version, so the module and its clients can evolve the format independently:
+ * <pre>
+ * request:  byte version, byte flags, body
+ * response: byte version, byte status, byte flags, body
+ * </pre>
+ * Lengths and counts in a body are unsigned LEB128 varints. A value that ends a frame is not length
+ * prefixed: it runs to the end of the frame. Version stamps and counters are big-endian longs.
+ * A truncated frame or an oversized varint is answered with STATUS_BAD_REQUEST and leaves the map
+ * unchanged.
+ * <p>
+ * The module reads keys and values in place, as offset/length slices of the payload, and copies them
+ * into the map once. The control operations ("version", "expired", "evicted", "configure", "sorted")
+ * keep their fixed-width numeric payloads.
+ * <p>
+ * Requests with FLAG_SEGMENT address one segment of a map that is spread over several objects (see
+ * SegmentRouter). Such a request is only applied if the object is a segment that owns every key in it;
+ * otherwise it is answered with STATUS_MOVED so the client can route it again.
+ */
+public final class WireProtocol {
+    /** The protocol version written by this module and client. */
+    public static final byte VERSION_1 = 1;
+    public static final int REQUEST_HEADER_LENGTH = 2;
+    public static final int RESPONSE_HEADER_LENGTH = 3;
+
+    /** The operation succeeded. */
+    public static final byte STATUS_OK = 0;
+    /** The key is not in the map. */
+    public static final byte STATUS_NOT_FOUND = 1;
+    /** The admission filter of a bounded map rejected a new key. */
+    public static final byte STATUS_REJECTED = 2;
+    /** The condition of a conditional write did not hold; the map is unchanged. */
+    public static final byte STATUS_CONDITION_FAILED = 3;
+    /** The map or the stored value does not support the operation, e.g. a scan of an unsorted map. */
+    public static final byte STATUS_INVALID_STATE = 4;
+    /** The request could not be parsed or used a flag the operation does not support. */
+    public static final byte STATUS_BAD_REQUEST = 5;
+    /** The request was written with a protocol version the module does not understand. */
+    public static final byte STATUS_UNSUPPORTED_VERSION = 6;
+    /**
+     * A FLAG_SEGMENT request reached an object that does not own the key. The body is the varint depth of
+     * the segment, or empty if the object is not (yet) a segment.
+     */
+    public static final byte STATUS_MOVED = 7;
+
+    /** The value is an Lz4.compressValue frame; the module stores and returns it without decompressing. */
+    public static final byte FLAG_COMPRESSED = 0x01;
+    /** A varint TTL or remaining lifetime in milliseconds follows the key. */
+    public static final byte FLAG_TTL = 0x02;
+    /** A long object version stamp is requested, or follows the header. */
+    public static final byte FLAG_VERSION = 0x04;
+    /**
+     * The object is addressed as a segment of a segmented map; on a put response, a varint segment size follows.
+     */
+    public static final byte FLAG_SEGMENT = 0x08;
+
+    private WireProtocol() {
+    }
+
+    /**
+     * Returns a reader for the body of a request, or null if the request uses an unknown protocol version.
+     * @param payload the request frame
+     * @return the reader, positioned after the header
+     */
+    public static Reader readRequest(byte[] payload) {
+        if(payload.length < REQUEST_HEADER_LENGTH || payload[0] != VERSION_1)
+            return null;
+        return new Reader(payload, REQUEST_HEADER_LENGTH, payload[1]);
+    }
+
+    /**
+     * Returns a reader for the body of a response.
+     * @param frame the response frame
+     * @return the reader, positioned after the header
+     * @throws IllegalArgumentException if the response uses an unknown protocol version
+     */
+    public static Reader readResponse(byte[] frame) {
+        if(frame.length < RESPONSE_HEADER_LENGTH || frame[0] != VERSION_1)
+            throw new IllegalArgumentException("Unsupported SossHashMap protocol version " + (frame.length > 0 ? frame[0] : -1) + ".");
+        return new Reader(frame, RESPONSE_HEADER_LENGTH, frame[2]);
+    }
+
+    /**
+     * Returns a writer for a request with a body of exactly bodyLength bytes.
+     */
+    public static Writer writeRequest(int flags, int bodyLength) {
+        Writer writer = new Writer(new byte[REQUEST_HEADER_LENGTH + bodyLength]);
+        writer.putByte(VERSION_1);
+        writer.putByte(flags);
+        return writer;
+    }
+
+    /**
+     * Returns a writer for a response with a body of exactly bodyLength bytes.
+     */
+    public static Writer writeResponse(byte status, int flags, int bodyLength) {
+        Writer writer = new Writer(new byte[RESPONSE_HEADER_LENGTH + bodyLength]);
+        writer.putByte(VERSION_1);
+        writer.putByte(status);
+        writer.putByte(flags);
+        return writer;
+    }
+
+    /**
+     * Returns a response frame with a status and no body.
+     */
+    public static byte[] status(byte status) {
+        return writeResponse(status, 0, 0).array();
+    }
+
+    /**
+     * Returns the number of bytes in the varint encoding of a non-negative value.
+     */
+    public static int varintSize(long value) {
+        int size = 1;
+        while((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Reads a frame. Byte ranges are returned as offsets into the frame array instead of copies.
+     */
+    public static final class Reader {
+        private final byte[] _frame;
+        private final int _flags;
+        private int _pos;
+
+        private Reader(byte[] frame, int pos, int flags) {
+            _frame = frame;
+            _pos = pos;
+            _flags = flags & 0xff;
+        }
+
+        /**
+         * @return the frame array that slice offsets refer to
+         */
+        public byte[] frame() {
+            return _frame;
+        }
+
+        public int flags() {
+            return _flags;
+        }
+
+        public boolean hasFlag(int flag) {
+            return (_flags & flag) != 0;
+        }
+
+        /**
+         * @return the response status; only meaningful for a response
+         */
+        public byte status() {
+            return _frame[1];
+        }
+
+        public int position() {
+            return _pos;
+        }
+
+        public int remaining() {
+            return _frame.length - _pos;
+        }
+
+        public byte readByte() {
+            check(1);
+            return _frame[_pos++];
+        }
+
+        public long readLong() {
+            check(8);
+            long value = 0;
+            for(int i = 0; i < 8; i++) {
+                value = (value << 8) | (_frame[_pos++] & 0xff);
+            }
+            return value;
+        }
+
+        /**
+         * Reads a varint length or count, which must fit in an int.
+         */
+        public int readVarint() {
+            long value = readVarlong();
+            if(value > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Varint out of range at offset " + _pos + ".");
+            return (int)value;
+        }
+
+        public long readVarlong() {
+            long value = 0;
+            for(int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long)(b & 0x7f) << shift;
+                if(b >= 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("Malformed varint at offset " + _pos + ".");
+        }
+
+        /**
+         * Skips a range of the frame and returns its offset, so it can be used without copying.
+         */
+        public int slice(int length) {
+            check(length);
+            int offset = _pos;
+            _pos += length;
+            return offset;
+        }
+
+        private void check(int length) {
+            if(length < 0 || length > _frame.length - _pos)
+                throw new IllegalArgumentException("Truncated SossHashMap frame: " + length + " bytes needed at offset " + _pos + ".");
+        }
+    }
+
+    /**
+     * Writes a frame into an array of the exact frame length.
+     */
+    public static final class Writer {
+        private final byte[] _frame;
+        private int _pos;
+
+        private Writer(byte[] frame) {
+            _frame = frame;
+        }
+
+        public Writer putByte(int value) {
+            _frame[_pos++] = (byte)value;
+            return this;
+        }
+
+        public Writer putLong(long value) {
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                _frame[_pos++] = (byte)(value >>> shift);
+            }
+            return this;
+        }
+
+        public Writer putVarint(long value) {
+            while((value & ~0x7fL) != 0) {
+                _frame[_pos++] = (byte)((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            _frame[_pos++] = (byte)value;
+            return this;
+        }
+
+        public Writer putBytes(byte[] src, int offset, int length) {
+            System.arraycopy(src, offset, _frame, _pos, length);
+            _pos += length;
+            return this;
+        }
+
+        public Writer putBytes(byte[] src) {
+            return putBytes(src, 0, src.length);
+        }
+
+        /**
+         * Moves the position past bytes written directly into the array, e.g. by ByteHashTable.Snapshot.copyValue.
+         */
+        public Writer skip(int length) {
+            _pos += length;
+            return this;
+        }
+
+        public int position() {
+            return _pos;
+        }
+
+        public byte[] array() {
+            return _frame;
+        }
+    }
+}
@@ -30,15 +30,69 @@ import com.scaleoutsoftware.modules.hosting.ApiModuleOptions;
 import com.scaleoutsoftware.modules.hosting.ApiModuleOptionsBuilder;
 import com.scaleoutsoftware.modules.hosting.ModuleRegistrationException;
 import com.scaleoutsoftware.modules.common.Constants;
+import com.scaleoutsoftware.modules.client.ApiModuleException;
 import com.scaleout.client.GridConnection;
 
+import com.scaleoutsoftware.samples.client.BulkLoadException;
+import com.scaleoutsoftware.samples.client.BulkLoadProgress;
+import com.scaleoutsoftware.samples.client.BulkLoader;
+import com.scaleoutsoftware.samples.client.ConsistentHashRing;
 import com.scaleoutsoftware.samples.client.ExampleClient;
+import com.scaleoutsoftware.samples.client.MapExporter;
+import com.scaleoutsoftware.samples.client.MissFilter;
+import com.scaleoutsoftware.samples.client.MissFilterStats;
+import com.scaleoutsoftware.samples.client.SegmentedMapClient;
+import com.scaleoutsoftware.samples.client.ShardedMapClient;
+import com.scaleoutsoftware.samples.server.BloomFilter;
+import com.scaleoutsoftware.samples.server.ByteHashTable;
+import com.scaleoutsoftware.samples.server.EvictionPolicy;
+import com.scaleoutsoftware.samples.server.EvictionPolicyCodec;
+import com.scaleoutsoftware.samples.server.LatencyHistogram;
+import com.scaleoutsoftware.samples.server.Lz4;
+import com.scaleoutsoftware.samples.server.ProcessorStats;
+import com.scaleoutsoftware.samples.server.SegmentRouter;
 import com.scaleoutsoftware.samples.server.SossHashMap;
 import com.scaleoutsoftware.samples.server.SossHashMapApiProcessor;
+import com.scaleoutsoftware.samples.server.SossHashMapCodec;
+import com.scaleoutsoftware.samples.server.SossHashMapDeserializer;
+import com.scaleoutsoftware.samples.server.SossHashMapSerializer;
+import com.scaleoutsoftware.samples.server.WireProtocol;
+
+import com.scaleoutsoftware.modules.abstractions.ApiProcessorLockingMode;
+import com.scaleoutsoftware.modules.abstractions.InvokeResult;
+import com.scaleoutsoftware.modules.abstractions.ProcessingResult;
+import com.scaleoutsoftware.modules.abstractions.SossApiMethod;
+import com.scaleoutsoftware.samples.codegen.ApiMessage;
+import com.scaleoutsoftware.samples.codegen.MessageCodecs;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Unit tests for module development.
  */
@@ -53,8 +107,10 @@ public class TestModule
         try {
             // instantiate the module package
             ModulePackage modulePackage = new ModulePackage();
-            // define the ApiModuleOptions
-            ApiModuleOptions<SossHashMap> apiModuleOptions = new ApiModuleOptionsBuilder<SossHashMap>(SossHashMap.class).build();
+            // define the ApiModuleOptions, storing objects with the compact binary serializer
+            ApiModuleOptions<SossHashMap> apiModuleOptions = new ApiModuleOptionsBuilder<SossHashMap>(SossHashMap.class)
+                .setSerialization(new SossHashMapSerializer(), new SossHashMapDeserializer())
+                .build();
             // add the API module to the package
             modulePackage.addApiModule("SossHashMap", new SossHashMapApiProcessor(), apiModuleOptions);
             // run a local development package
@@ -77,4 +133,1279 @@ public class TestModule
             Assert.fail(e.getMessage());
         }
     }
+
+    /**
+     * Invokes the batched "mput", "mget" and "mremove" handlers directly, without a local StateServer.
+     */
+    @Test
+    public void testBatchHandlers() {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "BatchObjectId");
+
+        // varint count, count * (varint keyLen, key, byte flags, varint valLen, value)
+        WireProtocol.Writer put = WireProtocol.writeRequest(0, 1 + 2 * (1 + 2 + 1 + 1 + 2)).putVarint(2);
+        for(String[] pair : new String[][] {{"k1", "v1"}, {"k2", "v2"}}) {
+            put.putVarint(2).putBytes(pair[0].getBytes(StandardCharsets.UTF_8));
+            put.putByte(0).putVarint(2).putBytes(pair[1].getBytes(StandardCharsets.UTF_8));
+        }
+        InvokeResult putResult = processor.mputHandler(null, map, put.array());
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(putResult));
+        Assert.assertEquals(ProcessingResult.DoUpdate, putResult.getProcessingResult());
+
+        // varint count, count * (varint keyLen, key)
+        WireProtocol.Writer keys = WireProtocol.writeRequest(0, 1 + 3 * (1 + 2)).putVarint(3);
+        for(String key : new String[] {"k1", "k3", "k2"}) {
+            keys.putVarint(key.length()).putBytes(key.getBytes(StandardCharsets.UTF_8));
+        }
+        WireProtocol.Reader get = WireProtocol.readResponse(processor.mgetHandler(null, map, keys.array()).getResult());
+        Assert.assertEquals(3, get.readVarint());
+        Assert.assertEquals(WireProtocol.STATUS_OK, get.readByte());
+        Assert.assertEquals(0, get.readByte());
+        Assert.assertEquals(2, get.readVarint());
+        get.slice(2);
+        Assert.assertEquals(WireProtocol.STATUS_NOT_FOUND, get.readByte());
+        Assert.assertEquals(WireProtocol.STATUS_OK, get.readByte());
+
+        // a count the frame cannot hold is rejected before anything is allocated for it
+        byte[] hugeCount = WireProtocol.writeRequest(0, 5).putVarint(Integer.MAX_VALUE).array();
+        Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(processor.mgetHandler(null, map, hugeCount)));
+        Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(processor.mgetHandler(null, map, Arrays.copyOf(keys.array(), keys.array().length - 1))));
+
+        InvokeResult removeResult = processor.mremoveHandler(null, map, keys.array());
+        Assert.assertEquals(2, WireProtocol.readResponse(removeResult.getResult()).readVarint());
+
+        // a request from a newer protocol version is answered with a status, not parsed
+        byte[] future = keyPayload("k1", 0);
+        future[0] = 2;
+        Assert.assertEquals(WireProtocol.STATUS_UNSUPPORTED_VERSION, status(processor.getHandler(null, map, future)));
+        Assert.assertNull(map.get("k1"));
+        Assert.assertNull(map.get("k2"));
+
+        // a truncated batch is rejected before its first pair is applied
+        long version = map.getVersion();
+        InvokeResult truncatedPut = processor.mputHandler(null, map, Arrays.copyOf(put.array(), put.array().length - 1));
+        Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(truncatedPut));
+        Assert.assertEquals(ProcessingResult.NoUpdate, truncatedPut.getProcessingResult());
+        Assert.assertNull(map.get("k1"));
+        processor.mputHandler(null, map, put.array());
+        version = map.getVersion();
+        InvokeResult truncatedRemove = processor.mremoveHandler(null, map, Arrays.copyOf(keys.array(), keys.array().length - 1));
+        Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(truncatedRemove));
+        Assert.assertEquals(ProcessingResult.NoUpdate, truncatedRemove.getProcessingResult());
+        Assert.assertEquals("v1", map.get("k1"));
+        // records to the end of the frame: varint keyLen, key, byte flags, [varint ttlMillis], varint valLen, value
+        WireProtocol.Writer bulk = WireProtocol.writeRequest(0, 2 * (1 + 2 + 1 + 1 + 2) + 1);
+        bulk.putVarint(2).putBytes("k3".getBytes(StandardCharsets.UTF_8)).putByte(0).putVarint(2).putBytes("v3".getBytes(StandardCharsets.UTF_8));
+        bulk.putVarint(2).putBytes("k4".getBytes(StandardCharsets.UTF_8)).putByte(WireProtocol.FLAG_TTL).putVarint(100).putVarint(2).putBytes("v4".getBytes(StandardCharsets.UTF_8));
+        InvokeResult truncatedBulk = processor.bulkPutHandler(null, map, Arrays.copyOf(bulk.array(), bulk.array().length - 1));
+        Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(truncatedBulk));
+        Assert.assertEquals(ProcessingResult.NoUpdate, truncatedBulk.getProcessingResult());
+        Assert.assertNull(map.get("k3"));
+        Assert.assertEquals(version, map.getVersion());
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.bulkPutHandler(null, map, bulk.array())));
+        Assert.assertEquals("v4", map.get("k4"));
+    }
+
+    /**
+     * Sends truncated frames and oversized varints to the single-key handlers, which must answer
+     * STATUS_BAD_REQUEST and leave the map, its version stamp and its expired entries untouched.
+     */
+    @Test
+    public void testMalformedRequests() throws InterruptedException {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "MalformedObjectId");
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.putHandler(null, map, putPayload("alpha", "1"))));
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.putHandler(null, map, putTtlPayload("stale", "x", 1))));
+        Thread.sleep(10);
+        long version = map.getVersion();
+        int size = map.size();
+
+        // header, keyLen, then only the first byte of the key
+        int cut = WireProtocol.REQUEST_HEADER_LENGTH + 2;
+        // header followed by a varint that never terminates
+        byte[] oversized = new byte[WireProtocol.REQUEST_HEADER_LENGTH + 10];
+        System.arraycopy(keyPayload("", 0), 0, oversized, 0, WireProtocol.REQUEST_HEADER_LENGTH);
+        Arrays.fill(oversized, WireProtocol.REQUEST_HEADER_LENGTH, oversized.length, (byte)0xff);
+
+        List<InvokeResult> results = new ArrayList<>();
+        results.add(processor.getHandler(null, map, Arrays.copyOf(keyPayload("alpha", 0), cut)));
+        results.add(processor.getHandler(null, map, oversized));
+        results.add(processor.putHandler(null, map, Arrays.copyOf(putPayload("alpha", "2"), cut)));
+        results.add(processor.putHandler(null, map, oversized));
+        byte[] ttlPut = putTtlPayload("alpha", "", 100_000);
+        results.add(processor.putHandler(null, map, Arrays.copyOf(ttlPut, ttlPut.length - 1)));
+        results.add(processor.putIfAbsentHandler(null, map, Arrays.copyOf(putPayload("beta", "1"), cut)));
+        byte[] casByValue = casPayload("alpha", "1", "2");
+        results.add(processor.compareAndSetHandler(null, map, Arrays.copyOf(casByValue, casByValue.length - 2)));
+        byte[] casByVersion = casPayload("alpha", version, "");
+        results.add(processor.compareAndSetHandler(null, map, Arrays.copyOf(casByVersion, casByVersion.length - 1)));
+        results.add(processor.removeHandler(null, map, Arrays.copyOf(keyPayload("alpha", 0), cut)));
+        results.add(processor.removeHandler(null, map, oversized));
+        byte[] increment = incrementPayload("gamma", 1);
+        results.add(processor.incrementByHandler(null, map, Arrays.copyOf(increment, increment.length - 1)));
+        byte[] scan = scanPayload("", (byte)0x00, "", 10, new byte[0]);
+        results.add(processor.scanHandler(null, map, Arrays.copyOf(scan, scan.length - 1)));
+        for(InvokeResult result : results) {
+            Assert.assertEquals(WireProtocol.STATUS_BAD_REQUEST, status(result));
+            Assert.assertEquals(ProcessingResult.NoUpdate, result.getProcessingResult());
+        }
+
+        Assert.assertEquals("1", map.get("alpha"));
+        Assert.assertNull(map.get("beta"));
+        Assert.assertNull(map.get("gamma"));
+        Assert.assertEquals(version, map.getVersion());
+        // a rejected write must not sweep the expired entry either
+        Assert.assertEquals(size, map.size());
+        Assert.assertEquals(0, map.getExpiredCount());
+    }
+
+    /**
+     * Verifies that the consistent hash ring spreads keys across shards and that growing the shard
+     * count only moves a small fraction of the keys.
+     */
+    @Test
+    public void testConsistentHashRing() {
+        ConsistentHashRing eight = new ConsistentHashRing(8, 128);
+        ConsistentHashRing nine = new ConsistentHashRing(9, 128);
+        int keyCount = 100000;
+        int[] perShard = new int[8];
+        int moved = 0;
+        for(int i = 0; i < keyCount; i++) {
+            String key = "session:" + i;
+            int shard = eight.shardFor(key);
+            perShard[shard]++;
+            if(shard != nine.shardFor(key)) {
+                moved++;
+            }
+        }
+        for(int count : perShard) {
+            // each shard should own roughly 1/8 of the keys
+            Assert.assertTrue(count > keyCount / 8 * 0.75 && count < keyCount / 8 * 1.25);
+        }
+        // ideally 1/9 of the keys move to the new shard
+        Assert.assertTrue(moved < keyCount / 9 * 1.5);
+    }
+
+    /**
+     * Round-trips a map through the binary codec, with and without the key dictionary, and decodes
+     * an object written by the default JSON serialization.
+     */
+    @Test
+    public void testSerializerRoundTrip() {
+        SossHashMap map = new SossHashMap("CodecObjectId");
+        for(int i = 0; i < 1000; i++) {
+            map.put("user:" + (i % 10) + ":session:" + i, "value-" + i);
+        }
+        map.put("plain", "\u00e9t\u00e9");
+
+        SossHashMapCodec dictionaryCodec = new SossHashMapCodec(true);
+        SossHashMapCodec plainCodec = new SossHashMapCodec(false);
+        byte[] withDictionary = dictionaryCodec.encode(map);
+        byte[] withoutDictionary = plainCodec.encode(map);
+        Assert.assertTrue(withDictionary.length < withoutDictionary.length);
+        for(byte[] bytes : new byte[][] {withDictionary, withoutDictionary}) {
+            SossHashMap decoded = plainCodec.decode(bytes);
+            Assert.assertEquals("CodecObjectId", decoded.getId());
+            Assert.assertEquals(map.size(), decoded.size());
+            for(int i = 0; i < 1000; i++) {
+                Assert.assertEquals("value-" + i, decoded.get("user:" + (i % 10) + ":session:" + i));
+            }
+            Assert.assertEquals("\u00e9t\u00e9", decoded.get("plain"));
+        }
+
+        String json = "{\"exampleHashMap\":{\"Hello\":\"World\"},\"Id\":\"LegacyObjectId\"}";
+        SossHashMap legacy = new SossHashMapDeserializer().deserialize(json.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals("LegacyObjectId", legacy.getId());
+        Assert.assertEquals("World", legacy.get("Hello"));
+        SossHashMap empty = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(new SossHashMap("EmptyObjectId")));
+        Assert.assertEquals(0, empty.size());
+    }
+
+    /**
+     * Exercises the byte-oriented table through growth, replacement, removal and arena compaction.
+     */
+    @Test
+    public void testByteHashTable() {
+        ByteHashTable table = new ByteHashTable();
+        int count = 20000;
+        for(int round = 0; round < 3; round++) {
+            for(int i = 0; i < count; i++) {
+                byte[] key = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+                byte[] value = ("value-" + round + "-" + i).getBytes(StandardCharsets.UTF_8);
+                Assert.assertEquals(round == 0, table.put(key, 0, key.length, value, 0, value.length));
+            }
+        }
+        Assert.assertEquals(count, table.size());
+        for(int i = 0; i < count; i += 2) {
+            byte[] key = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(table.remove(key, 0, key.length));
+            Assert.assertFalse(table.remove(key, 0, key.length));
+        }
+        Assert.assertEquals(count / 2, table.size());
+        for(int i = 0; i < count; i++) {
+            byte[] key = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+            byte[] value = table.get(key, 0, key.length);
+            if(i % 2 == 0) {
+                Assert.assertNull(value);
+            } else {
+                Assert.assertEquals("value-2-" + i, new String(value, StandardCharsets.UTF_8));
+            }
+        }
+        // replaced and removed entries are reclaimed once they outweigh the live entries
+        Assert.assertTrue(table.arenaBytes() < table.liveBytes() * 3);
+        int[] visited = new int[1];
+        table.forEach((arena, keyOffset, keyLength, valueOffset, valueLength, expiresAt, compressed) -> visited[0]++);
+        Assert.assertEquals(count / 2, visited[0]);
+    }
+
+    /**
+     * Runs the get, mget and put handlers from many threads against one object. Writers grow, compact and
+     * remove while readers run without locks; every value a reader sees must be one that was written for
+     * its key, and a reader must never see a key's value go back to an older version.
+     */
+    @Test
+    public void testConcurrentReadsAndPuts() throws Exception {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = new SossHashMap("StressObjectId");
+        int keyCount = 2000;
+        int writers = 4;
+        int readers = 8;
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                start.await();
+                // each writer owns the keys congruent to its index, so versions per key only increase
+                for(int version = 0; !stop.get(); version++) {
+                    for(int i = writer; i < keyCount; i += writers) {
+                        String key = "key-" + i;
+                        if(version % 7 == 6 && i % 3 == 0) {
+                            processor.mremoveHandler(null, map, singleKeyPayload(key));
+                        } else {
+                            // vary the value length so entries are replaced, appended and compacted
+                            StringBuilder value = new StringBuilder(key).append('|').append(version).append('|');
+                            for(int pad = 0; pad < version % 13; pad++) {
+                                value.append('x');
+                            }
+                            processor.putHandler(null, map, putPayload(key, value.toString()));
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for(int r = 0; r < readers; r++) {
+            int reader = r;
+            futures.add(pool.submit(() -> {
+                start.await();
+                int[] lastVersion = new int[keyCount];
+                Random random = new Random(reader);
+                while(!stop.get()) {
+                    int i = random.nextInt(keyCount);
+                    String key = "key-" + i;
+                    String value;
+                    if(reader % 2 == 0) {
+                        value = value(processor.getHandler(null, map, keyPayload(key, 0)));
+                        if(value == null)
+                            continue;
+                    } else {
+                        WireProtocol.Reader result = WireProtocol.readResponse(processor.mgetHandler(null, map, singleKeyPayload(key)).getResult());
+                        Assert.assertEquals(1, result.readVarint());
+                        if(result.readByte() == WireProtocol.STATUS_NOT_FOUND)
+                            continue;
+                        result.readByte();
+                        int valLen = result.readVarint();
+                        value = new String(result.frame(), result.slice(valLen), valLen, StandardCharsets.UTF_8);
+                    }
+                    String[] parts = value.split("\\|");
+                    Assert.assertEquals(key, parts[0]);
+                    int version = Integer.parseInt(parts[1]);
+                    Assert.assertEquals(version % 13, parts.length > 2 ? parts[2].length() : 0);
+                    Assert.assertTrue(version >= lastVersion[i]);
+                    lastVersion[i] = version;
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        Thread.sleep(2000);
+        stop.set(true);
+        pool.shutdown();
+        for(Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        Assert.assertTrue(map.size() > 0);
+    }
+
+    /**
+     * Checks that the "version" stamp moves on every change, that a versioned "get" returns the stamp with the value,
+     * and that the stamp survives serialization.
+     */
+    @Test
+    public void testVersionHandlers() {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "VersionObjectId");
+        long initial = ByteBuffer.wrap(processor.versionHandler(null, map, new byte[0]).getResult()).getLong();
+        processor.putHandler(null, map, putPayload("Hello", "World"));
+        long afterPut = ByteBuffer.wrap(processor.versionHandler(null, map, new byte[0]).getResult()).getLong();
+        Assert.assertNotEquals(initial, afterPut);
+
+        WireProtocol.Reader found = WireProtocol.readResponse(processor.getHandler(null, map, keyPayload("Hello", WireProtocol.FLAG_VERSION)).getResult());
+        Assert.assertEquals(WireProtocol.STATUS_OK, found.status());
+        Assert.assertEquals(afterPut, found.readLong());
+        Assert.assertEquals("World", new String(found.frame(), found.position(), found.remaining(), StandardCharsets.UTF_8));
+        WireProtocol.Reader missing = WireProtocol.readResponse(processor.getHandler(null, map, keyPayload("Nope", WireProtocol.FLAG_VERSION)).getResult());
+        Assert.assertEquals(WireProtocol.STATUS_NOT_FOUND, missing.status());
+        Assert.assertEquals(afterPut, missing.readLong());
+        Assert.assertEquals(0, missing.remaining());
+
+        // removing a missing key is not a change
+        processor.mremoveHandler(null, map, singleKeyPayload("Nope"));
+        Assert.assertEquals(afterPut, map.getVersion());
+        processor.mremoveHandler(null, map, singleKeyPayload("Hello"));
+        Assert.assertNotEquals(afterPut, map.getVersion());
+
+        // a caller that saw afterPut learns which keys changed since
+        byte[] since = ByteBuffer.allocate(8).putLong(afterPut).array();
+        ByteBuffer changes = ByteBuffer.wrap(processor.versionHandler(null, map, since).getResult());
+        Assert.assertEquals(map.getVersion(), changes.getLong());
+        Assert.assertEquals(0x01, changes.get());
+        Assert.assertEquals(1, changes.getInt());
+        byte[] hello = "Hello".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ByteHashTable.hash(hello, 0, hello.length), changes.getInt());
+        byte[] tooOld = ByteBuffer.allocate(8).putLong(initial - 1).array();
+        ByteBuffer unknown = ByteBuffer.wrap(processor.versionHandler(null, map, tooOld).getResult());
+        unknown.getLong();
+        Assert.assertEquals(0x00, unknown.get());
+
+        SossHashMap decoded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map));
+        Assert.assertEquals(map.getVersion(), decoded.getVersion());
+
+        // the log holds one change less than its size: a writer logs the next change in the slot after the
+        // oldest version before it publishes the new version
+        long start = map.getVersion();
+        for(int i = 0; i < 1023; i++) {
+            map.put("key" + i, "value");
+        }
+        int[] logged = map.changesBetween(start, map.getVersion());
+        Assert.assertEquals(1023, logged.length);
+        byte[] first = "key0".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ByteHashTable.hash(first, 0, first.length), logged[0]);
+        map.put("key1023", "value");
+        Assert.assertEquals(start + 1024, map.getVersion());
+        Assert.assertNull(map.changesBetween(start, map.getVersion()));
+        Assert.assertNotNull(map.changesBetween(start + 1, map.getVersion()));
+        Assert.assertNull(map.changesBetween(start, start + 1023));
+        Assert.assertFalse(map.unchangedSince(first, 0, first.length, start));
+    }
+
+    /**
+     * Checks that entries put with a TTL disappear once it passes, are removed incrementally by later
+     * writes, and keep their expiry through serialization.
+     */
+    @Test
+    public void testEntryTtl() throws Exception {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "TtlObjectId");
+        int count = 1000;
+        for(int i = 0; i < count; i++) {
+            processor.putHandler(null, map, putTtlPayload("short-" + i, "value", 500));
+        }
+        processor.putHandler(null, map, putTtlPayload("long", "value", 60000));
+        processor.putHandler(null, map, putTtlPayload("forever", "value", 0));
+        SossHashMap decoded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map));
+        Assert.assertEquals(count + 2, decoded.size());
+        Assert.assertEquals("value", decoded.get("short-0"));
+
+        Thread.sleep(600);
+        Assert.assertEquals(WireProtocol.STATUS_NOT_FOUND, status(processor.getHandler(null, map, keyPayload("short-1", 0))));
+        WireProtocol.Reader live = WireProtocol.readResponse(processor.getHandler(null, map, keyPayload("long", 0)).getResult());
+        Assert.assertTrue(live.hasFlag(WireProtocol.FLAG_TTL));
+        Assert.assertTrue(live.readVarlong() > 50000);
+        Assert.assertEquals("value", map.get("long"));
+        // the sweep removes expired entries a few slots per write, never all at once
+        processor.putHandler(null, map, putPayload("trigger", "value"));
+        long afterOneWrite = map.getExpiredCount();
+        Assert.assertTrue(afterOneWrite > 0 && afterOneWrite <= 128);
+        for(int i = 0; i < 200 && map.getExpiredCount() < count; i++) {
+            processor.putHandler(null, map, putPayload("trigger", "value"));
+        }
+        Assert.assertEquals(count, map.getExpiredCount());
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(count, ByteBuffer.wrap(processor.expiredHandler(null, map, new byte[0]).getResult()).getLong());
+
+        // expired entries are not written, and the expiry of the others survives
+        SossHashMap reloaded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(decoded));
+        Assert.assertEquals(2, reloaded.size());
+        ByteHashTable.Snapshot snapshot = reloaded.snapshot();
+        byte[] key = "long".getBytes(StandardCharsets.UTF_8);
+        Assert.assertNotEquals(ByteHashTable.NO_EXPIRY, snapshot.expiresAt(snapshot.findEntry(key, 0, key.length)));
+        key = "forever".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ByteHashTable.NO_EXPIRY, snapshot.expiresAt(snapshot.findEntry(key, 0, key.length)));
+        Assert.assertEquals(count, new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map)).getExpiredCount());
+    }
+
+    /**
+     * Checks that a bounded map stays within its entry and byte limits, keeps recently read keys, lets
+     * the admission filter protect popular keys from one-off keys, and keeps its limits when serialized.
+     */
+    @Test
+    public void testEviction() {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor(new EvictionPolicy(100, 0, false));
+        SossHashMap map = processor.createObject("SossHashMap", "EvictionObjectId");
+        for(int i = 0; i < 100; i++) {
+            processor.putHandler(null, map, putPayload("key-" + i, "value"));
+        }
+        Assert.assertEquals(100, map.size());
+        for(int round = 0; round < 50; round++) {
+            // keep reading the first ten keys while new keys push the others out
+            for(int i = 0; i < 10; i++) {
+                processor.getHandler(null, map, keyPayload("key-" + i, 0));
+            }
+            processor.putHandler(null, map, putPayload("new-" + round, "value"));
+            Assert.assertEquals(100, map.size());
+        }
+        Assert.assertEquals(50, map.getEvictedCount());
+        for(int i = 0; i < 10; i++) {
+            Assert.assertEquals("value", map.get("key-" + i));
+        }
+
+        // shrinking the limits evicts right away
+        byte[] configure = ByteBuffer.allocate(13).putInt(0).putLong(1000).put((byte)0).array();
+        int evicted = ByteBuffer.wrap(processor.configureHandler(null, map, configure).getResult()).getInt();
+        Assert.assertTrue(evicted > 0);
+        Assert.assertTrue(map.liveBytes() <= 1000);
+        SossHashMap decoded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map));
+        Assert.assertEquals(1000, decoded.getEvictionPolicy().getMaxBytes());
+        Assert.assertEquals(map.getEvictedCount(), decoded.getEvictedCount());
+
+        // with admission filtering, one-off keys cannot displace keys that are read often
+        SossHashMap filtered = new SossHashMapApiProcessor(new EvictionPolicy(100, 0, true)).createObject("SossHashMap", "AdmissionObjectId");
+        for(int i = 0; i < 100; i++) {
+            processor.putHandler(null, filtered, putPayload("key-" + i, "value"));
+            for(int read = 0; read < 3; read++) {
+                processor.getHandler(null, filtered, keyPayload("key-" + i, 0));
+            }
+        }
+        int rejected = 0;
+        for(int i = 0; i < 100; i++) {
+            if(status(processor.putHandler(null, filtered, putPayload("scan-" + i, "value"))) == WireProtocol.STATUS_REJECTED) {
+                rejected++;
+            }
+        }
+        Assert.assertEquals(100, rejected);
+        Assert.assertEquals(100, filtered.size());
+        Assert.assertEquals("value", filtered.get("key-50"));
+    }
+
+    @Test
+    public void testAtomicHandlers() {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "AtomicObjectId");
+
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.putIfAbsentHandler(null, map, putPayload("a", "1"))));
+        InvokeResult present = processor.putIfAbsentHandler(null, map, putPayload("a", "2"));
+        Assert.assertEquals(WireProtocol.STATUS_CONDITION_FAILED, status(present));
+        Assert.assertEquals("1", value(present));
+
+        // compare by value
+        Assert.assertEquals(WireProtocol.STATUS_CONDITION_FAILED, status(processor.compareAndSetHandler(null, map, casPayload("a", "2", "3"))));
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.compareAndSetHandler(null, map, casPayload("a", "1", "3"))));
+        Assert.assertEquals("3", map.get("a"));
+
+        // compare by version: succeeds while the key is unchanged, even if other keys changed
+        long version = map.getVersion();
+        processor.putHandler(null, map, putPayload("b", "1"));
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.compareAndSetHandler(null, map, casPayload("a", version, "4"))));
+        Assert.assertEquals(WireProtocol.STATUS_CONDITION_FAILED, status(processor.compareAndSetHandler(null, map, casPayload("a", version, "5"))));
+        Assert.assertEquals("4", map.get("a"));
+        for(int i = 0; i < 1100; i++) {
+            processor.putHandler(null, map, putPayload("c", Integer.toString(i)));
+        }
+        Assert.assertEquals(WireProtocol.STATUS_CONDITION_FAILED, status(processor.compareAndSetHandler(null, map, casPayload("a", version + 2, "5"))));
+
+        InvokeResult removed = processor.removeHandler(null, map, keyPayload("a", 0));
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(removed));
+        Assert.assertEquals("4", value(removed));
+        Assert.assertEquals(WireProtocol.STATUS_NOT_FOUND, status(processor.removeHandler(null, map, keyPayload("a", 0))));
+
+        Assert.assertEquals(5, WireProtocol.readResponse(processor.incrementByHandler(null, map, incrementPayload("n", 5)).getResult()).readLong());
+        Assert.assertEquals(2, WireProtocol.readResponse(processor.incrementByHandler(null, map, incrementPayload("n", -3)).getResult()).readLong());
+        Assert.assertEquals(WireProtocol.STATUS_INVALID_STATE, status(processor.incrementByHandler(null, map, incrementPayload("b", 1))));
+
+        // a new counter that the admission filter of a full bounded map rejects is not stored
+        SossHashMapApiProcessor bounded = new SossHashMapApiProcessor(new EvictionPolicy(10, 0, true));
+        SossHashMap full = bounded.createObject("SossHashMap", "BoundedAtomicObjectId");
+        for(int i = 0; i < 10; i++) {
+            bounded.putHandler(null, full, putPayload("key-" + i, "value"));
+            for(int read = 0; read < 3; read++) {
+                bounded.getHandler(null, full, keyPayload("key-" + i, 0));
+            }
+        }
+        long fullVersion = full.getVersion();
+        InvokeResult rejected = bounded.incrementByHandler(null, full, incrementPayload("counter", 1));
+        Assert.assertEquals(WireProtocol.STATUS_REJECTED, status(rejected));
+        Assert.assertEquals(ProcessingResult.NoUpdate, rejected.getProcessingResult());
+        Assert.assertNull(full.get("counter"));
+        Assert.assertEquals(fullVersion, full.getVersion());
+    }
+
+    @Test
+    public void testSortedScan() {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "ScanObjectId");
+        Assert.assertEquals(WireProtocol.STATUS_INVALID_STATE, status(processor.scanHandler(null, map, scanPayload("", (byte)0x00, "", 10, new byte[0]))));
+        for(int i = 0; i < 50; i++) {
+            processor.putHandler(null, map, putPayload(String.format("user:%03d", i), "v" + i));
+            processor.putHandler(null, map, putPayload(String.format("order:%03d", i), "o" + i));
+        }
+        // turning sorted mode on indexes the existing keys
+        processor.sortedHandler(null, map, new byte[]{0x01});
+        processor.removeHandler(null, map, keyPayload("user:010", 0));
+
+        // page through a prefix 7 keys at a time
+        List<String> keys = new ArrayList<>();
+        byte[] token = new byte[0];
+        int pages = 0;
+        do {
+            WireProtocol.Reader page = WireProtocol.readResponse(processor.scanHandler(null, map, scanPayload("", (byte)0x02, "user:", 7, token)).getResult());
+            int count = page.readVarint();
+            Assert.assertTrue(count <= 7);
+            for(int i = 0; i < count; i++) {
+                int keyLen = page.readVarint();
+                keys.add(new String(page.frame(), page.slice(keyLen), keyLen, StandardCharsets.UTF_8));
+                page.readByte();
+                page.slice(page.readVarint());
+            }
+            int tokenLen = page.readVarint();
+            token = Arrays.copyOfRange(page.frame(), page.slice(tokenLen), page.position());
+            pages++;
+        } while(token.length > 0);
+        Assert.assertEquals(49, keys.size());
+        Assert.assertEquals(7, pages);
+        Assert.assertEquals("user:000", keys.get(0));
+        Assert.assertEquals("user:011", keys.get(10));
+        Assert.assertEquals("user:049", keys.get(48));
+
+        // a range stops before the end key
+        WireProtocol.Reader range = WireProtocol.readResponse(processor.scanHandler(null, map, scanPayload("order:045", (byte)0x01, "user:", 100, new byte[0])).getResult());
+        Assert.assertEquals(5, range.readVarint());
+
+        SossHashMap decoded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map));
+        Assert.assertTrue(decoded.isSorted());
+        WireProtocol.Reader all = WireProtocol.readResponse(processor.scanHandler(null, decoded, scanPayload("", (byte)0x00, "", 1000, new byte[0])).getResult());
+        Assert.assertEquals(99, all.readVarint());
+    }
+
+    @Test
+    public void testAsyncClient() throws Exception {
+        LocalGrid grid = new LocalGrid(new SossHashMapApiProcessor());
+        SossHashMap map = grid.object(ExampleClient.DEFAULT_OBJECT_ID);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        // a stand-in for the grid that tracks how many invokes overlap
+        ExampleClient client = new ExampleClient(null, "SossHashMap", null, 8) {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                int current = inFlight.incrementAndGet();
+                maxSeen.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(2);
+                    return grid.invoke(objectId, operationId, payload);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+        List<CompletableFuture<Boolean>> puts = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            puts.add(client.putAsync("key-" + i, "value-" + i));
+            Assert.assertTrue(client.getInFlight() <= 8);
+        }
+        for(CompletableFuture<Boolean> put : puts) {
+            Assert.assertTrue(put.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue(maxSeen.get() > 1);
+        Assert.assertTrue(maxSeen.get() <= 8);
+        Assert.assertEquals("value-42", client.getAsync("key-42").get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(100, map.size());
+    }
+
+    /**
+     * Stores large values compressed through the client and the handlers, and checks that the module keeps them
+     * compressed in the table and in its serialized form while every read path returns the original value.
+     */
+    @Test
+    public void testValueCompression() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for(int i = 0; i < 400; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"sensor-").append(i % 7).append("\",\"state\":\"active\"},");
+        }
+        String document = json.append("{}]").toString();
+        byte[] raw = document.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = Lz4.compressValue(raw, 0, raw.length);
+        Assert.assertTrue(compressed.length < raw.length / 4);
+        Assert.assertArrayEquals(raw, Lz4.decompressValue(compressed, 0, compressed.length));
+        Random random = new Random(7);
+        byte[] noise = new byte[5000];
+        random.nextBytes(noise);
+        Assert.assertNull(Lz4.compressValue(noise, 0, noise.length));
+        // a value whose length header disagrees with its block is rejected
+        byte[] corrupt = compressed.clone();
+        corrupt[0]++;
+        try {
+            Lz4.decompressValue(corrupt, 0, corrupt.length);
+            Assert.fail("a corrupt value was decompressed");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        LocalGrid grid = new LocalGrid(processor);
+        SossHashMap map = grid.object(ExampleClient.DEFAULT_OBJECT_ID);
+        processor.sortedHandler(null, map, new byte[] {0x01});
+        ExampleClient client = grid.client();
+        Assert.assertTrue(client.put("doc", document));
+        Assert.assertTrue(client.put("small", "tiny"));
+        ByteHashTable.Snapshot snapshot = map.snapshot();
+        int entry = snapshot.findEntry("doc".getBytes(StandardCharsets.UTF_8), 0, 3);
+        Assert.assertTrue(snapshot.isCompressed(entry));
+        Assert.assertTrue(snapshot.valueLength(entry) < raw.length / 4);
+        Assert.assertFalse(snapshot.isCompressed(snapshot.findEntry("small".getBytes(StandardCharsets.UTF_8), 0, 5)));
+
+        Assert.assertEquals(document, client.get("doc"));
+        Assert.assertEquals(document, map.get("doc"));
+        Assert.assertEquals(document, client.mget(Arrays.asList("doc", "small")).get("doc"));
+        Assert.assertEquals(document, client.scanPrefix(ExampleClient.DEFAULT_OBJECT_ID, "d", 10, null).getEntries().get("doc"));
+        // the expected value is compared uncompressed, the new value is stored compressed
+        String updated = document.replace("active", "paused");
+        Assert.assertFalse(client.compareAndSet("doc", "stale", updated));
+        Assert.assertTrue(client.compareAndSet("doc", document, updated));
+        Map<String, String> batch = new HashMap<>();
+        batch.put("doc2", document);
+        Assert.assertTrue(client.mput(batch));
+        Assert.assertTrue(map.snapshot().isCompressed(map.snapshot().findEntry("doc2".getBytes(StandardCharsets.UTF_8), 0, 4)));
+
+        SossHashMap decoded = new SossHashMapDeserializer().deserialize(new SossHashMapSerializer().serialize(map));
+        Assert.assertEquals(updated, decoded.get("doc"));
+        Assert.assertEquals(document, decoded.get("doc2"));
+        Assert.assertEquals("tiny", decoded.get("small"));
+        Assert.assertTrue(new SossHashMapSerializer().serialize(map).length < 3 * raw.length / 4);
+
+        Assert.assertEquals(updated, client.remove("doc"));
+        client.setCompressionThreshold(0);
+        Assert.assertTrue(client.put("doc", document));
+        Assert.assertFalse(map.snapshot().isCompressed(map.snapshot().findEntry("doc".getBytes(StandardCharsets.UTF_8), 0, 3)));
+    }
+
+    @Test
+    public void testSegmentedMap() throws Exception {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        LocalGrid grid = new LocalGrid(processor);
+        Map<String, SossHashMap> objects = grid.objects();
+        ExampleClient client = grid.client();
+        SegmentedMapClient stale = new SegmentedMapClient(client, "orders", 64);
+        Assert.assertEquals(1, stale.getSegmentCount());
+        SegmentedMapClient segmented = new SegmentedMapClient(client, "orders", 64);
+        for(int i = 0; i < 3000; i++) {
+            Assert.assertTrue(segmented.put("order:" + i, "value-" + i));
+        }
+        int segmentCount = segmented.getSegmentCount();
+        Assert.assertTrue(segmentCount >= 3000 / 128);
+        int total = 0;
+        for(int index = 0; index < segmentCount; index++) {
+            SossHashMap segment = objects.get(segmented.segmentId(index));
+            Assert.assertEquals(index, segment.getSegmentIndex());
+            Assert.assertTrue(segment.size() <= 4 * 64);
+            Assert.assertEquals(0, segment.foreignEntries().size());
+            total += segment.size();
+        }
+        Assert.assertEquals(3000, total);
+        // a client that cached the segment count of the empty map is redirected by the segments
+        for(int i = 0; i < 3000; i += 7) {
+            Assert.assertEquals("value-" + i, stale.get("order:" + i));
+        }
+        Assert.assertNull(segmented.get("order:missing"));
+
+        List<String> keys = new ArrayList<>();
+        Map<String, String> batch = new HashMap<>();
+        for(int i = 0; i < 200; i++) {
+            keys.add("order:" + i);
+            batch.put("order:" + i, "updated-" + i);
+        }
+        Assert.assertTrue(stale.mput(batch));
+        Map<String, String> values = segmented.mget(keys);
+        Assert.assertEquals(200, values.size());
+        Assert.assertEquals("updated-42", values.get("order:42"));
+        Assert.assertEquals("updated-42", segmented.remove("order:42"));
+        Assert.assertNull(stale.get("order:42"));
+
+        // a FLAG_SEGMENT request to a segment that does not own the key is not applied
+        String key = "order:7";
+        String otherSegment = segmented.segmentId((objects.get(segmented.segmentIdFor(key)).getSegmentIndex() + 1) % segmentCount);
+        Assert.assertEquals(WireProtocol.STATUS_MOVED, status(processor.getHandler(null, objects.get(otherSegment), keyPayload(key, WireProtocol.FLAG_SEGMENT))));
+        Assert.assertEquals(WireProtocol.STATUS_MOVED, status(processor.getHandler(null, objects.get("orders"), keyPayload(key, WireProtocol.FLAG_SEGMENT))));
+        SossHashMap segment = objects.get(segmented.segmentId(segmentCount - 1));
+        SossHashMap decoded = new SossHashMapCodec().decode(new SossHashMapCodec().encode(segment));
+        Assert.assertEquals(segment.getSegmentIndex(), decoded.getSegmentIndex());
+        Assert.assertEquals(segment.getSegmentDepth(), decoded.getSegmentDepth());
+
+        // a split that stopped after its first step is finished by the next client that needs a moved key
+        segmentCount = segmented.getSegmentCount();
+        int index = SegmentRouter.nextSplit(segmentCount);
+        int depth = SegmentRouter.level(segmentCount) + 1;
+        byte[] splitRequest = WireProtocol.writeRequest(0, WireProtocol.varintSize(index) + WireProtocol.varintSize(depth)).putVarint(index).putVarint(depth).array();
+        Assert.assertEquals(WireProtocol.STATUS_OK, status(processor.splitSegmentHandler(null, objects.get(segmented.segmentId(index)), splitRequest)));
+        String movedKey = null;
+        for(int i = 200; movedKey == null; i++) {
+            byte[] keyBytes = ("order:" + i).getBytes(StandardCharsets.UTF_8);
+            if(SegmentRouter.indexAtDepth(SegmentRouter.segmentHash(keyBytes, 0, keyBytes.length), depth) == segmentCount) {
+                movedKey = "order:" + i;
+            }
+        }
+        Assert.assertEquals(movedKey.replace("order:", "value-"), stale.get(movedKey));
+        Assert.assertEquals(segmentCount + 1, segmented.getSegmentCount());
+        Assert.assertEquals(0, objects.get(segmented.segmentId(index)).foreignEntries().size());
+    }
+
+    @Test
+    public void testBulkLoad() throws Exception {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        LocalGrid grid = new LocalGrid(processor);
+        Map<String, SossHashMap> objects = grid.objects();
+        AtomicInteger failAfter = new AtomicInteger(Integer.MAX_VALUE);
+        ExampleClient client = new ExampleClient(null, "SossHashMap") {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                if(operationId.equals("bulkPut") && failAfter.decrementAndGet() < 0)
+                    throw new IllegalStateException("connection lost");
+                return grid.invoke(objectId, operationId, payload);
+            }
+        };
+        Path csv = Files.createTempFile("bulk", ".csv");
+        Path binary = Files.createTempFile("bulk", ".bin");
+        try {
+            StringBuilder lines = new StringBuilder();
+            for(int i = 0; i < 5000; i++) {
+                lines.append("key").append(i).append(",value ").append(i).append(", with a comma\n");
+            }
+            lines.append("\n\"quoted,key\",\"a \"\"quoted\"\" value\nover two lines\"\r\n");
+            lines.append("crlf,value\r\n");
+            lines.append("last,").append(String.join("", Collections.nCopies(1000, "long value "))).append("no line break");
+            Files.write(csv, lines.toString().getBytes(StandardCharsets.UTF_8));
+
+            ShardedMapClient sharded = new ShardedMapClient(client, "bulk", 4);
+            BulkLoader loader = new BulkLoader(sharded);
+            loader.setChunkBytes(4096);
+            loader.setParallelism(3);
+            List<BulkLoadProgress> reports = new ArrayList<>();
+            loader.setProgressListener(reports::add, Duration.ZERO);
+            BulkLoadProgress progress = loader.load(csv, BulkLoader.Format.CSV);
+            Assert.assertEquals(5003, progress.getRecords());
+            Assert.assertEquals(Files.size(csv), progress.getResumeOffset());
+            Assert.assertEquals(0, progress.getRejected());
+            Assert.assertTrue(reports.size() > 1);
+            Assert.assertEquals(progress.getRecords(), reports.get(reports.size() - 1).getRecords());
+            Assert.assertEquals("value 4999, with a comma", sharded.get("key4999"));
+            Assert.assertEquals("a \"quoted\" value\nover two lines", sharded.get("quoted,key"));
+            Assert.assertEquals("value", sharded.get("crlf"));
+            Assert.assertTrue(sharded.get("last").endsWith("long value no line break"));
+            Assert.assertEquals(4, objects.size());
+
+            try(OutputStream out = Files.newOutputStream(binary)) {
+                for(int i = 0; i < 3000; i++) {
+                    BulkLoader.writeRecord(out, "order:" + i, "value-" + i);
+                }
+            }
+            // the load stops after 5 chunks, and resumes where it stopped
+            failAfter.set(5);
+            loader = new BulkLoader(client, "orders");
+            loader.setChunkBytes(1024);
+            loader.setParallelism(1);
+            long resumeOffset = 0;
+            try {
+                loader.load(binary, BulkLoader.Format.BINARY);
+                Assert.fail();
+            } catch (BulkLoadException e) {
+                resumeOffset = e.getResumeOffset();
+                Assert.assertEquals(5, e.getProgress().getChunks());
+                Assert.assertEquals(objects.get("orders").size(), e.getProgress().getRecords());
+                Assert.assertEquals("connection lost", e.getCause().getMessage());
+            }
+            Assert.assertTrue(resumeOffset > 0 && resumeOffset < Files.size(binary));
+            failAfter.set(Integer.MAX_VALUE);
+            progress = loader.load(binary, BulkLoader.Format.BINARY, resumeOffset);
+            Assert.assertEquals(Files.size(binary), progress.getResumeOffset());
+            Assert.assertEquals(3000, objects.get("orders").size());
+            Assert.assertEquals("value-2999", client.get("orders", "order:2999"));
+
+            // a truncated record stops the load at the last complete chunk
+            byte[] bytes = Files.readAllBytes(binary);
+            Files.write(binary, Arrays.copyOf(bytes, bytes.length - 3));
+            try {
+                loader.load(binary, BulkLoader.Format.BINARY);
+                Assert.fail();
+            } catch (BulkLoadException e) {
+                Assert.assertTrue(e.getResumeOffset() < bytes.length - 3);
+            }
+        } finally {
+            Files.delete(csv);
+            Files.delete(binary);
+        }
+    }
+
+    @Test
+    public void testExportSnapshot() throws Exception {
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        LocalGrid grid = new LocalGrid(processor);
+        Map<String, SossHashMap> objects = grid.objects();
+        AtomicInteger exportCalls = new AtomicInteger();
+        ExampleClient client = new ExampleClient(null, "SossHashMap") {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                // the table grows and is rehashed between the first and second page
+                if(operationId.equals("export") && exportCalls.incrementAndGet() == 2) {
+                    for(int i = 0; i < 5000; i++) {
+                        grid.invoke(objectId, "put", putPayload("late" + i, "v"));
+                    }
+                }
+                return grid.invoke(objectId, operationId, payload);
+            }
+        };
+        client.setCompressionThreshold(256);
+        for(int i = 0; i < 3000; i++) {
+            client.put("source", "key" + i, "value " + i);
+        }
+        String large = String.join("", Collections.nCopies(100, "compressible "));
+        client.put("source", "large", large);
+        processor.putHandler(null, objects.get("source"), putTtlPayload("ttl", "expires", 60_000));
+
+        Path snapshot = Files.createTempFile("snapshot", ".bin");
+        try {
+            MapExporter exporter = new MapExporter(client, "source");
+            exporter.setPageBytes(4096);
+            long exported = exporter.export(snapshot);
+            Assert.assertTrue(exportCalls.get() > 2);
+            Assert.assertTrue(exported >= 3002);
+
+            BulkLoadProgress progress = new BulkLoader(client, "restored").load(snapshot, BulkLoader.Format.SNAPSHOT);
+            Assert.assertEquals(exported, progress.getRecords());
+            Assert.assertEquals(Files.size(snapshot), progress.getResumeOffset());
+            SossHashMap restored = objects.get("restored");
+            for(int i = 0; i < 3000; i++) {
+                Assert.assertEquals("value " + i, client.get("restored", "key" + i));
+            }
+            Assert.assertEquals(large, client.get("restored", "large"));
+            byte[] ttlKey = "ttl".getBytes(StandardCharsets.UTF_8);
+            ByteHashTable.Snapshot tables = restored.snapshot();
+            int entry = tables.peekEntry(ttlKey, 0, ttlKey.length);
+            Assert.assertTrue(tables.expiresAt(entry) > System.currentTimeMillis());
+            byte[] largeKey = "large".getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(tables.isCompressed(tables.peekEntry(largeKey, 0, largeKey.length)));
+            Assert.assertEquals(objects.get("source").size(), restored.size());
+
+            // a flipped byte fails the checksum of its frame
+            byte[] bytes = Files.readAllBytes(snapshot);
+            bytes[100] ^= 0x01;
+            Files.write(snapshot, bytes);
+            try {
+                new BulkLoader(client, "corrupt").load(snapshot, BulkLoader.Format.SNAPSHOT);
+                Assert.fail();
+            } catch (BulkLoadException e) {
+                Assert.assertTrue(e.getCause().getMessage().contains("checksum"));
+            }
+            // a file without its end marker is cut short
+            bytes[100] ^= 0x01;
+            Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 12));
+            try {
+                new BulkLoader(client, "truncated").load(snapshot, BulkLoader.Format.SNAPSHOT);
+                Assert.fail();
+            } catch (BulkLoadException e) {
+                Assert.assertTrue(e.getCause().getMessage().contains("end marker"));
+            }
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+
+    @Test
+    public void testMissFilter() throws Exception {
+        BloomFilter bloom = new BloomFilter(10000, 0.01);
+        for(int i = 0; i < 10000; i++) {
+            bloom.add(ByteHashTable.hash(("key" + i).getBytes(StandardCharsets.UTF_8), 0, ("key" + i).length()));
+        }
+        int falsePositives = 0;
+        for(int i = 0; i < 100000; i++) {
+            byte[] key = ("absent" + i).getBytes(StandardCharsets.UTF_8);
+            if(bloom.mightContain(ByteHashTable.hash(key, 0, key.length))) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue(falsePositives < 1500);
+        WireProtocol.Writer out = WireProtocol.writeResponse(WireProtocol.STATUS_OK, 0, bloom.encodedLength());
+        bloom.write(out);
+        BloomFilter read = BloomFilter.read(WireProtocol.readResponse(out.array()));
+        Assert.assertEquals(bloom.getBitCount(), read.getBitCount());
+        Assert.assertEquals(10000, read.getInserted());
+        Assert.assertTrue(read.mightContain(ByteHashTable.hash("key42".getBytes(StandardCharsets.UTF_8), 0, 5)));
+
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        LocalGrid grid = new LocalGrid(processor);
+        Map<String, SossHashMap> objects = grid.objects();
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        ExampleClient writer = new ExampleClient(null, "SossHashMap") {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                calls.computeIfAbsent(operationId, op -> new AtomicInteger()).incrementAndGet();
+                return grid.invoke(objectId, operationId, payload);
+            }
+        };
+        ExampleClient reader = new ExampleClient(null, "SossHashMap") {
+            @Override
+            public byte[] invoke(String objectId, String operationId, byte[] payload) throws ApiModuleException {
+                return writer.invoke(objectId, operationId, payload);
+            }
+        };
+        for(int i = 0; i < 1000; i++) {
+            writer.put("filtered", "key" + i, "value " + i);
+        }
+
+        // misses are answered locally, hits still reach the module
+        MissFilter missFilter = new MissFilter(0.01, Duration.ofHours(1));
+        reader.setMissFilter(missFilter);
+        calls.clear();
+        for(int i = 0; i < 1000; i++) {
+            Assert.assertNull(reader.get("filtered", "absent" + i));
+            Assert.assertEquals("value " + i, reader.get("filtered", "key" + i));
+        }
+        MissFilterStats stats = missFilter.getStats();
+        Assert.assertEquals(1, stats.getFullRefreshes());
+        Assert.assertEquals(1000 + stats.getFalsePositives(), calls.get("get").get());
+        Assert.assertEquals(1000 - stats.getFalsePositives(), stats.getSavedRoundTrips());
+        Assert.assertTrue(stats.getFalsePositives() < 50);
+
+        // another client's write is not seen until the next refresh, a local write at once
+        writer.put("filtered", "late", "x");
+        Assert.assertNull(reader.get("filtered", "late"));
+        reader.put("filtered", "mine", "y");
+        Assert.assertEquals("y", reader.get("filtered", "mine"));
+
+        // a refresh on every lookup only fetches the keys changed since
+        missFilter = new MissFilter(0.01, Duration.ZERO);
+        reader.setMissFilter(missFilter);
+        Assert.assertEquals("x", reader.get("filtered", "late"));
+        writer.put("filtered", "later", "z");
+        Assert.assertEquals("z", reader.get("filtered", "later"));
+        Assert.assertEquals(1, missFilter.getStats().getFullRefreshes());
+        Assert.assertEquals(1, missFilter.getStats().getDeltaRefreshes());
+        Assert.assertTrue(missFilter.getStats().getRefreshBytes() > 0);
+
+        // a bulk load through the client drops the filter, and the next lookup fetches a new one
+        missFilter = new MissFilter(0.01, Duration.ofHours(1));
+        reader.setMissFilter(missFilter);
+        Assert.assertNull(reader.get("filtered", "bulk"));
+        reader.bulkPut("filtered", new byte[]{4, 'b', 'u', 'l', 'k', 0, 1, 'v'}, 0, 8);
+        Assert.assertEquals("v", reader.get("filtered", "bulk"));
+        Assert.assertEquals(2, missFilter.getStats().getFullRefreshes());
+    }
+
+    @Test
+    public void testStats() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(500500.0, snapshot.getMean(), 0.001);
+        Assert.assertEquals(1000000, snapshot.getMax());
+        // percentiles are within the 1/32 resolution of a bucket
+        Assert.assertEquals(500000, snapshot.getPercentile(50), 500000 / 32);
+        Assert.assertEquals(990000, snapshot.getPercentile(99), 990000 / 32);
+        Assert.assertEquals(1000000, snapshot.getPercentile(100));
+        histogram.record(5);
+        Assert.assertEquals(5, histogram.snapshot().since(snapshot).getPercentile(50));
+
+        SossHashMapApiProcessor processor = new SossHashMapApiProcessor();
+        SossHashMap map = processor.createObject("SossHashMap", "StatsObjectId");
+        SossHashMap other = processor.createObject("SossHashMap", "OtherObjectId");
+        ProcessorStats stats = processor.getStats();
+        Assert.assertEquals(16, stats.getSampleInterval());
+        stats.setSampleInterval(3);
+        Assert.assertEquals(4, stats.getSampleInterval());
+        // time every call
+        stats.setSampleInterval(1);
+        for(int i = 0; i < 100; i++) {
+            processor.putHandler(null, map, putPayload("key" + i, "value" + i));
+            processor.getHandler(null, map, keyPayload("key" + i, 0));
+        }
+        processor.getHandler(null, other, keyPayload("key", 0));
+
+        ProcessorStats.OperationStats puts = stats.getOperation("put");
+        Assert.assertTrue(puts.isExclusive());
+        Assert.assertFalse(stats.getOperation("get").isExclusive());
+        Assert.assertEquals(100, puts.getCalls());
+        Assert.assertEquals(100, puts.getLatency().snapshot().getCount());
+        Assert.assertEquals(101, stats.getOperation("get").getCalls());
+        Assert.assertTrue(puts.getRequestBytes() > 100 * 10);
+        Assert.assertEquals(100 * WireProtocol.status(WireProtocol.STATUS_OK).length, puts.getResponseBytes());
+        Assert.assertNull(stats.getOperation("stats"));
+
+        ProcessorStats.ObjectStats object = stats.getObject("StatsObjectId");
+        Assert.assertEquals(200, object.getCalls());
+        Assert.assertEquals(100, object.getExclusiveCalls());
+        Assert.assertEquals(100, object.getEntries());
+        Assert.assertEquals(map.liveBytes(), object.getLiveBytes());
+        Assert.assertTrue(object.getLockHoldNanos() > 0);
+        Assert.assertTrue(object.getEstimatedLockWaitNanos() >= 0);
+        Assert.assertEquals("StatsObjectId", stats.getHottestObjects(1).get(0).getId());
+
+        String json = new String(processor.statsHandler(null, map, new byte[0]).getResult(), StandardCharsets.UTF_8);
+        Assert.assertTrue(json, json.startsWith("{\"sampleInterval\":1,\"object\":{\"id\":\"StatsObjectId\",\"entries\":100,"));
+        Assert.assertTrue(json, json.contains("{\"id\":\"put\",\"exclusive\":true,\"count\":100,\"sampled\":100,"));
+        Assert.assertTrue(json, json.contains("\"hottestObjects\":[{\"id\":\"StatsObjectId\""));
+        Assert.assertEquals(100, stats.getOperation("put").getLatency().snapshot().getCount());
+
+        // the log reports each interval once
+        String report = stats.logReport();
+        Assert.assertTrue(report, report.contains("object StatsObjectId: 200 calls, 100 entries"));
+        processor.putHandler(null, other, putPayload("a", "b"));
+        report = stats.logReport();
+        Assert.assertFalse(report, report.contains("StatsObjectId"));
+        Assert.assertTrue(report, report.contains("object OtherObjectId: 1 calls, 1 entries"));
+    }
+
+    @Test
+    public void testGeneratedCodecs() throws ApiModuleException {
+        // the generated codec keeps the hand-written layout of "configure"
+        EvictionPolicy policy = new EvictionPolicy(100, 1L << 40, true);
+        Assert.assertArrayEquals(ByteBuffer.allocate(13).putInt(100).putLong(1L << 40).put((byte)1).array(), EvictionPolicyCodec.encode(policy));
+        EvictionPolicy decoded = EvictionPolicyCodec.decode(EvictionPolicyCodec.encode(policy));
+        Assert.assertEquals(100, decoded.getMaxEntries());
+        Assert.assertEquals(1L << 40, decoded.getMaxBytes());
+        Assert.assertTrue(decoded.isAdmissionFilter());
+
+        // the typed control operations go through the generated client
+        LocalGrid grid = new LocalGrid(new SossHashMapApiProcessor());
+        SossHashMap map = grid.object(ExampleClient.DEFAULT_OBJECT_ID);
+        ExampleClient client = grid.client();
+        for(int i = 0; i < 10; i++) {
+            client.put("key" + i, "value" + i);
+        }
+        Assert.assertEquals(6, client.configure(ExampleClient.DEFAULT_OBJECT_ID, new EvictionPolicy(4, 0, false)));
+        Assert.assertEquals(6, client.evictedCount(ExampleClient.DEFAULT_OBJECT_ID));
+        Assert.assertEquals(0, client.expiredCount(ExampleClient.DEFAULT_OBJECT_ID));
+        Assert.assertFalse(client.setSorted(ExampleClient.DEFAULT_OBJECT_ID, true));
+        Assert.assertTrue(client.setSorted(ExampleClient.DEFAULT_OBJECT_ID, false));
+
+        // every field kind, including multi-byte UTF-8, a surrogate pair and nulls
+        String text = "caf\u00e9 \u20ac \ud83d\ude00";
+        Assert.assertEquals(text.getBytes(StandardCharsets.UTF_8).length, MessageCodecs.utf8Length(text));
+        SampleMessage sample = new SampleMessage(true, (short)-2, 3.5, text, new byte[]{1, 2, 3}, TimeUnit.MINUTES, null, null);
+        byte[] frame = TestModuleSampleMessageCodec.encode(sample);
+        SampleMessage copy = TestModuleSampleMessageCodec.decode(frame);
+        Assert.assertTrue(copy.flag);
+        Assert.assertEquals(-2, copy.small);
+        Assert.assertEquals(3.5, copy.ratio, 0.0);
+        Assert.assertEquals(text, copy.text);
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, copy.data);
+        Assert.assertEquals(TimeUnit.MINUTES, copy.unit);
+        Assert.assertNull(copy.missingText);
+        Assert.assertNull(copy.missingData);
+        // bytes appended by a newer sender are ignored
+        Assert.assertEquals(text, TestModuleSampleMessageCodec.decode(Arrays.copyOf(frame, frame.length + 4)).text);
+        try {
+            TestModuleSampleMessageCodec.decode(frame, 0, frame.length - 1);
+            Assert.fail("a truncated message was decoded");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @ApiMessage
+    static final class SampleMessage {
+        final boolean flag;
+        final short small;
+        final double ratio;
+        final String text;
+        final byte[] data;
+        final TimeUnit unit;
+        final String missingText;
+        final byte[] missingData;
+
+        SampleMessage(boolean flag, short small, double ratio, String text, byte[] data, TimeUnit unit, String missingText, byte[] missingData) {
+            this.flag = flag;
+            this.small = small;
+            this.ratio = ratio;
+            this.text = text;
+            this.data = data;
+            this.unit = unit;
+            this.missingText = missingText;
+            this.missingData = missingData;
+        }
+    }
+
+    private static byte[] putPayload(String key, String value) {
+        return putTtlPayload(key, value, 0);
+    }
+
+    private static byte[] putTtlPayload(String key, String value, long ttlMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        int ttlLen = ttlMillis > 0 ? WireProtocol.varintSize(ttlMillis) : 0;
+        WireProtocol.Writer request = WireProtocol.writeRequest(ttlMillis > 0 ? WireProtocol.FLAG_TTL : 0, WireProtocol.varintSize(keyBytes.length) + keyBytes.length + ttlLen + valBytes.length);
+        request.putVarint(keyBytes.length).putBytes(keyBytes);
+        if(ttlMillis > 0) {
+            request.putVarint(ttlMillis);
+        }
+        return request.putBytes(valBytes).array();
+    }
+
+    private static byte[] keyPayload(String key, int flags) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(flags, WireProtocol.varintSize(keyBytes.length) + keyBytes.length)
+                .putVarint(keyBytes.length).putBytes(keyBytes)
+                .array();
+    }
+
+    private static byte[] singleKeyPayload(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(0, 1 + WireProtocol.varintSize(keyBytes.length) + keyBytes.length)
+                .putVarint(1).putVarint(keyBytes.length).putBytes(keyBytes)
+                .array();
+    }
+
+    private static byte[] casPayload(String key, String expected, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] expBytes = expected.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(0, 2 + keyBytes.length + expBytes.length + valBytes.length)
+                .putVarint(keyBytes.length).putBytes(keyBytes)
+                .putVarint(expBytes.length).putBytes(expBytes)
+                .putBytes(valBytes)
+                .array();
+    }
+
+    private static byte[] casPayload(String key, long version, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valBytes = value.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(WireProtocol.FLAG_VERSION, 9 + keyBytes.length + valBytes.length)
+                .putVarint(keyBytes.length).putBytes(keyBytes)
+                .putLong(version)
+                .putBytes(valBytes)
+                .array();
+    }
+
+    private static byte[] incrementPayload(String key, long delta) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(0, 9 + keyBytes.length).putVarint(keyBytes.length).putBytes(keyBytes).putLong(delta).array();
+    }
+
+    private static byte[] scanPayload(String start, byte boundType, String bound, int pageSize, byte[] token) {
+        byte[] startBytes = start.getBytes(StandardCharsets.UTF_8);
+        byte[] boundBytes = bound.getBytes(StandardCharsets.UTF_8);
+        return WireProtocol.writeRequest(0, WireProtocol.varintSize(startBytes.length) + startBytes.length + 1
+                        + WireProtocol.varintSize(boundBytes.length) + boundBytes.length + WireProtocol.varintSize(pageSize)
+                        + WireProtocol.varintSize(token.length) + token.length)
+                .putVarint(startBytes.length).putBytes(startBytes)
+                .putByte(boundType).putVarint(boundBytes.length).putBytes(boundBytes)
+                .putVarint(pageSize)
+                .putVarint(token.length).putBytes(token)
+                .array();
+    }
+
+    private static byte status(InvokeResult result) {
+        return WireProtocol.readResponse(result.getResult()).status();
+    }
+
+    /**
+     * Returns the UTF-8 value that ends a response, or null if the response has no value.
+     */
+    private static String value(InvokeResult result) {
+        WireProtocol.Reader response = WireProtocol.readResponse(result.getResult());
+        if(response.status() == WireProtocol.STATUS_NOT_FOUND)
+            return null;
+        if(response.hasFlag(WireProtocol.FLAG_VERSION))
+            response.readLong();
+        if(response.hasFlag(WireProtocol.FLAG_TTL))
+            response.readVarlong();
+        if(response.hasFlag(WireProtocol.FLAG_COMPRESSED))
+            return new String(Lz4.decompressValue(response.frame(), response.position(), response.remaining()), StandardCharsets.UTF_8);
+        return new String(response.frame(), response.position(), response.remaining(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A stand-in for the grid. It creates SossHashMap objects on first use and dispatches each invoke to the
+     * processor's handler for the operationId, found through its @SossApiMethod annotations. Handlers that
+     * take a lock run while holding the object's monitor.
+     */
+    private static final class LocalGrid {
+        private final SossHashMapApiProcessor _processor;
+        private final Map<String, Method> _handlers = new HashMap<>();
+        private final Map<String, SossHashMap> _objects = new ConcurrentHashMap<>();
+
+        LocalGrid(SossHashMapApiProcessor processor) {
+            _processor = processor;
+            for(Method method : SossHashMapApiProcessor.class.getMethods()) {
+                SossApiMethod api = method.getAnnotation(SossApiMethod.class);
+                if(api != null)
+                    _handlers.put(api.operationId(), method);
+            }
+        }
+
+        /**
+         * Returns the object with the given ID, creating it if it does not exist.
+         */
+        SossHashMap object(String objectId) {
+            return _objects.computeIfAbsent(objectId, id -> _processor.createObject("SossHashMap", id));
+        }
+
+        /**
+         * Returns the live map of objects by ID.
+         */
+        Map<String, SossHashMap> objects() {
+            return _objects;
+        }
+
+        byte[] invoke(String objectId, String operationId, byte[] payload) {
+            Method handler = _handlers.get(operationId);
+            if(handler == null)
+                throw new IllegalArgumentException(operationId);
+            SossHashMap map = object(objectId);
+            if(handler.getAnnotation(SossApiMethod.class).lockingMode() == ApiProcessorLockingMode.None)
+                return call(handler, map, payload);
+            synchronized (map) {
+                return call(handler, map, payload);
+            }
+        }
+
+        /**
+         * Returns a client whose invokes are dispatched by this grid.
+         */
+        ExampleClient client() {
+            return new ExampleClient(null, "SossHashMap") {
+                @Override
+                public byte[] invoke(String objectId, String operationId, byte[] payload) {
+                    return LocalGrid.this.invoke(objectId, operationId, payload);
+                }
+            };
+        }
+
+        private byte[] call(Method handler, SossHashMap map, byte[] payload) {
+            try {
+                return ((InvokeResult)handler.invoke(_processor, null, map, payload)).getResult();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                if(e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+                if(e.getCause() instanceof Error)
+                    throw (Error)e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
 }
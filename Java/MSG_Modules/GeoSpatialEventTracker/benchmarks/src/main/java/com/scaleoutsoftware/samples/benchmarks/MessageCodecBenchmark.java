@@ -0,0 +1,92 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.google.gson.Gson;
+import com.scaleoutsoftware.samples.GeoSpatialMessage;
+import com.scaleoutsoftware.samples.NodeCondition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding a GeoSpatialMessage in each format. "gson" is the earlier code path,
+ * which built a Gson instance for every call, "json" is JSON with the shared instance, and "binary" is
+ * GeoSpatialMessageCodec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    @Param({"gson", "json", "binary"})
+    public String format;
+
+    @Param({"status", "init"})
+    public String type;
+
+    private GeoSpatialMessage _message;
+    private byte[] _encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _message = type.equals("init")
+                ? new GeoSpatialMessage("98072", "NW", NodeCondition.NORMAL.getName(), "controller", 47.6062, -122.3321)
+                : new GeoSpatialMessage(NodeCondition.MINOR.getName());
+        _encoded = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        switch(format) {
+            case "gson": return new Gson().toJson(_message).getBytes(StandardCharsets.UTF_8);
+            case "json": return GeoSpatialMessage.toJsonBytes(_message);
+            default: return GeoSpatialMessage.toBytes(_message);
+        }
+    }
+
+    @Benchmark
+    public GeoSpatialMessage decode() {
+        if(format.equals("gson"))
+            return new Gson().fromJson(new String(_encoded, StandardCharsets.UTF_8), GeoSpatialMessage.class);
+        return GeoSpatialMessage.fromBytes(_encoded);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples.benchmarks;
+
+import com.scaleoutsoftware.modules.abstractions.ProcessingResult;
+import com.scaleoutsoftware.samples.EventProcessor;
+import com.scaleoutsoftware.samples.GeoSpatialEventTracker;
+import com.scaleoutsoftware.samples.GeoSpatialMessage;
+import com.scaleoutsoftware.samples.NodeCondition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures EventProcessor.processMessage for one tracker. Run it with "-prof gc": a status message in the
+ * binary format should allocate nothing. "normal" and "minor" send binary status messages of that
+ * condition; "json" sends the "normal" status message as JSON.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessMessageBenchmark {
+    @Param({"normal", "minor", "json"})
+    public String message;
+
+    @Param({"controller", "infrastructure"})
+    public String nodeType;
+
+    private EventProcessor _processor;
+    private StubProcessingContext _context;
+    private GeoSpatialEventTracker _tracker;
+    private byte[] _message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _processor = new EventProcessor();
+        _context = new StubProcessingContext("98072");
+        _tracker = _processor.createObject("GeoSpatialEventTracker", "98072");
+        GeoSpatialMessage init = new GeoSpatialMessage("98072", "NW", NodeCondition.NORMAL.getName(), nodeType, 47.6062, -122.3321);
+        _processor.processMessage(_context, _tracker, GeoSpatialMessage.toBytes(init));
+        switch(message) {
+            case "minor":
+                _message = GeoSpatialMessage.toBytes(new GeoSpatialMessage(NodeCondition.MINOR.getName()));
+                break;
+            case "json":
+                _message = GeoSpatialMessage.toJsonBytes(new GeoSpatialMessage(NodeCondition.NORMAL.getName()));
+                break;
+            default:
+                _message = GeoSpatialMessage.toBytes(new GeoSpatialMessage(NodeCondition.NORMAL.getName()));
+        }
+    }
+
+    @Benchmark
+    public ProcessingResult processMessage() {
+        return _processor.processMessage(_context, _tracker, _message);
+    }
+}
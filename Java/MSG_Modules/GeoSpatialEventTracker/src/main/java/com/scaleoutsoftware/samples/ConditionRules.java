@@ -0,0 +1,310 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules that turn a status message into changes to a tracker, precomputed into one transition table
+ * per node_type. A table is indexed by the tracker's current condition, the incoming condition and a
+ * bucket of the tracker's incident history, so a message is evaluated with a single array lookup.
+ * <p>
+ * Rules are read from a CSV file; see conditionRules.csv for the format and the default rules. Set
+ * -DGeoSpatialEventTracker.rules=path to load other rules without recompiling the module.
+ */
+public final class ConditionRules {
+    public static final String RULES_PROPERTY = "GeoSpatialEventTracker.rules";
+    private static final String DEFAULT_RULES = "/conditionRules.csv";
+
+    // history buckets, in the order of HISTORY_NAMES
+    static final int HISTORY_SEVERE = 0;
+    static final int HISTORY_CLEAN = 1;
+    static final int HISTORY_FALSE_ONLY = 2;
+    static final int HISTORY_FALSE_MAJORITY = 3;
+    static final int HISTORY_REAL_MAJORITY = 4;
+    private static final String[] HISTORY_NAMES = {"severe", "clean", "false_only", "false_majority", "real_majority"};
+
+    private static final int CONDITIONS = NodeCondition.values().length;
+    // the current condition of a tracker that has not been initialized
+    private static final int CURRENT_NONE = CONDITIONS;
+    private static final int TABLE_SIZE = (CONDITIONS + 1) * CONDITIONS * HISTORY_NAMES.length;
+
+    // a transition packs the counters to increment in bits 0-7, whether to take the incoming condition in
+    // bit 8, and the alert level + 1 in bits 16-31 (0 keeps the alert level)
+    private static final int FALSE_ALARM = 0x01;
+    private static final int RESOLVED = 0x02;
+    private static final int MINOR = 0x04;
+    private static final int MODERATE = 0x08;
+    private static final int SEVERE = 0x10;
+    private static final int INCIDENT = 0x20;
+    private static final String[] COUNTER_NAMES = {"false_alarm", "resolved", "minor", "moderate", "severe", "incident"};
+    private static final int SET_CONDITION = 0x100;
+    private static final int LEVEL_SHIFT = 16;
+    private static final int MAX_ALERT_LEVEL = 0xfffe;
+    private static final int FIXED_COLUMNS = 5;
+
+    // node type names are interned, as are the node types of trackers, so a lookup is usually an identity check
+    private final String[] _nodeTypes;
+    private final int[][] _tables;
+    // for node types without an alert level column
+    private final int[] _otherTable;
+
+    private ConditionRules(List<String> nodeTypes, Map<String, int[]> tables, int[] otherTable) {
+        _nodeTypes = new String[nodeTypes.size()];
+        _tables = new int[nodeTypes.size()][];
+        for(int i = 0; i < _nodeTypes.length; i++) {
+            _nodeTypes[i] = nodeTypes.get(i).intern();
+            _tables[i] = tables.get(nodeTypes.get(i));
+        }
+        _otherTable = otherTable;
+    }
+
+    /**
+     * Loads the rules named by the system property GeoSpatialEventTracker.rules, or the default rules if
+     * it is not set.
+     * @return the rules
+     * @throws UncheckedIOException if the rules file cannot be read
+     * @throws IllegalArgumentException if the rules file is malformed
+     */
+    public static ConditionRules fromSystemProperties() {
+        String path = System.getProperty(RULES_PROPERTY);
+        if(path == null)
+            return defaults();
+        try(Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the rules file " + path, e);
+        }
+    }
+
+    /**
+     * Loads the default rules, conditionRules.csv from the module's jar.
+     * @return the rules
+     */
+    public static ConditionRules defaults() {
+        try(InputStream in = ConditionRules.class.getResourceAsStream(DEFAULT_RULES)) {
+            if(in == null)
+                throw new IllegalStateException("The default rules " + DEFAULT_RULES + " are missing from the class path.");
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads rules in the CSV format of conditionRules.csv.
+     * @param reader the rules
+     * @return the rules
+     * @throws IOException if the rules cannot be read
+     * @throws IllegalArgumentException if the rules are malformed
+     */
+    public static ConditionRules load(Reader reader) throws IOException {
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setCommentMarker('#')
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreSurroundingSpaces(true)
+                .build();
+        List<String> nodeTypes = new ArrayList<>();
+        Map<String, int[]> tables = new HashMap<>();
+        int[] otherTable = new int[TABLE_SIZE];
+        for(CSVRecord record : format.parse(reader)) {
+            if(nodeTypes.isEmpty()) {
+                List<String> header = record.getParser().getHeaderNames();
+                if(header.size() < FIXED_COLUMNS)
+                    throw new IllegalArgumentException("The rules need the columns current, incoming, history, condition and counters.");
+                for(String nodeType : header.subList(FIXED_COLUMNS, header.size())) {
+                    nodeTypes.add(nodeType);
+                    tables.put(nodeType, new int[TABLE_SIZE]);
+                }
+            }
+            if(record.size() != FIXED_COLUMNS + nodeTypes.size())
+                throw error(record, "expected " + (FIXED_COLUMNS + nodeTypes.size()) + " columns");
+            boolean[] current = match(record, record.get(0), conditionNames(true));
+            boolean[] incoming = match(record, record.get(1), conditionNames(false));
+            boolean[] history = match(record, record.get(2), HISTORY_NAMES);
+            int transition = counters(record, record.get(4)) | condition(record, record.get(3));
+            for(int c = 0; c < current.length; c++) {
+                for(int i = 0; i < incoming.length; i++) {
+                    for(int h = 0; h < history.length; h++) {
+                        if(!current[c] || !incoming[i] || !history[h])
+                            continue;
+                        int index = index(c, i, h);
+                        otherTable[index] = transition;
+                        for(int t = 0; t < nodeTypes.size(); t++)
+                            tables.get(nodeTypes.get(t))[index] = transition | alertLevel(record, record.get(FIXED_COLUMNS + t)) << LEVEL_SHIFT;
+                    }
+                }
+            }
+        }
+        return new ConditionRules(nodeTypes, tables, otherTable);
+    }
+
+    /**
+     * Applies a status message to a tracker: updates its counters, alert level, condition and incident list.
+     * @param tracker the tracker
+     * @param incoming the condition in the message
+     */
+    public void apply(GeoSpatialEventTracker tracker, NodeCondition incoming) {
+        int[] table = table(tracker.node_type);
+        NodeCondition current = tracker.getNodeCondition();
+        int history = history(tracker.getSevereIncidentCount(), tracker.getModerateIncidentCount(), tracker.getFalseIncidentCount());
+        int transition = table[index(current == null ? CURRENT_NONE : current.ordinal(), incoming.ordinal(), history)];
+        if(transition == 0)
+            return;
+        int level = transition >>> LEVEL_SHIFT;
+        if(level != 0)
+            tracker.setAlertLevel(level - 1);
+        if((transition & FALSE_ALARM) != 0)
+            tracker.incrementFalseAlarmCount();
+        if((transition & RESOLVED) != 0)
+            tracker.incrementResolvedIncidents();
+        if((transition & MINOR) != 0)
+            tracker.incrementMinorEventCount();
+        if((transition & MODERATE) != 0)
+            tracker.incrementModerateEventCount();
+        if((transition & SEVERE) != 0)
+            tracker.incrementSevereEventCount();
+        if((transition & SET_CONDITION) != 0)
+            tracker.setNodeCondition(incoming);
+        if((transition & INCIDENT) != 0) {
+            tracker.incrementTotalIncidents();
+            tracker.addToIncidentList(incoming);
+        }
+    }
+
+    private int[] table(String nodeType) {
+        for(int i = 0; i < _nodeTypes.length; i++) {
+            if(_nodeTypes[i] == nodeType)
+                return _tables[i];
+        }
+        for(int i = 0; i < _nodeTypes.length; i++) {
+            if(_nodeTypes[i].equals(nodeType))
+                return _tables[i];
+        }
+        return _otherTable;
+    }
+
+    /**
+     * Returns the history bucket of a tracker's incident counts.
+     */
+    static int history(int severe, int moderate, int falseAlarms) {
+        if(severe > 0)
+            return HISTORY_SEVERE;
+        if(falseAlarms == 0)
+            return HISTORY_CLEAN;
+        if(moderate == 0)
+            return HISTORY_FALSE_ONLY;
+        return falseAlarms >= moderate ? HISTORY_FALSE_MAJORITY : HISTORY_REAL_MAJORITY;
+    }
+
+    private static int index(int current, int incoming, int history) {
+        return (current * CONDITIONS + incoming) * HISTORY_NAMES.length + history;
+    }
+
+    private static String[] conditionNames(boolean withNone) {
+        NodeCondition[] conditions = NodeCondition.values();
+        String[] names = new String[conditions.length + (withNone ? 1 : 0)];
+        for(int i = 0; i < conditions.length; i++)
+            names[i] = conditions[i].getName();
+        if(withNone)
+            names[CURRENT_NONE] = "none";
+        return names;
+    }
+
+    private static boolean[] match(CSVRecord record, String cell, String[] names) {
+        boolean[] matches = new boolean[names.length];
+        for(String token : cell.split("\\|")) {
+            token = token.trim();
+            boolean found = false;
+            for(int i = 0; i < names.length; i++) {
+                if(token.equals("*") || token.equals(names[i])) {
+                    matches[i] = true;
+                    found = true;
+                }
+            }
+            if(!found)
+                throw error(record, "unknown value '" + token + "'");
+        }
+        return matches;
+    }
+
+    private static int condition(CSVRecord record, String cell) {
+        switch(cell) {
+            case "incoming": return SET_CONDITION;
+            case "keep": return 0;
+            default: throw error(record, "condition must be incoming or keep, not '" + cell + "'");
+        }
+    }
+
+    private static int counters(CSVRecord record, String cell) {
+        int counters = 0;
+        for(String token : cell.trim().split("\\s+")) {
+            if(token.isEmpty())
+                continue;
+            int bit = -1;
+            for(int i = 0; i < COUNTER_NAMES.length; i++) {
+                if(COUNTER_NAMES[i].equals(token))
+                    bit = i;
+            }
+            if(bit < 0)
+                throw error(record, "unknown counter '" + token + "'");
+            counters |= 1 << bit;
+        }
+        return counters;
+    }
+
+    private static int alertLevel(CSVRecord record, String cell) {
+        if(cell.equals("keep"))
+            return 0;
+        try {
+            int level = Integer.parseInt(cell);
+            if(level < 0 || level > MAX_ALERT_LEVEL)
+                throw error(record, "alert level out of range: " + level);
+            return level + 1;
+        } catch (NumberFormatException e) {
+            throw error(record, "alert level must be a number or keep, not '" + cell + "'");
+        }
+    }
+
+    private static IllegalArgumentException error(CSVRecord record, String message) {
+        return new IllegalArgumentException("Rules line " + record.getParser().getCurrentLineNumber() + ": " + message);
+    }
+}
@@ -77,6 +77,13 @@ public class Constants {
     final static String REGION_MS = "MS";
     final static String REGION_NE = "NE";
     final static String REGION_SE = "SE";
+    final static String REGION_C = "C";
+    final static String REGION_E = "E";
+    final static String REGION_S = "S";
+    final static String REGION_OV = "OV";
+    final static String REGION_W = "W";
+    final static String REGION_MT = "MT";
+    final static String REGION_CAR = "CAR";
     final static long SIMULATION_DELAY_OFFLINE     = 20000L;
     final static long SIMULATION_DELAY_NORMAL      = 6000L;
     final static long SIMULATION_DELAY_MINOR       = 6000L;
@@ -125,7 +132,5 @@ public class Constants {
 
     /* Prevent power grid state object memory growth */
     final static int MAX_INCIDENT_LIST_SIZE        = 15;
-    final static int INCIDENT_LIST_SUBLIST_FROM    = 10;
-    final static int INCIDENT_LIST_SUBLIST_TO      = MAX_INCIDENT_LIST_SIZE;
 
 }
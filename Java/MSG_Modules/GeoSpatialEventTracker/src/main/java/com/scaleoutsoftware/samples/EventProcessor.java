@@ -35,108 +35,53 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 
 public class EventProcessor extends MessageProcessor<GeoSpatialEventTracker> {
+    private static final Logger LOGGER = LogManager.getLogger(EventProcessor.class);
+
+    private final ConditionRules _rules;
+
+    /**
+     * Creates an event processor with the rules named by -DGeoSpatialEventTracker.rules, or the default rules.
+     */
+    public EventProcessor() {
+        this(ConditionRules.fromSystemProperties());
+    }
+
+    /**
+     * Creates an event processor with the given rules.
+     * @param rules the rules applied to status messages
+     */
+    public EventProcessor(ConditionRules rules) {
+        _rules = rules;
+    }
 
     @Override
     public ProcessingResult processMessage(MsgProcessingContext<GeoSpatialEventTracker> MsgProcessingContext, GeoSpatialEventTracker sossObject, byte[] message) {
         try {
-            Logger LOGGER = LogManager.getLogger(EventProcessor.class.getName());
+            // a binary status message is read in place, without decoding a GeoSpatialMessage
+            if(GeoSpatialMessageCodec.isStatus(message)) {
+                _rules.apply(sossObject, GeoSpatialMessageCodec.statusCondition(message));
+                return ProcessingResult.DoUpdate;
+            }
             // deserialize the message
             GeoSpatialMessage msg = GeoSpatialMessage.fromBytes(message);
             // this is an initialization message so we set our status and return.
             if(msg.initMessage()) {
                 sossObject.setNodeType(msg.getNodeType());
-                sossObject.setNodeCondition(Constants.NODE_CONDITION_NORMAL);
+                sossObject.setNodeCondition(NodeCondition.NORMAL);
                 sossObject.setRegion(msg.getRegion(), msg.getLongitude(), msg.getLatitude());
                 return ProcessingResult.DoUpdate;
             }
-
-            /* Run through the event processor rules. */
-            // incoming message indicates the status tracker is offline or in normal operation.
-            if(msg.offline() || msg.normalOperation()) {
-                // set the state object statistics
-                if(sossObject.experiencingMinorEvent() || sossObject.experiencingModerateEvent() ) {
-                    sossObject.incrementFalseAlarmCount();
-                    sossObject.incrementResolvedIncidents();
-                }
-                else if(sossObject.experiencingSevereEvent()) {
-                    sossObject.incrementResolvedIncidents();
-                }
-
-                // set the node's alert level to normal, and update the state objects condition
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_NORMAL_ALERTLEVEL, Constants.CONTROLLER_NORMAL_ALERTLEVEL);
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a minor incident
-            else if(msg.minorIncident()) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_MINOR_ALERTLEVEL, Constants.CONTROLLER_MINOR_ALERT_LEVEL);
-                sossObject.incrementMinorEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a severe incident
-            else if(msg.severeIncident()) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_SEVERE_ALERTLEVEL, Constants.CONTROLLER_SEVERE_ALERTLEVEL);
-                sossObject.incrementSevereEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a moderate incident and this tracker has seen severe incidents
-            else if(msg.moderateIncident() && sossObject.getSevereIncidentCount() > 0) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL, Constants.CONTROLLER_MODERATE_ALERTLEVEL+2);
-                sossObject.incrementModerateEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a moderate incident and this tracker has never had a severe incident and
-            // this tracker has never seen a false incident
-            else if(msg.moderateIncident() &&
-                    sossObject.getSevereIncidentCount() == 0 &&
-                    sossObject.getFalseIncidentCount() == 0) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL+1, Constants.CONTROLLER_MODERATE_ALERTLEVEL+3);
-                sossObject.incrementModerateEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a moderate incident and this tracker has never had a severe incident while the
-            // heuristic of a false incident is greater than 50%
-            else if(msg.moderateIncident() &&
-                    sossObject.getSevereIncidentCount() == 0 &&
-                    sossObject.getModerateIncidentCount() > 0 &&
-                    ((double)(sossObject.getFalseIncidentCount()/sossObject.getModerateIncidentCount()) >= 0.5)) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL+2, Constants.CONTROLLER_MODERATE_ALERTLEVEL+4);
-                sossObject.incrementModerateEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates a moderate incident and this tracker has never had a severe incident while the
-            // heuristic of a false incident is less than 50%
-            else if(msg.moderateIncident() &&
-                    sossObject.getSevereIncidentCount() == 0 &&
-                    sossObject.getModerateIncidentCount() > 0 &&
-                    ((double)(sossObject.getFalseIncidentCount()/sossObject.getModerateIncidentCount()) < 0.5)) {
-                sossObject.setAlertLevel(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL+3, Constants.CONTROLLER_MODERATE_ALERTLEVEL+5);
-                sossObject.incrementModerateEventCount();
-                sossObject.setNodeCondition(msg.getNodeCondition());
-            }
-
-            // the message indicates some form of incident -- update total incidents and add message to message list
-            if(msg.minorIncident() || msg.moderateIncident() || msg.severeIncident()) {
-                sossObject.incrementTotalIncidents();
-                sossObject.addToIncidentList(msg);
-            }
+            // a message with an unknown condition matches no rule
+            NodeCondition condition = msg.getCondition();
+            if(condition != null)
+                _rules.apply(sossObject, condition);
         } catch (Exception e) {
-            // Catch all exceptions and send an alert using the UI alerter.
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-            e.printStackTrace(pw);
-            pw.flush();
-            sw.flush();
-            MsgProcessingContext.sendUiAlert(AlertSeverity.Error, "Exception thrown by id" + MsgProcessingContext.getObjectId() + " " + pw.toString());
+            // Catch all exceptions and send an alert using the UI alerter. The stack trace is only formatted
+            // when debug logging is on.
+            MsgProcessingContext.sendUiAlert(AlertSeverity.Error, "Exception thrown by id " + MsgProcessingContext.getObjectId() + ": " + e);
+            LOGGER.debug("Exception thrown by id {}", MsgProcessingContext.getObjectId(), e);
         }
         // Return ProcessingResult.DoUpdate if this method modified the SOSS object.
         // If no changes occurred or the changes are to be discarded, return ProcessingResult.NoUpdate.
@@ -25,8 +25,6 @@
  */
 package com.scaleoutsoftware.samples;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Objects;
 
 // SOSS object definition for a MsgModule
@@ -35,7 +33,7 @@ public class GeoSpatialEventTracker {
     public String Id;
     // State variables
     public String node_type;
-    public String node_condition;
+    public NodeCondition node_condition;
     public String region;
     public double Longitude;
     public double Latitude;
@@ -50,8 +48,8 @@ public class GeoSpatialEventTracker {
     public int totalResolvedIncidents;
     public boolean experiencingIncident;
 
-    // Dynamic incident report list
-    public List<IncidentMetadata> incidentList;
+    // The most recent incidents, serialized as a list of IncidentMetadata
+    public IncidentHistory incidentList;
 
     /**
      * Default constructor.
@@ -62,7 +60,7 @@ public class GeoSpatialEventTracker {
     }
 
     private void init() {
-        node_condition = "";
+        node_condition = null;
         node_type = "";
         region = "";
         alert_level = 0;
@@ -72,7 +70,7 @@ public class GeoSpatialEventTracker {
         severeIncidentCount = 0;
         Longitude = 0.0;
         Latitude = 0.0;
-        incidentList = new LinkedList<>();
+        incidentList = new IncidentHistory(Constants.MAX_INCIDENT_LIST_SIZE);
     }
 
     /**
@@ -80,7 +78,8 @@ public class GeoSpatialEventTracker {
      * @param nodeType the node's type ("controller" or "infrastructure")
      */
     public void setNodeType(String nodeType) {
-        node_type = nodeType;
+        // interned so that ConditionRules finds the node type's rules with an identity check
+        node_type = nodeType == null ? null : nodeType.intern();
     }
 
     /**
@@ -88,7 +87,23 @@ public class GeoSpatialEventTracker {
      * @param nodeCondition the condition to set
      */
     public void setNodeCondition(String nodeCondition) {
-        node_condition = nodeCondition;
+        node_condition = NodeCondition.fromName(nodeCondition);
+    }
+
+    /**
+     * Sets the node's condition.
+     * @param condition the condition to set
+     */
+    public void setNodeCondition(NodeCondition condition) {
+        node_condition = condition;
+    }
+
+    /**
+     * Returns the node's condition.
+     * @return the condition, or null if the node has not been initialized
+     */
+    public NodeCondition getNodeCondition() {
+        return node_condition;
     }
 
     /**
@@ -108,7 +123,7 @@ public class GeoSpatialEventTracker {
      * @return true if node_condition is equal to moderate, otherwise false
      */
     public boolean experiencingModerateEvent() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_MODERATE) == 0;
+        return node_condition == NodeCondition.MODERATE;
     }
 
     /**
@@ -116,7 +131,7 @@ public class GeoSpatialEventTracker {
      * @return true if node_condition is equal to severe, otherwise false
      */
     public boolean experiencingSevereEvent() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_SEVERE) == 0;
+        return node_condition == NodeCondition.SEVERE;
     }
 
     /**
@@ -124,7 +139,7 @@ public class GeoSpatialEventTracker {
      * @return true if the node_condition is equal to minor, otherwise false
      */
     public boolean experiencingMinorEvent() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_MINOR) == 0;
+        return node_condition == NodeCondition.MINOR;
     }
 
     /**
@@ -183,15 +198,23 @@ public class GeoSpatialEventTracker {
         return moderateIncidentCount;
     }
 
+    /**
+     * Sets the alert level.
+     * @param level the alert level
+     */
+    public void setAlertLevel(int level) {
+        alert_level = level;
+    }
+
     /**
      * Set the alert level relative to this status trackers node type
      * @param infrastructureLevel the alert level for an infrastructure node
      * @param controllerLevel the alert level for a controller node
      */
     public void setAlertLevel(int infrastructureLevel, int controllerLevel) {
-        if(node_type.compareTo(Constants.NODE_TYPE_INFRASTRUCTURE) == 0) {
+        if(Constants.NODE_TYPE_INFRASTRUCTURE.equals(node_type)) {
             alert_level = infrastructureLevel;
-        } else if (node_type.compareTo(Constants.NODE_TYPE_CONTROLLER) == 0) {
+        } else if (Constants.NODE_TYPE_CONTROLLER.equals(node_type)) {
             alert_level = controllerLevel;
         }
     }
@@ -216,13 +239,19 @@ public class GeoSpatialEventTracker {
      * @param msg the message to add
      */
     public void addToIncidentList(GeoSpatialMessage msg) {
+        addToIncidentList(msg.getCondition());
+    }
+
+    /**
+     * Adds an incident of the given condition to the incident list, replacing the oldest incident if the
+     * list is full.
+     * @param condition the condition of the incident
+     */
+    public void addToIncidentList(NodeCondition condition) {
         if(incidentList == null) {
-            incidentList = new LinkedList<>();
-        }
-        incidentList.add(new IncidentMetadata(System.currentTimeMillis(), msg.getNodeCondition()));
-        if(incidentList.size() == Constants.MAX_INCIDENT_LIST_SIZE) {
-            incidentList.subList(Constants.INCIDENT_LIST_SUBLIST_FROM, Constants.INCIDENT_LIST_SUBLIST_TO).clear();
+            incidentList = new IncidentHistory(Constants.MAX_INCIDENT_LIST_SIZE);
         }
+        incidentList.add(System.currentTimeMillis(), condition);
     }
 
     @Override
@@ -240,7 +269,7 @@ public class GeoSpatialEventTracker {
                 Double.compare(that.Longitude, Longitude) == 0 &&
                 Double.compare(that.Latitude, Latitude) == 0 &&
                 node_type.equals(that.node_type) &&
-                node_condition.equals(that.node_condition) &&
+                node_condition == that.node_condition &&
                 region.equals(that.region) &&
                 incidentList.equals(that.incidentList);
     }
@@ -0,0 +1,319 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples;
+
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Versioned binary encoding of a GeoSpatialEventTracker. The layout is:
+ * <pre>
+ * byte 'G', byte 'T', byte version, byte flags (FLAG_EXPERIENCING_INCIDENT)
+ * int alert_level, string Id, coded region
+ * coded node_type, byte node_condition (NodeCondition ordinal, 0xff if not set)
+ * double Longitude, double Latitude
+ * int minorIncidentCount, moderateIncidentCount, falseIncidentCount, severeIncidentCount,
+ *     totalIncidents, totalResolvedIncidents
+ * byte incidentCount, incidentCount * (long timestamp, byte condition), oldest first
+ * </pre>
+ * A string is an unsigned short UTF-8 length, 0xffff for null, followed by the bytes. A coded string is
+ * a byte: 1-n for an entry of the module's regions or node types, CODE_INLINE followed by a string for
+ * any other value, or CODE_NULL. New dictionary entries must be added at the end.
+ * <p>
+ * alert_level, Id and region lead the encoding so that alertLevel, id and region can read them without
+ * decoding the tracker. Trackers written by the default JSON serialization start with '{' and are still
+ * decoded.
+ */
+public final class GeoSpatialEventTrackerCodec {
+    static final byte MAGIC_0 = 'G';
+    static final byte MAGIC_1 = 'T';
+    static final byte VERSION_1 = 1;
+    static final int HEADER_LENGTH = 4;
+    static final byte FLAG_EXPERIENCING_INCIDENT = 0x01;
+    static final int CODE_INLINE = 0;
+    static final int CODE_NULL = 0xff;
+    private static final int ALERT_LEVEL_POSITION = HEADER_LENGTH;
+    private static final int ID_POSITION = ALERT_LEVEL_POSITION + 4;
+    private static final int NULL_LENGTH = 0xffff;
+    private static final int MAX_STRING_LENGTH = NULL_LENGTH - 1;
+    // node_condition, Longitude, Latitude and the six counters
+    private static final int FIXED_LENGTH = 1 + 16 + 6 * 4;
+    private static final int INCIDENT_LENGTH = 9;
+    private static final int MAX_INCIDENTS = 0xff;
+
+    // every region of eventtracker_initfile_2000.csv has a code
+    static final String[] REGIONS = {Constants.REGION_NW, Constants.REGION_SW, Constants.REGION_MN, Constants.REGION_MS, Constants.REGION_NE, Constants.REGION_SE,
+            Constants.REGION_C, Constants.REGION_E, Constants.REGION_S, Constants.REGION_OV, Constants.REGION_W, Constants.REGION_MT, Constants.REGION_CAR};
+    static final String[] NODE_TYPES = {Constants.NODE_TYPE_INFRASTRUCTURE, Constants.NODE_TYPE_CONTROLLER};
+
+    private static final Gson GSON = new Gson();
+
+    private GeoSpatialEventTrackerCodec() {
+    }
+
+    /**
+     * Returns true if the bytes hold a tracker in the binary format, false if they hold JSON.
+     * @param bytes an encoded tracker
+     * @return true for the binary format
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    /**
+     * Encodes a tracker.
+     * @param tracker the tracker
+     * @return the encoded tracker
+     * @throws IllegalArgumentException if a string is longer than 65534 UTF-8 bytes
+     */
+    public static byte[] encode(GeoSpatialEventTracker tracker) {
+        byte[] id = utf8(tracker.Id);
+        int regionCode = code(REGIONS, tracker.region);
+        byte[] region = regionCode == CODE_INLINE ? utf8(tracker.region) : null;
+        int nodeTypeCode = code(NODE_TYPES, tracker.node_type);
+        byte[] nodeType = nodeTypeCode == CODE_INLINE ? utf8(tracker.node_type) : null;
+        IncidentHistory history = tracker.incidentList;
+        // only the newest incidents fit if the history is larger than the format allows
+        int incidents = history == null ? 0 : Math.min(history.size(), MAX_INCIDENTS);
+        int first = history == null ? 0 : history.size() - incidents;
+
+        byte[] encoded = new byte[ID_POSITION + stringLength(id) + codedLength(region) + codedLength(nodeType) + FIXED_LENGTH + 1 + incidents * INCIDENT_LENGTH];
+        encoded[0] = MAGIC_0;
+        encoded[1] = MAGIC_1;
+        encoded[2] = VERSION_1;
+        encoded[3] = tracker.experiencingIncident ? FLAG_EXPERIENCING_INCIDENT : 0;
+        putInt(encoded, ALERT_LEVEL_POSITION, tracker.alert_level);
+        int position = putString(encoded, ID_POSITION, id);
+        position = putCoded(encoded, position, regionCode, region);
+        position = putCoded(encoded, position, nodeTypeCode, nodeType);
+        encoded[position++] = (byte)(tracker.node_condition == null ? CODE_NULL : tracker.node_condition.ordinal());
+        position = putLong(encoded, position, Double.doubleToRawLongBits(tracker.Longitude));
+        position = putLong(encoded, position, Double.doubleToRawLongBits(tracker.Latitude));
+        position = putInt(encoded, position, tracker.minorIncidentCount);
+        position = putInt(encoded, position, tracker.moderateIncidentCount);
+        position = putInt(encoded, position, tracker.falseIncidentCount);
+        position = putInt(encoded, position, tracker.severeIncidentCount);
+        position = putInt(encoded, position, tracker.totalIncidents);
+        position = putInt(encoded, position, tracker.totalResolvedIncidents);
+        encoded[position++] = (byte)incidents;
+        for(int i = first; i < first + incidents; i++) {
+            position = putLong(encoded, position, history.getTimestamp(i));
+            encoded[position++] = (byte)history.getCondition(i).ordinal();
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes a tracker written by encode or by the default JSON serialization.
+     * @param bytes the encoded tracker
+     * @return the tracker
+     * @throws IllegalArgumentException if the bytes are truncated or not a supported encoding
+     */
+    public static GeoSpatialEventTracker decode(byte[] bytes) {
+        if(isJson(bytes))
+            return GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), GeoSpatialEventTracker.class);
+        checkHeader(bytes);
+        try {
+            int position = ID_POSITION;
+            String id = getString(bytes, position);
+            position = skipString(bytes, position);
+            GeoSpatialEventTracker tracker = new GeoSpatialEventTracker(id);
+            tracker.experiencingIncident = (bytes[3] & FLAG_EXPERIENCING_INCIDENT) != 0;
+            tracker.alert_level = getInt(bytes, ALERT_LEVEL_POSITION);
+            tracker.region = getCoded(bytes, position, REGIONS);
+            position = skipCoded(bytes, position);
+            tracker.node_type = getCoded(bytes, position, NODE_TYPES);
+            position = skipCoded(bytes, position);
+            int condition = bytes[position++] & 0xff;
+            tracker.node_condition = condition == CODE_NULL ? null : NodeCondition.fromCode(condition);
+            tracker.Longitude = Double.longBitsToDouble(getLong(bytes, position));
+            tracker.Latitude = Double.longBitsToDouble(getLong(bytes, position + 8));
+            position += 16;
+            tracker.minorIncidentCount = getInt(bytes, position);
+            tracker.moderateIncidentCount = getInt(bytes, position + 4);
+            tracker.falseIncidentCount = getInt(bytes, position + 8);
+            tracker.severeIncidentCount = getInt(bytes, position + 12);
+            tracker.totalIncidents = getInt(bytes, position + 16);
+            tracker.totalResolvedIncidents = getInt(bytes, position + 20);
+            position += 24;
+            int incidents = bytes[position++] & 0xff;
+            if(position + incidents * INCIDENT_LENGTH > bytes.length)
+                throw new IllegalArgumentException("The tracker is truncated.");
+            for(int i = 0; i < incidents; i++) {
+                tracker.incidentList.add(getLong(bytes, position), NodeCondition.fromCode(bytes[position + 8]));
+                position += INCIDENT_LENGTH;
+            }
+            return tracker;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The tracker is truncated.", e);
+        }
+    }
+
+    /**
+     * Reads the alert level of a binary tracker without decoding it.
+     * @param bytes a tracker for which isBinary returns true
+     * @return the alert level
+     */
+    public static int alertLevel(byte[] bytes) {
+        checkHeader(bytes);
+        return getInt(bytes, ALERT_LEVEL_POSITION);
+    }
+
+    /**
+     * Reads the Id of a binary tracker without decoding it.
+     * @param bytes a tracker for which isBinary returns true
+     * @return the Id
+     */
+    public static String id(byte[] bytes) {
+        checkHeader(bytes);
+        return getString(bytes, ID_POSITION);
+    }
+
+    /**
+     * Reads the region of a binary tracker without decoding it.
+     * @param bytes a tracker for which isBinary returns true
+     * @return the region
+     */
+    public static String region(byte[] bytes) {
+        checkHeader(bytes);
+        return getCoded(bytes, skipString(bytes, ID_POSITION), REGIONS);
+    }
+
+    private static boolean isJson(byte[] bytes) {
+        for(byte b : bytes) {
+            if(b == ' ' || b == '\t' || b == '\r' || b == '\n')
+                continue;
+            return b == '{';
+        }
+        return false;
+    }
+
+    private static void checkHeader(byte[] bytes) {
+        if(!isBinary(bytes) || bytes.length < ID_POSITION + 2)
+            throw new IllegalArgumentException("Not a GeoSpatialEventTracker encoding.");
+        if(bytes[2] != VERSION_1)
+            throw new IllegalArgumentException("Unsupported GeoSpatialEventTracker encoding version " + bytes[2] + ".");
+    }
+
+    private static int code(String[] dictionary, String value) {
+        if(value == null)
+            return CODE_NULL;
+        for(int i = 0; i < dictionary.length; i++) {
+            if(dictionary[i].equals(value))
+                return i + 1;
+        }
+        return CODE_INLINE;
+    }
+
+    private static byte[] utf8(String value) {
+        if(value == null)
+            return null;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > MAX_STRING_LENGTH)
+            throw new IllegalArgumentException("A tracker string is longer than " + MAX_STRING_LENGTH + " UTF-8 bytes.");
+        return bytes;
+    }
+
+    private static int stringLength(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    private static int codedLength(byte[] inline) {
+        return 1 + (inline == null ? 0 : stringLength(inline));
+    }
+
+    private static int putString(byte[] buffer, int position, byte[] value) {
+        int length = value == null ? NULL_LENGTH : value.length;
+        buffer[position] = (byte)(length >>> 8);
+        buffer[position + 1] = (byte)length;
+        if(value == null)
+            return position + 2;
+        System.arraycopy(value, 0, buffer, position + 2, value.length);
+        return position + 2 + value.length;
+    }
+
+    private static int putCoded(byte[] buffer, int position, int code, byte[] inline) {
+        buffer[position++] = (byte)code;
+        return code == CODE_INLINE ? putString(buffer, position, inline) : position;
+    }
+
+    private static String getString(byte[] buffer, int position) {
+        int length = (buffer[position] & 0xff) << 8 | buffer[position + 1] & 0xff;
+        if(length == NULL_LENGTH)
+            return null;
+        if(position + 2 + length > buffer.length)
+            throw new IllegalArgumentException("The tracker is truncated.");
+        return new String(buffer, position + 2, length, StandardCharsets.UTF_8);
+    }
+
+    private static int skipString(byte[] buffer, int position) {
+        int length = (buffer[position] & 0xff) << 8 | buffer[position + 1] & 0xff;
+        return position + 2 + (length == NULL_LENGTH ? 0 : length);
+    }
+
+    private static String getCoded(byte[] buffer, int position, String[] dictionary) {
+        int code = buffer[position] & 0xff;
+        if(code == CODE_NULL)
+            return null;
+        if(code == CODE_INLINE)
+            return getString(buffer, position + 1);
+        if(code > dictionary.length)
+            throw new IllegalArgumentException("Unknown dictionary code: " + code);
+        return dictionary[code - 1];
+    }
+
+    private static int skipCoded(byte[] buffer, int position) {
+        return (buffer[position] & 0xff) == CODE_INLINE ? skipString(buffer, position + 1) : position + 1;
+    }
+
+    private static int putInt(byte[] buffer, int position, int value) {
+        buffer[position] = (byte)(value >>> 24);
+        buffer[position + 1] = (byte)(value >>> 16);
+        buffer[position + 2] = (byte)(value >>> 8);
+        buffer[position + 3] = (byte)value;
+        return position + 4;
+    }
+
+    private static int getInt(byte[] buffer, int position) {
+        return (buffer[position] & 0xff) << 24 | (buffer[position + 1] & 0xff) << 16 | (buffer[position + 2] & 0xff) << 8 | buffer[position + 3] & 0xff;
+    }
+
+    private static int putLong(byte[] buffer, int position, long value) {
+        for(int i = 7; i >= 0; i--) {
+            buffer[position + i] = (byte)value;
+            value >>>= 8;
+        }
+        return position + 8;
+    }
+
+    private static long getLong(byte[] buffer, int position) {
+        long value = 0;
+        for(int i = 0; i < 8; i++)
+            value = value << 8 | buffer[position + i] & 0xff;
+        return value;
+    }
+}
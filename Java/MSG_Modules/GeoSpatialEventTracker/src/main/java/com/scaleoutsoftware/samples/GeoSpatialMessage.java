@@ -30,6 +30,8 @@ import com.google.gson.Gson;
 import java.nio.charset.StandardCharsets;
 
 public class GeoSpatialMessage {
+    // Gson instances are thread-safe; building one per call is expensive
+    private static final Gson GSON = new Gson();
     // message properties
     private String type;
     private String id;
@@ -59,7 +61,7 @@ public class GeoSpatialMessage {
     }
 
     public boolean initMessage() {
-        return Constants.MESSAGE_TYPE_INIT.compareTo(type) == 0;
+        return Constants.MESSAGE_TYPE_INIT.equals(type);
     }
 
     public String getNodeType() {
@@ -70,6 +72,13 @@ public class GeoSpatialMessage {
         return node_condition;
     }
 
+    /**
+     * @return the condition of the message, or null if the condition is unknown
+     */
+    public NodeCondition getCondition() {
+        return NodeCondition.fromName(node_condition);
+    }
+
     public String getRegion() {
         return region;
     }
@@ -83,23 +92,23 @@ public class GeoSpatialMessage {
     }
 
     public boolean offline() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_OFFLINE) == 0;
+        return getCondition() == NodeCondition.OFFLINE;
     }
 
     public boolean normalOperation() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_NORMAL) == 0;
+        return getCondition() == NodeCondition.NORMAL;
     }
 
     public boolean minorIncident() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_MINOR) == 0;
+        return getCondition() == NodeCondition.MINOR;
     }
 
     public boolean severeIncident() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_SEVERE) == 0;
+        return getCondition() == NodeCondition.SEVERE;
     }
 
     public boolean moderateIncident() {
-        return node_condition.compareTo(Constants.NODE_CONDITION_MODERATE) == 0;
+        return getCondition() == NodeCondition.MODERATE;
     }
 
     @Override
@@ -115,14 +124,33 @@ public class GeoSpatialMessage {
                 '}';
     }
 
+    /**
+     * Encodes a message in the binary format of GeoSpatialMessageCodec.
+     * @param msg the message
+     * @return the encoded message
+     */
     public static byte[] toBytes(GeoSpatialMessage msg) {
-        Gson gson = new Gson();
-        return gson.toJson(msg).getBytes(StandardCharsets.UTF_8);
-    }
-
-    public static GeoSpatialMessage fromBytes(byte[] utf8Message) {
-        Gson gson = new Gson();
-        return gson.fromJson(new String(utf8Message, StandardCharsets.UTF_8), GeoSpatialMessage.class);
+        return GeoSpatialMessageCodec.encode(msg);
+    }
+
+    /**
+     * Encodes a message as UTF-8 JSON, the format used by earlier senders.
+     * @param msg the message
+     * @return the encoded message
+     */
+    public static byte[] toJsonBytes(GeoSpatialMessage msg) {
+        return GSON.toJson(msg).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a binary or UTF-8 JSON message.
+     * @param message the encoded message
+     * @return the message
+     */
+    public static GeoSpatialMessage fromBytes(byte[] message) {
+        if(GeoSpatialMessageCodec.isBinary(message))
+            return GeoSpatialMessageCodec.decode(message);
+        return GSON.fromJson(new String(message, StandardCharsets.UTF_8), GeoSpatialMessage.class);
     }
 
 }
@@ -0,0 +1,169 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary encoding of a GeoSpatialMessage. A status message is 3 bytes:
+ * <pre>
+ * byte version, byte type (0 status, 1 init), byte condition (NodeCondition ordinal)
+ * </pre>
+ * An init message adds the fields the module reads from it:
+ * <pre>
+ * double latitude, double longitude, byte nodeTypeLength, UTF-8 nodeType, byte regionLength, UTF-8 region
+ * </pre>
+ * The version byte is never a valid first byte of a JSON message, so isBinary tells the two formats
+ * apart and JSON senders keep working.
+ */
+public final class GeoSpatialMessageCodec {
+    public static final byte VERSION = 0x01;
+    public static final byte TYPE_STATUS = 0x00;
+    public static final byte TYPE_INIT = 0x01;
+    public static final int STATUS_LENGTH = 3;
+    // the fixed part of an init message, before the strings
+    private static final int INIT_HEADER_LENGTH = STATUS_LENGTH + 16;
+    private static final int MAX_STRING_LENGTH = 0xff;
+
+    private GeoSpatialMessageCodec() {
+    }
+
+    /**
+     * Returns true if message is in the binary format, false if it is JSON.
+     * @param message an encoded message
+     * @return true for a binary message
+     */
+    public static boolean isBinary(byte[] message) {
+        return message.length > 0 && message[0] == VERSION;
+    }
+
+    /**
+     * Returns true if message is a binary status message. Its condition can be read with statusCondition
+     * without decoding the message.
+     * @param message an encoded message
+     * @return true for a binary status message
+     */
+    public static boolean isStatus(byte[] message) {
+        return message.length >= STATUS_LENGTH && message[0] == VERSION && message[1] == TYPE_STATUS;
+    }
+
+    /**
+     * Reads the condition of a binary status message.
+     * @param message an encoded message for which isStatus returns true
+     * @return the condition
+     * @throws IllegalArgumentException if the condition code is unknown
+     */
+    public static NodeCondition statusCondition(byte[] message) {
+        return NodeCondition.fromCode(message[2]);
+    }
+
+    /**
+     * Encodes a message.
+     * @param msg the message
+     * @return the encoded message
+     * @throws IllegalArgumentException if the condition is unknown, or the node type or region is longer
+     * than 255 UTF-8 bytes
+     */
+    public static byte[] encode(GeoSpatialMessage msg) {
+        NodeCondition condition = NodeCondition.fromName(msg.getNodeCondition());
+        if(condition == null)
+            throw new IllegalArgumentException("Unknown node condition: " + msg.getNodeCondition());
+        if(!msg.initMessage())
+            return new byte[]{VERSION, TYPE_STATUS, (byte)condition.ordinal()};
+
+        byte[] nodeType = utf8(msg.getNodeType());
+        byte[] region = utf8(msg.getRegion());
+        byte[] encoded = new byte[INIT_HEADER_LENGTH + 2 + nodeType.length + region.length];
+        encoded[0] = VERSION;
+        encoded[1] = TYPE_INIT;
+        encoded[2] = (byte)condition.ordinal();
+        putLong(encoded, STATUS_LENGTH, Double.doubleToRawLongBits(msg.getLatitude()));
+        putLong(encoded, STATUS_LENGTH + 8, Double.doubleToRawLongBits(msg.getLongitude()));
+        int position = INIT_HEADER_LENGTH;
+        encoded[position++] = (byte)nodeType.length;
+        System.arraycopy(nodeType, 0, encoded, position, nodeType.length);
+        position += nodeType.length;
+        encoded[position++] = (byte)region.length;
+        System.arraycopy(region, 0, encoded, position, region.length);
+        return encoded;
+    }
+
+    /**
+     * Decodes a binary message.
+     * @param message the encoded message
+     * @return the message
+     * @throws IllegalArgumentException if the message is truncated, has an unknown version, type or
+     * condition code
+     */
+    public static GeoSpatialMessage decode(byte[] message) {
+        if(message.length < STATUS_LENGTH)
+            throw new IllegalArgumentException("The message is truncated.");
+        if(message[0] != VERSION)
+            throw new IllegalArgumentException("Unsupported message version: " + message[0]);
+        String condition = NodeCondition.fromCode(message[2]).getName();
+        if(message[1] == TYPE_STATUS)
+            return new GeoSpatialMessage(condition);
+        if(message[1] != TYPE_INIT)
+            throw new IllegalArgumentException("Unknown message type: " + message[1]);
+
+        if(message.length < INIT_HEADER_LENGTH + 1)
+            throw new IllegalArgumentException("The message is truncated.");
+        double latitude = Double.longBitsToDouble(getLong(message, STATUS_LENGTH));
+        double longitude = Double.longBitsToDouble(getLong(message, STATUS_LENGTH + 8));
+        int position = INIT_HEADER_LENGTH;
+        int nodeTypeLength = message[position++] & 0xff;
+        if(position + nodeTypeLength >= message.length)
+            throw new IllegalArgumentException("The message is truncated.");
+        String nodeType = new String(message, position, nodeTypeLength, StandardCharsets.UTF_8);
+        position += nodeTypeLength;
+        int regionLength = message[position++] & 0xff;
+        if(position + regionLength > message.length)
+            throw new IllegalArgumentException("The message is truncated.");
+        String region = new String(message, position, regionLength, StandardCharsets.UTF_8);
+        return new GeoSpatialMessage(null, region, condition, nodeType, latitude, longitude);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > MAX_STRING_LENGTH)
+            throw new IllegalArgumentException("A node type or region is longer than " + MAX_STRING_LENGTH + " UTF-8 bytes: " + value);
+        return bytes;
+    }
+
+    private static void putLong(byte[] buffer, int position, long value) {
+        for(int i = 7; i >= 0; i--) {
+            buffer[position + i] = (byte)value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] buffer, int position) {
+        long value = 0;
+        for(int i = 0; i < 8; i++)
+            value = value << 8 | buffer[position + i] & 0xff;
+        return value;
+    }
+}
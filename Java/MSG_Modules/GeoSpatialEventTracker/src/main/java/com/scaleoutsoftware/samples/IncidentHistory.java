@@ -0,0 +1,210 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tracker's most recent incidents, kept in a fixed-capacity ring buffer of timestamps and condition
+ * codes. Adding an incident to a full history overwrites the oldest one.
+ * <p>
+ * In JSON the history is an array of {"timestamp", "incidentType"} objects, oldest first, which is the
+ * form of the earlier List&lt;IncidentMetadata&gt;.
+ */
+@JsonAdapter(IncidentHistory.GsonAdapter.class)
+public final class IncidentHistory {
+    private final long[] _timestamps;
+    private final byte[] _conditions;
+    // the index of the next incident to write
+    private int _next;
+    private int _size;
+
+    /**
+     * Creates an empty history.
+     * @param capacity the number of incidents kept
+     */
+    public IncidentHistory(int capacity) {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        _timestamps = new long[capacity];
+        _conditions = new byte[capacity];
+    }
+
+    /**
+     * Adds an incident, overwriting the oldest incident if the history is full.
+     * @param timestamp the time of the incident in milliseconds since the epoch
+     * @param condition the condition of the incident
+     */
+    public void add(long timestamp, NodeCondition condition) {
+        _timestamps[_next] = timestamp;
+        _conditions[_next] = (byte)condition.ordinal();
+        _next = _next + 1 == _timestamps.length ? 0 : _next + 1;
+        if(_size < _timestamps.length)
+            _size++;
+    }
+
+    /**
+     * Returns the number of incidents in the history.
+     * @return the number of incidents
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the number of incidents the history can hold.
+     * @return the capacity
+     */
+    public int capacity() {
+        return _timestamps.length;
+    }
+
+    /**
+     * Returns the timestamp of an incident.
+     * @param index the incident's position, 0 for the oldest
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getTimestamp(int index) {
+        return _timestamps[slot(index)];
+    }
+
+    /**
+     * Returns the condition of an incident.
+     * @param index the incident's position, 0 for the oldest
+     * @return the condition
+     */
+    public NodeCondition getCondition(int index) {
+        return NodeCondition.fromCode(_conditions[slot(index)]);
+    }
+
+    /**
+     * Returns the incidents as IncidentMetadata, oldest first.
+     * @return a new list of the incidents
+     */
+    public List<IncidentMetadata> toList() {
+        List<IncidentMetadata> list = new ArrayList<>(_size);
+        for(int i = 0; i < _size; i++)
+            list.add(new IncidentMetadata(getTimestamp(i), getCondition(i).getName()));
+        return list;
+    }
+
+    private int slot(int index) {
+        if(index < 0 || index >= _size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        int slot = _next - _size + index;
+        return slot < 0 ? slot + _timestamps.length : slot;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IncidentHistory)) return false;
+        IncidentHistory that = (IncidentHistory) o;
+        if(_size != that._size)
+            return false;
+        for(int i = 0; i < _size; i++) {
+            if(_timestamps[slot(i)] != that._timestamps[that.slot(i)] || _conditions[slot(i)] != that._conditions[that.slot(i)])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for(int i = 0; i < _size; i++)
+            hash = 31 * (31 * hash + Long.hashCode(_timestamps[slot(i)])) + _conditions[slot(i)];
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for(int i = 0; i < _size; i++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(getCondition(i).getName()).append('@').append(getTimestamp(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Reads and writes the history as an array of {"timestamp", "incidentType"} objects, oldest first.
+     */
+    static final class GsonAdapter extends TypeAdapter<IncidentHistory> {
+        @Override
+        public void write(JsonWriter out, IncidentHistory history) throws IOException {
+            if(history == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for(int i = 0; i < history._size; i++) {
+                out.beginObject();
+                out.name("timestamp").value(history.getTimestamp(i));
+                out.name("incidentType").value(history.getCondition(i).getName());
+                out.endObject();
+            }
+            out.endArray();
+        }
+
+        @Override
+        public IncidentHistory read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            IncidentHistory history = new IncidentHistory(Constants.MAX_INCIDENT_LIST_SIZE);
+            in.beginArray();
+            while(in.hasNext()) {
+                long timestamp = 0;
+                NodeCondition condition = null;
+                in.beginObject();
+                while(in.hasNext()) {
+                    switch(in.nextName()) {
+                        case "timestamp": timestamp = in.nextLong(); break;
+                        case "incidentType": condition = NodeCondition.fromName(in.nextString()); break;
+                        default: in.skipValue();
+                    }
+                }
+                in.endObject();
+                // an incident of an unknown type cannot be coded, so it is dropped
+                if(condition != null)
+                    history.add(timestamp, condition);
+            }
+            in.endArray();
+            return history;
+        }
+    }
+}
@@ -25,7 +25,6 @@
  */
 package com.scaleoutsoftware.samples;
 
-import com.google.gson.Gson;
 import com.scaleout.client.GridConnection;
 import com.scaleoutsoftware.modules.client.MsgModuleSender;
 import org.apache.commons.csv.CSVFormat;
@@ -35,7 +34,6 @@ import org.slf4j.helpers.MessageFormatter;
 
 import java.io.FileReader;
 import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -144,7 +142,6 @@ public class LoadGenerator implements Runnable {
             GridConnection connection = GridConnection.connect(connectionString);
             _sender = new MsgModuleSender(connection);
             _msgsSentDuringInterval = new HashMap<>(actualCount);
-            Gson gson = new Gson();
             List<CompletableFuture<Void>> futureList = new LinkedList<>();
             long startTime = System.currentTimeMillis();
             // send initialization messages, the MSG module will create the SOSS object based off the incoming message
@@ -152,8 +149,7 @@ public class LoadGenerator implements Runnable {
                 _msgsSentDuringInterval.put(_ids[i], false);
                 GeoSpatialMessage message = new GeoSpatialMessage(_ids[i], _regions[i], _conditions[i], _types[i], _latitudes[i], _longitudes[i]);
                 _idxToNextInterval.put(i, startTime);
-                String jsonMessage = gson.toJson(message);
-                byte[] serializedMsg = jsonMessage.getBytes(StandardCharsets.UTF_8);
+                byte[] serializedMsg = GeoSpatialMessage.toBytes(message);
                 futureList.add(_sender.sendToModule(TARGET_MODULE_NAME, _ids[i], serializedMsg));
             }
             for(CompletableFuture<Void> future : futureList) {
@@ -238,7 +234,6 @@ public class LoadGenerator implements Runnable {
     public void run() {
         try {
             _reader.printAbove("Starting load generator...");
-            Gson gson = new Gson();
             List<CompletableFuture<Void>> futureList = new LinkedList<>();
             // run continuously
             while(true) {
@@ -265,8 +260,7 @@ public class LoadGenerator implements Runnable {
                     if(attempt != maxIdFindingAttempt) {
                         // calculate tracker condition
                         GeoSpatialMessage msg = calculateNextMessage(next);
-                        String jsonMessage = gson.toJson(msg);
-                        byte[] serializedMsg = jsonMessage.getBytes(StandardCharsets.UTF_8);
+                        byte[] serializedMsg = GeoSpatialMessage.toBytes(msg);
                         futureList.add(_sender.sendToModule(TARGET_MODULE_NAME, _ids[next], serializedMsg, Duration.ofSeconds(5)));
                     }
 
@@ -284,14 +278,12 @@ public class LoadGenerator implements Runnable {
                             if(attackStartTimeMs == -1) {
                                 _asyncAttackedNodes.put(zip, intervalTimeMs);
                                 GeoSpatialMessage msg = calculateNextMessage(idx);
-                                String jsonMessage = gson.toJson(msg);
-                                byte[] serializedMsg = jsonMessage.getBytes(StandardCharsets.UTF_8);
+                                byte[] serializedMsg = GeoSpatialMessage.toBytes(msg);
                                 futureList.add(_sender.sendToModule(TARGET_MODULE_NAME, _ids[idx], serializedMsg, Duration.ofSeconds(5)));
                             } else if (intervalTimeMs - attackStartTimeMs >= ATTACK_DURATION) {
                                 nodesToRemove.add(zip);
                                 GeoSpatialMessage msg = calculateNextMessage(idx);
-                                String jsonMessage = gson.toJson(msg);
-                                byte[] serializedMsg = jsonMessage.getBytes(StandardCharsets.UTF_8);
+                                byte[] serializedMsg = GeoSpatialMessage.toBytes(msg);
                                 futureList.add(_sender.sendToModule(TARGET_MODULE_NAME, _ids[idx], serializedMsg, Duration.ofSeconds(5)));
                             }
                         }
@@ -37,8 +37,12 @@ public class Main {
     public static void main(String[] args) {
         // instantiate the module package
         ModulePackage modulePackage = new ModulePackage();
-        // define the MsgModuleOptions
-        MsgModuleOptions<GeoSpatialEventTracker> msgModuleOptions = new MsgModuleOptionsBuilder<GeoSpatialEventTracker>(GeoSpatialEventTracker.class).build();
+        // define the MsgModuleOptions; trackers are stored as JSON, which the ActiveCaching UI queries, unless
+        // -DGeoSpatialEventTracker.serialization=binary selects the compact binary format
+        MsgModuleOptionsBuilder<GeoSpatialEventTracker> optionsBuilder = new MsgModuleOptionsBuilder<GeoSpatialEventTracker>(GeoSpatialEventTracker.class);
+        if("binary".equals(System.getProperty("GeoSpatialEventTracker.serialization")))
+            optionsBuilder.setSerialization(new GeoSpatialEventTrackerSerializer(), new GeoSpatialEventTrackerDeserializer());
+        MsgModuleOptions<GeoSpatialEventTracker> msgModuleOptions = optionsBuilder.build();
         // add the MSG module to the package
         modulePackage.addMsgModule("GeoSpatialEventTracker", new EventProcessor(), msgModuleOptions);
         try {
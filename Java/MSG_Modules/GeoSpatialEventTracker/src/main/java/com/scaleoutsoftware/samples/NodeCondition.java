@@ -0,0 +1,97 @@
+/*
+ * (C) Copyright 2025 by ScaleOut Software, Inc.
+ *
+ * LICENSE AND DISCLAIMER
+ * ----------------------
+ * This material contains sample programming source code ("Sample Code").
+ * ScaleOut Software, Inc. (SSI) grants you a nonexclusive license to compile,
+ * link, run, display, reproduce, and prepare derivative works of
+ * this Sample Code.  The Sample Code has not been thoroughly
+ * tested under all conditions.  SSI, therefore, does not guarantee
+ * or imply its reliability, serviceability, or function. SSI
+ * provides no support services for the Sample Code.
+ *
+ * All Sample Code contained herein is provided to you "AS IS" without
+ * any warranties of any kind. THE IMPLIED WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGMENT ARE EXPRESSLY
+ * DISCLAIMED.  SOME JURISDICTIONS DO NOT ALLOW THE EXCLUSION OF IMPLIED
+ * WARRANTIES, SO THE ABOVE EXCLUSIONS MAY NOT APPLY TO YOU.  IN NO
+ * EVENT WILL SSI BE LIABLE TO ANY PARTY FOR ANY DIRECT, INDIRECT,
+ * SPECIAL OR OTHER CONSEQUENTIAL DAMAGES FOR ANY USE OF THE SAMPLE CODE
+ * INCLUDING, WITHOUT LIMITATION, ANY LOST PROFITS, BUSINESS
+ * INTERRUPTION, LOSS OF PROGRAMS OR OTHER DATA ON YOUR INFORMATION
+ * HANDLING SYSTEM OR OTHERWISE, EVEN IF WE ARE EXPRESSLY ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGES.
+ */
+package com.scaleoutsoftware.samples;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The conditions a node reports. The ordinal is the condition's code in binary messages, so new
+ * conditions must be added at the end. Trackers serialize a condition as its name.
+ */
+public enum NodeCondition {
+    @SerializedName(Constants.NODE_CONDITION_OFFLINE)
+    OFFLINE(Constants.NODE_CONDITION_OFFLINE),
+    @SerializedName(Constants.NODE_CONDITION_NORMAL)
+    NORMAL(Constants.NODE_CONDITION_NORMAL),
+    @SerializedName(Constants.NODE_CONDITION_MINOR)
+    MINOR(Constants.NODE_CONDITION_MINOR),
+    @SerializedName(Constants.NODE_CONDITION_MODERATE)
+    MODERATE(Constants.NODE_CONDITION_MODERATE),
+    @SerializedName(Constants.NODE_CONDITION_SEVERE)
+    SEVERE(Constants.NODE_CONDITION_SEVERE);
+
+    // values() copies the array on every call
+    private static final NodeCondition[] CODES = values();
+
+    private final String _name;
+
+    NodeCondition(String name) {
+        _name = name;
+    }
+
+    /**
+     * Returns the name used in JSON messages and tracker state, e.g. "minor".
+     * @return the condition's name
+     */
+    public String getName() {
+        return _name;
+    }
+
+    @Override
+    public String toString() {
+        return _name;
+    }
+
+    /**
+     * Returns the condition with the given name.
+     * @param name the condition's name, e.g. "minor"
+     * @return the condition, or null if the name is unknown
+     */
+    public static NodeCondition fromName(String name) {
+        if(name == null)
+            return null;
+        switch(name) {
+            case Constants.NODE_CONDITION_OFFLINE: return OFFLINE;
+            case Constants.NODE_CONDITION_NORMAL: return NORMAL;
+            case Constants.NODE_CONDITION_MINOR: return MINOR;
+            case Constants.NODE_CONDITION_MODERATE: return MODERATE;
+            case Constants.NODE_CONDITION_SEVERE: return SEVERE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Returns the condition with the given code.
+     * @param code the ordinal of the condition
+     * @return the condition
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public static NodeCondition fromCode(int code) {
+        if(code < 0 || code >= CODES.length)
+            throw new IllegalArgumentException("Unknown node condition code: " + code);
+        return CODES[code];
+    }
+}
@@ -29,15 +29,30 @@ import com.scaleoutsoftware.modules.hosting.ModulePackage;
 import com.scaleoutsoftware.modules.hosting.MsgModuleOptions;
 import com.scaleoutsoftware.modules.hosting.MsgModuleOptionsBuilder;
 import com.scaleoutsoftware.modules.hosting.ModuleRegistrationException;
+import com.scaleoutsoftware.modules.abstractions.MsgProcessingContext;
+import com.scaleoutsoftware.modules.abstractions.ProcessingResult;
 import com.scaleoutsoftware.modules.client.MsgModuleClient;
 import com.scaleoutsoftware.modules.client.MsgModuleClientBuilder;
 import com.scaleout.client.caching.Cache;
 import com.scaleout.client.caching.CacheResponse;
 import com.scaleout.client.caching.RequestStatus;
 
+import com.google.gson.Gson;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Unit tests for module development.
  */
@@ -62,4 +77,247 @@ public class TestModule
             Assert.fail(e.getMessage());
         }
     }
+
+    @Test
+    public void testMessageCodec() {
+        byte[] status = GeoSpatialMessage.toBytes(new GeoSpatialMessage(Constants.NODE_CONDITION_MODERATE));
+        Assert.assertArrayEquals(new byte[]{GeoSpatialMessageCodec.VERSION, GeoSpatialMessageCodec.TYPE_STATUS, (byte)NodeCondition.MODERATE.ordinal()}, status);
+        GeoSpatialMessage decoded = GeoSpatialMessage.fromBytes(status);
+        Assert.assertFalse(decoded.initMessage());
+        Assert.assertTrue(decoded.moderateIncident());
+
+        GeoSpatialMessage init = new GeoSpatialMessage("98072", Constants.REGION_NW, Constants.NODE_CONDITION_NORMAL, Constants.NODE_TYPE_CONTROLLER, 47.6, -122.0);
+        byte[] binary = GeoSpatialMessage.toBytes(init);
+        byte[] json = GeoSpatialMessage.toJsonBytes(init);
+        Assert.assertTrue(GeoSpatialMessageCodec.isBinary(binary));
+        Assert.assertFalse(GeoSpatialMessageCodec.isBinary(json));
+        Assert.assertTrue(binary.length < json.length / 3);
+        // both formats decode to the same fields; the binary format drops the id, which is the object's key
+        for(byte[] encoded : new byte[][]{binary, json}) {
+            decoded = GeoSpatialMessage.fromBytes(encoded);
+            Assert.assertTrue(decoded.initMessage());
+            Assert.assertTrue(decoded.normalOperation());
+            Assert.assertEquals(Constants.NODE_TYPE_CONTROLLER, decoded.getNodeType());
+            Assert.assertEquals(Constants.REGION_NW, decoded.getRegion());
+            Assert.assertEquals(47.6, decoded.getLatitude(), 0.0);
+            Assert.assertEquals(-122.0, decoded.getLongitude(), 0.0);
+        }
+        // JSON written by earlier senders, with leading whitespace
+        String legacy = " {\"type\":\"status\",\"node_condition\":\"severe\"}";
+        Assert.assertTrue(GeoSpatialMessage.fromBytes(legacy.getBytes(StandardCharsets.UTF_8)).severeIncident());
+
+        for(byte[] bad : new byte[][]{{0x02, 0x00, 0x00}, {GeoSpatialMessageCodec.VERSION, 0x00, 0x09}, {GeoSpatialMessageCodec.VERSION, 0x05, 0x00}, Arrays.copyOf(binary, binary.length - 1)}) {
+            try {
+                GeoSpatialMessageCodec.decode(bad);
+                Assert.fail("a bad message was decoded");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testProcessMessage() {
+        EventProcessor processor = new EventProcessor();
+        List<String> alerts = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        MsgProcessingContext<GeoSpatialEventTracker> context = (MsgProcessingContext<GeoSpatialEventTracker>)Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{MsgProcessingContext.class}, (proxy, method, args) -> {
+                    if(method.getName().equals("sendUiAlert"))
+                        alerts.add((String)args[1]);
+                    return method.getName().equals("getObjectId") ? "98072" : null;
+                });
+
+        GeoSpatialEventTracker controller = processor.createObject("GeoSpatialEventTracker", "98072");
+        send(processor, context, controller, new GeoSpatialMessage("98072", Constants.REGION_NW, Constants.NODE_CONDITION_SEVERE, Constants.NODE_TYPE_CONTROLLER, 47.6, -122.3));
+        Assert.assertEquals(NodeCondition.NORMAL, controller.node_condition);
+        Assert.assertEquals(Constants.REGION_NW, controller.region);
+        send(processor, context, controller, Constants.NODE_CONDITION_MINOR);
+        Assert.assertEquals(Constants.CONTROLLER_MINOR_ALERT_LEVEL, controller.alert_level);
+        // a minor incident followed by normal operation was a false alarm
+        send(processor, context, controller, Constants.NODE_CONDITION_NORMAL);
+        Assert.assertEquals(Constants.CONTROLLER_NORMAL_ALERTLEVEL, controller.alert_level);
+        Assert.assertEquals(1, controller.falseIncidentCount);
+        Assert.assertEquals(1, controller.totalResolvedIncidents);
+        // with a false alarm but no moderate incident yet, no moderate rule applies
+        send(processor, context, controller, Constants.NODE_CONDITION_MODERATE);
+        Assert.assertEquals(NodeCondition.NORMAL, controller.node_condition);
+        Assert.assertEquals(Constants.CONTROLLER_NORMAL_ALERTLEVEL, controller.alert_level);
+        send(processor, context, controller, Constants.NODE_CONDITION_SEVERE);
+        Assert.assertEquals(Constants.CONTROLLER_SEVERE_ALERTLEVEL, controller.alert_level);
+        send(processor, context, controller, Constants.NODE_CONDITION_MODERATE);
+        Assert.assertEquals(Constants.CONTROLLER_MODERATE_ALERTLEVEL + 2, controller.alert_level);
+        Assert.assertEquals(NodeCondition.MODERATE, controller.node_condition);
+        send(processor, context, controller, Constants.NODE_CONDITION_OFFLINE);
+        Assert.assertEquals(NodeCondition.OFFLINE, controller.node_condition);
+        Assert.assertEquals(2, controller.falseIncidentCount);
+        Assert.assertEquals(2, controller.totalResolvedIncidents);
+        Assert.assertEquals(4, controller.totalIncidents);
+        Assert.assertEquals(4, controller.incidentList.size());
+
+        GeoSpatialEventTracker infrastructure = processor.createObject("GeoSpatialEventTracker", "10122");
+        send(processor, context, infrastructure, new GeoSpatialMessage("10122", Constants.REGION_NE, Constants.NODE_CONDITION_NORMAL, Constants.NODE_TYPE_INFRASTRUCTURE, 40.7, -74.0));
+        send(processor, context, infrastructure, Constants.NODE_CONDITION_MODERATE);
+        Assert.assertEquals(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL + 1, infrastructure.alert_level);
+        send(processor, context, infrastructure, Constants.NODE_CONDITION_NORMAL);
+        // one false alarm per moderate incident
+        send(processor, context, infrastructure, Constants.NODE_CONDITION_MODERATE);
+        Assert.assertEquals(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL + 2, infrastructure.alert_level);
+        // fewer false alarms than moderate incidents
+        send(processor, context, infrastructure, Constants.NODE_CONDITION_MODERATE);
+        Assert.assertEquals(Constants.INFRASTRUCTURE_MODERATE_ALERTLEVEL + 3, infrastructure.alert_level);
+        Assert.assertEquals(3, infrastructure.moderateIncidentCount);
+
+        // JSON status messages follow the same rules
+        byte[] json = GeoSpatialMessage.toJsonBytes(new GeoSpatialMessage(Constants.NODE_CONDITION_SEVERE));
+        Assert.assertEquals(ProcessingResult.DoUpdate, processor.processMessage(context, infrastructure, json));
+        Assert.assertEquals(Constants.INFRASTRUCTURE_SEVERE_ALERTLEVEL, infrastructure.alert_level);
+
+        // a bad message is reported to the UI, not thrown
+        Assert.assertEquals(ProcessingResult.DoUpdate, processor.processMessage(context, infrastructure, new byte[]{GeoSpatialMessageCodec.VERSION, GeoSpatialMessageCodec.TYPE_STATUS, 0x09}));
+        Assert.assertEquals(1, alerts.size());
+        Assert.assertTrue(alerts.get(0), alerts.get(0).startsWith("Exception thrown by id 98072: java.lang.IllegalArgumentException"));
+    }
+
+    @Test
+    public void testConditionRules() throws Exception {
+        String rules = "# escalate on repeated minor incidents\n" +
+                "current,incoming,history,condition,counters,sensor\n" +
+                "*,offline|normal,*,incoming,,1\n" +
+                "none|offline|normal,minor,*,incoming,minor incident,5\n" +
+                "minor,minor,*,keep,incident,9\n";
+        ConditionRules conditionRules = ConditionRules.load(new StringReader(rules));
+
+        GeoSpatialEventTracker sensor = new GeoSpatialEventTracker("1");
+        sensor.setNodeType("sensor");
+        conditionRules.apply(sensor, NodeCondition.MINOR);
+        Assert.assertEquals(5, sensor.alert_level);
+        Assert.assertEquals(NodeCondition.MINOR, sensor.node_condition);
+        // the UI still sees the condition's name
+        Assert.assertTrue(new Gson().toJson(sensor).contains("\"node_condition\":\"minor\""));
+        conditionRules.apply(sensor, NodeCondition.MINOR);
+        Assert.assertEquals(9, sensor.alert_level);
+        Assert.assertEquals(1, sensor.minorIncidentCount);
+        Assert.assertEquals(2, sensor.totalIncidents);
+        // no rule covers a severe incident, so nothing changes
+        conditionRules.apply(sensor, NodeCondition.SEVERE);
+        Assert.assertEquals(9, sensor.alert_level);
+        Assert.assertEquals(2, sensor.totalIncidents);
+        conditionRules.apply(sensor, NodeCondition.NORMAL);
+        Assert.assertEquals(1, sensor.alert_level);
+
+        // node types without a column keep their alert level
+        GeoSpatialEventTracker controller = new GeoSpatialEventTracker("2");
+        controller.setNodeType(Constants.NODE_TYPE_CONTROLLER);
+        conditionRules.apply(controller, NodeCondition.MINOR);
+        Assert.assertEquals(0, controller.alert_level);
+        Assert.assertEquals(NodeCondition.MINOR, controller.node_condition);
+
+        Assert.assertEquals(ConditionRules.HISTORY_SEVERE, ConditionRules.history(1, 5, 5));
+        Assert.assertEquals(ConditionRules.HISTORY_CLEAN, ConditionRules.history(0, 5, 0));
+        Assert.assertEquals(ConditionRules.HISTORY_FALSE_ONLY, ConditionRules.history(0, 0, 2));
+        Assert.assertEquals(ConditionRules.HISTORY_FALSE_MAJORITY, ConditionRules.history(0, 2, 2));
+        Assert.assertEquals(ConditionRules.HISTORY_REAL_MAJORITY, ConditionRules.history(0, 3, 2));
+
+        try {
+            ConditionRules.load(new StringReader("current,incoming,history,condition,counters\n*,critical,*,incoming,\n"));
+            Assert.fail("an unknown condition should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("critical"));
+        }
+    }
+
+    @Test
+    public void testIncidentHistory() {
+        IncidentHistory history = new IncidentHistory(3);
+        history.add(1, NodeCondition.MINOR);
+        history.add(2, NodeCondition.SEVERE);
+        Assert.assertEquals(2, history.size());
+        Assert.assertEquals(1, history.getTimestamp(0));
+        // a full history overwrites its oldest incident
+        history.add(3, NodeCondition.MODERATE);
+        history.add(4, NodeCondition.MINOR);
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals(2, history.getTimestamp(0));
+        Assert.assertEquals(NodeCondition.SEVERE, history.getCondition(0));
+        Assert.assertEquals(4, history.getTimestamp(2));
+        Assert.assertEquals(NodeCondition.MINOR, history.getCondition(2));
+
+        // the tracker's incident list keeps the JSON form of a List<IncidentMetadata>
+        GeoSpatialEventTracker tracker = new GeoSpatialEventTracker("1");
+        for(int i = 0; i < Constants.MAX_INCIDENT_LIST_SIZE + 5; i++)
+            tracker.addToIncidentList(i % 2 == 0 ? NodeCondition.MINOR : NodeCondition.SEVERE);
+        Assert.assertEquals(Constants.MAX_INCIDENT_LIST_SIZE, tracker.incidentList.size());
+        Gson gson = new Gson();
+        String json = gson.toJson(tracker);
+        Assert.assertTrue(json, json.contains("\"incidentList\":[{\"timestamp\":"));
+        Assert.assertTrue(json, json.contains("\"incidentType\":\"severe\""));
+        Assert.assertEquals(tracker, gson.fromJson(json, GeoSpatialEventTracker.class));
+        IncidentMetadata[] list = gson.fromJson(gson.toJson(tracker.incidentList), IncidentMetadata[].class);
+        Assert.assertEquals(Constants.MAX_INCIDENT_LIST_SIZE, list.length);
+        Assert.assertEquals(tracker.incidentList.getCondition(0).getName(), list[0].incidentType);
+    }
+
+    @Test
+    public void testTrackerCodec() throws Exception {
+        GeoSpatialEventTracker tracker = new GeoSpatialEventTracker("98072");
+        // a new tracker has no condition and empty strings
+        Assert.assertEquals(tracker, GeoSpatialEventTrackerCodec.decode(GeoSpatialEventTrackerCodec.encode(tracker)));
+
+        tracker.setNodeType(Constants.NODE_TYPE_CONTROLLER);
+        tracker.setRegion(Constants.REGION_NW, -122.3, 47.6);
+        tracker.setNodeCondition(NodeCondition.SEVERE);
+        tracker.setAlertLevel(Constants.CONTROLLER_SEVERE_ALERTLEVEL);
+        tracker.incrementModerateEventCount();
+        tracker.incrementSevereEventCount();
+        tracker.incrementFalseAlarmCount();
+        tracker.incrementTotalIncidents();
+        for(int i = 0; i < Constants.MAX_INCIDENT_LIST_SIZE + 3; i++)
+            tracker.addToIncidentList(i % 2 == 0 ? NodeCondition.MODERATE : NodeCondition.SEVERE);
+        byte[] encoded = GeoSpatialEventTrackerCodec.encode(tracker);
+        Assert.assertTrue(GeoSpatialEventTrackerCodec.isBinary(encoded));
+        GeoSpatialEventTracker decoded = GeoSpatialEventTrackerCodec.decode(encoded);
+        Assert.assertEquals(tracker, decoded);
+        Assert.assertEquals("98072", decoded.Id);
+        Assert.assertEquals(NodeCondition.SEVERE, decoded.node_condition);
+        // the fields the UI queries are read without decoding the tracker
+        Assert.assertEquals("98072", GeoSpatialEventTrackerCodec.id(encoded));
+        Assert.assertEquals(Constants.CONTROLLER_SEVERE_ALERTLEVEL, GeoSpatialEventTrackerCodec.alertLevel(encoded));
+        Assert.assertEquals(Constants.REGION_NW, GeoSpatialEventTrackerCodec.region(encoded));
+
+        // every region the load generator sends has a dictionary code
+        List<String> regions = Arrays.asList(GeoSpatialEventTrackerCodec.REGIONS);
+        try(Reader in = Files.newBufferedReader(Paths.get("eventtracker_initfile_2000.csv"), StandardCharsets.UTF_8)) {
+            for(CSVRecord record : CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build().parse(in)) {
+                Assert.assertTrue(record.get("region"), regions.contains(record.get("region")));
+            }
+        }
+
+        // values outside the dictionaries are written inline
+        tracker.setNodeType("sensor");
+        tracker.setRegion("Pacific Northwest", 0, 0);
+        encoded = GeoSpatialEventTrackerCodec.encode(tracker);
+        Assert.assertEquals(tracker, GeoSpatialEventTrackerCodec.decode(encoded));
+        Assert.assertEquals("Pacific Northwest", GeoSpatialEventTrackerCodec.region(encoded));
+
+        // trackers stored as JSON by earlier versions still load
+        byte[] json = new Gson().toJson(tracker).getBytes(StandardCharsets.UTF_8);
+        Assert.assertFalse(GeoSpatialEventTrackerCodec.isBinary(json));
+        Assert.assertEquals(tracker, new GeoSpatialEventTrackerDeserializer().deserialize(json));
+        Assert.assertTrue(encoded.length * 4 < json.length);
+
+        try {
+            GeoSpatialEventTrackerCodec.decode(Arrays.copyOf(encoded, encoded.length - 5));
+            Assert.fail("a truncated tracker should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("The tracker is truncated.", e.getMessage());
+        }
+    }
+
+    private static void send(EventProcessor processor, MsgProcessingContext<GeoSpatialEventTracker> context, GeoSpatialEventTracker tracker, GeoSpatialMessage message) {
+        Assert.assertEquals(ProcessingResult.DoUpdate, processor.processMessage(context, tracker, GeoSpatialMessage.toBytes(message)));
+    }
+
+    private static void send(EventProcessor processor, MsgProcessingContext<GeoSpatialEventTracker> context, GeoSpatialEventTracker tracker, String condition) {
+        send(processor, context, tracker, new GeoSpatialMessage(condition));
+    }
 }